@@ -292,6 +292,7 @@ public class CmsUserSelectionList extends A_CmsListDialog {
 
         CmsListState state = getListState();
         CmsUserSearchParameters params = new CmsUserSearchParameters();
+        params.setLoadAdditionalInfos(false);
         String searchFilter = state.getFilter();
         params.setSearchFilter(searchFilter);
         params.setPaging(getList().getMaxItemsPerPage(), state.getPage());
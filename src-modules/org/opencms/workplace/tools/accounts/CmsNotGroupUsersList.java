@@ -229,6 +229,7 @@ public class CmsNotGroupUsersList extends A_CmsGroupUsersList {
 
         CmsListState state = getListState();
         CmsUserSearchParameters params = new CmsUserSearchParameters();
+        params.setLoadAdditionalInfos(false);
         if (hasOuDetail()) {
             List<CmsOrganizationalUnit> ous = OpenCms.getRoleManager().getManageableOrgUnits(getCms(), "", true, false);
             params.setAllowedOus(ous);
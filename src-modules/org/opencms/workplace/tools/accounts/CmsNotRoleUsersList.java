@@ -334,6 +334,7 @@ public class CmsNotRoleUsersList extends A_CmsRoleUsersList {
 
         CmsListState state = getListState();
         CmsUserSearchParameters params = new CmsUserSearchParameters();
+        params.setLoadAdditionalInfos(false);
         String searchFilter = state.getFilter();
         params.setSearchFilter(searchFilter);
         if (!otherOrgUnitsVisible()) {
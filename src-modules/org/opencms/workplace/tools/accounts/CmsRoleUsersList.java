@@ -316,6 +316,7 @@ public class CmsRoleUsersList extends A_CmsRoleUsersList {
 
         CmsListState state = getListState();
         CmsUserSearchParameters params = new CmsUserSearchParameters();
+        params.setLoadAdditionalInfos(false);
         String searchFilter = state.getFilter();
         params.setSearchFilter(searchFilter);
         if (!otherOrgUnitsVisible()) {
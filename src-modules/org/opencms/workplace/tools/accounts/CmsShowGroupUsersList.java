@@ -215,6 +215,7 @@ public class CmsShowGroupUsersList extends A_CmsGroupUsersList {
 
         CmsListState state = getListState();
         CmsUserSearchParameters params = new CmsUserSearchParameters();
+        params.setLoadAdditionalInfos(false);
         String searchFilter = state.getFilter();
         params.setSearchFilter(searchFilter);
         if (!hasOuDetail()) {
@@ -222,6 +222,7 @@ public class CmsShowRoleUsersList extends A_CmsRoleUsersList {
 
         CmsListState state = getListState();
         CmsUserSearchParameters params = new CmsUserSearchParameters();
+        params.setLoadAdditionalInfos(false);
         String searchFilter = state.getFilter();
         params.setSearchFilter(searchFilter);
         if (!otherOrgUnitsVisible()) {
@@ -81,6 +81,7 @@ import org.opencms.xml.content.CmsXmlContentFactory;
 import org.opencms.xml.content.CmsXmlContentProperty;
 import org.opencms.xml.content.CmsXmlContentPropertyHelper;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -166,6 +167,9 @@ public class CmsADEManager {
     /** Node name for the nav level type value. */
     public static final String N_TYPE = "Type";
 
+    /** ADE parameter which enables the on-disk snapshot of the online configuration files, if set to 'true'. */
+    public static final String PARAM_CONFIG_SNAPSHOT = "config.snapshot";
+
     /** The path to the sitemap editor JSP. */
     public static final String PATH_SITEMAP_EDITOR_JSP = "/system/workplace/commons/sitemap.jsp";
 
@@ -858,12 +862,21 @@ public class CmsADEManager {
                     m_configType,
                     m_moduleConfigType,
                     m_elementViewType);
+                boolean useSnapshot = Boolean.parseBoolean(m_parameters.get(PARAM_CONFIG_SNAPSHOT));
+                if (useSnapshot) {
+                    m_onlineCache.setSnapshot(
+                        new CmsConfigurationSnapshot(new File(getSnapshotFolder(), "sitemap-config.snapshot")));
+                }
                 m_onlineCache.initialize();
                 m_offlineCache.initialize();
                 m_onlineContainerConfigurationCache = new CmsContainerConfigurationCache(m_onlineCms, "online");
                 m_offlineContainerConfigurationCache = new CmsContainerConfigurationCache(m_offlineCms, "offline");
                 m_offlineFormatterCache = new CmsFormatterConfigurationCache(m_offlineCms, "offline formatters");
                 m_onlineFormatterCache = new CmsFormatterConfigurationCache(m_onlineCms, "online formatters");
+                if (useSnapshot) {
+                    m_onlineFormatterCache.setSnapshot(
+                        new CmsConfigurationSnapshot(new File(getSnapshotFolder(), "formatter-config.snapshot")));
+                }
                 m_offlineFormatterCache.reload();
                 m_onlineFormatterCache.reload();
 
@@ -1220,6 +1233,16 @@ public class CmsADEManager {
         return cache.getPathForStructureId(structureId);
     }
 
+    /**
+     * Returns the RFS folder for the snapshots of the online configuration files.<p>
+     *
+     * @return the RFS folder for the configuration snapshots
+     */
+    protected File getSnapshotFolder() {
+
+        return new File(OpenCms.getSystemInfo().getAbsoluteRfsPathRelativeToWebInf("cache/ade"));
+    }
+
     /**
      * Gets a tempfile project, creating one if it doesn't exist already.<p>
      *
@@ -40,6 +40,7 @@ import org.opencms.main.CmsException;
 import org.opencms.main.CmsLog;
 import org.opencms.main.CmsRuntimeException;
 import org.opencms.main.OpenCms;
+import org.opencms.staticexport.CmsOnlineLinkCache;
 import org.opencms.util.CmsStringUtil;
 import org.opencms.util.CmsUUID;
 import org.opencms.util.CmsWaitHandle;
@@ -137,6 +138,9 @@ class CmsConfigurationCache implements I_CmsGlobalConfigurationCache {
     /** The current configuration state (immutable). */
     private volatile CmsADEConfigCacheState m_state;
 
+    /** The snapshot of the configuration file contents, may be null. */
+    private CmsConfigurationSnapshot m_snapshot;
+
     /** Scheduled future which is used to cancel the scheduled task. */
     private ScheduledFuture<?> m_taskFuture;
 
@@ -247,6 +251,7 @@ class CmsConfigurationCache implements I_CmsGlobalConfigurationCache {
             m_taskFuture = null;
         }
         m_state = readCompleteConfiguration();
+        flushOnlineLinks();
         // In debug mode, use a shorter delay to speed up the test cases
         long delay = DEBUG ? 500 : TASK_DELAY_MILLIS;
         m_taskFuture = OpenCms.getExecutor().scheduleWithFixedDelay(new Runnable() {
@@ -297,6 +302,17 @@ class CmsConfigurationCache implements I_CmsGlobalConfigurationCache {
             siteConfigurations,
             moduleConfigs,
             elementViews);
+        if (m_snapshot != null) {
+            // only keep the configuration files which are still in use
+            List<CmsUUID> ids = new ArrayList<CmsUUID>(siteConfigurations.keySet());
+            for (CmsADEConfigDataInternal moduleConfig : moduleConfigs) {
+                if (moduleConfig.getResource() != null) {
+                    ids.add(moduleConfig.getResource().getStructureId());
+                }
+            }
+            m_snapshot.retainAll(ids);
+            m_snapshot.save();
+        }
         long endTime = System.currentTimeMillis();
         if (LOG.isDebugEnabled()) {
             LOG.debug("readCompleteConfiguration took " + (endTime - beginTime) + "ms");
@@ -325,6 +341,18 @@ class CmsConfigurationCache implements I_CmsGlobalConfigurationCache {
         remove(res.getStructureId(), res.getRootPath(), res.getTypeId());
     }
 
+    /**
+     * Sets the snapshot used for reading the configuration files.<p>
+     *
+     * Must be called before {@link #initialize()}.<p>
+     *
+     * @param snapshot the snapshot of the configuration file contents
+     */
+    public void setSnapshot(CmsConfigurationSnapshot snapshot) {
+
+        m_snapshot = snapshot;
+    }
+
     /**
      * Updates the cache entry for the given published resource.<p>
      *
@@ -451,7 +479,7 @@ class CmsConfigurationCache implements I_CmsGlobalConfigurationCache {
     protected List<CmsADEConfigDataInternal> loadModuleConfiguration() {
 
         if (m_cms.existsResource("/")) {
-            CmsConfigurationReader reader = new CmsConfigurationReader(m_cms);
+            CmsConfigurationReader reader = new CmsConfigurationReader(m_cms, m_snapshot);
             List<CmsADEConfigDataInternal> moduleConfigs = reader.readModuleConfigurations();
             return moduleConfigs;
         } else {
@@ -482,7 +510,7 @@ class CmsConfigurationCache implements I_CmsGlobalConfigurationCache {
                 for (CmsResource candidate : configFileCandidates) {
                     if (isSitemapConfiguration(candidate.getRootPath(), candidate.getTypeId())) {
                         try {
-                            CmsConfigurationReader reader = new CmsConfigurationReader(m_cms);
+                            CmsConfigurationReader reader = new CmsConfigurationReader(m_cms, m_snapshot);
                             String basePath = getBasePath(candidate.getRootPath());
                             CmsADEConfigDataInternal data = reader.parseSitemapConfiguration(basePath, candidate);
                             siteConfigurations.put(candidate.getStructureId(), data);
@@ -546,8 +574,20 @@ class CmsConfigurationCache implements I_CmsGlobalConfigurationCache {
                         elementViews = loadElementViews();
                     }
                     m_state = oldState.createUpdatedCopy(updateMap, moduleConfigs, elementViews);
+                    if (m_snapshot != null) {
+                        for (Map.Entry<CmsUUID, CmsADEConfigDataInternal> entry : updateMap.entrySet()) {
+                            if (entry.getValue() == null) {
+                                m_snapshot.remove(entry.getKey());
+                            }
+                        }
+                        m_snapshot.save();
+                    }
                 }
             }
+            if (m_state != oldState) {
+                // the detail pages may have changed, links calculated with the old state must not be used anymore
+                flushOnlineLinks();
+            }
         } catch (Exception e) {
             LOG.error("Could not perform configuration cache update: " + e.getMessage(), e);
         }
@@ -631,7 +671,7 @@ class CmsConfigurationCache implements I_CmsGlobalConfigurationCache {
             CmsResource configResource = m_cms.readResource(id);
             // Path or type may have changed in the meantime, so need to check if it's still a sitemap configuration
             if (isSitemapConfiguration(configResource.getRootPath(), configResource.getTypeId())) {
-                CmsConfigurationReader reader = new CmsConfigurationReader(m_cms);
+                CmsConfigurationReader reader = new CmsConfigurationReader(m_cms, m_snapshot);
                 String basePath = getBasePath(configResource.getRootPath());
                 CmsADEConfigDataInternal result = reader.parseSitemapConfiguration(basePath, configResource);
                 return result;
@@ -650,6 +690,23 @@ class CmsConfigurationCache implements I_CmsGlobalConfigurationCache {
         }
     }
 
+    /**
+     * Removes all cached online links if this is the online configuration cache.<p>
+     *
+     * The online links depend on the detail pages, so they must be removed after a changed configuration
+     * has been applied, and not already when the configuration is published.<p>
+     */
+    private void flushOnlineLinks() {
+
+        if (!isOnline() || (OpenCms.getStaticExportManager() == null)) {
+            return;
+        }
+        CmsOnlineLinkCache linkCache = OpenCms.getStaticExportManager().getOnlineLinkCache();
+        if (linkCache != null) {
+            linkCache.flush();
+        }
+    }
+
     /**
      * Checks if the given type id is of the element view type.<p>
      *
@@ -234,6 +234,9 @@ public class CmsConfigurationReader {
     /** The resource type configuration objects. */
     private List<CmsResourceTypeConfig> m_resourceTypeConfigs = new ArrayList<CmsResourceTypeConfig>();
 
+    /** The snapshot used for reading configuration files, may be null. */
+    private CmsConfigurationSnapshot m_snapshot;
+
     /**
      * Creates a new configuration reader.<p>
      *
@@ -244,6 +247,18 @@ public class CmsConfigurationReader {
         m_cms = cms;
     }
 
+    /**
+     * Creates a new configuration reader which reads the configuration files through a snapshot.<p>
+     *
+     * @param cms the CMS context which should be used to read the configuration data
+     * @param snapshot the snapshot used for reading the configuration files (may be null)
+     */
+    public CmsConfigurationReader(CmsObject cms, CmsConfigurationSnapshot snapshot) {
+
+        m_cms = cms;
+        m_snapshot = snapshot;
+    }
+
     /**
      * Gets the string value of an XML content location.<p>
      *
@@ -636,7 +651,7 @@ public class CmsConfigurationReader {
     throws CmsException {
 
         LOG.info("Parsing configuration " + configRes.getRootPath());
-        CmsFile configFile = m_cms.readFile(configRes);
+        CmsFile configFile = m_snapshot != null ? m_snapshot.readFile(m_cms, configRes) : m_cms.readFile(configRes);
         CmsXmlContent content = CmsXmlContentFactory.unmarshal(m_cms, configFile);
         return parseConfiguration(basePath, content);
     }
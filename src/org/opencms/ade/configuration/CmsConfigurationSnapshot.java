@@ -0,0 +1,377 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.ade.configuration;
+
+import org.opencms.file.CmsFile;
+import org.opencms.file.CmsObject;
+import org.opencms.file.CmsResource;
+import org.opencms.main.CmsException;
+import org.opencms.main.CmsLog;
+import org.opencms.util.CmsUUID;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.logging.Log;
+
+/**
+ * On-disk cache of the contents of configuration files, used to avoid reading the online ADE configuration files
+ * from the database after a restart.<p>
+ *
+ * The snapshot stores the content of every configuration file read through {@link #readFile(CmsObject, CmsResource)},
+ * together with its date of last modification and size. When a configuration file is read again, e.g. on the next
+ * startup, the stored content is used if the resource in the VFS still has the same date of last modification and size,
+ * so only changed configuration files are read from the database.<p>
+ *
+ * Only the position of each content in the snapshot file is kept in memory. Contents read from the VFS are kept
+ * until the snapshot is saved the next time.<p>
+ *
+ * The parsed configuration beans are not stored, since they are bound to the resource types and
+ * the OpenCms context of the running instance. The configuration is therefore still parsed on every
+ * startup, only reading the file contents is saved.<p>
+ *
+ * @since 10.0.0
+ */
+public class CmsConfigurationSnapshot {
+
+    /**
+     * A stored configuration file content.<p>
+     */
+    private static class Entry {
+
+        /** The content of the file, if not yet saved, otherwise <code>null</code>. */
+        byte[] m_content;
+
+        /** The date of last modification of the file. */
+        long m_dateLastModified;
+
+        /** The length of the content. */
+        int m_length;
+
+        /** The position of the content in the snapshot file, only valid if the content is saved. */
+        long m_offset;
+
+        /** The version of the snapshot file which contains the content. */
+        int m_version;
+
+        /**
+         * Creates a new entry for a content which is not yet saved.<p>
+         *
+         * @param dateLastModified the date of last modification of the file
+         * @param content the content of the file
+         */
+        Entry(long dateLastModified, byte[] content) {
+
+            m_dateLastModified = dateLastModified;
+            m_content = content;
+            m_length = content.length;
+        }
+
+        /**
+         * Creates a new entry for a content stored in the snapshot file.<p>
+         *
+         * @param dateLastModified the date of last modification of the file
+         * @param length the length of the content
+         * @param offset the position of the content in the snapshot file
+         * @param version the version of the snapshot file
+         */
+        Entry(long dateLastModified, int length, long offset, int version) {
+
+            m_dateLastModified = dateLastModified;
+            m_length = length;
+            m_offset = offset;
+            m_version = version;
+        }
+    }
+
+    /** The marker at the start of the snapshot file, also used as format version. */
+    private static final int FORMAT_MARKER = 0x4F434153;
+
+    /** The log instance for this class. */
+    private static final Log LOG = CmsLog.getLog(CmsConfigurationSnapshot.class);
+
+    /** Flag which indicates whether the snapshot was changed since it was last loaded or saved. */
+    private volatile boolean m_changed;
+
+    /** The stored file contents by structure id. */
+    private Map<CmsUUID, Entry> m_entries = new ConcurrentHashMap<CmsUUID, Entry>();
+
+    /** The file the snapshot is stored in. */
+    private File m_file;
+
+    /** The version of the snapshot file, incremented every time the file is replaced. */
+    private int m_version;
+
+    /**
+     * Creates a new snapshot and loads the index of the stored file contents.<p>
+     *
+     * @param file the file the snapshot is stored in
+     */
+    public CmsConfigurationSnapshot(File file) {
+
+        m_file = file;
+        load();
+    }
+
+    /**
+     * Returns the file the snapshot is stored in.<p>
+     *
+     * @return the file the snapshot is stored in
+     */
+    public File getFile() {
+
+        return m_file;
+    }
+
+    /**
+     * Reads a configuration file, using the stored content if the resource has not been changed.<p>
+     *
+     * @param cms the CMS context to read the file with
+     * @param resource the resource of the configuration file
+     *
+     * @return the file with its content
+     *
+     * @throws CmsException if reading the file fails
+     */
+    public CmsFile readFile(CmsObject cms, CmsResource resource) throws CmsException {
+
+        Entry entry = m_entries.get(resource.getStructureId());
+        if ((entry != null)
+            && (entry.m_dateLastModified == resource.getDateLastModified())
+            && (entry.m_length == resource.getLength())) {
+            byte[] content = readContent(entry);
+            if (content != null) {
+                CmsFile file = new CmsFile(resource);
+                file.setContents(content);
+                return file;
+            }
+        }
+        CmsFile file = cms.readFile(resource);
+        m_entries.put(file.getStructureId(), new Entry(file.getDateLastModified(), file.getContents().clone()));
+        m_changed = true;
+        return file;
+    }
+
+    /**
+     * Removes the stored content of a configuration file.<p>
+     *
+     * @param structureId the structure id of the configuration file
+     */
+    public void remove(CmsUUID structureId) {
+
+        if (m_entries.remove(structureId) != null) {
+            m_changed = true;
+        }
+    }
+
+    /**
+     * Removes the stored contents of all configuration files except the given ones.<p>
+     *
+     * @param structureIds the structure ids of the configuration files to keep
+     */
+    public void retainAll(Collection<CmsUUID> structureIds) {
+
+        Set<CmsUUID> keep = new HashSet<CmsUUID>(structureIds);
+        if (m_entries.keySet().retainAll(keep)) {
+            m_changed = true;
+        }
+    }
+
+    /**
+     * Writes the snapshot to its file, if it was changed.<p>
+     *
+     * Afterwards, the contents are no longer kept in memory.<p>
+     */
+    public synchronized void save() {
+
+        if (!m_changed) {
+            return;
+        }
+        m_changed = false;
+        File parent = m_file.getParentFile();
+        if ((parent != null) && !parent.exists()) {
+            parent.mkdirs();
+        }
+        // write to a temporary file first, so a crash never leaves a truncated snapshot
+        File temp = new File(m_file.getPath() + ".tmp");
+        Map<CmsUUID, Entry> entries = new HashMap<CmsUUID, Entry>(m_entries);
+        Map<CmsUUID, Entry> saved = new HashMap<CmsUUID, Entry>();
+        DataOutputStream out = null;
+        RandomAccessFile in = null;
+        try {
+            out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)));
+            out.writeInt(FORMAT_MARKER);
+            out.writeInt(entries.size());
+            for (Map.Entry<CmsUUID, Entry> entry : entries.entrySet()) {
+                Entry value = entry.getValue();
+                byte[] content = value.m_content;
+                if (content == null) {
+                    // copy the content from the current snapshot file
+                    if (in == null) {
+                        in = new RandomAccessFile(m_file, "r");
+                    }
+                    content = new byte[value.m_length];
+                    in.seek(value.m_offset);
+                    in.readFully(content);
+                }
+                out.writeUTF(entry.getKey().toString());
+                out.writeLong(value.m_dateLastModified);
+                out.writeInt(content.length);
+                saved.put(
+                    entry.getKey(),
+                    new Entry(value.m_dateLastModified, content.length, out.size(), m_version + 1));
+                out.write(content);
+            }
+            out.close();
+            out = null;
+            if (in != null) {
+                in.close();
+                in = null;
+            }
+            if (!(temp.renameTo(m_file) || (m_file.delete() && temp.renameTo(m_file)))) {
+                throw new IOException(
+                    Messages.get().getBundle().key(Messages.ERR_REPLACE_SNAPSHOT_1, m_file.getAbsolutePath()));
+            }
+            m_version++;
+            for (Map.Entry<CmsUUID, Entry> entry : saved.entrySet()) {
+                // entries changed in the meantime are kept in memory until the next save
+                m_entries.replace(entry.getKey(), entries.get(entry.getKey()), entry.getValue());
+            }
+        } catch (IOException e) {
+            m_changed = true;
+            LOG.warn(Messages.get().getBundle().key(Messages.LOG_WRITE_SNAPSHOT_FAILED_1, m_file.getAbsolutePath()), e);
+        } finally {
+            closeQuietly(out);
+            closeQuietly(in);
+        }
+    }
+
+    /**
+     * Closes the given stream or file, ignoring errors.<p>
+     *
+     * @param closeable the stream or file to close, may be <code>null</code>
+     */
+    private void closeQuietly(Closeable closeable) {
+
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (IOException e) {
+                // ignore
+            }
+        }
+    }
+
+    /**
+     * Loads the index of the snapshot from its file.<p>
+     *
+     * A missing or unreadable snapshot file results in an empty snapshot.<p>
+     */
+    private synchronized void load() {
+
+        if (!m_file.exists()) {
+            return;
+        }
+        RandomAccessFile in = null;
+        try {
+            in = new RandomAccessFile(m_file, "r");
+            if (in.readInt() != FORMAT_MARKER) {
+                LOG.info(
+                    Messages.get().getBundle().key(Messages.LOG_SNAPSHOT_UNKNOWN_FORMAT_1, m_file.getAbsolutePath()));
+                return;
+            }
+            int size = in.readInt();
+            for (int i = 0; i < size; i++) {
+                CmsUUID structureId = new CmsUUID(in.readUTF());
+                long dateLastModified = in.readLong();
+                int length = in.readInt();
+                long offset = in.getFilePointer();
+                if ((length < 0) || ((offset + length) > in.length())) {
+                    throw new IOException(
+                        Messages.get().getBundle().key(Messages.ERR_TRUNCATED_SNAPSHOT_1, m_file.getAbsolutePath()));
+                }
+                in.seek(offset + length);
+                m_entries.put(structureId, new Entry(dateLastModified, length, offset, m_version));
+            }
+            if (LOG.isInfoEnabled()) {
+                LOG.info(
+                    Messages.get().getBundle().key(
+                        Messages.LOG_SNAPSHOT_LOADED_2,
+                        Integer.valueOf(size),
+                        m_file.getAbsolutePath()));
+            }
+        } catch (Exception e) {
+            m_entries.clear();
+            LOG.warn(Messages.get().getBundle().key(Messages.LOG_READ_SNAPSHOT_FAILED_1, m_file.getAbsolutePath()), e);
+        } finally {
+            closeQuietly(in);
+        }
+    }
+
+    /**
+     * Returns the content of an entry, reading it from the snapshot file if required.<p>
+     *
+     * @param entry the entry
+     *
+     * @return the content, or <code>null</code> if it could not be read
+     */
+    private synchronized byte[] readContent(Entry entry) {
+
+        if (entry.m_content != null) {
+            return entry.m_content.clone();
+        }
+        if (entry.m_version != m_version) {
+            // the entry was replaced while the snapshot was saved
+            return null;
+        }
+        RandomAccessFile in = null;
+        try {
+            in = new RandomAccessFile(m_file, "r");
+            byte[] content = new byte[entry.m_length];
+            in.seek(entry.m_offset);
+            in.readFully(content);
+            return content;
+        } catch (IOException e) {
+            LOG.warn(Messages.get().getBundle().key(Messages.LOG_READ_SNAPSHOT_FAILED_1, m_file.getAbsolutePath()), e);
+            return null;
+        } finally {
+            closeQuietly(in);
+        }
+    }
+}
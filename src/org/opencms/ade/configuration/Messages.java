@@ -37,12 +37,30 @@ import org.opencms.i18n.I_CmsMessageBundle;
  */
 public final class Messages extends A_CmsMessageBundle {
 
+    /** Message constant for key in the resource bundle. */
+    public static final String ERR_REPLACE_SNAPSHOT_1 = "ERR_REPLACE_SNAPSHOT_1";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String ERR_TRUNCATED_SNAPSHOT_1 = "ERR_TRUNCATED_SNAPSHOT_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String GUI_ELEMENT_VIEW_DEFAULT_TITLE_0 = "GUI_ELEMENT_VIEW_DEFAULT_TITLE_0";
 
     /** Message constant for key in the resource bundle. */
     public static final String GUI_ELEMENT_VIEW_DEFAULT_DESCRIPTION_0 = "GUI_ELEMENT_VIEW_DEFAULT_DESCRIPTION_0";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_READ_SNAPSHOT_FAILED_1 = "LOG_READ_SNAPSHOT_FAILED_1";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_SNAPSHOT_LOADED_2 = "LOG_SNAPSHOT_LOADED_2";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_SNAPSHOT_UNKNOWN_FORMAT_1 = "LOG_SNAPSHOT_UNKNOWN_FORMAT_1";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_WRITE_SNAPSHOT_FAILED_1 = "LOG_WRITE_SNAPSHOT_FAILED_1";
+
     /** Name of the used resource bundle. */
     private static final String BUNDLE_NAME = "org.opencms.ade.configuration.messages";
 
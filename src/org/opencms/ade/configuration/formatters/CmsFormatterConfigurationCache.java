@@ -27,6 +27,7 @@
 
 package org.opencms.ade.configuration.formatters;
 
+import org.opencms.ade.configuration.CmsConfigurationSnapshot;
 import org.opencms.ade.configuration.I_CmsGlobalConfigurationCache;
 import org.opencms.db.CmsPublishedResource;
 import org.opencms.file.CmsFile;
@@ -93,6 +94,9 @@ public class CmsFormatterConfigurationCache implements I_CmsGlobalConfigurationC
     /** Flag which indicates whether an update operation has been scheduled. */
     private boolean m_scheduledUpdate;
 
+    /** The snapshot of the formatter configuration contents, may be null. */
+    private CmsConfigurationSnapshot m_snapshot;
+
     /** The current data contained in the formatter cache.<p> This field is reassigned when formatters are changed, but the objects pointed to by this  field are immutable.<p> **/
     private volatile CmsFormatterConfigurationCacheState m_state = new CmsFormatterConfigurationCacheState(
         Collections.<CmsUUID, I_CmsFormatterBean> emptyMap());
@@ -160,8 +164,14 @@ public class CmsFormatterConfigurationCache implements I_CmsGlobalConfigurationC
                 I_CmsFormatterBean formatterBean = readFormatter(structureId);
                 // formatterBean may be null here
                 formattersToUpdate.put(structureId, formatterBean);
+                if ((formatterBean == null) && (m_snapshot != null)) {
+                    m_snapshot.remove(structureId);
+                }
             }
             m_state = m_state.createUpdatedCopy(formattersToUpdate);
+            if (m_snapshot != null) {
+                m_snapshot.save();
+            }
         }
     }
 
@@ -186,6 +196,10 @@ public class CmsFormatterConfigurationCache implements I_CmsGlobalConfigurationC
                 }
             }
             m_state = new CmsFormatterConfigurationCacheState(newFormatters);
+            if (m_snapshot != null) {
+                m_snapshot.retainAll(newFormatters.keySet());
+                m_snapshot.save();
+            }
         } catch (CmsException e) {
             LOG.warn(e.getLocalizedMessage(), e);
         }
@@ -207,6 +221,18 @@ public class CmsFormatterConfigurationCache implements I_CmsGlobalConfigurationC
         checkIfUpdateIsNeeded(resource.getStructureId(), resource.getRootPath(), resource.getTypeId());
     }
 
+    /**
+     * Sets the snapshot used for reading the formatter configurations.<p>
+     *
+     * Must be called before {@link #reload()}.<p>
+     *
+     * @param snapshot the snapshot of the formatter configuration contents
+     */
+    public void setSnapshot(CmsConfigurationSnapshot snapshot) {
+
+        m_snapshot = snapshot;
+    }
+
     /**
      * @see org.opencms.ade.configuration.I_CmsGlobalConfigurationCache#update(org.opencms.db.CmsPublishedResource)
      */
@@ -253,7 +279,9 @@ public class CmsFormatterConfigurationCache implements I_CmsGlobalConfigurationC
         CmsResource formatterRes = null;
         try {
             formatterRes = m_cms.readResource(structureId);
-            CmsFile formatterFile = m_cms.readFile(formatterRes);
+            CmsFile formatterFile = m_snapshot != null
+            ? m_snapshot.readFile(m_cms, formatterRes)
+            : m_cms.readFile(formatterRes);
             CmsFormatterBeanParser parser = new CmsFormatterBeanParser(m_cms);
             CmsXmlContent content = CmsXmlContentFactory.unmarshal(m_cms, formatterFile);
             formatterBean = parser.parse(content, formatterRes.getRootPath(), "" + formatterRes.getStructureId());
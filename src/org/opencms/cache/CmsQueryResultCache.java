@@ -0,0 +1,491 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.cache;
+
+import org.opencms.db.CmsPublishedResource;
+import org.opencms.file.CmsObject;
+import org.opencms.file.CmsResource;
+import org.opencms.file.CmsResourceFilter;
+import org.opencms.file.collectors.A_CmsResourceCollector;
+import org.opencms.file.collectors.I_CmsResourceCollector;
+import org.opencms.flex.CmsFlexRequestContextInfo;
+import org.opencms.main.CmsEvent;
+import org.opencms.main.CmsException;
+import org.opencms.main.CmsLog;
+import org.opencms.main.I_CmsEventListener;
+import org.opencms.main.OpenCms;
+import org.opencms.monitor.CmsMemoryMonitor;
+import org.opencms.security.CmsPermissionSet;
+import org.opencms.util.CmsRequestUtil;
+import org.opencms.util.CmsUUID;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+
+/**
+ * Caches the results of resource collectors and searches for the online project.<p>
+ *
+ * The results of collectors and searches only change when resources are published, so
+ * they can be shared between requests. A cached result is removed when a resource in
+ * one of the folders and of one of the resource types it was collected from is published,
+ * or when one of the resources in the result is published.<p>
+ *
+ * The cache keys contain the site root and the user, since the results depend on the
+ * permissions of the user, and the locale, since some collectors sort the results with
+ * a locale specific collator.<p>
+ *
+ * While a result is computed, the dates of all resources read are recorded, see
+ * {@link #startRecordingDates(CmsObject)}. A cached result is removed when one of the recorded
+ * resources is released or expires, and the recorded dates are reported to the Flex cache
+ * whenever the result is taken from the cache.<p>
+ *
+ * @since 10.0.0
+ */
+public class CmsQueryResultCache extends CmsVfsCache {
+
+    /** The cache key prefix for collector results. */
+    public static final String KEY_COLLECTOR = "collector";
+
+    /** The cache key prefix for Solr search results. */
+    public static final String KEY_SOLR = "solr";
+
+    /** The log object for this class. */
+    private static final Log LOG = CmsLog.getLog(CmsQueryResultCache.class);
+
+    /** The shared instance of the result cache. */
+    private static CmsQueryResultCache m_queryResultCache;
+
+    /** Incremented whenever cached results are removed because of a publish operation. */
+    private AtomicLong m_generation = new AtomicLong();
+
+    /**
+     * Creates a new result cache.<p>
+     */
+    protected CmsQueryResultCache() {
+
+        registerEventListener();
+    }
+
+    /**
+     * Returns the cache key for a collector or search result.<p>
+     *
+     * @param cms the current users OpenCms context
+     * @param kind the kind of result, like {@link #KEY_COLLECTOR} or {@link #KEY_SOLR}
+     * @param query the string that identifies the query, like the collector name and parameters
+     *
+     * @return the cache key
+     */
+    public static String getCacheKey(CmsObject cms, String kind, String query) {
+
+        StringBuffer result = new StringBuffer(64 + query.length());
+        result.append(kind).append('|');
+        result.append(cms.getRequestContext().getSiteRoot()).append('|');
+        result.append(cms.getRequestContext().getCurrentUser().getId()).append('|');
+        result.append(cms.getRequestContext().getLocale()).append('|');
+        result.append(query);
+        return result.toString();
+    }
+
+    /**
+     * Returns the shared result cache.<p>
+     *
+     * @return the shared result cache
+     */
+    public static synchronized CmsQueryResultCache getQueryResultCache() {
+
+        if (m_queryResultCache == null) {
+            m_queryResultCache = new CmsQueryResultCache();
+        }
+        return m_queryResultCache;
+    }
+
+    /**
+     * @see org.opencms.cache.CmsVfsCache#cmsEvent(org.opencms.main.CmsEvent)
+     */
+    @Override
+    public void cmsEvent(CmsEvent event) {
+
+        if (event.getType() != I_CmsEventListener.EVENT_PUBLISH_PROJECT) {
+            super.cmsEvent(event);
+            return;
+        }
+        m_generation.incrementAndGet();
+        String publishId = (String)event.getData().get(I_CmsEventListener.KEY_PUBLISHID);
+        List<CmsPublishedResource> publishedResources = null;
+        if (publishId != null) {
+            try {
+                CmsObject cms = OpenCms.initCmsObject(OpenCms.getDefaultUsers().getUserGuest());
+                publishedResources = cms.readPublishedResources(new CmsUUID(publishId));
+            } catch (CmsException e) {
+                LOG.warn(Messages.get().getBundle().key(Messages.LOG_QUERY_RESULTS_PUBLISHED_FAILED_1, publishId), e);
+            }
+        }
+        if ((publishedResources == null) || publishedResources.isEmpty()) {
+            // not a normal publish process, remove all results to be on the safe side
+            flush(true);
+        } else {
+            uncachePublishedResources(publishedResources);
+        }
+    }
+
+    /**
+     * Returns the results of a resource collector, from the cache if possible.<p>
+     *
+     * Only the results of collectors that provide a result scope with
+     * {@link A_CmsResourceCollector#getResultCacheScope(CmsObject, String, String)} are cached.<p>
+     *
+     * @param cms the current users OpenCms context
+     * @param collector the collector
+     * @param collectorName the name of the collector
+     * @param param the collector parameter
+     *
+     * @return the results of the collector
+     *
+     * @throws CmsException if something goes wrong
+     */
+    public List<CmsResource> getCollectorResults(
+        CmsObject cms,
+        I_CmsResourceCollector collector,
+        String collectorName,
+        String param)
+    throws CmsException {
+
+        CmsQueryResultScope scope = null;
+        if (cms.getRequestContext().getCurrentProject().isOnlineProject()
+            && (collector instanceof A_CmsResourceCollector)) {
+            scope = ((A_CmsResourceCollector)collector).getResultCacheScope(cms, collectorName, param);
+        }
+        if (scope == null) {
+            return collector.getResults(cms, collectorName, param);
+        }
+        String key = getCacheKey(cms, KEY_COLLECTOR, collectorName + "|" + param);
+        List<CmsResource> result = getCachedResources(cms, key);
+        if (result == null) {
+            long generation = getGeneration();
+            CmsFlexRequestContextInfo info = startRecordingDates(cms);
+            CmsFlexRequestContextInfo dates;
+            try {
+                result = collector.getResults(cms, collectorName, param);
+            } finally {
+                dates = stopRecordingDates(cms, info);
+            }
+            putCachedResult(cms, key, generation, scope, result, null, dates);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the result object cached with the given key, or <code>null</code> if not found.<p>
+     *
+     * @param cms the current users OpenCms context
+     * @param key the cache key
+     *
+     * @return the cached result object, or <code>null</code>
+     */
+    public Object getCachedObject(CmsObject cms, String key) {
+
+        CmsQueryResultCacheEntry entry = getEntry(cms, key);
+        return entry != null ? entry.getValue() : null;
+    }
+
+    /**
+     * Returns the resources of the result cached with the given key, or <code>null</code> if not found.<p>
+     *
+     * The read permissions of the resources are checked again with the current users OpenCms context,
+     * which uses the permission cache. If one of them can not be read any more, the result is removed
+     * from the cache.<p>
+     *
+     * @param cms the current users OpenCms context
+     * @param key the cache key
+     *
+     * @return the resources of the cached result in result order, or <code>null</code>
+     */
+    public List<CmsResource> getCachedResources(CmsObject cms, String key) {
+
+        CmsQueryResultCacheEntry entry = getEntry(cms, key);
+        if (entry == null) {
+            return null;
+        }
+        List<CmsResource> resources = entry.getResources();
+        // the dates of the resources must still be reported to the Flex cache
+        CmsFlexRequestContextInfo info = getFlexInfo(cms);
+        try {
+            for (CmsResource resource : resources) {
+                if (!cms.hasPermissions(resource, CmsPermissionSet.ACCESS_READ, false, CmsResourceFilter.ALL)) {
+                    // the resource is not readable any more
+                    OpenCms.getMemoryMonitor().uncacheQueryResult(key);
+                    return null;
+                }
+                if (info != null) {
+                    info.updateFromResource(resource);
+                }
+            }
+        } catch (CmsException e) {
+            LOG.warn(Messages.get().getBundle().key(Messages.LOG_QUERY_RESULT_READ_FAILED_1, key), e);
+            return null;
+        }
+        return new ArrayList<CmsResource>(resources);
+    }
+
+    /**
+     * Returns the generation of the cache.<p>
+     *
+     * The generation changes whenever cached results are removed because of a publish operation.
+     * It must be read before a result is computed and passed to
+     * {@link #putCachedResult(CmsObject, String, long, CmsQueryResultScope, List, Object, CmsFlexRequestContextInfo)},
+     * so that results computed while resources were published are not cached.<p>
+     *
+     * @return the generation of the cache
+     */
+    public long getGeneration() {
+
+        return m_generation.get();
+    }
+
+    /**
+     * Returns the number of lookups of each cached result, ordered by the number of lookups.<p>
+     *
+     * @return the number of lookups of each cached result, by cache key
+     */
+    public Map<String, Long> getKeyStatistics() {
+
+        CmsMemoryMonitor monitor = OpenCms.getMemoryMonitor();
+        final Map<String, Long> hits = new HashMap<String, Long>();
+        for (String key : monitor.getCachedQueryResultKeys()) {
+            CmsQueryResultCacheEntry entry = monitor.getCachedQueryResult(key);
+            if (entry != null) {
+                hits.put(key, Long.valueOf(entry.getHitCount()));
+            }
+        }
+        List<String> keys = new ArrayList<String>(hits.keySet());
+        Collections.sort(keys, new Comparator<String>() {
+
+            public int compare(String key0, String key1) {
+
+                return hits.get(key1).compareTo(hits.get(key0));
+            }
+        });
+        Map<String, Long> result = new LinkedHashMap<String, Long>();
+        for (String key : keys) {
+            result.put(key, hits.get(key));
+        }
+        return result;
+    }
+
+    /**
+     * Caches a collector or search result.<p>
+     *
+     * Results are only cached for the online project, and only if no resources were
+     * published since the given generation was read.<p>
+     *
+     * @param cms the current users OpenCms context
+     * @param key the cache key
+     * @param generation the generation of the cache before the result was computed
+     * @param scope the folders and resource types the result was collected from
+     * @param resources the resources in the result
+     * @param value the optional result object, may be <code>null</code>
+     * @param dates the dates recorded while the result was computed, may be <code>null</code>
+     */
+    public void putCachedResult(
+        CmsObject cms,
+        String key,
+        long generation,
+        CmsQueryResultScope scope,
+        List<? extends CmsResource> resources,
+        Object value,
+        CmsFlexRequestContextInfo dates) {
+
+        if (!cms.getRequestContext().getCurrentProject().isOnlineProject() || (generation != getGeneration())) {
+            return;
+        }
+        OpenCms.getMemoryMonitor().cacheQueryResult(key, new CmsQueryResultCacheEntry(scope, resources, value, dates));
+    }
+
+    /**
+     * Starts recording the dates of all resources read with the given OpenCms context.<p>
+     *
+     * Collectors and searches filter out resources that are not released yet or already expired,
+     * so the result changes at the next release or expiration date of any resource read for it.
+     * The dates are recorded in a new Flex request context info that replaces the current one
+     * until {@link #stopRecordingDates(CmsObject, CmsFlexRequestContextInfo)} is called.<p>
+     *
+     * @param cms the current users OpenCms context
+     *
+     * @return the replaced Flex request context info, or <code>null</code> if there was none
+     */
+    public CmsFlexRequestContextInfo startRecordingDates(CmsObject cms) {
+
+        CmsFlexRequestContextInfo info = getFlexInfo(cms);
+        cms.getRequestContext().setAttribute(CmsRequestUtil.HEADER_LAST_MODIFIED, new CmsFlexRequestContextInfo());
+        return info;
+    }
+
+    /**
+     * Stops recording the dates of the resources read with the given OpenCms context.<p>
+     *
+     * The replaced Flex request context info is restored, and updated with the recorded dates.<p>
+     *
+     * @param cms the current users OpenCms context
+     * @param info the Flex request context info returned by {@link #startRecordingDates(CmsObject)}
+     *
+     * @return the recorded dates
+     */
+    public CmsFlexRequestContextInfo stopRecordingDates(CmsObject cms, CmsFlexRequestContextInfo info) {
+
+        CmsFlexRequestContextInfo dates = getFlexInfo(cms);
+        if (info != null) {
+            cms.getRequestContext().setAttribute(CmsRequestUtil.HEADER_LAST_MODIFIED, info);
+            if (dates != null) {
+                info.merge(dates);
+            }
+        } else {
+            cms.getRequestContext().removeAttribute(CmsRequestUtil.HEADER_LAST_MODIFIED);
+        }
+        return dates;
+    }
+
+    /**
+     * @see org.opencms.cache.CmsVfsCache#flush(boolean)
+     */
+    @Override
+    protected void flush(boolean online) {
+
+        if (online) {
+            m_generation.incrementAndGet();
+            OpenCms.getMemoryMonitor().flushCache(CmsMemoryMonitor.CacheType.QUERY_RESULT);
+        }
+    }
+
+    /**
+     * @see org.opencms.cache.CmsVfsCache#registerEventListener()
+     */
+    @Override
+    protected void registerEventListener() {
+
+        // only online results are cached, so changes in offline projects don't matter
+        OpenCms.addCmsEventListener(
+            this,
+            new int[] {
+                I_CmsEventListener.EVENT_PUBLISH_PROJECT,
+                I_CmsEventListener.EVENT_CLEAR_CACHES,
+                I_CmsEventListener.EVENT_CLEAR_ONLINE_CACHES});
+    }
+
+    /**
+     * @see org.opencms.cache.CmsVfsCache#uncacheResource(org.opencms.file.CmsResource)
+     */
+    @Override
+    protected void uncacheResource(CmsResource resource) {
+
+        // only online results are cached, they are removed when resources are published
+    }
+
+    /**
+     * Returns the entry cached with the given key, if it is still valid for the current request.<p>
+     *
+     * @param cms the current users OpenCms context
+     * @param key the cache key
+     *
+     * @return the cached entry, or <code>null</code>
+     */
+    private CmsQueryResultCacheEntry getEntry(CmsObject cms, String key) {
+
+        if (!cms.getRequestContext().getCurrentProject().isOnlineProject()) {
+            return null;
+        }
+        CmsQueryResultCacheEntry entry = OpenCms.getMemoryMonitor().getCachedQueryResult(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.getDateExpires() <= cms.getRequestContext().getRequestTime()) {
+            // a resource in the result has expired
+            OpenCms.getMemoryMonitor().uncacheQueryResult(key);
+            return null;
+        }
+        entry.hit();
+        // report the dates of all resources read for the result, also of those filtered out of it
+        CmsFlexRequestContextInfo info = getFlexInfo(cms);
+        if (info != null) {
+            info.updateDates(entry.getDateLastModified(), entry.getDateExpires());
+        }
+        return entry;
+    }
+
+    /**
+     * Returns the Flex request context info of the given OpenCms context.<p>
+     *
+     * @param cms the current users OpenCms context
+     *
+     * @return the Flex request context info, or <code>null</code> if there is none
+     */
+    private CmsFlexRequestContextInfo getFlexInfo(CmsObject cms) {
+
+        return (CmsFlexRequestContextInfo)cms.getRequestContext().getAttribute(CmsRequestUtil.HEADER_LAST_MODIFIED);
+    }
+
+    /**
+     * Removes all cached results that may be changed by publishing the given resources.<p>
+     *
+     * @param publishedResources the published resources
+     */
+    private void uncachePublishedResources(List<CmsPublishedResource> publishedResources) {
+
+        CmsMemoryMonitor monitor = OpenCms.getMemoryMonitor();
+        List<String> keys = monitor.getCachedQueryResultKeys();
+        int removed = 0;
+        for (String key : keys) {
+            CmsQueryResultCacheEntry entry = monitor.getCachedQueryResult(key);
+            if (entry == null) {
+                continue;
+            }
+            for (CmsPublishedResource resource : publishedResources) {
+                if (entry.isAffectedBy(resource)) {
+                    monitor.uncacheQueryResult(key);
+                    removed++;
+                    break;
+                }
+            }
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug(
+                Messages.get().getBundle().key(
+                    Messages.LOG_QUERY_RESULTS_UNCACHED_2,
+                    Integer.valueOf(removed),
+                    Integer.valueOf(keys.size())));
+        }
+    }
+}
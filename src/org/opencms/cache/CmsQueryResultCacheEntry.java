@@ -0,0 +1,208 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.cache;
+
+import org.opencms.db.CmsPublishedResource;
+import org.opencms.file.CmsResource;
+import org.opencms.flex.CmsFlexRequestContextInfo;
+import org.opencms.util.CmsUUID;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A cached collector or search result.<p>
+ *
+ * Stores the resources in the result, in the order of the result, and
+ * optionally a result object that is returned unchanged, like a Solr result list.<p>
+ *
+ * The entry also stores the dates recorded for all resources read while the result was computed,
+ * including the resources that were filtered out of the result because of their release or expiration date.
+ * These dates must be reported to the Flex cache whenever the result is taken from the cache.<p>
+ *
+ * @since 10.0.0
+ */
+public class CmsQueryResultCacheEntry {
+
+    /** The earliest date at which the result changes because of a release or expiration date. */
+    private long m_dateExpires;
+
+    /** The latest date of last modification of the resources read for the result. */
+    private long m_dateLastModified;
+
+    /** The number of times the result was taken from the cache. */
+    private AtomicLong m_hitCount = new AtomicLong();
+
+    /** The structure ids of the resources in the result, in result order. */
+    private List<CmsUUID> m_ids;
+
+    /** The structure ids of the resources in the result, for fast lookup. */
+    private Set<CmsUUID> m_idSet;
+
+    /** The folders and resource types the result was collected from. */
+    private CmsQueryResultScope m_scope;
+
+    /** The resources in the result, in result order. */
+    private List<CmsResource> m_resources;
+
+    /** The optional result object. */
+    private Object m_value;
+
+    /**
+     * Creates a new cache entry.<p>
+     *
+     * @param scope the folders and resource types the result was collected from
+     * @param resources the resources in the result
+     * @param value the optional result object, may be <code>null</code>
+     * @param dates the dates recorded for all resources read for the result, may be <code>null</code>
+     */
+    public CmsQueryResultCacheEntry(
+        CmsQueryResultScope scope,
+        List<? extends CmsResource> resources,
+        Object value,
+        CmsFlexRequestContextInfo dates) {
+
+        m_scope = scope;
+        m_value = value;
+        List<CmsUUID> ids = new ArrayList<CmsUUID>(resources.size());
+        long dateExpires = Long.MAX_VALUE;
+        for (CmsResource resource : resources) {
+            ids.add(resource.getStructureId());
+            if (resource.getDateExpired() != CmsResource.DATE_EXPIRED_DEFAULT) {
+                dateExpires = Math.min(dateExpires, resource.getDateExpired());
+            }
+        }
+        m_ids = Collections.unmodifiableList(ids);
+        m_resources = Collections.unmodifiableList(new ArrayList<CmsResource>(resources));
+        m_idSet = new HashSet<CmsUUID>(ids);
+        if (dates != null) {
+            // contains the next release or expiration date of all resources read, also of filtered resources
+            dateExpires = Math.min(dateExpires, dates.getDateExpires());
+            m_dateLastModified = dates.getDateLastModified();
+        }
+        m_dateExpires = dateExpires;
+    }
+
+    /**
+     * Returns the earliest date at which the result changes because of a release or expiration date.<p>
+     *
+     * The result is outdated at this date, since a resource in the result expires, or a resource
+     * that was filtered out of the result is released.<p>
+     *
+     * @return the earliest date at which the result changes
+     */
+    public long getDateExpires() {
+
+        return m_dateExpires;
+    }
+
+    /**
+     * Returns the latest date of last modification of the resources read for the result.<p>
+     *
+     * @return the latest date of last modification of the resources read for the result
+     */
+    public long getDateLastModified() {
+
+        return m_dateLastModified;
+    }
+
+    /**
+     * Returns the number of times the result was taken from the cache.<p>
+     *
+     * @return the number of times the result was taken from the cache
+     */
+    public long getHitCount() {
+
+        return m_hitCount.get();
+    }
+
+    /**
+     * Returns the structure ids of the resources in the result, in result order.<p>
+     *
+     * @return the structure ids of the resources in the result
+     */
+    public List<CmsUUID> getIds() {
+
+        return m_ids;
+    }
+
+    /**
+     * Returns the resources in the result, in result order.<p>
+     *
+     * @return the resources in the result
+     */
+    public List<CmsResource> getResources() {
+
+        return m_resources;
+    }
+
+    /**
+     * Returns the folders and resource types the result was collected from.<p>
+     *
+     * @return the folders and resource types the result was collected from
+     */
+    public CmsQueryResultScope getScope() {
+
+        return m_scope;
+    }
+
+    /**
+     * Returns the optional result object.<p>
+     *
+     * @return the result object, or <code>null</code>
+     */
+    public Object getValue() {
+
+        return m_value;
+    }
+
+    /**
+     * Checks if publishing the given resource may change this result.<p>
+     *
+     * @param resource the published resource
+     *
+     * @return <code>true</code> if publishing the resource may change this result
+     */
+    public boolean isAffectedBy(CmsPublishedResource resource) {
+
+        return m_idSet.contains(resource.getStructureId()) || m_scope.isAffectedBy(resource);
+    }
+
+    /**
+     * Counts a lookup of this result.<p>
+     */
+    void hit() {
+
+        m_hitCount.incrementAndGet();
+    }
+}
@@ -0,0 +1,240 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.cache;
+
+import org.opencms.db.CmsPublishedResource;
+import org.opencms.file.CmsResource;
+import org.opencms.loader.CmsLoaderException;
+import org.opencms.main.OpenCms;
+import org.opencms.search.fields.CmsSearchField;
+import org.opencms.util.CmsStringUtil;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Describes which published resources can change a cached collector or search result.<p>
+ *
+ * A scope consists of the root paths of the folders the result was collected from and
+ * the ids of the resource types that were collected. An empty list of folders or types
+ * does not restrict the scope, so a scope without folders and types is affected by every
+ * published resource.<p>
+ *
+ * @since 10.0.0
+ */
+public class CmsQueryResultScope {
+
+    /** The scope that is affected by every published resource. */
+    public static final CmsQueryResultScope ALL = new CmsQueryResultScope(null, null);
+
+    /** The root paths of the folders. */
+    private List<String> m_folders;
+
+    /** The ids of the resource types. */
+    private Set<Integer> m_types;
+
+    /**
+     * Creates a new scope.<p>
+     *
+     * @param folders the root paths of the folders the result was collected from, <code>null</code> for all folders
+     * @param types the ids of the collected resource types, <code>null</code> for all types
+     */
+    public CmsQueryResultScope(Collection<String> folders, Collection<Integer> types) {
+
+        m_folders = folders == null
+        ? Collections.<String> emptyList()
+        : Collections.unmodifiableList(new ArrayList<String>(folders));
+        m_types = types == null
+        ? Collections.<Integer> emptySet()
+        : Collections.unmodifiableSet(new HashSet<Integer>(types));
+    }
+
+    /**
+     * Creates the scope of a collector that reads the resources of one type from a folder.<p>
+     *
+     * @param folder the root path of the folder
+     * @param type the id of the resource type, or <code>-1</code> for all types
+     *
+     * @return the scope of the collector
+     */
+    public static CmsQueryResultScope create(String folder, int type) {
+
+        return new CmsQueryResultScope(
+            Collections.singletonList(CmsResource.getFolderPath(folder)),
+            type < 0 ? null : Collections.singletonList(Integer.valueOf(type)));
+    }
+
+    /**
+     * Creates the scope of a Solr query from its filter queries.<p>
+     *
+     * The search roots and resource types are taken from the <code>parent-folders</code> and
+     * <code>type</code> filter queries. Filter queries that can not be understood don't restrict
+     * the scope.<p>
+     *
+     * @param filterQueries the filter queries of the Solr query, may be <code>null</code>
+     *
+     * @return the scope of the Solr query
+     */
+    public static CmsQueryResultScope createForSolrFilterQueries(String[] filterQueries) {
+
+        if (filterQueries == null) {
+            return ALL;
+        }
+        List<String> folders = null;
+        List<Integer> types = null;
+        for (String fq : filterQueries) {
+            if (fq.startsWith(CmsSearchField.FIELD_PARENT_FOLDERS + ":")) {
+                List<String> values = getFilterValues(fq.substring(CmsSearchField.FIELD_PARENT_FOLDERS.length() + 1));
+                if (values != null) {
+                    if (folders == null) {
+                        folders = new ArrayList<String>();
+                    }
+                    folders.addAll(values);
+                }
+            } else if (fq.startsWith(CmsSearchField.FIELD_TYPE + ":")) {
+                List<String> values = getFilterValues(fq.substring(CmsSearchField.FIELD_TYPE.length() + 1));
+                List<Integer> typeIds = values != null ? getTypeIds(values) : null;
+                if (typeIds != null) {
+                    if (types == null) {
+                        types = new ArrayList<Integer>();
+                    }
+                    types.addAll(typeIds);
+                }
+            }
+        }
+        if ((folders == null) && (types == null)) {
+            return ALL;
+        }
+        return new CmsQueryResultScope(folders, types);
+    }
+
+    /**
+     * Returns the values of a simple filter query like <code>"a"</code> or <code>("a" OR "b")</code>.<p>
+     *
+     * @param query the filter query without the field name
+     *
+     * @return the values, or <code>null</code> if the query is not simple
+     */
+    private static List<String> getFilterValues(String query) {
+
+        String values = query.trim();
+        if (values.startsWith("(") && values.endsWith(")")) {
+            values = values.substring(1, values.length() - 1);
+        }
+        List<String> result = new ArrayList<String>();
+        for (String value : CmsStringUtil.splitAsList(values, ' ', true)) {
+            if (value.equals("OR") || value.equals("AND") || CmsStringUtil.isEmpty(value)) {
+                continue;
+            }
+            if (value.startsWith("\"") && value.endsWith("\"") && (value.length() > 1)) {
+                value = value.substring(1, value.length() - 1);
+            }
+            if ((value.indexOf('*') > -1) || (value.indexOf('?') > -1) || (value.indexOf('"') > -1)) {
+                // wildcards or values with spaces are not supported
+                return null;
+            }
+            result.add(value);
+        }
+        return result.isEmpty() ? null : result;
+    }
+
+    /**
+     * Returns the ids of the resource types with the given names.<p>
+     *
+     * @param typeNames the resource type names
+     *
+     * @return the resource type ids, or <code>null</code> if one of the types is unknown
+     */
+    private static List<Integer> getTypeIds(List<String> typeNames) {
+
+        List<Integer> result = new ArrayList<Integer>(typeNames.size());
+        for (String typeName : typeNames) {
+            try {
+                result.add(Integer.valueOf(OpenCms.getResourceManager().getResourceType(typeName).getTypeId()));
+            } catch (CmsLoaderException e) {
+                return null;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the root paths of the folders of this scope.<p>
+     *
+     * @return the root paths of the folders, empty for all folders
+     */
+    public List<String> getFolders() {
+
+        return m_folders;
+    }
+
+    /**
+     * Returns the ids of the resource types of this scope.<p>
+     *
+     * @return the ids of the resource types, empty for all types
+     */
+    public Set<Integer> getTypes() {
+
+        return m_types;
+    }
+
+    /**
+     * Checks if publishing the given resource may change a result with this scope.<p>
+     *
+     * Published folders affect the scope if they are inside one of the folders or contain one
+     * of them, regardless of the resource types, since moving or deleting them changes the
+     * resources below.<p>
+     *
+     * @param resource the published resource
+     *
+     * @return <code>true</code> if publishing the resource may change a result with this scope
+     */
+    public boolean isAffectedBy(CmsPublishedResource resource) {
+
+        String rootPath = resource.getRootPath();
+        boolean folder = resource.isFolder();
+        if (!m_folders.isEmpty()) {
+            boolean inside = false;
+            for (String scopeFolder : m_folders) {
+                if (rootPath.startsWith(scopeFolder) || (folder && scopeFolder.startsWith(rootPath))) {
+                    inside = true;
+                    break;
+                }
+            }
+            if (!inside) {
+                return false;
+            }
+        }
+        return folder || m_types.isEmpty() || m_types.contains(Integer.valueOf(resource.getType()));
+    }
+}
@@ -40,6 +40,15 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String LOG_CACHE_COSTS_TOO_HIGH_2 = "LOG_CACHE_COSTS_TOO_HIGH_2";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_QUERY_RESULT_READ_FAILED_1 = "LOG_QUERY_RESULT_READ_FAILED_1";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_QUERY_RESULTS_PUBLISHED_FAILED_1 = "LOG_QUERY_RESULTS_PUBLISHED_FAILED_1";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_QUERY_RESULTS_UNCACHED_2 = "LOG_QUERY_RESULTS_UNCACHED_2";
+
     /** Name of the used resource bundle. */
     private static final String BUNDLE_NAME = "org.opencms.cache.messages";
 
@@ -51,6 +51,7 @@ import java.util.GregorianCalendar;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.locks.Lock;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -289,15 +290,21 @@ public class CmsCmisRelationHelper implements I_CmsCmisObjectHelper {
             CmsUUID sourceId = rk.getSourceId();
             CmsObject cms = m_repository.getCmsObject(context);
             CmsResource sourceResource = cms.readResource(sourceId);
-            boolean wasLocked = CmsCmisUtil.ensureLock(cms, sourceResource);
+            Lock lock = m_repository.getResourceLock(sourceId);
+            lock.lock();
             try {
-                CmsRelationFilter relFilter = CmsRelationFilter.ALL.filterType(
-                    getRelationType(rk.getRelType())).filterStructureId(rk.getTargetId());
-                cms.deleteRelationsFromResource(sourceResource.getRootPath(), relFilter);
-            } finally {
-                if (wasLocked) {
-                    cms.unlockResource(sourceResource);
+                boolean wasLocked = CmsCmisUtil.ensureLock(cms, sourceResource);
+                try {
+                    CmsRelationFilter relFilter = CmsRelationFilter.ALL.filterType(
+                        getRelationType(rk.getRelType())).filterStructureId(rk.getTargetId());
+                    cms.deleteRelationsFromResource(sourceResource.getRootPath(), relFilter);
+                } finally {
+                    if (wasLocked) {
+                        cms.unlockResource(sourceResource);
+                    }
                 }
+            } finally {
+                lock.unlock();
             }
         } catch (CmsException e) {
             CmsCmisUtil.handleCmsException(e);
@@ -69,6 +69,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.locks.Lock;
 
 import org.apache.chemistry.opencmis.commons.PropertyIds;
 import org.apache.chemistry.opencmis.commons.data.Acl;
@@ -126,8 +127,13 @@ import org.apache.chemistry.opencmis.commons.impl.dataobjects.RepositoryInfoImpl
 import org.apache.chemistry.opencmis.commons.spi.Holder;
 import org.apache.commons.logging.Log;
 
+import com.google.common.util.concurrent.Striped;
+
 /**
  * Repository instance for CMIS repositories.<p>
+ *
+ * The repository is used concurrently by all CMIS clients. Every call works with its own CMS context,
+ * only the operations which temporarily lock and unlock a resource are serialized per resource.<p>
  */
 public class CmsCmisRepository extends A_CmsCmisRepository {
 
@@ -231,6 +237,9 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /** The resource object helper. */
     private CmsCmisResourceHelper m_resourceHelper = new CmsCmisResourceHelper(this);
 
+    /** The locks used to serialize operations which change the OpenCms lock state of a resource. */
+    private Striped<Lock> m_resourceLocks = Striped.lock(64);
+
     /** The root folder. */
     private CmsResource m_root;
 
@@ -263,7 +272,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#createDocument(org.opencms.cmis.CmsCmisCallContext, org.apache.chemistry.opencmis.commons.data.Properties, java.lang.String, org.apache.chemistry.opencmis.commons.data.ContentStream, org.apache.chemistry.opencmis.commons.enums.VersioningState, java.util.List, org.apache.chemistry.opencmis.commons.data.Acl, org.apache.chemistry.opencmis.commons.data.Acl)
      */
-    public synchronized String createDocument(
+    public String createDocument(
         CmsCmisCallContext context,
         Properties propertiesObj,
         String folderId,
@@ -322,7 +331,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#createDocumentFromSource(org.opencms.cmis.CmsCmisCallContext, java.lang.String, org.apache.chemistry.opencmis.commons.data.Properties, java.lang.String, org.apache.chemistry.opencmis.commons.enums.VersioningState, java.util.List, org.apache.chemistry.opencmis.commons.data.Acl, org.apache.chemistry.opencmis.commons.data.Acl)
      */
-    public synchronized String createDocumentFromSource(
+    public String createDocumentFromSource(
         CmsCmisCallContext context,
         String sourceId,
         Properties propertiesObj,
@@ -368,24 +377,30 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
             }
 
             CmsResource targetResource = cms.readResource(targetPath);
-            cms.setDateLastModified(targetResource.getRootPath(), targetResource.getDateCreated(), false);
-            cms.unlockResource(targetResource);
-            boolean wasLocked = ensureLock(cms, targetResource);
-            cms.writePropertyObjects(targetResource, cmsProperties);
-            for (String key : properties.keySet()) {
-                if (key.startsWith(CmsCmisTypeManager.PROPERTY_PREFIX_DYNAMIC)) {
-                    I_CmsPropertyProvider provider = getTypeManager().getPropertyProvider(key);
-                    try {
-                        String value = (String)(properties.get(key).getFirstValue());
-                        provider.setPropertyValue(cms, targetResource, value);
-                    } catch (CmsException e) {
-                        LOG.error(e.getLocalizedMessage(), e);
+            Lock lock = getResourceLock(targetResource.getStructureId());
+            lock.lock();
+            try {
+                cms.setDateLastModified(targetResource.getRootPath(), targetResource.getDateCreated(), false);
+                cms.unlockResource(targetResource);
+                boolean wasLocked = ensureLock(cms, targetResource);
+                cms.writePropertyObjects(targetResource, cmsProperties);
+                for (String key : properties.keySet()) {
+                    if (key.startsWith(CmsCmisTypeManager.PROPERTY_PREFIX_DYNAMIC)) {
+                        I_CmsPropertyProvider provider = getTypeManager().getPropertyProvider(key);
+                        try {
+                            String value = (String)(properties.get(key).getFirstValue());
+                            provider.setPropertyValue(cms, targetResource, value);
+                        } catch (CmsException e) {
+                            LOG.error(e.getLocalizedMessage(), e);
+                        }
                     }
                 }
-            }
 
-            if (wasLocked) {
-                cms.unlockResource(targetResource);
+                if (wasLocked) {
+                    cms.unlockResource(targetResource);
+                }
+            } finally {
+                lock.unlock();
             }
             return targetResource.getStructureId().toString();
         } catch (CmsException e) {
@@ -397,7 +412,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#createFolder(org.opencms.cmis.CmsCmisCallContext, org.apache.chemistry.opencmis.commons.data.Properties, java.lang.String, java.util.List, org.apache.chemistry.opencmis.commons.data.Acl, org.apache.chemistry.opencmis.commons.data.Acl)
      */
-    public synchronized String createFolder(
+    public String createFolder(
         CmsCmisCallContext context,
         Properties propertiesObj,
         String folderId,
@@ -445,7 +460,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#createRelationship(org.opencms.cmis.CmsCmisCallContext, org.apache.chemistry.opencmis.commons.data.Properties, java.util.List, org.apache.chemistry.opencmis.commons.data.Acl, org.apache.chemistry.opencmis.commons.data.Acl)
      */
-    public synchronized String createRelationship(
+    public String createRelationship(
         CmsCmisCallContext context,
         Properties properties,
         List<String> policies,
@@ -465,15 +480,21 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
             CmsUUID sourceId = new CmsUUID(sourceProp);
             CmsUUID targetId = new CmsUUID(targetProp);
             CmsResource sourceRes = cms.readResource(sourceId);
-            boolean wasLocked = ensureLock(cms, sourceRes);
+            Lock lock = getResourceLock(sourceId);
+            lock.lock();
             try {
-                CmsResource targetRes = cms.readResource(targetId);
-                cms.addRelationToResource(sourceRes.getRootPath(), targetRes.getRootPath(), cmsTypeName);
-                return "REL_" + sourceRes.getStructureId() + "_" + targetRes.getStructureId() + "_" + cmsTypeName;
-            } finally {
-                if (wasLocked) {
-                    cms.unlockResource(sourceRes);
+                boolean wasLocked = ensureLock(cms, sourceRes);
+                try {
+                    CmsResource targetRes = cms.readResource(targetId);
+                    cms.addRelationToResource(sourceRes.getRootPath(), targetRes.getRootPath(), cmsTypeName);
+                    return "REL_" + sourceRes.getStructureId() + "_" + targetRes.getStructureId() + "_" + cmsTypeName;
+                } finally {
+                    if (wasLocked) {
+                        cms.unlockResource(sourceRes);
+                    }
                 }
+            } finally {
+                lock.unlock();
             }
         } catch (CmsException e) {
             CmsCmisUtil.handleCmsException(e);
@@ -484,7 +505,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#deleteContentStream(org.opencms.cmis.CmsCmisCallContext, org.apache.chemistry.opencmis.commons.spi.Holder, org.apache.chemistry.opencmis.commons.spi.Holder)
      */
-    public synchronized void deleteContentStream(
+    public void deleteContentStream(
         CmsCmisCallContext context,
         Holder<String> objectId,
         Holder<String> changeToken) {
@@ -496,7 +517,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#deleteObject(org.opencms.cmis.CmsCmisCallContext, java.lang.String, boolean)
      */
-    public synchronized void deleteObject(CmsCmisCallContext context, String objectId, boolean allVersions) {
+    public void deleteObject(CmsCmisCallContext context, String objectId, boolean allVersions) {
 
         checkWriteAccess();
         getHelper(objectId).deleteObject(context, objectId, allVersions);
@@ -505,7 +526,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#deleteTree(org.opencms.cmis.CmsCmisCallContext, java.lang.String, boolean, org.apache.chemistry.opencmis.commons.enums.UnfileObject, boolean)
      */
-    public synchronized FailedToDeleteData deleteTree(
+    public FailedToDeleteData deleteTree(
         CmsCmisCallContext context,
         String folderId,
         boolean allVersions,
@@ -524,8 +545,14 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
             if (!folder.isFolder()) {
                 throw new CmisConstraintException("deleteTree can only be used on folders.");
             }
-            ensureLock(cms, folder);
-            cms.deleteResource(folder.getRootPath(), CmsResource.DELETE_PRESERVE_SIBLINGS);
+            Lock lock = getResourceLock(structureId);
+            lock.lock();
+            try {
+                ensureLock(cms, folder);
+                cms.deleteResource(folder.getRootPath(), CmsResource.DELETE_PRESERVE_SIBLINGS);
+            } finally {
+                lock.unlock();
+            }
             return result;
         } catch (CmsException e) {
             handleCmsException(e);
@@ -536,7 +563,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getAcl(org.opencms.cmis.CmsCmisCallContext, java.lang.String, boolean)
      */
-    public synchronized Acl getAcl(CmsCmisCallContext context, String objectId, boolean onlyBasicPermissions) {
+    public Acl getAcl(CmsCmisCallContext context, String objectId, boolean onlyBasicPermissions) {
 
         return getHelper(objectId).getAcl(context, objectId, onlyBasicPermissions);
     }
@@ -544,7 +571,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getAllowableActions(org.opencms.cmis.CmsCmisCallContext, java.lang.String)
      */
-    public synchronized AllowableActions getAllowableActions(CmsCmisCallContext context, String objectId) {
+    public AllowableActions getAllowableActions(CmsCmisCallContext context, String objectId) {
 
         return getHelper(objectId).getAllowableActions(context, objectId);
     }
@@ -552,7 +579,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getCheckedOutDocs(org.opencms.cmis.CmsCmisCallContext, java.lang.String, java.lang.String, java.lang.String, boolean, org.apache.chemistry.opencmis.commons.enums.IncludeRelationships, java.lang.String, java.math.BigInteger, java.math.BigInteger)
      */
-    public synchronized ObjectList getCheckedOutDocs(
+    public ObjectList getCheckedOutDocs(
         CmsCmisCallContext context,
         String folderId,
         String filter,
@@ -571,7 +598,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getChildren(org.opencms.cmis.CmsCmisCallContext, java.lang.String, java.lang.String, java.lang.String, boolean, org.apache.chemistry.opencmis.commons.enums.IncludeRelationships, java.lang.String, boolean, java.math.BigInteger, java.math.BigInteger)
      */
-    public synchronized ObjectInFolderList getChildren(
+    public ObjectInFolderList getChildren(
         CmsCmisCallContext context,
         String folderId,
         String filter,
@@ -668,7 +695,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getContentStream(org.opencms.cmis.CmsCmisCallContext, java.lang.String, java.lang.String, java.math.BigInteger, java.math.BigInteger)
      */
-    public synchronized ContentStream getContentStream(
+    public ContentStream getContentStream(
         CmsCmisCallContext context,
         String objectId,
         String streamId,
@@ -691,11 +718,16 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
                 CmsFile file = cms.readFile(resource);
                 contents = file.getContents();
             }
-            contents = extractRange(contents, offset, length);
-            InputStream stream = new ByteArrayInputStream(contents);
+            // stream the requested range directly from the content array instead of copying it
+            int start = (offset == null) ? 0 : (int)Math.min(Math.max(offset.longValue(), 0), contents.length);
+            int rangeLength = contents.length - start;
+            if ((length != null) && (length.longValue() >= 0) && (length.longValue() < rangeLength)) {
+                rangeLength = (int)length.longValue();
+            }
+            InputStream stream = new ByteArrayInputStream(contents, start, rangeLength);
             ContentStreamImpl result = new ContentStreamImpl();
             result.setFileName(resource.getName());
-            result.setLength(BigInteger.valueOf(contents.length));
+            result.setLength(BigInteger.valueOf(rangeLength));
             result.setMimeType(OpenCms.getResourceManager().getMimeType(resource.getRootPath(), null, "text/plain"));
             result.setStream(stream);
 
@@ -709,7 +741,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getDescendants(org.opencms.cmis.CmsCmisCallContext, java.lang.String, java.math.BigInteger, java.lang.String, boolean, boolean, boolean)
      */
-    public synchronized List<ObjectInFolderContainer> getDescendants(
+    public List<ObjectInFolderContainer> getDescendants(
         CmsCmisCallContext context,
         String folderId,
         BigInteger depth,
@@ -798,7 +830,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getFolderParent(org.opencms.cmis.CmsCmisCallContext, java.lang.String, java.lang.String)
      */
-    public synchronized ObjectData getFolderParent(CmsCmisCallContext context, String folderId, String filter) {
+    public ObjectData getFolderParent(CmsCmisCallContext context, String folderId, String filter) {
 
         List<ObjectParentData> parents = getObjectParents(context, folderId, filter, false, false);
         if (parents.size() == 0) {
@@ -826,7 +858,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getObject(org.opencms.cmis.CmsCmisCallContext, java.lang.String, java.lang.String, boolean, org.apache.chemistry.opencmis.commons.enums.IncludeRelationships, java.lang.String, boolean, boolean)
      */
-    public synchronized ObjectData getObject(
+    public ObjectData getObject(
         CmsCmisCallContext context,
         String objectId,
         String filter,
@@ -850,7 +882,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getObjectByPath(org.opencms.cmis.CmsCmisCallContext, java.lang.String, java.lang.String, boolean, org.apache.chemistry.opencmis.commons.enums.IncludeRelationships, java.lang.String, boolean, boolean)
      */
-    public synchronized ObjectData getObjectByPath(
+    public ObjectData getObjectByPath(
         CmsCmisCallContext context,
         String path,
         String filter,
@@ -894,7 +926,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getObjectParents(org.opencms.cmis.CmsCmisCallContext, java.lang.String, java.lang.String, boolean, boolean)
      */
-    public synchronized List<ObjectParentData> getObjectParents(
+    public List<ObjectParentData> getObjectParents(
         CmsCmisCallContext context,
         String objectId,
         String filter,
@@ -957,7 +989,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getObjectRelationships(org.opencms.cmis.CmsCmisCallContext, java.lang.String, boolean, org.apache.chemistry.opencmis.commons.enums.RelationshipDirection, java.lang.String, java.lang.String, boolean, java.math.BigInteger, java.math.BigInteger)
      */
-    public synchronized ObjectList getObjectRelationships(
+    public ObjectList getObjectRelationships(
         CmsCmisCallContext context,
         String objectId,
         boolean includeSubRelationshipTypes,
@@ -1002,7 +1034,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getProperties(org.opencms.cmis.CmsCmisCallContext, java.lang.String, java.lang.String)
      */
-    public synchronized Properties getProperties(CmsCmisCallContext context, String objectId, String filter) {
+    public Properties getProperties(CmsCmisCallContext context, String objectId, String filter) {
 
         ObjectData object = getObject(context, objectId, null, false, null, null, false, false);
         return object.getProperties();
@@ -1011,7 +1043,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getRenditions(org.opencms.cmis.CmsCmisCallContext, java.lang.String, java.lang.String, java.math.BigInteger, java.math.BigInteger)
      */
-    public synchronized List<RenditionData> getRenditions(
+    public List<RenditionData> getRenditions(
         CmsCmisCallContext context,
         String objectId,
         String renditionFilter,
@@ -1039,7 +1071,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getRepositoryInfo()
      */
-    public synchronized RepositoryInfo getRepositoryInfo() {
+    public RepositoryInfo getRepositoryInfo() {
 
         // compile repository info
         RepositoryInfoImpl repositoryInfo = new RepositoryInfoImpl();
@@ -1113,7 +1145,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getTypeChildren(org.opencms.cmis.CmsCmisCallContext, java.lang.String, boolean, java.math.BigInteger, java.math.BigInteger)
      */
-    public synchronized TypeDefinitionList getTypeChildren(
+    public TypeDefinitionList getTypeChildren(
         CmsCmisCallContext context,
         String typeId,
         boolean includePropertyDefinitions,
@@ -1126,7 +1158,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getTypeDefinition(org.opencms.cmis.CmsCmisCallContext, java.lang.String)
      */
-    public synchronized TypeDefinition getTypeDefinition(CmsCmisCallContext context, String typeId) {
+    public TypeDefinition getTypeDefinition(CmsCmisCallContext context, String typeId) {
 
         return m_typeManager.getTypeDefinition(typeId);
     }
@@ -1134,7 +1166,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getTypeDescendants(org.opencms.cmis.CmsCmisCallContext, java.lang.String, java.math.BigInteger, boolean)
      */
-    public synchronized List<TypeDefinitionContainer> getTypeDescendants(
+    public List<TypeDefinitionContainer> getTypeDescendants(
         CmsCmisCallContext context,
         String typeId,
         BigInteger depth,
@@ -1200,7 +1232,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#moveObject(org.opencms.cmis.CmsCmisCallContext, org.apache.chemistry.opencmis.commons.spi.Holder, java.lang.String, java.lang.String)
      */
-    public synchronized void moveObject(
+    public void moveObject(
         CmsCmisCallContext context,
         Holder<String> objectId,
         String targetFolderId,
@@ -1216,14 +1248,20 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
             CmsResource resourceToMove = cms.readResource(structureId);
             String name = CmsResource.getName(resourceToMove.getRootPath());
             String newPath = CmsStringUtil.joinPaths(targetFolder.getRootPath(), name);
-            boolean wasLocked = ensureLock(cms, resourceToMove);
+            Lock lock = getResourceLock(structureId);
+            lock.lock();
             try {
-                cms.moveResource(resourceToMove.getRootPath(), newPath);
-            } finally {
-                if (wasLocked) {
-                    CmsResource movedResource = cms.readResource(resourceToMove.getStructureId());
-                    cms.unlockResource(movedResource);
+                boolean wasLocked = ensureLock(cms, resourceToMove);
+                try {
+                    cms.moveResource(resourceToMove.getRootPath(), newPath);
+                } finally {
+                    if (wasLocked) {
+                        CmsResource movedResource = cms.readResource(resourceToMove.getStructureId());
+                        cms.unlockResource(movedResource);
+                    }
                 }
+            } finally {
+                lock.unlock();
             }
         } catch (CmsException e) {
             handleCmsException(e);
@@ -1234,7 +1272,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
      * @see org.opencms.cmis.I_CmsCmisRepository#query(org.opencms.cmis.CmsCmisCallContext, java.lang.String, boolean, boolean, org.apache.chemistry.opencmis.commons.enums.IncludeRelationships, java.lang.String, java.math.BigInteger, java.math.BigInteger)
      */
     @Override
-    public synchronized ObjectList query(
+    public ObjectList query(
         CmsCmisCallContext context,
         String statement,
         boolean searchAllVersions,
@@ -1291,7 +1329,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#setContentStream(org.opencms.cmis.CmsCmisCallContext, org.apache.chemistry.opencmis.commons.spi.Holder, boolean, org.apache.chemistry.opencmis.commons.spi.Holder, org.apache.chemistry.opencmis.commons.data.ContentStream)
      */
-    public synchronized void setContentStream(
+    public void setContentStream(
         CmsCmisCallContext context,
         Holder<String> objectId,
         boolean overwriteFlag,
@@ -1310,14 +1348,21 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
             if (resource.isFolder()) {
                 throw new CmisStreamNotSupportedException("Folders may not have content streams.");
             }
-            CmsFile file = cms.readFile(resource);
+            // read the new content before acquiring the lock, transferring it may take a while
             InputStream contentInput = contentStream.getStream();
             byte[] newContent = CmsFileUtil.readFully(contentInput);
-            file.setContents(newContent);
-            boolean wasLocked = ensureLock(cms, resource);
-            CmsFile newFile = cms.writeFile(file);
-            if (wasLocked) {
-                cms.unlockResource(newFile);
+            Lock lock = getResourceLock(structureId);
+            lock.lock();
+            try {
+                CmsFile file = cms.readFile(resource);
+                file.setContents(newContent);
+                boolean wasLocked = ensureLock(cms, resource);
+                CmsFile newFile = cms.writeFile(file);
+                if (wasLocked) {
+                    cms.unlockResource(newFile);
+                }
+            } finally {
+                lock.unlock();
             }
         } catch (CmsException e) {
             handleCmsException(e);
@@ -1346,7 +1391,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#updateProperties(org.opencms.cmis.CmsCmisCallContext, org.apache.chemistry.opencmis.commons.spi.Holder, org.apache.chemistry.opencmis.commons.spi.Holder, org.apache.chemistry.opencmis.commons.data.Properties)
      */
-    public synchronized void updateProperties(
+    public void updateProperties(
         CmsCmisCallContext context,
         Holder<String> objectId,
         Holder<String> changeToken,
@@ -1361,35 +1406,41 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
             CmsResource resource = cms.readResource(structureId);
             Map<String, PropertyData<?>> propertyMap = properties.getProperties();
             List<CmsProperty> cmsProperties = getOpenCmsProperties(propertyMap);
-            boolean wasLocked = ensureLock(cms, resource);
+            Lock lock = getResourceLock(structureId);
+            lock.lock();
             try {
-                cms.writePropertyObjects(resource, cmsProperties);
-                @SuppressWarnings("unchecked")
-                PropertyData<String> nameProperty = (PropertyData<String>)propertyMap.get(PropertyIds.NAME);
-                if (nameProperty != null) {
-                    String newName = nameProperty.getFirstValue();
-                    checkResourceName(newName);
-                    String parentFolder = CmsResource.getParentFolder(resource.getRootPath());
-                    String newPath = CmsStringUtil.joinPaths(parentFolder, newName);
-                    cms.moveResource(resource.getRootPath(), newPath);
-                    resource = cms.readResource(resource.getStructureId());
-                }
+                boolean wasLocked = ensureLock(cms, resource);
+                try {
+                    cms.writePropertyObjects(resource, cmsProperties);
+                    @SuppressWarnings("unchecked")
+                    PropertyData<String> nameProperty = (PropertyData<String>)propertyMap.get(PropertyIds.NAME);
+                    if (nameProperty != null) {
+                        String newName = nameProperty.getFirstValue();
+                        checkResourceName(newName);
+                        String parentFolder = CmsResource.getParentFolder(resource.getRootPath());
+                        String newPath = CmsStringUtil.joinPaths(parentFolder, newName);
+                        cms.moveResource(resource.getRootPath(), newPath);
+                        resource = cms.readResource(resource.getStructureId());
+                    }
 
-                for (String key : properties.getProperties().keySet()) {
-                    if (key.startsWith(CmsCmisTypeManager.PROPERTY_PREFIX_DYNAMIC)) {
-                        I_CmsPropertyProvider provider = getTypeManager().getPropertyProvider(key);
-                        try {
-                            String value = (String)(properties.getProperties().get(key).getFirstValue());
-                            provider.setPropertyValue(cms, resource, value);
-                        } catch (CmsException e) {
-                            LOG.error(e.getLocalizedMessage(), e);
+                    for (String key : properties.getProperties().keySet()) {
+                        if (key.startsWith(CmsCmisTypeManager.PROPERTY_PREFIX_DYNAMIC)) {
+                            I_CmsPropertyProvider provider = getTypeManager().getPropertyProvider(key);
+                            try {
+                                String value = (String)(properties.getProperties().get(key).getFirstValue());
+                                provider.setPropertyValue(cms, resource, value);
+                            } catch (CmsException e) {
+                                LOG.error(e.getLocalizedMessage(), e);
+                            }
                         }
                     }
+                } finally {
+                    if (wasLocked) {
+                        cms.unlockResource(resource);
+                    }
                 }
             } finally {
-                if (wasLocked) {
-                    cms.unlockResource(resource);
-                }
+                lock.unlock();
             }
         } catch (CmsException e) {
             handleCmsException(e);
@@ -1553,6 +1604,21 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
         }
     }
 
+    /**
+     * Gets the lock which serializes operations changing the OpenCms lock state of the resource with the given id.<p>
+     *
+     * Without it, two concurrent calls of the same user could interfere, e.g. the second call would find the
+     * resource already locked by the first one and then fail when the first call removes the temporary lock.<p>
+     *
+     * @param structureId the structure id of the resource
+     *
+     * @return the lock for the resource
+     */
+    Lock getResourceLock(CmsUUID structureId) {
+
+        return m_resourceLocks.get(structureId);
+    }
+
     /**
      * Helper method for executing a query.<p>
      *
@@ -64,6 +64,7 @@ import java.util.GregorianCalendar;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.locks.Lock;
 
 import org.apache.chemistry.opencmis.commons.PropertyIds;
 import org.apache.chemistry.opencmis.commons.data.Ace;
@@ -116,7 +117,7 @@ public class CmsCmisResourceHelper implements I_CmsCmisObjectHelper {
      * @param objectId the id of the object to delete
      * @param allVersions flag to delete all version
      */
-    public synchronized void deleteObject(CmsCmisCallContext context, String objectId, boolean allVersions) {
+    public void deleteObject(CmsCmisCallContext context, String objectId, boolean allVersions) {
 
         try {
             CmsObject cms = m_repository.getCmsObject(context);
@@ -128,8 +129,14 @@ public class CmsCmisResourceHelper implements I_CmsCmisObjectHelper {
                     throw new CmisConstraintException("Only leaf resources can be deleted.");
                 }
             }
-            ensureLock(cms, resource);
-            cms.deleteResource(resource.getRootPath(), CmsResource.DELETE_PRESERVE_SIBLINGS);
+            Lock lock = m_repository.getResourceLock(structureId);
+            lock.lock();
+            try {
+                ensureLock(cms, resource);
+                cms.deleteResource(resource.getRootPath(), CmsResource.DELETE_PRESERVE_SIBLINGS);
+            } finally {
+                lock.unlock();
+            }
         } catch (CmsException e) {
             handleCmsException(e);
         }
@@ -144,7 +151,7 @@ public class CmsCmisResourceHelper implements I_CmsCmisObjectHelper {
      *
      * @return the ACL for the object
      */
-    public synchronized Acl getAcl(CmsCmisCallContext context, String objectId, boolean onlyBasicPermissions) {
+    public Acl getAcl(CmsCmisCallContext context, String objectId, boolean onlyBasicPermissions) {
 
         try {
 
@@ -166,7 +173,7 @@ public class CmsCmisResourceHelper implements I_CmsCmisObjectHelper {
      * @param objectId the object id
      * @return the allowable actions
      */
-    public synchronized AllowableActions getAllowableActions(CmsCmisCallContext context, String objectId) {
+    public AllowableActions getAllowableActions(CmsCmisCallContext context, String objectId) {
 
         try {
             CmsObject cms = m_repository.getCmsObject(context);
@@ -193,7 +200,7 @@ public class CmsCmisResourceHelper implements I_CmsCmisObjectHelper {
      *
      * @return the CMIS object data
      */
-    public synchronized ObjectData getObject(
+    public ObjectData getObject(
         CmsCmisCallContext context,
         String objectId,
         String filter,
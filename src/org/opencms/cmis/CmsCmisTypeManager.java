@@ -107,19 +107,19 @@ public class CmsCmisTypeManager {
     private CmsObject m_adminCms;
 
     /** The list of OpenCms property definitions. */
-    private List<CmsPropertyDefinition> m_cmsPropertyDefinitions;
+    private volatile List<CmsPropertyDefinition> m_cmsPropertyDefinitions;
 
     /** The last update time. */
-    private long m_lastUpdate;
+    private volatile long m_lastUpdate;
 
     /** List of dynamic property providers. */
     private List<I_CmsPropertyProvider> m_propertyProviders = new ArrayList<I_CmsPropertyProvider>();
 
     /** The internal list of type definitions. */
-    private List<TypeDefinitionContainer> m_typeList;
+    private volatile List<TypeDefinitionContainer> m_typeList;
 
     /** The internal map of type definitions. */
-    private Map<String, TypeDefinitionContainerImpl> m_types;
+    private volatile Map<String, TypeDefinitionContainerImpl> m_types;
 
     /**
      * Creates a new type manager instance.<p>
@@ -1062,15 +1062,25 @@ public class CmsCmisTypeManager {
     /**
      * Refreshes the internal data if the last update was longer ago than the udpate interval.<p>
      */
-    private synchronized void refresh() {
+    private void refresh() {
 
-        try {
-            long now = System.currentTimeMillis();
-            if ((now - m_lastUpdate) > UPDATE_INTERVAL) {
-                setup();
+        if ((System.currentTimeMillis() - m_lastUpdate) <= UPDATE_INTERVAL) {
+            return;
+        }
+        synchronized (this) {
+            try {
+                long now = System.currentTimeMillis();
+                if ((now - m_lastUpdate) > UPDATE_INTERVAL) {
+                    // build the new type definitions separately, so concurrent readers never see them half initialized
+                    CmsCmisTypeManager newTypes = new CmsCmisTypeManager(m_adminCms, m_propertyProviders);
+                    m_cmsPropertyDefinitions = newTypes.m_cmsPropertyDefinitions;
+                    m_types = newTypes.m_types;
+                    m_typeList = newTypes.m_typeList;
+                    m_lastUpdate = newTypes.m_lastUpdate;
+                }
+            } catch (CmsException e) {
+                LOG.error(e.getLocalizedMessage(), e);
             }
-        } catch (CmsException e) {
-            LOG.error(e.getLocalizedMessage(), e);
         }
     }
 
@@ -443,12 +443,18 @@ public class CmsSystemConfiguration extends A_CmsXmlConfiguration {
     /** The size of the memory monitor's cache for ACLS. */
     public static final String N_SIZE_ACLS = "size-accesscontrollists";
 
+    /** The total number of entries distributed between the memory monitor's caches. */
+    public static final String N_SIZE_BUDGET = "size-budget";
+
     /** The size of the memory monitor's cache for offline container pages. */
     public static final String N_SIZE_CONTAINERPAGE_OFFLINE = "size-containerpage-offline";
 
     /** The size of the memory monitor's cache for online container pages. */
     public static final String N_SIZE_CONTAINERPAGE_ONLINE = "size-containerpage-online";
 
+    /** The size of the disk backed second level of the memory monitor's caches. */
+    public static final String N_SIZE_DISK = "size-disk";
+
     /** The size of the memory monitor's cache for groups. */
     public static final String N_SIZE_GROUPS = "size-groups";
 
@@ -470,6 +476,9 @@ public class CmsSystemConfiguration extends A_CmsXmlConfiguration {
     /** The size of the memory monitor's cache for property lists. */
     public static final String N_SIZE_PROPERTYLISTS = "size-propertylists";
 
+    /** The size of the memory monitor's cache for collector and search results. */
+    public static final String N_SIZE_QUERYRESULTS = "size-queryresults";
+
     /** The size of the memory monitor's cache for lists of resources. */
     public static final String N_SIZE_RESOURCELISTS = "size-resourcelists";
 
@@ -533,6 +542,9 @@ public class CmsSystemConfiguration extends A_CmsXmlConfiguration {
     /** The node name for the workplace-server node. */
     public static final String N_WORKPLACE_SERVER = "workplace-server";
 
+    /** The xmlcontents node name. */
+    public static final String N_XMLCONTENTS = "xmlcontents";
+
     /** The log object for this class. */
     private static final Log LOG = CmsLog.getLog(CmsSystemConfiguration.class);
 
@@ -1084,6 +1096,12 @@ public class CmsSystemConfiguration extends A_CmsXmlConfiguration {
             "*/" + N_SYSTEM + "/" + N_RESULTCACHE + "/" + N_SIZE_PERMISSIONS,
             "setPermissionCacheSize",
             0);
+        digester.addCallMethod(
+            "*/" + N_SYSTEM + "/" + N_RESULTCACHE + "/" + N_SIZE_QUERYRESULTS,
+            "setQueryResultCacheSize",
+            0);
+        digester.addCallMethod("*/" + N_SYSTEM + "/" + N_RESULTCACHE + "/" + N_SIZE_DISK, "setDiskCacheSize", 0);
+        digester.addCallMethod("*/" + N_SYSTEM + "/" + N_RESULTCACHE + "/" + N_SIZE_BUDGET, "setCacheBudget", 0);
         digester.addCallMethod(
             "*/" + N_SYSTEM + "/" + N_RESULTCACHE + "/" + N_SIZE_CONTAINERPAGE_OFFLINE,
             "setContainerPageOfflineSize",
@@ -1168,6 +1186,9 @@ public class CmsSystemConfiguration extends A_CmsXmlConfiguration {
         digester.addCallParam(adeCachePath + "/" + N_GROUPCONTAINERS, 0, A_OFFLINE);
         digester.addCallMethod(adeCachePath + "/" + N_GROUPCONTAINERS, "setGroupContainerOnlineSize", 1);
         digester.addCallParam(adeCachePath + "/" + N_GROUPCONTAINERS, 0, A_ONLINE);
+        // parsed online XML content cache
+        digester.addCallMethod(adeCachePath + "/" + N_XMLCONTENTS, "setXmlContentOnlineSize", 1);
+        digester.addCallParam(adeCachePath + "/" + N_XMLCONTENTS, 0, A_ONLINE);
         // set the settings
         digester.addSetNext(adeCachePath, "setAdeCacheSettings");
 
@@ -1551,6 +1572,18 @@ public class CmsSystemConfiguration extends A_CmsXmlConfiguration {
         }
         cacheElement.addElement(N_SIZE_ACLS).setText(Integer.toString(m_cacheSettings.getAclCacheSize()));
         cacheElement.addElement(N_SIZE_PERMISSIONS).setText(Integer.toString(m_cacheSettings.getPermissionCacheSize()));
+        if (m_cacheSettings.getConfiguredQueryResultCacheSize() > -1) {
+            cacheElement.addElement(N_SIZE_QUERYRESULTS).setText(
+                Integer.toString(m_cacheSettings.getConfiguredQueryResultCacheSize()));
+        }
+        if (m_cacheSettings.getConfiguredDiskCacheSize() > -1) {
+            cacheElement.addElement(N_SIZE_DISK).setText(
+                Integer.toString(m_cacheSettings.getConfiguredDiskCacheSize()));
+        }
+        if (m_cacheSettings.getConfiguredCacheBudget() > -1) {
+            cacheElement.addElement(N_SIZE_BUDGET).setText(
+                Integer.toString(m_cacheSettings.getConfiguredCacheBudget()));
+        }
 
         // content notification settings
         if ((m_notificationTime != null) || (m_notificationProject != null)) {
@@ -1640,6 +1673,9 @@ public class CmsSystemConfiguration extends A_CmsXmlConfiguration {
                 groupContainerCacheElem.addAttribute(
                     A_ONLINE,
                     "" + getAdeCacheSettings().getGroupContainerOnlineSize());
+                // parsed online XML content cache
+                Element xmlContentCacheElem = cacheElem.addElement(N_XMLCONTENTS);
+                xmlContentCacheElem.addAttribute(A_ONLINE, "" + getAdeCacheSettings().getXmlContentOnlineSize());
             }
         }
 
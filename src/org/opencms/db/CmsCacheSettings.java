@@ -37,9 +37,15 @@ public class CmsCacheSettings {
     /** The size of the memory monitor's cache for ACLs. */
     private int m_aclCacheSize;
 
+    /** The total number of entries distributed between the memory monitor's caches. */
+    private int m_cacheBudget = -1; // this configuration entry is optional
+
     /** The name of the class to generate cache keys. */
     private String m_cacheKeyGenerator;
 
+    /** The disk space in megabytes for the second level of each tiered cache of the memory monitor. */
+    private int m_diskCacheSize = -1; // this configuration entry is optional
+
     /** The size of the memory monitor's cache for groups. */
     private int m_groupCacheSize;
 
@@ -61,6 +67,9 @@ public class CmsCacheSettings {
     /** The size of the memory monitor's cache for property lists. */
     private int m_propertyListsCacheSize = -1; // this configuration entry is optional
 
+    /** The size of the memory monitor's cache for collector and search results. */
+    private int m_queryResultCacheSize = -1; // this configuration entry is optional
+
     /** The size of the memory monitor's cache for resources. */
     private int m_resourceCacheSize;
 
@@ -94,6 +103,18 @@ public class CmsCacheSettings {
         return m_aclCacheSize;
     }
 
+    /**
+     * Returns the total number of entries distributed between the memory monitor's caches.<p>
+     *
+     * If this is <code>0</code>, the configured cache sizes are used unchanged.<p>
+     *
+     * @return the total number of entries distributed between the caches
+     */
+    public int getCacheBudget() {
+
+        return Math.max(m_cacheBudget, 0);
+    }
+
     /**
      * Returns the name of the class to generate cache keys.<p>
      *
@@ -104,6 +125,30 @@ public class CmsCacheSettings {
         return m_cacheKeyGenerator;
     }
 
+    /**
+     * Returns the total number of entries distributed between the memory monitor's caches.<p>
+     *
+     * Might be <code>-1</code> if configuration entry is missing.<p>
+     *
+     * @return the total number of entries distributed between the caches
+     */
+    public int getConfiguredCacheBudget() {
+
+        return m_cacheBudget;
+    }
+
+    /**
+     * Returns the disk space in megabytes for the second level of each tiered cache of the memory monitor.<p>
+     *
+     * Might be <code>-1</code> if configuration entry is missing.<p>
+     *
+     * @return the disk space in megabytes for the second level of each tiered cache
+     */
+    public int getConfiguredDiskCacheSize() {
+
+        return m_diskCacheSize;
+    }
+
     /**
      * Returns the size of the memory monitor's cache for organizational units.<p>
      *
@@ -140,6 +185,18 @@ public class CmsCacheSettings {
         return m_propertyListsCacheSize;
     }
 
+    /**
+     * Returns the size of the memory monitor's cache for collector and search results.<p>
+     *
+     * Might be <code>-1</code> if configuration entry is missing.<p>
+     *
+     * @return the size of the memory monitor's cache for collector and search results
+     */
+    public int getConfiguredQueryResultCacheSize() {
+
+        return m_queryResultCacheSize;
+    }
+
     /**
      * Returns the size of the memory monitor's cache for roles.<p>
      *
@@ -152,6 +209,18 @@ public class CmsCacheSettings {
         return m_rolesCacheSize;
     }
 
+    /**
+     * Returns the disk space in megabytes for the second level of each tiered cache of the memory monitor.<p>
+     *
+     * The second level is disabled if this is <code>0</code>.<p>
+     *
+     * @return the disk space in megabytes for the second level of each tiered cache
+     */
+    public int getDiskCacheSize() {
+
+        return Math.max(m_diskCacheSize, 0);
+    }
+
     /**
      * Returns the size of the memory monitor's cache for groups.<p>
      *
@@ -231,6 +300,19 @@ public class CmsCacheSettings {
         return m_propertyListsCacheSize;
     }
 
+    /**
+     * Returns the size of the memory monitor's cache for collector and search results.<p>
+     *
+     * @return the size of the memory monitor's cache for collector and search results
+     */
+    public int getQueryResultCacheSize() {
+
+        if (m_queryResultCacheSize < 0) {
+            return 1024;
+        }
+        return m_queryResultCacheSize;
+    }
+
     /**
      * Returns the size of the memory monitor's cache for resources.<p>
      *
@@ -294,6 +376,16 @@ public class CmsCacheSettings {
         m_aclCacheSize = getIntValue(size, 1024);
     }
 
+    /**
+     * Sets the total number of entries distributed between the memory monitor's caches.<p>
+     *
+     * @param size the total number of entries, <code>0</code> disables the adaptive cache sizes
+     */
+    public void setCacheBudget(String size) {
+
+        m_cacheBudget = getIntValue(size, 0);
+    }
+
     /**
      * Sets the name of the class to generate cache keys.<p>
      *
@@ -304,6 +396,16 @@ public class CmsCacheSettings {
         m_cacheKeyGenerator = classname;
     }
 
+    /**
+     * Sets the disk space in megabytes for the second level of each tiered cache of the memory monitor.<p>
+     *
+     * @param size the disk space in megabytes, <code>0</code> disables the second level
+     */
+    public void setDiskCacheSize(String size) {
+
+        m_diskCacheSize = getIntValue(size, 0);
+    }
+
     /**
      * Sets the size of the memory monitor's cache for groups.<p>
      *
@@ -374,6 +476,16 @@ public class CmsCacheSettings {
         m_propertyListsCacheSize = getIntValue(size, -1);
     }
 
+    /**
+     * Sets the size of the memory monitor's cache for collector and search results.<p>
+     *
+     * @param size the size of the memory monitor's cache for collector and search results
+     */
+    public void setQueryResultCacheSize(String size) {
+
+        m_queryResultCacheSize = getIntValue(size, -1);
+    }
+
     /**
      * Sets the size of the memory monitor's cache for resources.<p>
      *
@@ -115,7 +115,9 @@ import org.opencms.util.CmsUUID;
 import org.opencms.util.PrintfFormat;
 import org.opencms.workplace.threads.A_CmsProgressThread;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
@@ -314,6 +316,9 @@ public final class CmsDriverManager implements I_CmsEventListener {
     /** Key to indicate update of structure state. */
     public static final int UPDATE_STRUCTURE_STATE = 2;
 
+    /** The number of resources processed per chunk when deleting historical versions. */
+    private static final int HISTORY_PRUNE_CHUNK_SIZE = 500;
+
     /** The log object for this class. */
     private static final Log LOG = CmsLog.getLog(CmsDriverManager.class);
 
@@ -1063,7 +1068,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
         }
 
         // clear the cache
-        m_monitor.clearAccessControlListCache();
+        clearAccessControlListCache(destination);
 
         // fire a resource modification event
         Map<String, Object> data = new HashMap<String, Object>(2);
@@ -2426,50 +2431,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
                 Messages.get().container(Messages.RPT_START_DELETE_ACT_VERSIONS_1, new Integer(versionsToKeep)),
                 I_CmsReport.FORMAT_HEADLINE);
 
-            List<I_CmsHistoryResource> resources = getHistoryDriver(dbc).getAllNotDeletedEntries(dbc);
-            if (resources.isEmpty()) {
-                report.println(Messages.get().container(Messages.RPT_DELETE_NOTHING_0), I_CmsReport.FORMAT_OK);
-            }
-            int n = resources.size();
-            int m = 1;
-            Iterator<I_CmsHistoryResource> itResources = resources.iterator();
-            while (itResources.hasNext()) {
-                I_CmsHistoryResource histResource = itResources.next();
-
-                report.print(
-                    org.opencms.report.Messages.get().container(
-                        org.opencms.report.Messages.RPT_SUCCESSION_2,
-                        String.valueOf(m),
-                        String.valueOf(n)),
-                    I_CmsReport.FORMAT_NOTE);
-                report.print(
-                    org.opencms.report.Messages.get().container(
-                        org.opencms.report.Messages.RPT_ARGUMENT_1,
-                        dbc.removeSiteRoot(histResource.getRootPath())));
-                report.print(org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_DOTS_0));
-
-                try {
-                    int deleted = getHistoryDriver(dbc).deleteEntries(dbc, histResource, versionsToKeep, -1);
-
-                    report.print(
-                        Messages.get().container(Messages.RPT_VERSION_DELETING_1, new Integer(deleted)),
-                        I_CmsReport.FORMAT_NOTE);
-                    report.print(org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_DOTS_0));
-                    report.println(
-                        org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_OK_0),
-                        I_CmsReport.FORMAT_OK);
-                } catch (CmsDataAccessException e) {
-                    report.println(
-                        org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_ERROR_0),
-                        I_CmsReport.FORMAT_ERROR);
-
-                    if (LOG.isDebugEnabled()) {
-                        LOG.debug(e.getLocalizedMessage(), e);
-                    }
-                }
-
-                m++;
-            }
+            deleteHistoricalVersions(dbc, false, versionsToKeep, -1, report);
 
             report.println(
                 Messages.get().container(Messages.RPT_END_DELETE_ACT_VERSIONS_0),
@@ -2488,50 +2450,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
                     Messages.get().container(Messages.RPT_START_DELETE_DEL_VERSIONS_1, new Integer(versionsDeleted)),
                     I_CmsReport.FORMAT_HEADLINE);
             }
-            List<I_CmsHistoryResource> resources = getHistoryDriver(dbc).getAllDeletedEntries(dbc);
-            if (resources.isEmpty()) {
-                report.println(Messages.get().container(Messages.RPT_DELETE_NOTHING_0), I_CmsReport.FORMAT_OK);
-            }
-            int n = resources.size();
-            int m = 1;
-            Iterator<I_CmsHistoryResource> itResources = resources.iterator();
-            while (itResources.hasNext()) {
-                I_CmsHistoryResource histResource = itResources.next();
-
-                report.print(
-                    org.opencms.report.Messages.get().container(
-                        org.opencms.report.Messages.RPT_SUCCESSION_2,
-                        String.valueOf(m),
-                        String.valueOf(n)),
-                    I_CmsReport.FORMAT_NOTE);
-                report.print(
-                    org.opencms.report.Messages.get().container(
-                        org.opencms.report.Messages.RPT_ARGUMENT_1,
-                        dbc.removeSiteRoot(histResource.getRootPath())));
-                report.print(org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_DOTS_0));
-
-                try {
-                    int deleted = getHistoryDriver(dbc).deleteEntries(dbc, histResource, versionsDeleted, timeDeleted);
-
-                    report.print(
-                        Messages.get().container(Messages.RPT_VERSION_DELETING_1, new Integer(deleted)),
-                        I_CmsReport.FORMAT_NOTE);
-                    report.print(org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_DOTS_0));
-                    report.println(
-                        org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_OK_0),
-                        I_CmsReport.FORMAT_OK);
-                } catch (CmsDataAccessException e) {
-                    report.println(
-                        org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_ERROR_0),
-                        I_CmsReport.FORMAT_ERROR);
-
-                    if (LOG.isDebugEnabled()) {
-                        LOG.debug(e.getLocalizedMessage(), e);
-                    }
-                }
-
-                m++;
-            }
+            deleteHistoricalVersions(dbc, true, versionsDeleted, timeDeleted, report);
             report.println(
                 Messages.get().container(Messages.RPT_END_DELETE_DEL_VERSIONS_0),
                 I_CmsReport.FORMAT_HEADLINE);
@@ -3478,7 +3397,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
     public CmsAccessControlList getAccessControlList(CmsDbContext dbc, CmsResource resource, boolean inheritedOnly)
     throws CmsException {
 
-        return getAccessControlList(dbc, resource, inheritedOnly, resource.isFolder(), 0);
+        return getAccessControlList(dbc, resource, inheritedOnly, resource.isFolder(), 0, null);
     }
 
     /**
@@ -4271,6 +4190,37 @@ public final class CmsDriverManager implements I_CmsEventListener {
         return acList.getPermissions(user, getGroupsOfUser(dbc, user.getName(), false), getRolesForUser(dbc, user));
     }
 
+    /**
+     * Returns the set of permissions of a user for a given resource, using already known
+     * groups and roles of the user.<p>
+     *
+     * This is intended for checking the permissions on a batch of resources, where the
+     * groups and roles are read only once and the access control lists of common parent folders
+     * are shared using the given local cache.<p>
+     *
+     * @param dbc the current database context
+     * @param resource the resource
+     * @param user the user
+     * @param groups the groups of the user, see {@link #getGroupsOfUser(CmsDbContext, String, boolean)}
+     * @param roles the roles of the user, see {@link #getRolesForUser(CmsDbContext, CmsUser)}
+     * @param aclCache the cache for access control lists, shared between all resources of the batch
+     *
+     * @return bit set with allowed permissions
+     *
+     * @throws CmsException if something goes wrong
+     */
+    public CmsPermissionSetCustom getPermissions(
+        CmsDbContext dbc,
+        CmsResource resource,
+        CmsUser user,
+        List<CmsGroup> groups,
+        List<CmsRole> roles,
+        Map<String, CmsAccessControlList> aclCache) throws CmsException {
+
+        CmsAccessControlList acList = getAccessControlList(dbc, resource, false, resource.isFolder(), 0, aclCache);
+        return acList.getPermissions(user, groups, roles);
+    }
+
     /**
      * Returns the project driver.<p>
      *
@@ -4977,7 +4927,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
         while (i.hasNext()) {
             userDriver.writeAccessControlEntry(dbc, dbc.currentProject(), i.next());
         }
-        m_monitor.clearAccessControlListCache();
+        clearAccessControlListCache(resource);
     }
 
     /**
@@ -5205,6 +5155,73 @@ public final class CmsDriverManager implements I_CmsEventListener {
         return CmsProject.isInsideProject(projectResources, resourcename);
     }
 
+    /**
+     * Checks if the current online content of a resource is identical to the given content.<p>
+     *
+     * This is used during publishing to keep the existing content entry of a file which was saved
+     * again without modifications, instead of storing another copy of the same content.<p>
+     *
+     * @param dbc the current database context
+     * @param resourceId the resource id of the file
+     * @param content the content to compare with the online content
+     *
+     * @return <code>true</code> if the file has an online content which is identical to the given content
+     *
+     * @throws CmsDataAccessException if reading the online content fails
+     */
+    public boolean isOnlineContentEqual(CmsDbContext dbc, CmsUUID resourceId, byte[] content)
+    throws CmsDataAccessException {
+
+        try {
+            byte[] onlineContent = getVfsDriver(dbc).readContent(dbc, CmsProject.ONLINE_PROJECT_ID, resourceId);
+            return Arrays.equals(onlineContent, content);
+        } catch (CmsVfsResourceNotFoundException e) {
+            // there is no online content yet
+            return false;
+        }
+    }
+
+    /**
+     * Checks if the online content of a file is still the same as the content of the given offline file.<p>
+     *
+     * This is used when a deleted file is published, to keep the online content entry in the history
+     * instead of storing another copy of the same content. The contents are only compared if the online
+     * resource has the same resource id and length, and if the offline content date is newer.<p>
+     *
+     * @param dbc the current database context
+     * @param offlineResource the offline resource
+     * @param content the offline content of the resource
+     *
+     * @return <code>true</code> if the online content is identical to the given content
+     *
+     * @throws CmsDataAccessException if reading the online resource or content fails
+     */
+    public boolean isOnlineContentUnchanged(CmsDbContext dbc, CmsResource offlineResource, byte[] content)
+    throws CmsDataAccessException {
+
+        CmsResource onlineResource;
+        try {
+            onlineResource = getVfsDriver(dbc).readResource(
+                dbc,
+                CmsProject.ONLINE_PROJECT_ID,
+                offlineResource.getStructureId(),
+                true);
+        } catch (CmsVfsResourceNotFoundException e) {
+            // the resource has never been published
+            return false;
+        }
+        if (!onlineResource.getResourceId().equals(offlineResource.getResourceId())
+            || (onlineResource.getLength() != content.length)) {
+            // the content has been replaced
+            return false;
+        }
+        if (onlineResource.getDateContent() >= offlineResource.getDateContent()) {
+            // the content was not modified since it was published
+            return true;
+        }
+        return isOnlineContentEqual(dbc, offlineResource.getResourceId(), content);
+    }
+
     /**
      * Checks whether the subscription driver is available.<p>
      *
@@ -7446,6 +7463,61 @@ public final class CmsDriverManager implements I_CmsEventListener {
         return new ArrayList<CmsProperty>(properties);
     }
 
+    /**
+     * Reads the property objects directly attached to each of the given resources.<p>
+     *
+     * Cached property lists are used where available, the properties of all other resources
+     * are read from the database at once and then cached.<p>
+     *
+     * @param dbc the current database context
+     * @param resources the resources to read the properties for
+     *
+     * @return the properties of the resources, by structure id
+     *
+     * @throws CmsException if something goes wrong
+     *
+     * @see #readPropertyObjects(CmsDbContext, CmsResource, boolean)
+     */
+    public Map<CmsUUID, List<CmsProperty>> readPropertyObjectsForResources(
+        CmsDbContext dbc,
+        List<CmsResource> resources) throws CmsException {
+
+        CmsUUID projectId = getProjectIdForContext(dbc);
+        boolean useCache = dbc.getProjectId().isNullUUID();
+        Map<CmsUUID, List<CmsProperty>> result = new HashMap<CmsUUID, List<CmsProperty>>();
+        List<CmsResource> uncached = new ArrayList<CmsResource>();
+        for (CmsResource resource : resources) {
+            List<CmsProperty> properties = null;
+            if (useCache) {
+                properties = m_monitor.getCachedPropertyList(
+                    getCacheKey(CACHE_ALL_PROPERTIES, false, projectId, resource.getRootPath()));
+            }
+            if (properties != null) {
+                result.put(resource.getStructureId(), new ArrayList<CmsProperty>(properties));
+            } else {
+                uncached.add(resource);
+            }
+        }
+        if (!uncached.isEmpty()) {
+            Map<CmsUUID, List<CmsProperty>> read = getVfsDriver(dbc).readPropertyObjectsForResources(
+                dbc,
+                dbc.currentProject(),
+                uncached);
+            for (CmsResource resource : uncached) {
+                List<CmsProperty> properties = read.get(resource.getStructureId());
+                // set all properties in the result list as frozen
+                CmsProperty.setFrozen(properties);
+                if (useCache) {
+                    m_monitor.cachePropertyList(
+                        getCacheKey(CACHE_ALL_PROPERTIES, false, projectId, resource.getRootPath()),
+                        properties);
+                }
+                result.put(resource.getStructureId(), new ArrayList<CmsProperty>(properties));
+            }
+        }
+        return result;
+    }
+
     /**
      * Reads the resources that were published in a publish task for a given publish history ID.<p>
      *
@@ -7524,7 +7596,14 @@ public final class CmsDriverManager implements I_CmsEventListener {
      */
     public byte[] readPublishReportContents(CmsDbContext dbc, CmsUUID publishHistoryId) throws CmsException {
 
-        return getProjectDriver(dbc).readPublishReportContents(dbc, publishHistoryId);
+        byte[] contents = getProjectDriver(dbc).readPublishReportContents(dbc, publishHistoryId);
+        try {
+            return CmsPublishReport.uncompress(contents);
+        } catch (IOException e) {
+            throw new CmsDbIoException(
+                Messages.get().container(Messages.ERR_READ_PUBLISH_REPORT_1, publishHistoryId),
+                e);
+        }
     }
 
     /**
@@ -7679,6 +7758,42 @@ public final class CmsDriverManager implements I_CmsEventListener {
         return updateContextDates(dbc, resourceList, filter);
     }
 
+    /**
+     * Reads the resources with the given structure ids, using the specified resource filter.<p>
+     *
+     * All resources are read from the database at once. Ids of resources which don't exist, don't
+     * match the filter or can't be read by the current user are ignored.<p>
+     *
+     * @param dbc the current database context
+     * @param structureIds the structure ids of the resources to read
+     * @param filter the resource filter to use while reading
+     *
+     * @return the resources that were read, in no particular order
+     *
+     * @throws CmsException if something goes wrong
+     *
+     * @see #readResource(CmsDbContext, CmsUUID, CmsResourceFilter)
+     */
+    public List<CmsResource> readResourcesForIds(
+        CmsDbContext dbc,
+        Collection<CmsUUID> structureIds,
+        CmsResourceFilter filter) throws CmsException {
+
+        if (structureIds.isEmpty()) {
+            return new ArrayList<CmsResource>();
+        }
+        CmsUUID projectId = getProjectIdForContext(dbc);
+        List<CmsResource> resources = getVfsDriver(dbc).readResourcesForIds(
+            dbc,
+            projectId,
+            structureIds,
+            filter.includeDeleted());
+        // apply the permission filter
+        resources = filterPermissions(dbc, resources, filter);
+        // we must always apply the result filter and update the context dates
+        return updateContextDates(dbc, resources, filter);
+    }
+
     /**
      * Returns the resources that were visited by a user set in the filter.<p>
      *
@@ -8103,7 +8218,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
         setDateLastModified(dbc, resource, resource.getDateLastModified());
 
         // clear the cache
-        m_monitor.clearAccessControlListCache();
+        clearAccessControlListCache(resource);
 
         // fire a resource modification event
         Map<String, Object> data = new HashMap<String, Object>(2);
@@ -9539,7 +9654,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
         setDateLastModified(dbc, resource, resource.getDateLastModified());
 
         // clear the cache
-        m_monitor.clearAccessControlListCache();
+        clearAccessControlListCache(resource);
 
         // fire a resource modification event
         Map<String, Object> data = new HashMap<String, Object>(2);
@@ -10032,7 +10147,18 @@ public final class CmsDriverManager implements I_CmsEventListener {
         CmsPublishReport report = (CmsPublishReport)publishJob.removePublishReport();
 
         if (report != null) {
-            getProjectDriver(dbc).writePublishReport(dbc, publishJob.getPublishHistoryId(), report.getContents());
+            try {
+                getProjectDriver(dbc).writePublishReport(
+                    dbc,
+                    publishJob.getPublishHistoryId(),
+                    report.getCompressedContents());
+            } catch (IOException e) {
+                throw new CmsDbIoException(
+                    Messages.get().container(Messages.ERR_WRITE_PUBLISH_REPORT_1, publishJob.getPublishHistoryId()),
+                    e);
+            } finally {
+                report.deleteSpoolFile();
+            }
         }
     }
 
@@ -10726,6 +10852,72 @@ public final class CmsDriverManager implements I_CmsEventListener {
         return false;
     }
 
+    /**
+     * Deletes the outdated historical versions of either the existing or the deleted resources,
+     * processing the resources in chunks and reporting the progress per chunk.<p>
+     *
+     * @param dbc the current database context
+     * @param deleted if <code>true</code>, the versions of deleted resources are processed, otherwise the versions of existing resources
+     * @param versionsToKeep the number of versions to keep
+     * @param time deleted resources older than this will also be deleted, is ignored if negative
+     * @param report the report for output logging
+     *
+     * @throws CmsDataAccessException if reading the resources of a chunk fails
+     */
+    private void deleteHistoricalVersions(
+        CmsDbContext dbc,
+        boolean deleted,
+        int versionsToKeep,
+        long time,
+        I_CmsReport report) throws CmsDataAccessException {
+
+        I_CmsHistoryDriver historyDriver = getHistoryDriver(dbc);
+        CmsHistoryPruneChunk chunk = historyDriver.pruneEntries(
+            dbc,
+            deleted,
+            versionsToKeep,
+            time,
+            null,
+            HISTORY_PRUNE_CHUNK_SIZE);
+        if (chunk.isEmpty()) {
+            report.println(Messages.get().container(Messages.RPT_DELETE_NOTHING_0), I_CmsReport.FORMAT_OK);
+            return;
+        }
+        int resources = 0;
+        while (!chunk.isEmpty()) {
+            resources += chunk.getResources();
+            report.print(
+                Messages.get().container(
+                    Messages.RPT_DELETE_VERSIONS_CHUNK_2,
+                    new Integer(chunk.getResources()),
+                    new Integer(resources)),
+                I_CmsReport.FORMAT_NOTE);
+            report.print(org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_DOTS_0));
+            report.print(
+                Messages.get().container(Messages.RPT_VERSION_DELETING_1, new Integer(chunk.getVersions())),
+                I_CmsReport.FORMAT_NOTE);
+            report.print(org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_DOTS_0));
+            if (chunk.getFailedResources() > 0) {
+                report.println(
+                    Messages.get().container(
+                        Messages.RPT_DELETE_VERSIONS_FAILED_1,
+                        new Integer(chunk.getFailedResources())),
+                    I_CmsReport.FORMAT_ERROR);
+            } else {
+                report.println(
+                    org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_OK_0),
+                    I_CmsReport.FORMAT_OK);
+            }
+            chunk = historyDriver.pruneEntries(
+                dbc,
+                deleted,
+                versionsToKeep,
+                time,
+                chunk.getLastStructureId(),
+                HISTORY_PRUNE_CHUNK_SIZE);
+        }
+    }
+
     /**
      * Copies all relations from the source resource to the target resource.<p>
      *
@@ -10781,17 +10973,17 @@ public final class CmsDriverManager implements I_CmsEventListener {
             filter = filter.addExcludeTimerange();
         }
         ArrayList<CmsResource> result = new ArrayList<CmsResource>(resourceList.size());
+        // check the permission of all resources in one batch
+        List<I_CmsPermissionHandler.CmsPermissionCheckResult> permissions = m_securityManager.hasPermissions(
+            dbc,
+            resourceList,
+            CmsPermissionSet.ACCESS_READ,
+            true,
+            filter);
         for (int i = 0; i < resourceList.size(); i++) {
-            // check the permission of all resources
-            CmsResource currentResource = resourceList.get(i);
-            if (m_securityManager.hasPermissions(
-                dbc,
-                currentResource,
-                CmsPermissionSet.ACCESS_READ,
-                true,
-                filter).isAllowed()) {
+            if (permissions.get(i).isAllowed()) {
                 // only return resources where permission was granted
-                result.add(currentResource);
+                result.add(resourceList.get(i));
             }
         }
         // return the result
@@ -10935,6 +11127,23 @@ public final class CmsDriverManager implements I_CmsEventListener {
         return result;
     }
 
+    /**
+     * Clears the cached access control lists after the access control entries of the given resource have changed.<p>
+     *
+     * Only the subtree of the resource is affected, unless the resource is a file with siblings,
+     * since access control entries are shared by all siblings.<p>
+     *
+     * @param resource the resource whose access control entries have changed
+     */
+    private void clearAccessControlListCache(CmsResource resource) {
+
+        if (resource.isFile() && (resource.getSiblingCount() > 1)) {
+            m_monitor.clearAccessControlListCache();
+        } else {
+            m_monitor.clearAccessControlListCache(resource.getRootPath());
+        }
+    }
+
     /**
      * Returns the access control list of a given resource.<p>
      *
@@ -10943,6 +11152,8 @@ public final class CmsDriverManager implements I_CmsEventListener {
      * @param forFolder should be true if resource is a folder
      * @param depth the depth to include non-inherited access entries, also
      * @param inheritedOnly flag indicates to collect inherited permissions only
+     * @param localCache an optional cache for the access control lists of a batch of resources,
+     *      shared for common parent folders even if the results can not be stored in the memory monitor
      *
      * @return the access control list of the resource
      *
@@ -10953,10 +11164,13 @@ public final class CmsDriverManager implements I_CmsEventListener {
         CmsResource resource,
         boolean inheritedOnly,
         boolean forFolder,
-        int depth) throws CmsException {
+        int depth,
+        Map<String, CmsAccessControlList> localCache) throws CmsException {
 
+        // the key must start with the root path, see CmsMemoryMonitor#clearAccessControlListCache(String)
         String cacheKey = getCacheKey(
             new String[] {
+                resource.getRootPath(),
                 inheritedOnly ? "+" : "-",
                 forFolder ? "+" : "-",
                 Integer.toString(depth),
@@ -10969,6 +11183,18 @@ public final class CmsDriverManager implements I_CmsEventListener {
         if ((acl != null) && dbc.getProjectId().isNullUUID()) {
             return acl;
         }
+        // the memory monitor key is empty if a project id is set, so the batch uses its own key
+        String localCacheKey = null;
+        if (localCache != null) {
+            localCacheKey = resource.getStructureId().toString()
+                + (inheritedOnly ? "+" : "-")
+                + (forFolder ? "+" : "-")
+                + depth;
+            acl = localCache.get(localCacheKey);
+            if (acl != null) {
+                return acl;
+            }
+        }
 
         List<CmsAccessControlEntry> aces = getUserDriver(dbc).readAccessControlEntries(
             dbc,
@@ -11002,7 +11228,8 @@ public final class CmsDriverManager implements I_CmsEventListener {
                     parentResource,
                     inheritedOnly,
                     forFolder,
-                    depth + 1).clone();
+                    depth + 1,
+                    localCache).clone();
             }
         }
         if (acl == null) {
@@ -11029,6 +11256,9 @@ public final class CmsDriverManager implements I_CmsEventListener {
         if (dbc.getProjectId().isNullUUID()) {
             m_monitor.cacheACL(cacheKey, acl);
         }
+        if (localCache != null) {
+            localCache.put(localCacheKey, acl);
+        }
         return acl;
     }
 
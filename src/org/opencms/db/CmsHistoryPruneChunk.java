@@ -0,0 +1,122 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.db;
+
+import org.opencms.util.CmsUUID;
+
+/**
+ * The outcome of deleting the outdated historical versions of one chunk of resources.<p>
+ *
+ * Chunks are processed in the order of the structure ids, so the structure id of the last
+ * resource of a chunk is the starting point for the next one.<p>
+ *
+ * @since 10.0.0
+ *
+ * @see org.opencms.db.I_CmsHistoryDriver#pruneEntries(CmsDbContext, boolean, int, long, CmsUUID, int)
+ */
+public class CmsHistoryPruneChunk {
+
+    /** The number of resources for which deleting the versions failed. */
+    private int m_failedResources;
+
+    /** The structure id of the last resource in this chunk. */
+    private CmsUUID m_lastStructureId;
+
+    /** The number of resources processed in this chunk. */
+    private int m_resources;
+
+    /** The number of versions deleted in this chunk. */
+    private int m_versions;
+
+    /**
+     * Creates a new chunk outcome.<p>
+     *
+     * @param lastStructureId the structure id of the last resource in the chunk, <code>null</code> for an empty chunk
+     * @param resources the number of resources processed in the chunk
+     * @param versions the number of versions deleted in the chunk
+     * @param failedResources the number of resources for which deleting the versions failed
+     */
+    public CmsHistoryPruneChunk(CmsUUID lastStructureId, int resources, int versions, int failedResources) {
+
+        m_lastStructureId = lastStructureId;
+        m_resources = resources;
+        m_versions = versions;
+        m_failedResources = failedResources;
+    }
+
+    /**
+     * Returns the number of resources for which deleting the versions failed.<p>
+     *
+     * @return the number of resources for which deleting the versions failed
+     */
+    public int getFailedResources() {
+
+        return m_failedResources;
+    }
+
+    /**
+     * Returns the structure id of the last resource in this chunk.<p>
+     *
+     * @return the structure id of the last resource in this chunk, or <code>null</code> if the chunk was empty
+     */
+    public CmsUUID getLastStructureId() {
+
+        return m_lastStructureId;
+    }
+
+    /**
+     * Returns the number of resources processed in this chunk.<p>
+     *
+     * @return the number of resources processed in this chunk
+     */
+    public int getResources() {
+
+        return m_resources;
+    }
+
+    /**
+     * Returns the number of versions deleted in this chunk.<p>
+     *
+     * @return the number of versions deleted in this chunk
+     */
+    public int getVersions() {
+
+        return m_versions;
+    }
+
+    /**
+     * Checks if this chunk was empty, i.e. there are no more resources to process.<p>
+     *
+     * @return <code>true</code> if this chunk was empty
+     */
+    public boolean isEmpty() {
+
+        return m_lastStructureId == null;
+    }
+}
@@ -86,6 +86,7 @@ import org.opencms.security.CmsPrincipal;
 import org.opencms.security.CmsRole;
 import org.opencms.security.CmsRoleViolationException;
 import org.opencms.security.CmsSecurityException;
+import org.opencms.security.I_CmsBatchPermissionHandler;
 import org.opencms.security.I_CmsPermissionHandler;
 import org.opencms.security.I_CmsPrincipal;
 import org.opencms.util.CmsFileUtil;
@@ -2926,6 +2927,42 @@ public final class CmsSecurityManager {
         return result;
     }
 
+    /**
+     * Performs a non-blocking permission check on a list of resources.<p>
+     *
+     * The result is the same as calling {@link #hasPermissions(CmsRequestContext, CmsResource, CmsPermissionSet, boolean, CmsResourceFilter)}
+     * for every resource, but the groups and roles of the current user and the access control lists of
+     * common parent folders are only read once for the whole list.<p>
+     *
+     * @param context the current request context
+     * @param resources the resources on which permissions are required
+     * @param requiredPermissions the set of permissions required for the operation
+     * @param checkLock if true, a lock for the current user is required for
+     *      all write operations, if false it's ok to write as long as the resource
+     *      is not locked by another user
+     * @param filter the resource filter to use
+     *
+     * @return the permission check results, in the same order as the given resources
+     *
+     * @throws CmsException in case of i/o errors (NOT because of insufficient permissions)
+     */
+    public List<I_CmsPermissionHandler.CmsPermissionCheckResult> hasPermissions(
+        CmsRequestContext context,
+        List<CmsResource> resources,
+        CmsPermissionSet requiredPermissions,
+        boolean checkLock,
+        CmsResourceFilter filter) throws CmsException {
+
+        List<I_CmsPermissionHandler.CmsPermissionCheckResult> result = null;
+        CmsDbContext dbc = m_dbContextFactory.getDbContext(context);
+        try {
+            result = hasPermissions(dbc, resources, requiredPermissions, checkLock, filter);
+        } finally {
+            dbc.clear();
+        }
+        return result;
+    }
+
     /**
      * Checks if the given user has the given role in the given organizational unit.<p>
      *
@@ -4829,6 +4866,37 @@ public final class CmsSecurityManager {
         return result;
     }
 
+    /**
+     * Reads the property objects directly attached to each of the given resources.<p>
+     *
+     * @param context the current request context
+     * @param resources the resources to read the properties for
+     *
+     * @return the properties of the resources, by structure id
+     *
+     * @throws CmsException if something goes wrong
+     */
+    public Map<CmsUUID, List<CmsProperty>> readPropertyObjectsForResources(
+        CmsRequestContext context,
+        List<CmsResource> resources) throws CmsException {
+
+        Map<CmsUUID, List<CmsProperty>> result = null;
+        CmsDbContext dbc = m_dbContextFactory.getDbContext(context);
+        try {
+            result = m_driverManager.readPropertyObjectsForResources(dbc, resources);
+        } catch (Exception e) {
+            dbc.report(
+                null,
+                Messages.get().container(
+                    Messages.ERR_READ_PROPS_FOR_RESOURCES_1,
+                    Integer.valueOf(resources.size())),
+                e);
+        } finally {
+            dbc.clear();
+        }
+        return result;
+    }
+
     /**
      * Reads the resources that were published in a publish task for a given publish history ID.<p>
      *
@@ -5025,6 +5093,40 @@ public final class CmsSecurityManager {
         return result;
     }
 
+    /**
+     * Reads the resources with the given structure ids, using the specified resource filter.<p>
+     *
+     * Ids of resources which don't exist, don't match the filter or can't be read by the
+     * current user are ignored.<p>
+     *
+     * @param context the current request context
+     * @param structureIds the structure ids of the resources to read
+     * @param filter the resource filter to use while reading
+     *
+     * @return the resources that were read, in no particular order
+     *
+     * @throws CmsException if something goes wrong
+     */
+    public List<CmsResource> readResourcesForIds(
+        CmsRequestContext context,
+        Collection<CmsUUID> structureIds,
+        CmsResourceFilter filter) throws CmsException {
+
+        List<CmsResource> result = null;
+        CmsDbContext dbc = m_dbContextFactory.getDbContext(context);
+        try {
+            result = m_driverManager.readResourcesForIds(dbc, structureIds, filter);
+        } catch (Exception e) {
+            dbc.report(
+                null,
+                Messages.get().container(Messages.ERR_READ_RESOURCES_FOR_IDS_1, Integer.valueOf(structureIds.size())),
+                e);
+        } finally {
+            dbc.clear();
+        }
+        return result;
+    }
+
     /**
      * Returns the resources that were visited by a user set in the filter.<p>
      *
@@ -7195,6 +7297,49 @@ public final class CmsSecurityManager {
         return m_permissionHandler.hasPermissions(dbc, resource, requiredPermissions, checkLock, filter);
     }
 
+    /**
+     * Performs a non-blocking permission check on a list of resources.<p>
+     *
+     * If the permission handler does not implement {@link I_CmsBatchPermissionHandler},
+     * the resources are checked one by one.<p>
+     *
+     * @param dbc the current database context
+     * @param resources the resources on which permissions are required
+     * @param requiredPermissions the set of permissions required for the operation
+     * @param checkLock if true, a lock for the current user is required for
+     *      all write operations, if false it's ok to write as long as the resource
+     *      is not locked by another user
+     * @param filter the resource filter to use
+     *
+     * @return the permission check results, in the same order as the given resources
+     *
+     * @throws CmsException in case of i/o errors (NOT because of insufficient permissions)
+     *
+     * @see #hasPermissions(CmsRequestContext, List, CmsPermissionSet, boolean, CmsResourceFilter)
+     */
+    protected List<I_CmsPermissionHandler.CmsPermissionCheckResult> hasPermissions(
+        CmsDbContext dbc,
+        List<CmsResource> resources,
+        CmsPermissionSet requiredPermissions,
+        boolean checkLock,
+        CmsResourceFilter filter) throws CmsException {
+
+        if (m_permissionHandler instanceof I_CmsBatchPermissionHandler) {
+            return ((I_CmsBatchPermissionHandler)m_permissionHandler).hasPermissions(
+                dbc,
+                resources,
+                requiredPermissions,
+                checkLock,
+                filter);
+        }
+        List<I_CmsPermissionHandler.CmsPermissionCheckResult> result;
+        result = new ArrayList<I_CmsPermissionHandler.CmsPermissionCheckResult>(resources.size());
+        for (CmsResource resource : resources) {
+            result.add(m_permissionHandler.hasPermissions(dbc, resource, requiredPermissions, checkLock, filter));
+        }
+        return result;
+    }
+
     /**
      * Returns <code>true</code> if at least one of the given group names is equal to a group name
      * of the given role in the given organizational unit.<p>
@@ -141,6 +141,32 @@ public interface I_CmsHistoryDriver {
      */
     CmsSqlManager initSqlManager(String classname);
 
+    /**
+     * Deletes the outdated historical versions of the next chunk of resources.<p>
+     *
+     * The resources are selected in a single query and processed in the order of their structure ids,
+     * starting after the given structure id. Resources which have no more than <code>versionsToKeep</code>
+     * versions are not selected at all, so an interrupted run can simply be started again.<p>
+     *
+     * @param dbc the current database context
+     * @param deleted if <code>true</code>, the versions of deleted resources are processed, otherwise the versions of existing resources
+     * @param versionsToKeep the number of versions to keep
+     * @param time deleted resources older than this will also be deleted, is ignored if negative
+     * @param startAfter the structure id of the last resource processed in the previous chunk, <code>null</code> to start with the first resource
+     * @param chunkSize the maximal number of resources to process
+     *
+     * @return the outcome of the chunk, which is empty if there are no more resources to process
+     *
+     * @throws CmsDataAccessException if something goes wrong
+     */
+    CmsHistoryPruneChunk pruneEntries(
+        CmsDbContext dbc,
+        boolean deleted,
+        int versionsToKeep,
+        long time,
+        CmsUUID startAfter,
+        int chunkSize) throws CmsDataAccessException;
+
     /**
      * Reads all file headers of the resource with the given structure id.<p>
      *
@@ -570,6 +570,25 @@ public interface I_CmsVfsDriver {
     List<CmsProperty> readPropertyObjects(CmsDbContext dbc, CmsProject project, CmsResource resource)
     throws CmsDataAccessException;
 
+    /**
+     * Reads all property objects mapped to the given resources from the database.<p>
+     *
+     * The properties of all resources are read with as few queries as possible. The resulting map
+     * contains an entry for each of the given resources, with an empty list if no properties are found.<p>
+     *
+     * @param dbc the current database context
+     * @param project the current project
+     * @param resources the resources to read the properties for
+     *
+     * @return the properties of the resources, by structure id
+     *
+     * @throws CmsDataAccessException if something goes wrong
+     */
+    Map<CmsUUID, List<CmsProperty>> readPropertyObjectsForResources(
+        CmsDbContext dbc,
+        CmsProject project,
+        List<CmsResource> resources) throws CmsDataAccessException;
+
     /**
      * Reads all relations with the given filter for the given resource.<p>
      *
@@ -627,6 +646,28 @@ public interface I_CmsVfsDriver {
     List<CmsResource> readResources(CmsDbContext dbc, CmsUUID currentProject, CmsResourceState state, int mode)
     throws CmsDataAccessException;
 
+    /**
+     * Reads the resources with the given structure ids.<p>
+     *
+     * The resources are read with as few queries as possible. Ids for which no resource exists are
+     * ignored, so the result may contain less resources than ids were given; the order of the result
+     * is undefined.<p>
+     *
+     * @param dbc the current database context
+     * @param projectId the id of the project
+     * @param structureIds the structure ids of the resources to read
+     * @param includeDeleted true if already deleted resources are included
+     *
+     * @return the resources that were read
+     *
+     * @throws CmsDataAccessException if something goes wrong
+     */
+    List<CmsResource> readResourcesForIds(
+        CmsDbContext dbc,
+        CmsUUID projectId,
+        Collection<CmsUUID> structureIds,
+        boolean includeDeleted) throws CmsDataAccessException;
+
     /**
      * Returns all resources associated to a given principal via an ACE.<p>
      *
@@ -519,6 +519,12 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String ERR_READ_PROPS_FOR_RESOURCE_1 = "ERR_READ_PROPS_FOR_RESOURCE_1";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String ERR_READ_PROPS_FOR_RESOURCES_1 = "ERR_READ_PROPS_FOR_RESOURCES_1";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String ERR_READ_PUBLISH_REPORT_1 = "ERR_READ_PUBLISH_REPORT_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String ERR_READ_PUBLISHED_RESOURCES_FOR_ID_1 = "ERR_READ_PUBLISHED_RESOURCES_FOR_ID_1";
 
@@ -534,6 +540,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String ERR_READ_RESOURCES_1 = "ERR_READ_RESOURCES_1";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String ERR_READ_RESOURCES_FOR_IDS_1 = "ERR_READ_RESOURCES_FOR_IDS_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String ERR_READ_RESOURCES_FOR_PRINCIPAL_LOG_1 = "ERR_READ_RESOURCES_FOR_PRINCIPAL_LOG_1";
 
@@ -774,6 +783,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String ERR_WRITE_PROPS_1 = "ERR_WRITE_PROPS_1";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String ERR_WRITE_PUBLISH_REPORT_1 = "ERR_WRITE_PUBLISH_REPORT_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String ERR_WRITE_RESOURCE_1 = "ERR_WRITE_RESOURCE_1";
 
@@ -900,6 +912,12 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String RPT_DELETE_NOTHING_0 = "RPT_DELETE_NOTHING_0";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String RPT_DELETE_VERSIONS_CHUNK_2 = "RPT_DELETE_VERSIONS_CHUNK_2";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String RPT_DELETE_VERSIONS_FAILED_1 = "RPT_DELETE_VERSIONS_FAILED_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String RPT_END_DELETE_ACT_VERSIONS_0 = "RPT_END_DELETE_ACT_VERSIONS_0";
 
@@ -34,6 +34,7 @@ import org.opencms.db.CmsDbContext;
 import org.opencms.db.CmsDbEntryNotFoundException;
 import org.opencms.db.CmsDbSqlException;
 import org.opencms.db.CmsDriverManager;
+import org.opencms.db.CmsHistoryPruneChunk;
 import org.opencms.db.CmsResourceState;
 import org.opencms.db.I_CmsDriver;
 import org.opencms.db.I_CmsHistoryDriver;
@@ -64,7 +65,9 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -123,155 +126,13 @@ public class CmsHistoryDriver implements I_CmsDriver, I_CmsHistoryDriver {
     public int deleteEntries(CmsDbContext dbc, I_CmsHistoryResource resource, int versionsToKeep, long time)
     throws CmsDataAccessException {
 
-        Connection conn = null;
-        PreparedStatement stmt = null;
-        ResultSet res = null;
-
-        try {
-            conn = m_sqlManager.getConnection(dbc);
-
-            int maxVersion = -1;
-            // get the maximal version number for this resource
-            stmt = m_sqlManager.getPreparedStatement(conn, "C_STRUCTURE_HISTORY_MAXVER");
-            stmt.setString(1, resource.getStructureId().toString());
-            res = stmt.executeQuery();
-            boolean noHistoryStructure = false;
-            if (res.next()) {
-                maxVersion = res.getInt(1);
-                noHistoryStructure |= res.wasNull();
-                while (res.next()) {
-                    // do nothing only move through all rows because of mssql odbc driver
-                }
-            } else {
-                // make sure the connection is closed
-                m_sqlManager.closeAll(dbc, conn, stmt, res);
-                // nothing to delete
-                internalCleanup(dbc, resource);
-                return 0;
-            }
-            m_sqlManager.closeAll(dbc, conn, stmt, res);
-
-            if (time >= 0) {
-                int maxVersionByTime = -1;
-                conn = m_sqlManager.getConnection(dbc);
-                // get the maximal version to keep for this resource based on the time parameter
-                stmt = m_sqlManager.getPreparedStatement(conn, "C_STRUCTURE_HISTORY_MAXVER_BYTIME");
-                stmt.setString(1, resource.getStructureId().toString());
-                stmt.setLong(2, time);
-                res = stmt.executeQuery();
-                if (res.next()) {
-                    maxVersionByTime = res.getInt(1);
-                    while (res.next()) {
-                        // do nothing only move through all rows because of mssql odbc driver
-                    }
-                }
-                m_sqlManager.closeAll(dbc, conn, stmt, res);
-                if (maxVersionByTime > 0) {
-                    if (versionsToKeep < 0) {
-                        versionsToKeep = (maxVersion - maxVersionByTime);
-                    } else {
-                        versionsToKeep = Math.min(versionsToKeep, (maxVersion - maxVersionByTime));
-                    }
-                }
-            }
-            int structureVersions = 0;
-            // get the minimal structure publish tag to keep for this sibling
-            conn = m_sqlManager.getConnection(dbc);
-            if (!noHistoryStructure) {
-                if ((versionsToKeep == -1) || ((maxVersion - versionsToKeep) <= 0)) {
-                    // nothing to delete
-                    internalCleanup(dbc, resource);
-                    return 0;
-                }
-
-                // get the minimal structure publish tag to keep for this sibling
-                int minStrPublishTagToKeep = -1;
-
-                stmt = m_sqlManager.getPreparedStatement(conn, "C_HISTORY_READ_MAXTAG_FOR_VERSION");
-                stmt.setString(1, resource.getStructureId().toString());
-                stmt.setInt(2, (1 + maxVersion) - versionsToKeep);
-                res = stmt.executeQuery();
-                if (res.next()) {
-                    minStrPublishTagToKeep = res.getInt(1);
-                    while (res.next()) {
-                        // do nothing only move through all rows because of mssql odbc driver
-                    }
-                } else {
-                    // make sure the statement and the result is closed
-                    m_sqlManager.closeAll(dbc, conn, stmt, res);
-                    // nothing to delete
-                    internalCleanup(dbc, resource);
-                    return 0;
-                }
-                m_sqlManager.closeAll(dbc, conn, stmt, res);
-                if (minStrPublishTagToKeep < 1) {
-                    // nothing to delete
-                    internalCleanup(dbc, resource);
-                    return 0;
-                }
-                minStrPublishTagToKeep++;
-
-                // delete the properties
-                conn = m_sqlManager.getConnection(dbc);
-                stmt = m_sqlManager.getPreparedStatement(conn, "C_PROPERTIES_HISTORY_DELETE");
-                stmt.setString(1, resource.getStructureId().toString());
-                stmt.setInt(2, minStrPublishTagToKeep);
-                stmt.executeUpdate();
-                m_sqlManager.closeAll(dbc, null, stmt, null);
-
-                // delete the structure entries
-                stmt = m_sqlManager.getPreparedStatement(conn, "C_STRUCTURE_HISTORY_DELETE");
-                stmt.setString(1, resource.getStructureId().toString());
-                stmt.setInt(2, minStrPublishTagToKeep);
-                structureVersions = stmt.executeUpdate();
-                m_sqlManager.closeAll(dbc, null, stmt, null);
-            }
-
-            // get the minimal resource publish tag to keep,
-            // all entries with publish tag less than this will be deleted
-            int minResPublishTagToKeep = -1;
-            stmt = m_sqlManager.getPreparedStatement(conn, "C_HISTORY_READ_MIN_USED_TAG");
-            stmt.setString(1, resource.getResourceId().toString());
-            res = stmt.executeQuery();
-            if (res.next()) {
-                minResPublishTagToKeep = res.getInt(1);
-                if (res.wasNull()) {
-                    // the database will return a row with a single NULL column if there are no rows at all for the given
-                    // resource id. This means that we want to clean up all resource history and content history entries
-                    // for this resource id, and we achieve this by comparing their publish tag with the maximum integer.
-                    minResPublishTagToKeep = Integer.MAX_VALUE;
-                }
-                while (res.next()) {
-                    // do nothing only move through all rows because of mssql odbc driver
-                }
-            }
-            m_sqlManager.closeAll(dbc, conn, stmt, res);
-
-            // delete the resource entries
-            conn = m_sqlManager.getConnection(dbc);
-            stmt = m_sqlManager.getPreparedStatement(conn, "C_RESOURCES_HISTORY_DELETE");
-            stmt.setString(1, resource.getResourceId().toString());
-            stmt.setInt(2, minResPublishTagToKeep);
-            int resourceVersions = stmt.executeUpdate();
-            m_sqlManager.closeAll(dbc, null, stmt, null);
-
-            // delete the content entries
-            stmt = m_sqlManager.getPreparedStatement(conn, "C_CONTENT_HISTORY_DELETE");
-            stmt.setString(1, resource.getResourceId().toString());
-            stmt.setInt(2, minResPublishTagToKeep);
-            stmt.executeUpdate();
-
-            // make sure the statement and the result is closed
-            m_sqlManager.closeAll(dbc, conn, stmt, res);
-            internalCleanup(dbc, resource);
-            return Math.max(structureVersions, resourceVersions);
-        } catch (SQLException e) {
-            throw new CmsDbSqlException(
-                Messages.get().container(Messages.ERR_GENERIC_SQL_1, CmsDbSqlException.getErrorQuery(stmt)),
-                e);
-        } finally {
-            m_sqlManager.closeAll(dbc, conn, stmt, res);
-        }
+        return internalDeleteEntries(
+            dbc,
+            resource.getStructureId(),
+            resource.getResourceId(),
+            resource.getRootPath().endsWith("/"),
+            versionsToKeep,
+            time);
     }
 
     /**
@@ -451,6 +312,74 @@ public class CmsHistoryDriver implements I_CmsDriver, I_CmsHistoryDriver {
         return CmsSqlManager.getInstance(classname);
     }
 
+    /**
+     * @see org.opencms.db.I_CmsHistoryDriver#pruneEntries(org.opencms.db.CmsDbContext, boolean, int, long, org.opencms.util.CmsUUID, int)
+     */
+    public CmsHistoryPruneChunk pruneEntries(
+        CmsDbContext dbc,
+        boolean deleted,
+        int versionsToKeep,
+        long time,
+        CmsUUID startAfter,
+        int chunkSize) throws CmsDataAccessException {
+
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet res = null;
+
+        // structure id -> resource id, in the order of the structure ids
+        Map<CmsUUID, CmsUUID> candidates = new LinkedHashMap<CmsUUID, CmsUUID>();
+        Set<CmsUUID> folders = new HashSet<CmsUUID>();
+        // the time limit may lower the number of versions to keep for a single resource,
+        // so in this case no resource can be skipped based on its number of versions
+        int minVersionRange = (time >= 0) ? 0 : Math.max(versionsToKeep, 0);
+        try {
+            conn = m_sqlManager.getConnection(dbc);
+            stmt = m_sqlManager.getPreparedStatement(
+                conn,
+                deleted ? "C_STRUCTURE_HISTORY_READ_DELETED_TO_PRUNE" : "C_STRUCTURE_HISTORY_READ_NOTDELETED_TO_PRUNE");
+            stmt.setString(1, (startAfter != null ? startAfter : CmsUUID.getNullUUID()).toString());
+            stmt.setInt(2, minVersionRange);
+            stmt.setMaxRows(chunkSize);
+            res = stmt.executeQuery();
+            while (res.next()) {
+                // several entries may have the highest version, the rows are ordered by publish tag
+                CmsUUID structureId = new CmsUUID(res.getString(1));
+                candidates.put(structureId, new CmsUUID(res.getString(2)));
+                if (res.getString(3).endsWith("/")) {
+                    folders.add(structureId);
+                }
+            }
+        } catch (SQLException e) {
+            throw new CmsDbSqlException(
+                Messages.get().container(Messages.ERR_GENERIC_SQL_1, CmsDbSqlException.getErrorQuery(stmt)),
+                e);
+        } finally {
+            m_sqlManager.closeAll(dbc, conn, stmt, res);
+        }
+
+        CmsUUID lastStructureId = null;
+        int versions = 0;
+        int failed = 0;
+        for (Map.Entry<CmsUUID, CmsUUID> entry : candidates.entrySet()) {
+            CmsUUID structureId = entry.getKey();
+            try {
+                versions += internalDeleteEntries(
+                    dbc,
+                    structureId,
+                    entry.getValue(),
+                    folders.contains(structureId),
+                    versionsToKeep,
+                    time);
+            } catch (CmsDataAccessException e) {
+                failed++;
+                LOG.warn(Messages.get().getBundle().key(Messages.LOG_PRUNE_HISTORY_FAILED_1, structureId), e);
+            }
+            lastStructureId = structureId;
+        }
+        return new CmsHistoryPruneChunk(lastStructureId, candidates.size(), versions, failed);
+    }
+
     /**
      * @see org.opencms.db.I_CmsHistoryDriver#readAllAvailableVersions(CmsDbContext, CmsUUID)
      */
@@ -1435,14 +1364,16 @@ public class CmsHistoryDriver implements I_CmsDriver, I_CmsHistoryDriver {
                     if (!valResource) {
                         if (sibCount < 2) {
                             // copy from offline content to content tables
-                            // so that the history contains the last state of the file
+                            // so that the history contains the last state of the file,
+                            // if the file was not modified before deleting it the online content is kept
+                            byte[] content = ((CmsFile)resource).getContents();
                             m_driverManager.getVfsDriver(dbc).createOnlineContent(
                                 dbc,
                                 resource.getResourceId(),
-                                ((CmsFile)resource).getContents(),
+                                content,
                                 publishTag,
                                 false,
-                                true);
+                                !m_driverManager.isOnlineContentUnchanged(dbc, resource, content));
                         } else {
                             @SuppressWarnings("unchecked")
                             Set<CmsUUID> changedAndDeleted = (Set<CmsUUID>)dbc.getAttribute(
@@ -1605,14 +1536,28 @@ public class CmsHistoryDriver implements I_CmsDriver, I_CmsHistoryDriver {
      */
     protected void internalCleanup(CmsDbContext dbc, I_CmsHistoryResource resource) throws CmsDataAccessException {
 
+        internalCleanup(dbc, resource.getStructureId(), resource.getRootPath().endsWith("/"));
+    }
+
+    /**
+     * Deletes all historical entries of subresources of a folder without any historical entry left.<p>
+     *
+     * @param dbc the current database context
+     * @param structureId the structure id of the resource to check
+     * @param isFolder if the resource to check is a folder
+     *
+     * @throws CmsDataAccessException if something goes wrong
+     */
+    protected void internalCleanup(CmsDbContext dbc, CmsUUID structureId, boolean isFolder)
+    throws CmsDataAccessException {
+
         Connection conn = null;
         PreparedStatement stmt = null;
         ResultSet res = null;
         Map<CmsUUID, Integer> tmpSubResources = new HashMap<CmsUUID, Integer>();
 
         // if is folder and if no versions left
-        boolean isFolderAndNoVersionLeft = resource.getRootPath().endsWith("/")
-            && (readLastVersion(dbc, resource.getStructureId()) == 0);
+        boolean isFolderAndNoVersionLeft = isFolder && (readLastVersion(dbc, structureId) == 0);
 
         // if the resource is a folder
         if (isFolderAndNoVersionLeft) {
@@ -1620,12 +1565,12 @@ public class CmsHistoryDriver implements I_CmsDriver, I_CmsHistoryDriver {
                 conn = m_sqlManager.getConnection(dbc);
                 // get all direct subresources
                 stmt = m_sqlManager.getPreparedStatement(conn, "C_STRUCTURE_HISTORY_READ_SUBRESOURCES");
-                stmt.setString(1, resource.getStructureId().toString());
+                stmt.setString(1, structureId.toString());
                 res = stmt.executeQuery();
                 while (res.next()) {
-                    CmsUUID structureId = new CmsUUID(res.getString(1));
+                    CmsUUID subResourceId = new CmsUUID(res.getString(1));
                     int version = res.getInt(2);
-                    tmpSubResources.put(structureId, Integer.valueOf(version));
+                    tmpSubResources.put(subResourceId, Integer.valueOf(version));
                 }
             } catch (SQLException e) {
                 throw new CmsDbSqlException(
@@ -1797,6 +1742,180 @@ public class CmsHistoryDriver implements I_CmsDriver, I_CmsHistoryDriver {
         }
     }
 
+    /**
+     * Deletes all historical versions of a resource
+     * keeping maximal <code>versionsToKeep</code> versions.<p>
+     *
+     * @param dbc the current database context
+     * @param structureId the structure id of the resource
+     * @param resourceId the resource id of the resource
+     * @param isFolder if the resource is a folder
+     * @param versionsToKeep the number of versions to keep
+     * @param time deleted resources older than this will also be deleted, is ignored if negative
+     *
+     * @return the number of versions that were deleted
+     *
+     * @throws CmsDataAccessException if something goes wrong
+     */
+    protected int internalDeleteEntries(
+        CmsDbContext dbc,
+        CmsUUID structureId,
+        CmsUUID resourceId,
+        boolean isFolder,
+        int versionsToKeep,
+        long time) throws CmsDataAccessException {
+
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet res = null;
+
+        try {
+            conn = m_sqlManager.getConnection(dbc);
+
+            int maxVersion = -1;
+            // get the maximal version number for this resource
+            stmt = m_sqlManager.getPreparedStatement(conn, "C_STRUCTURE_HISTORY_MAXVER");
+            stmt.setString(1, structureId.toString());
+            res = stmt.executeQuery();
+            boolean noHistoryStructure = false;
+            if (res.next()) {
+                maxVersion = res.getInt(1);
+                noHistoryStructure |= res.wasNull();
+                while (res.next()) {
+                    // do nothing only move through all rows because of mssql odbc driver
+                }
+            } else {
+                // make sure the connection is closed
+                m_sqlManager.closeAll(dbc, conn, stmt, res);
+                // nothing to delete
+                internalCleanup(dbc, structureId, isFolder);
+                return 0;
+            }
+            m_sqlManager.closeAll(dbc, conn, stmt, res);
+
+            if (time >= 0) {
+                int maxVersionByTime = -1;
+                conn = m_sqlManager.getConnection(dbc);
+                // get the maximal version to keep for this resource based on the time parameter
+                stmt = m_sqlManager.getPreparedStatement(conn, "C_STRUCTURE_HISTORY_MAXVER_BYTIME");
+                stmt.setString(1, structureId.toString());
+                stmt.setLong(2, time);
+                res = stmt.executeQuery();
+                if (res.next()) {
+                    maxVersionByTime = res.getInt(1);
+                    while (res.next()) {
+                        // do nothing only move through all rows because of mssql odbc driver
+                    }
+                }
+                m_sqlManager.closeAll(dbc, conn, stmt, res);
+                if (maxVersionByTime > 0) {
+                    if (versionsToKeep < 0) {
+                        versionsToKeep = (maxVersion - maxVersionByTime);
+                    } else {
+                        versionsToKeep = Math.min(versionsToKeep, (maxVersion - maxVersionByTime));
+                    }
+                }
+            }
+            int structureVersions = 0;
+            // get the minimal structure publish tag to keep for this sibling
+            conn = m_sqlManager.getConnection(dbc);
+            if (!noHistoryStructure) {
+                if ((versionsToKeep == -1) || ((maxVersion - versionsToKeep) <= 0)) {
+                    // nothing to delete
+                    internalCleanup(dbc, structureId, isFolder);
+                    return 0;
+                }
+
+                // get the minimal structure publish tag to keep for this sibling
+                int minStrPublishTagToKeep = -1;
+
+                stmt = m_sqlManager.getPreparedStatement(conn, "C_HISTORY_READ_MAXTAG_FOR_VERSION");
+                stmt.setString(1, structureId.toString());
+                stmt.setInt(2, (1 + maxVersion) - versionsToKeep);
+                res = stmt.executeQuery();
+                if (res.next()) {
+                    minStrPublishTagToKeep = res.getInt(1);
+                    while (res.next()) {
+                        // do nothing only move through all rows because of mssql odbc driver
+                    }
+                } else {
+                    // make sure the statement and the result is closed
+                    m_sqlManager.closeAll(dbc, conn, stmt, res);
+                    // nothing to delete
+                    internalCleanup(dbc, structureId, isFolder);
+                    return 0;
+                }
+                m_sqlManager.closeAll(dbc, conn, stmt, res);
+                if (minStrPublishTagToKeep < 1) {
+                    // nothing to delete
+                    internalCleanup(dbc, structureId, isFolder);
+                    return 0;
+                }
+                minStrPublishTagToKeep++;
+
+                // delete the properties
+                conn = m_sqlManager.getConnection(dbc);
+                stmt = m_sqlManager.getPreparedStatement(conn, "C_PROPERTIES_HISTORY_DELETE");
+                stmt.setString(1, structureId.toString());
+                stmt.setInt(2, minStrPublishTagToKeep);
+                stmt.executeUpdate();
+                m_sqlManager.closeAll(dbc, null, stmt, null);
+
+                // delete the structure entries
+                stmt = m_sqlManager.getPreparedStatement(conn, "C_STRUCTURE_HISTORY_DELETE");
+                stmt.setString(1, structureId.toString());
+                stmt.setInt(2, minStrPublishTagToKeep);
+                structureVersions = stmt.executeUpdate();
+                m_sqlManager.closeAll(dbc, null, stmt, null);
+            }
+
+            // get the minimal resource publish tag to keep,
+            // all entries with publish tag less than this will be deleted
+            int minResPublishTagToKeep = -1;
+            stmt = m_sqlManager.getPreparedStatement(conn, "C_HISTORY_READ_MIN_USED_TAG");
+            stmt.setString(1, resourceId.toString());
+            res = stmt.executeQuery();
+            if (res.next()) {
+                minResPublishTagToKeep = res.getInt(1);
+                if (res.wasNull()) {
+                    // the database will return a row with a single NULL column if there are no rows at all for the given
+                    // resource id. This means that we want to clean up all resource history and content history entries
+                    // for this resource id, and we achieve this by comparing their publish tag with the maximum integer.
+                    minResPublishTagToKeep = Integer.MAX_VALUE;
+                }
+                while (res.next()) {
+                    // do nothing only move through all rows because of mssql odbc driver
+                }
+            }
+            m_sqlManager.closeAll(dbc, conn, stmt, res);
+
+            // delete the resource entries
+            conn = m_sqlManager.getConnection(dbc);
+            stmt = m_sqlManager.getPreparedStatement(conn, "C_RESOURCES_HISTORY_DELETE");
+            stmt.setString(1, resourceId.toString());
+            stmt.setInt(2, minResPublishTagToKeep);
+            int resourceVersions = stmt.executeUpdate();
+            m_sqlManager.closeAll(dbc, null, stmt, null);
+
+            // delete the content entries
+            stmt = m_sqlManager.getPreparedStatement(conn, "C_CONTENT_HISTORY_DELETE");
+            stmt.setString(1, resourceId.toString());
+            stmt.setInt(2, minResPublishTagToKeep);
+            stmt.executeUpdate();
+
+            // make sure the statement and the result is closed
+            m_sqlManager.closeAll(dbc, conn, stmt, res);
+            internalCleanup(dbc, structureId, isFolder);
+            return Math.max(structureVersions, resourceVersions);
+        } catch (SQLException e) {
+            throw new CmsDbSqlException(
+                Messages.get().container(Messages.ERR_GENERIC_SQL_1, CmsDbSqlException.getErrorQuery(stmt)),
+                e);
+        } finally {
+            m_sqlManager.closeAll(dbc, conn, stmt, res);
+        }
+    }
+
     /**
      * Merges an historical entry for a sibling, based on the structure data from the given historical resource
      * and result set for the resource entry.<p>
@@ -1787,9 +1787,11 @@ public class CmsUserDriver implements I_CmsUserDriver {
         } finally {
             m_sqlManager.closeAll(dbc, conn, stmt, res);
         }
-        for (CmsUser user : users) {
-            Map<String, Object> info = readUserInfos(dbc, user.getId());
-            user.setAdditionalInfo(info);
+        if (searchParams.isLoadAdditionalInfos()) {
+            for (CmsUser user : users) {
+                Map<String, Object> info = readUserInfos(dbc, user.getId());
+                user.setAdditionalInfo(info);
+            }
         }
         return users;
     }
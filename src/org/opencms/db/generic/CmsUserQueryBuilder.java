@@ -37,10 +37,12 @@ import org.opencms.db.CmsSqlBooleanClause;
 import org.opencms.db.CmsStatementBuilder;
 import org.opencms.db.I_CmsQueryFragment;
 import org.opencms.file.CmsGroup;
+import org.opencms.file.CmsUser;
 import org.opencms.file.CmsUserSearchParameters;
 import org.opencms.file.CmsUserSearchParameters.SearchKey;
 import org.opencms.file.CmsUserSearchParameters.SortKey;
 import org.opencms.i18n.CmsEncoder;
+import org.opencms.main.CmsIllegalArgumentException;
 import org.opencms.security.CmsOrganizationalUnit;
 import org.opencms.security.I_CmsPrincipal;
 import org.opencms.util.CmsPair;
@@ -110,6 +112,7 @@ public class CmsUserQueryBuilder {
             select.visit(builder);
             return CmsPair.create(builder.getQuery(), builder.getParameters());
         } else {
+            addKeysetCondition(select, users, searchParams);
             addSorting(select, users, searchParams);
             return makePaged(select, searchParams);
         }
@@ -252,6 +255,62 @@ public class CmsUserQueryBuilder {
         }
     }
 
+    /**
+     * Adds the keyset paging condition to an SQL query.<p>
+     *
+     * The condition selects the users following the last user of the previous page in the sort order
+     * given by the search parameters, using the user id as tie-breaker. Nothing is added if no keyset user
+     * is set.<p>
+     *
+     * @param select the query
+     * @param users the user table alias
+     * @param searchParams the user search criteria
+     *
+     * @throws CmsIllegalArgumentException if a keyset user is set and the sort key does not support keyset paging
+     */
+    protected void addKeysetCondition(CmsSelectQuery select, TableAlias users, CmsUserSearchParameters searchParams) {
+
+        CmsUser lastUser = searchParams.getKeysetUser();
+        if (lastUser == null) {
+            return;
+        }
+        Object lastValue;
+        SortKey sortKey = searchParams.getSortKey();
+        if (sortKey == null) {
+            lastValue = null;
+        } else {
+            switch (sortKey) {
+                case loginName:
+                    lastValue = lastUser.getSimpleName();
+                    break;
+                case orgUnit:
+                    lastValue = CmsOrganizationalUnit.SEPARATOR + lastUser.getOuFqn();
+                    break;
+                case lastLogin:
+                    lastValue = Long.valueOf(lastUser.getLastlogin());
+                    break;
+                default:
+                    // the sort expression is not unique enough, ignoring the keyset would repeat the first page
+                    throw new CmsIllegalArgumentException(
+                        Messages.get().container(Messages.ERR_KEYSET_PAGING_SORT_KEY_1, sortKey.name()));
+            }
+        }
+        String operator = searchParams.isAscending() ? " > ?" : " < ?";
+        String idColumn = users.column(colId());
+        String lastId = lastUser.getId().toString();
+        if (lastValue == null) {
+            select.addCondition(new CmsSimpleQueryFragment(idColumn + operator, lastId));
+        } else {
+            String sortColumn = getSortExpression(users, searchParams);
+            select.addCondition(
+                new CmsSimpleQueryFragment(
+                    "(" + sortColumn + operator + " OR (" + sortColumn + " = ? AND " + idColumn + operator + "))",
+                    lastValue,
+                    lastValue,
+                    lastId));
+        }
+    }
+
     /**
      * Adds a check for an OU to an SQL query.<p>
      *
@@ -346,12 +405,17 @@ public class CmsUserQueryBuilder {
 
         boolean ascending = searchParams.isAscending();
         String ordering = getSortExpression(users, searchParams);
+        String direction;
         if (ascending) {
-            ordering += " ASC";
+            direction = " ASC";
         } else {
-            ordering += " DESC";
+            direction = " DESC";
+        }
+        ordering += direction;
+        if (searchParams.getSortKey() != null) {
+            // use the user id as tie-breaker, so that the order is stable across pages
+            ordering += ", " + users.column(colId()) + direction;
         }
-
         select.setOrdering(ordering);
     }
 
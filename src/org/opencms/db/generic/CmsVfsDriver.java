@@ -103,6 +103,9 @@ import org.apache.commons.logging.Log;
  */
 public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
 
+    /** The maximum number of parameters used in the IN list of a bulk read. */
+    protected static final int IN_LIST_MAX_SIZE = 500;
+
     /** Contains the macro replacement value for the offline project. */
     protected static final String OFFLINE = "OFFLINE";
 
@@ -2133,7 +2136,6 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
 
         String propertyKey;
         String propertyValue;
-        CmsProperty property;
 
         try {
             conn = m_sqlManager.getConnection(dbc);
@@ -2151,29 +2153,7 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
                 propertyValue = res.getString(2);
                 mappingType = res.getInt(3);
 
-                property = propertyMap.get(propertyKey);
-                if (property == null) {
-                    // there doesn't exist a property object for this key yet
-                    property = new CmsProperty();
-                    property.setName(propertyKey);
-                    propertyMap.put(propertyKey, property);
-                }
-
-                if (mappingType == CmsProperty.STRUCTURE_RECORD_MAPPING) {
-                    // this property value is mapped to a structure record
-                    property.setStructureValue(propertyValue);
-                } else if (mappingType == CmsProperty.RESOURCE_RECORD_MAPPING) {
-                    // this property value is mapped to a resource record
-                    property.setResourceValue(propertyValue);
-                } else {
-                    throw new CmsDbConsistencyException(
-                        Messages.get().container(
-                            Messages.ERR_UNKNOWN_PROPERTY_VALUE_MAPPING_3,
-                            resource.getRootPath(),
-                            new Integer(mappingType),
-                            propertyKey));
-                }
-                property.setOrigin(resource.getRootPath());
+                addPropertyValue(propertyMap, resource, propertyKey, propertyValue, mappingType);
             }
         } catch (SQLException e) {
             throw new CmsDbSqlException(
@@ -2186,6 +2166,83 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
         return new ArrayList<CmsProperty>(propertyMap.values());
     }
 
+    /**
+     * @see org.opencms.db.I_CmsVfsDriver#readPropertyObjectsForResources(org.opencms.db.CmsDbContext, org.opencms.file.CmsProject, java.util.List)
+     */
+    public Map<CmsUUID, List<CmsProperty>> readPropertyObjectsForResources(
+        CmsDbContext dbc,
+        CmsProject project,
+        List<CmsResource> resources) throws CmsDataAccessException {
+
+        CmsUUID projectId = ((dbc.getProjectId() == null) || dbc.getProjectId().isNullUUID())
+        ? project.getUuid()
+        : dbc.getProjectId();
+
+        // structure values belong to one resource, resource values to all siblings in the list
+        Map<String, List<CmsResource>> resourcesByMappingId = new HashMap<String, List<CmsResource>>();
+        Map<CmsUUID, Map<String, CmsProperty>> propertyMaps = new HashMap<CmsUUID, Map<String, CmsProperty>>();
+        for (CmsResource resource : resources) {
+            propertyMaps.put(resource.getStructureId(), new HashMap<String, CmsProperty>());
+            for (CmsUUID mappingId : new CmsUUID[] {resource.getStructureId(), resource.getResourceId()}) {
+                List<CmsResource> mapped = resourcesByMappingId.get(mappingId.toString());
+                if (mapped == null) {
+                    mapped = new ArrayList<CmsResource>();
+                    resourcesByMappingId.put(mappingId.toString(), mapped);
+                }
+                mapped.add(resource);
+            }
+        }
+
+        List<String> mappingIds = new ArrayList<String>(resourcesByMappingId.keySet());
+        for (int start = 0; start < mappingIds.size(); start += IN_LIST_MAX_SIZE) {
+            List<String> chunk = mappingIds.subList(start, Math.min(mappingIds.size(), start + IN_LIST_MAX_SIZE));
+            ResultSet res = null;
+            PreparedStatement stmt = null;
+            Connection conn = null;
+            try {
+                conn = m_sqlManager.getConnection(dbc);
+                String query = m_sqlManager.readQuery(projectId, "C_PROPERTIES_READALL_FOR_RESOURCES")
+                    + prepareInList(chunk.size());
+                stmt = m_sqlManager.getPreparedStatementForSql(conn, query);
+                for (int i = 0; i < chunk.size(); i++) {
+                    stmt.setString(i + 1, chunk.get(i));
+                }
+                res = stmt.executeQuery();
+                while (res.next()) {
+                    String mappingId = res.getString(1);
+                    String propertyKey = res.getString(2);
+                    String propertyValue = res.getString(3);
+                    int mappingType = res.getInt(4);
+                    for (CmsResource resource : resourcesByMappingId.get(mappingId)) {
+                        boolean isStructureValue = mappingType == CmsProperty.STRUCTURE_RECORD_MAPPING;
+                        if ((isStructureValue && !mappingId.equals(resource.getStructureId().toString()))
+                            || (!isStructureValue && !mappingId.equals(resource.getResourceId().toString()))) {
+                            continue;
+                        }
+                        addPropertyValue(
+                            propertyMaps.get(resource.getStructureId()),
+                            resource,
+                            propertyKey,
+                            propertyValue,
+                            mappingType);
+                    }
+                }
+            } catch (SQLException e) {
+                throw new CmsDbSqlException(
+                    Messages.get().container(Messages.ERR_GENERIC_SQL_1, CmsDbSqlException.getErrorQuery(stmt)),
+                    e);
+            } finally {
+                m_sqlManager.closeAll(dbc, conn, stmt, res);
+            }
+        }
+
+        Map<CmsUUID, List<CmsProperty>> result = new HashMap<CmsUUID, List<CmsProperty>>();
+        for (Map.Entry<CmsUUID, Map<String, CmsProperty>> entry : propertyMaps.entrySet()) {
+            result.put(entry.getKey(), new ArrayList<CmsProperty>(entry.getValue().values()));
+        }
+        return result;
+    }
+
     /**
      * @see org.opencms.db.I_CmsVfsDriver#readRelations(org.opencms.db.CmsDbContext, CmsUUID, CmsResource, org.opencms.relations.CmsRelationFilter)
      */
@@ -2425,6 +2482,51 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
         return result;
     }
 
+    /**
+     * @see org.opencms.db.I_CmsVfsDriver#readResourcesForIds(org.opencms.db.CmsDbContext, org.opencms.util.CmsUUID, java.util.Collection, boolean)
+     */
+    public List<CmsResource> readResourcesForIds(
+        CmsDbContext dbc,
+        CmsUUID projectId,
+        Collection<CmsUUID> structureIds,
+        boolean includeDeleted) throws CmsDataAccessException {
+
+        List<String> ids = new ArrayList<String>();
+        for (CmsUUID structureId : new HashSet<CmsUUID>(structureIds)) {
+            ids.add(structureId.toString());
+        }
+        List<CmsResource> result = new ArrayList<CmsResource>(ids.size());
+        for (int start = 0; start < ids.size(); start += IN_LIST_MAX_SIZE) {
+            List<String> chunk = ids.subList(start, Math.min(ids.size(), start + IN_LIST_MAX_SIZE));
+            ResultSet res = null;
+            PreparedStatement stmt = null;
+            Connection conn = null;
+            try {
+                conn = m_sqlManager.getConnection(dbc);
+                String query = m_sqlManager.readQuery(projectId, "C_RESOURCES_READ_FOR_IDS")
+                    + prepareInList(chunk.size());
+                stmt = m_sqlManager.getPreparedStatementForSql(conn, query);
+                for (int i = 0; i < chunk.size(); i++) {
+                    stmt.setString(i + 1, chunk.get(i));
+                }
+                res = stmt.executeQuery();
+                while (res.next()) {
+                    CmsResource resource = createResource(res, projectId);
+                    if (includeDeleted || !resource.getState().isDeleted()) {
+                        result.add(resource);
+                    }
+                }
+            } catch (SQLException e) {
+                throw new CmsDbSqlException(
+                    Messages.get().container(Messages.ERR_GENERIC_SQL_1, CmsDbSqlException.getErrorQuery(stmt)),
+                    e);
+            } finally {
+                m_sqlManager.closeAll(dbc, conn, stmt, res);
+            }
+        }
+        return result;
+    }
+
     /**
      * @see org.opencms.db.I_CmsVfsDriver#readResourcesForPrincipalACE(org.opencms.db.CmsDbContext, org.opencms.file.CmsProject, org.opencms.util.CmsUUID)
      */
@@ -3535,6 +3637,51 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
         }
     }
 
+    /**
+     * Adds a property value read from the database to the properties of a resource.<p>
+     *
+     * Used by all property reads, so the single and the bulk read return identical property objects.<p>
+     *
+     * @param propertyMap the properties of the resource by name
+     * @param resource the resource
+     * @param propertyKey the property name
+     * @param propertyValue the property value
+     * @param mappingType the mapping type of the value
+     *
+     * @throws CmsDbConsistencyException if the mapping type is unknown
+     */
+    protected void addPropertyValue(
+        Map<String, CmsProperty> propertyMap,
+        CmsResource resource,
+        String propertyKey,
+        String propertyValue,
+        int mappingType) throws CmsDbConsistencyException {
+
+        CmsProperty property = propertyMap.get(propertyKey);
+        if (property == null) {
+            // there doesn't exist a property object for this key yet
+            property = new CmsProperty();
+            property.setName(propertyKey);
+            propertyMap.put(propertyKey, property);
+        }
+
+        if (mappingType == CmsProperty.STRUCTURE_RECORD_MAPPING) {
+            // this property value is mapped to a structure record
+            property.setStructureValue(propertyValue);
+        } else if (mappingType == CmsProperty.RESOURCE_RECORD_MAPPING) {
+            // this property value is mapped to a resource record
+            property.setResourceValue(propertyValue);
+        } else {
+            throw new CmsDbConsistencyException(
+                Messages.get().container(
+                    Messages.ERR_UNKNOWN_PROPERTY_VALUE_MAPPING_3,
+                    resource.getRootPath(),
+                    new Integer(mappingType),
+                    propertyKey));
+        }
+        property.setOrigin(resource.getRootPath());
+    }
+
     /**
      * Checks that the current user has write permissions for all subresources of the given folder.<p>
      *
@@ -4131,6 +4278,26 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
         }
     }
 
+    /**
+     * Returns a parameter list for an IN condition with the given number of parameters.<p>
+     *
+     * @param count the number of parameters
+     *
+     * @return the parameter list, including the surrounding brackets
+     */
+    protected String prepareInList(int count) {
+
+        StringBuffer conditions = new StringBuffer(BEGIN_CONDITION);
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                conditions.append(", ");
+            }
+            conditions.append("?");
+        }
+        conditions.append(END_CONDITION);
+        return conditions.toString();
+    }
+
     /**
      * Appends the appropriate selection criteria related with the parentPath.<p>
      *
@@ -100,6 +100,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String ERR_JPA_PERSITENCE_1 = "ERR_JPA_PERSITENCE_1";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String ERR_KEYSET_PAGING_SORT_KEY_1 = "ERR_KEYSET_PAGING_SORT_KEY_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String ERR_NO_ACE_FOUND_2 = "ERR_NO_ACE_FOUND_2";
 
@@ -370,6 +373,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String LOG_NULL_DB_CONTEXT_0 = "LOG_NULL_DB_CONTEXT_0";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_PRUNE_HISTORY_FAILED_1 = "LOG_PRUNE_HISTORY_FAILED_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String LOG_PUBLISHING_ACL_1 = "LOG_PUBLISHING_ACL_1";
 
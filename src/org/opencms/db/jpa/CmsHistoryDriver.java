@@ -34,6 +34,7 @@ import org.opencms.db.CmsDbContext;
 import org.opencms.db.CmsDbEntryNotFoundException;
 import org.opencms.db.CmsDbSqlException;
 import org.opencms.db.CmsDriverManager;
+import org.opencms.db.CmsHistoryPruneChunk;
 import org.opencms.db.CmsResourceState;
 import org.opencms.db.I_CmsDriver;
 import org.opencms.db.I_CmsHistoryDriver;
@@ -72,10 +73,12 @@ import org.opencms.util.CmsUUID;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import javax.persistence.EntityManager;
 import javax.persistence.NoResultException;
 import javax.persistence.PersistenceException;
 import javax.persistence.Query;
@@ -200,9 +203,15 @@ public class CmsHistoryDriver implements I_CmsDriver, I_CmsHistoryDriver {
     /** Query key. */
     private static final String C_STRUCTURE_HISTORY_READ_DELETED = "C_STRUCTURE_HISTORY_READ_DELETED";
 
+    /** Query key. */
+    private static final String C_STRUCTURE_HISTORY_READ_DELETED_TO_PRUNE = "C_STRUCTURE_HISTORY_READ_DELETED_TO_PRUNE";
+
     /** Query key. */
     private static final String C_STRUCTURE_HISTORY_READ_NOTDELETED = "C_STRUCTURE_HISTORY_READ_NOTDELETED";
 
+    /** Query key. */
+    private static final String C_STRUCTURE_HISTORY_READ_NOTDELETED_TO_PRUNE = "C_STRUCTURE_HISTORY_READ_NOTDELETED_TO_PRUNE";
+
     /** Query key. */
     private static final String C_STRUCTURE_HISTORY_READ_SUBRESOURCES = "C_STRUCTURE_HISTORY_READ_SUBRESOURCES";
 
@@ -239,135 +248,13 @@ public class CmsHistoryDriver implements I_CmsDriver, I_CmsHistoryDriver {
     public int deleteEntries(CmsDbContext dbc, I_CmsHistoryResource resource, int versionsToKeep, long time)
     throws CmsDataAccessException {
 
-        try {
-            int maxVersion = -1;
-            // get the maximal version number for this resource
-            Query q = m_sqlManager.createQuery(dbc, C_STRUCTURE_HISTORY_MAXVER);
-            q.setParameter(1, resource.getStructureId().toString());
-            try {
-                maxVersion = CmsDataTypeUtil.numberToInt((Number)q.getSingleResult());
-            } catch (NoResultException e) {
-                // nothing to delete
-                internalCleanup(dbc, resource);
-                return 0;
-            }
-
-            if (time >= 0) {
-                int maxVersionByTime = -1;
-                // get the maximal version to keep for this resource based on the time parameter
-                q = m_sqlManager.createQuery(dbc, C_STRUCTURE_HISTORY_MAXVER_BYTIME);
-                q.setParameter(1, resource.getStructureId().toString());
-                q.setParameter(2, Long.valueOf(time));
-
-                try {
-                    maxVersionByTime = CmsDataTypeUtil.numberToInt((Number)q.getSingleResult());
-                } catch (NoResultException e) {
-                    // do nothing
-                }
-
-                if (maxVersionByTime > 0) {
-                    if (versionsToKeep < 0) {
-                        versionsToKeep = (maxVersion - maxVersionByTime);
-                    } else {
-                        versionsToKeep = Math.min(versionsToKeep, (maxVersion - maxVersionByTime));
-                    }
-                }
-            }
-
-            if ((maxVersion - versionsToKeep) <= 0) {
-                // nothing to delete
-                internalCleanup(dbc, resource);
-                return 0;
-            }
-
-            // get the minimal structure publish tag to keep for this sibling
-            int minStrPublishTagToKeep = -1;
-            q = m_sqlManager.createQuery(dbc, C_HISTORY_READ_MAXTAG_FOR_VERSION);
-            q.setParameter(1, resource.getStructureId().toString());
-            q.setParameter(2, Integer.valueOf((1 + maxVersion) - versionsToKeep));
-            try {
-                minStrPublishTagToKeep = CmsDataTypeUtil.numberToInt((Number)q.getSingleResult());
-            } catch (NoResultException e) {
-                // nothing to delete
-                internalCleanup(dbc, resource);
-                return 0;
-            }
-
-            if (minStrPublishTagToKeep < 1) {
-                // nothing to delete
-                internalCleanup(dbc, resource);
-                return 0;
-            }
-            minStrPublishTagToKeep++;
-
-            // delete the properties
-            q = m_sqlManager.createQuery(dbc, C_PROPERTIES_HISTORY_DELETE);
-            q.setParameter(1, resource.getStructureId().toString());
-            q.setParameter(2, Integer.valueOf(minStrPublishTagToKeep));
-            @SuppressWarnings("unchecked")
-            List<CmsDAOHistoryProperties> hisProps = q.getResultList();
-            for (CmsDAOHistoryProperties hp : hisProps) {
-                m_sqlManager.remove(dbc, hp);
-            }
-
-            // delete the structure entries
-            q = m_sqlManager.createQuery(dbc, C_STRUCTURE_HISTORY_DELETE);
-            q.setParameter(1, resource.getStructureId().toString());
-            q.setParameter(2, Integer.valueOf(minStrPublishTagToKeep));
-            @SuppressWarnings("unchecked")
-            List<CmsDAOHistoryStructure> structureEntries = q.getResultList();
-            int structureVersions = 0;
-            for (CmsDAOHistoryStructure hs : structureEntries) {
-                m_sqlManager.remove(dbc, hs);
-                structureVersions++;
-            }
-
-            // get the minimal resource publish tag to keep,
-            // all entries with publish tag less than this will be deleted
-            int minResPublishTagToKeep = -1;
-            q = m_sqlManager.createQuery(dbc, C_HISTORY_READ_MIN_USED_TAG);
-            q.setParameter(1, resource.getResourceId().toString());
-
-            try {
-                Object numObj = q.getSingleResult();
-                if (numObj == null) {
-                    minResPublishTagToKeep = Integer.MAX_VALUE;
-                } else {
-                    minResPublishTagToKeep = CmsDataTypeUtil.numberToInt((Number)numObj);
-                }
-            } catch (NoResultException e) {
-                internalCleanup(dbc, resource);
-                return structureVersions;
-            }
-
-            // delete the resource entries
-            q = m_sqlManager.createQuery(dbc, C_RESOURCES_HISTORY_DELETE);
-            q.setParameter(1, resource.getResourceId().toString());
-            q.setParameter(2, Integer.valueOf(minResPublishTagToKeep));
-            int resourceVersions = 0;
-            @SuppressWarnings("unchecked")
-            List<CmsDAOHistoryResources> resourceEntries = q.getResultList();
-            for (CmsDAOHistoryResources hr : resourceEntries) {
-                m_sqlManager.remove(dbc, hr);
-                resourceVersions++;
-            }
-
-            // delete the content entries
-            q = m_sqlManager.createQuery(dbc, C_CONTENT_HISTORY_DELETE);
-            q.setParameter(1, resource.getResourceId().toString());
-            q.setParameter(2, Integer.valueOf(minResPublishTagToKeep));
-            @SuppressWarnings("unchecked")
-            List<CmsDAOContents> contentEntries = q.getResultList();
-            for (CmsDAOContents c : contentEntries) {
-                m_sqlManager.remove(dbc, c);
-            }
-
-            internalCleanup(dbc, resource);
-
-            return Math.max(structureVersions, resourceVersions);
-        } catch (PersistenceException e) {
-            throw new CmsDataAccessException(Messages.get().container(Messages.ERR_JPA_PERSITENCE_1), e);
-        }
+        return internalDeleteEntries(
+            dbc,
+            resource.getStructureId(),
+            resource.getResourceId(),
+            resource.getRootPath().endsWith("/"),
+            versionsToKeep,
+            time);
     }
 
     /**
@@ -506,6 +393,74 @@ public class CmsHistoryDriver implements I_CmsDriver, I_CmsHistoryDriver {
         return CmsSqlManager.getInstance(classname);
     }
 
+    /**
+     * @see org.opencms.db.I_CmsHistoryDriver#pruneEntries(org.opencms.db.CmsDbContext, boolean, int, long, org.opencms.util.CmsUUID, int)
+     */
+    public CmsHistoryPruneChunk pruneEntries(
+        CmsDbContext dbc,
+        boolean deleted,
+        int versionsToKeep,
+        long time,
+        CmsUUID startAfter,
+        int chunkSize) throws CmsDataAccessException {
+
+        // the time limit may lower the number of versions to keep for a single resource,
+        // so in this case no resource can be skipped based on its number of versions
+        int minVersionRange = (time >= 0) ? 0 : Math.max(versionsToKeep, 0);
+        // structure id -> newest structure entry, in the order of the structure ids
+        Map<CmsUUID, Object[]> candidates = new LinkedHashMap<CmsUUID, Object[]>();
+        try {
+            Query q = m_sqlManager.createQuery(
+                dbc,
+                deleted ? C_STRUCTURE_HISTORY_READ_DELETED_TO_PRUNE : C_STRUCTURE_HISTORY_READ_NOTDELETED_TO_PRUNE);
+            q.setParameter(1, (startAfter != null ? startAfter : CmsUUID.getNullUUID()).toString());
+            q.setParameter(2, Integer.valueOf(minVersionRange));
+            q.setMaxResults(chunkSize);
+            @SuppressWarnings("unchecked")
+            List<Object[]> res = q.getResultList();
+            for (Object[] row : res) {
+                // several entries may have the highest version, the rows are ordered by publish tag
+                candidates.put(new CmsUUID((String)row[0]), row);
+            }
+        } catch (PersistenceException e) {
+            throw new CmsDbSqlException(Messages.get().container(Messages.ERR_JPA_PERSITENCE_1, e), e);
+        }
+
+        CmsUUID lastStructureId = null;
+        int versions = 0;
+        int failed = 0;
+        for (Map.Entry<CmsUUID, Object[]> entry : candidates.entrySet()) {
+            CmsUUID structureId = entry.getKey();
+            Object[] candidate = entry.getValue();
+            try {
+                versions += internalDeleteEntries(
+                    dbc,
+                    structureId,
+                    new CmsUUID((String)candidate[1]),
+                    ((String)candidate[2]).endsWith("/"),
+                    versionsToKeep,
+                    time);
+            } catch (CmsDataAccessException e) {
+                failed++;
+                LOG.warn(Messages.get().getBundle().key(Messages.LOG_PRUNE_HISTORY_FAILED_1, structureId), e);
+            }
+            lastStructureId = structureId;
+        }
+
+        // commit after each chunk, so the transaction does not span the whole history
+        try {
+            EntityManager em = m_sqlManager.getEntityManager(dbc);
+            if ((em.getTransaction() != null) && em.getTransaction().isActive()) {
+                em.getTransaction().commit();
+                em.getTransaction().begin();
+            }
+            em.clear();
+        } catch (PersistenceException e) {
+            throw new CmsDbSqlException(Messages.get().container(Messages.ERR_JPA_PERSITENCE_1, e), e);
+        }
+        return new CmsHistoryPruneChunk(lastStructureId, candidates.size(), versions, failed);
+    }
+
     /**
      * @see org.opencms.db.I_CmsHistoryDriver#readAllAvailableVersions(org.opencms.db.CmsDbContext, org.opencms.util.CmsUUID)
      */
@@ -1302,14 +1257,16 @@ public class CmsHistoryDriver implements I_CmsDriver, I_CmsHistoryDriver {
                     if (!valResource) {
                         if (sibCount < 2) {
                             // copy from offline content to content tables
-                            // so that the history contains the last state of the file
+                            // so that the history contains the last state of the file,
+                            // if the file was not modified before deleting it the online content is kept
+                            byte[] content = ((CmsFile)resource).getContents();
                             m_driverManager.getVfsDriver(dbc).createOnlineContent(
                                 dbc,
                                 resource.getResourceId(),
-                                ((CmsFile)resource).getContents(),
+                                content,
                                 publishTag,
                                 false,
-                                true);
+                                !m_driverManager.isOnlineContentUnchanged(dbc, resource, content));
                         } else {
                             @SuppressWarnings("unchecked")
                             Set<CmsUUID> changedAndDeleted = (Set<CmsUUID>)dbc.getAttribute(
@@ -1469,23 +1426,37 @@ public class CmsHistoryDriver implements I_CmsDriver, I_CmsHistoryDriver {
      */
     protected void internalCleanup(CmsDbContext dbc, I_CmsHistoryResource resource) throws CmsDataAccessException {
 
-        boolean isFolder = resource.getRootPath().endsWith("/");
+        internalCleanup(dbc, resource.getStructureId(), resource.getRootPath().endsWith("/"));
+    }
+
+    /**
+     * Deletes all historical entries of subresources of a folder without any historical entry left.<p>
+     *
+     * @param dbc the current database context
+     * @param structureId the structure id of the resource to check
+     * @param isFolder if the resource to check is a folder
+     *
+     * @throws CmsDataAccessException if something goes wrong
+     */
+    protected void internalCleanup(CmsDbContext dbc, CmsUUID structureId, boolean isFolder)
+    throws CmsDataAccessException {
+
         List<I_CmsHistoryResource> subResources = new ArrayList<I_CmsHistoryResource>();
         // if the resource is a folder
         if (isFolder) {
             // and if no versions left
-            if (readLastVersion(dbc, resource.getStructureId()) == 0) {
+            if (readLastVersion(dbc, structureId) == 0) {
                 // get all direct subresources
 
                 try {
                     Query q = m_sqlManager.createQuery(dbc, C_STRUCTURE_HISTORY_READ_SUBRESOURCES);
-                    q.setParameter(1, resource.getStructureId().toString());
+                    q.setParameter(1, structureId.toString());
                     @SuppressWarnings("unchecked")
                     List<Object[]> res = q.getResultList();
                     for (Object[] obj : res) {
-                        CmsUUID structureId = new CmsUUID((String)obj[0]);
+                        CmsUUID subResourceId = new CmsUUID((String)obj[0]);
                         int version = CmsDataTypeUtil.numberToInt((Integer)obj[1]);
-                        subResources.add(readResource(dbc, structureId, version));
+                        subResources.add(readResource(dbc, subResourceId, version));
                     }
                 } catch (PersistenceException e) {
                     throw new CmsDbSqlException(
@@ -1642,6 +1613,160 @@ public class CmsHistoryDriver implements I_CmsDriver, I_CmsHistoryDriver {
         }
     }
 
+    /**
+     * Deletes all historical versions of a resource
+     * keeping maximal <code>versionsToKeep</code> versions.<p>
+     *
+     * @param dbc the current database context
+     * @param structureId the structure id of the resource
+     * @param resourceId the resource id of the resource
+     * @param isFolder if the resource is a folder
+     * @param versionsToKeep the number of versions to keep
+     * @param time deleted resources older than this will also be deleted, is ignored if negative
+     *
+     * @return the number of versions that were deleted
+     *
+     * @throws CmsDataAccessException if something goes wrong
+     */
+    protected int internalDeleteEntries(
+        CmsDbContext dbc,
+        CmsUUID structureId,
+        CmsUUID resourceId,
+        boolean isFolder,
+        int versionsToKeep,
+        long time) throws CmsDataAccessException {
+
+        try {
+            int maxVersion = -1;
+            // get the maximal version number for this resource
+            Query q = m_sqlManager.createQuery(dbc, C_STRUCTURE_HISTORY_MAXVER);
+            q.setParameter(1, structureId.toString());
+            try {
+                maxVersion = CmsDataTypeUtil.numberToInt((Number)q.getSingleResult());
+            } catch (NoResultException e) {
+                // nothing to delete
+                internalCleanup(dbc, structureId, isFolder);
+                return 0;
+            }
+
+            if (time >= 0) {
+                int maxVersionByTime = -1;
+                // get the maximal version to keep for this resource based on the time parameter
+                q = m_sqlManager.createQuery(dbc, C_STRUCTURE_HISTORY_MAXVER_BYTIME);
+                q.setParameter(1, structureId.toString());
+                q.setParameter(2, Long.valueOf(time));
+
+                try {
+                    maxVersionByTime = CmsDataTypeUtil.numberToInt((Number)q.getSingleResult());
+                } catch (NoResultException e) {
+                    // do nothing
+                }
+
+                if (maxVersionByTime > 0) {
+                    if (versionsToKeep < 0) {
+                        versionsToKeep = (maxVersion - maxVersionByTime);
+                    } else {
+                        versionsToKeep = Math.min(versionsToKeep, (maxVersion - maxVersionByTime));
+                    }
+                }
+            }
+
+            if ((maxVersion - versionsToKeep) <= 0) {
+                // nothing to delete
+                internalCleanup(dbc, structureId, isFolder);
+                return 0;
+            }
+
+            // get the minimal structure publish tag to keep for this sibling
+            int minStrPublishTagToKeep = -1;
+            q = m_sqlManager.createQuery(dbc, C_HISTORY_READ_MAXTAG_FOR_VERSION);
+            q.setParameter(1, structureId.toString());
+            q.setParameter(2, Integer.valueOf((1 + maxVersion) - versionsToKeep));
+            try {
+                minStrPublishTagToKeep = CmsDataTypeUtil.numberToInt((Number)q.getSingleResult());
+            } catch (NoResultException e) {
+                // nothing to delete
+                internalCleanup(dbc, structureId, isFolder);
+                return 0;
+            }
+
+            if (minStrPublishTagToKeep < 1) {
+                // nothing to delete
+                internalCleanup(dbc, structureId, isFolder);
+                return 0;
+            }
+            minStrPublishTagToKeep++;
+
+            // delete the properties
+            q = m_sqlManager.createQuery(dbc, C_PROPERTIES_HISTORY_DELETE);
+            q.setParameter(1, structureId.toString());
+            q.setParameter(2, Integer.valueOf(minStrPublishTagToKeep));
+            @SuppressWarnings("unchecked")
+            List<CmsDAOHistoryProperties> hisProps = q.getResultList();
+            for (CmsDAOHistoryProperties hp : hisProps) {
+                m_sqlManager.remove(dbc, hp);
+            }
+
+            // delete the structure entries
+            q = m_sqlManager.createQuery(dbc, C_STRUCTURE_HISTORY_DELETE);
+            q.setParameter(1, structureId.toString());
+            q.setParameter(2, Integer.valueOf(minStrPublishTagToKeep));
+            @SuppressWarnings("unchecked")
+            List<CmsDAOHistoryStructure> structureEntries = q.getResultList();
+            int structureVersions = 0;
+            for (CmsDAOHistoryStructure hs : structureEntries) {
+                m_sqlManager.remove(dbc, hs);
+                structureVersions++;
+            }
+
+            // get the minimal resource publish tag to keep,
+            // all entries with publish tag less than this will be deleted
+            int minResPublishTagToKeep = -1;
+            q = m_sqlManager.createQuery(dbc, C_HISTORY_READ_MIN_USED_TAG);
+            q.setParameter(1, resourceId.toString());
+
+            try {
+                Object numObj = q.getSingleResult();
+                if (numObj == null) {
+                    minResPublishTagToKeep = Integer.MAX_VALUE;
+                } else {
+                    minResPublishTagToKeep = CmsDataTypeUtil.numberToInt((Number)numObj);
+                }
+            } catch (NoResultException e) {
+                internalCleanup(dbc, structureId, isFolder);
+                return structureVersions;
+            }
+
+            // delete the resource entries
+            q = m_sqlManager.createQuery(dbc, C_RESOURCES_HISTORY_DELETE);
+            q.setParameter(1, resourceId.toString());
+            q.setParameter(2, Integer.valueOf(minResPublishTagToKeep));
+            int resourceVersions = 0;
+            @SuppressWarnings("unchecked")
+            List<CmsDAOHistoryResources> resourceEntries = q.getResultList();
+            for (CmsDAOHistoryResources hr : resourceEntries) {
+                m_sqlManager.remove(dbc, hr);
+                resourceVersions++;
+            }
+
+            // delete the content entries
+            q = m_sqlManager.createQuery(dbc, C_CONTENT_HISTORY_DELETE);
+            q.setParameter(1, resourceId.toString());
+            q.setParameter(2, Integer.valueOf(minResPublishTagToKeep));
+            @SuppressWarnings("unchecked")
+            List<CmsDAOContents> contentEntries = q.getResultList();
+            for (CmsDAOContents c : contentEntries) {
+                m_sqlManager.remove(dbc, c);
+            }
+
+            internalCleanup(dbc, structureId, isFolder);
+
+            return Math.max(structureVersions, resourceVersions);
+        } catch (PersistenceException e) {
+            throw new CmsDataAccessException(Messages.get().container(Messages.ERR_JPA_PERSITENCE_1), e);
+        }
+    }
+
     /**
      * Merges an historical entry for a sibling, based on the structure data from the given historical resource
      * and result set for the resource entry.<p>
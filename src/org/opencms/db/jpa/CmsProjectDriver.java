@@ -1246,81 +1246,15 @@ public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
         boolean needToUpdateContent,
         int publishTag) throws CmsDataAccessException {
 
-        CmsFile newFile = null;
-        try {
-            // read the file content offline
-            CmsUUID projectId = dbc.getProjectId();
-            boolean dbcHasProjectId = (projectId != null) && !projectId.isNullUUID();
-            CmsUUID projectIdForReading = (!dbcHasProjectId ? offlineProject.getUuid() : CmsProject.ONLINE_PROJECT_ID);
-            dbc.setProjectId(offlineProject.getUuid());
-            byte[] offlineContent = m_driverManager.getVfsDriver(dbc).readContent(
-                dbc,
-                projectIdForReading,
-                offlineResource.getResourceId());
-            CmsFile offlineFile = new CmsFile(offlineResource);
-            offlineFile.setContents(offlineContent);
-            dbc.setProjectId(projectId);
-
-            // create the file online
-            newFile = (CmsFile)offlineFile.clone();
-            newFile.setState(CmsResource.STATE_UNCHANGED);
-
-            boolean createSibling = true;
-            // check if we are facing with a create new sibling operation
-            if (!offlineFile.getState().isNew()) {
-                createSibling = false;
-            } else {
-                // check if the resource entry already exists
-                if (!m_driverManager.getVfsDriver(dbc).validateResourceIdExists(
-                    dbc,
-                    onlineProject.getUuid(),
-                    offlineFile.getResourceId())) {
-                    // we are creating a normal resource and not a sibling
-                    createSibling = false;
-                }
-            }
-
-            // only update the content if it was not updated before
-            boolean alreadyPublished = publishedResourceIds.contains(offlineResource.getResourceId());
-            needToUpdateContent &= !alreadyPublished;
-
-            if (createSibling) {
-                if (!alreadyPublished) {
-                    // create the file online, the first time a sibling is published also the resource entry has to be actualized
-                    m_driverManager.getVfsDriver(dbc).createResource(dbc, onlineProject.getUuid(), newFile, null);
-                } else {
-                    // create the sibling online
-                    m_driverManager.getVfsDriver(dbc).createSibling(dbc, onlineProject, offlineResource);
-                }
-                newFile = new CmsFile(offlineResource);
-                newFile.setContents(offlineContent);
-            } else {
-                // update the online/offline structure and resource records of the file
-                m_driverManager.getVfsDriver(dbc).publishResource(dbc, onlineProject, newFile, offlineFile);
-            }
-            // update version numbers
-            m_driverManager.getVfsDriver(dbc).publishVersions(dbc, offlineResource, !alreadyPublished);
-
-            // create/update the content
-            m_driverManager.getVfsDriver(dbc).createOnlineContent(
-                dbc,
-                offlineFile.getResourceId(),
-                offlineFile.getContents(),
-                publishTag,
-                true,
-                needToUpdateContent);
-
-            // mark the resource as written to avoid that the same content is written for each sibling instance
-            publishedResourceIds.add(offlineResource.getResourceId());
-        } catch (CmsDataAccessException e) {
-            if (LOG.isErrorEnabled()) {
-                LOG.error(
-                    Messages.get().getBundle().key(Messages.LOG_PUBLISHING_FILE_CONTENT_1, offlineResource.toString()),
-                    e);
-            }
-            throw e;
-        }
-        return newFile;
+        return publishFileContent(
+            dbc,
+            offlineProject,
+            onlineProject,
+            offlineResource,
+            null,
+            publishedResourceIds,
+            needToUpdateContent,
+            publishTag);
     }
 
     /**
@@ -2879,6 +2813,30 @@ public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
         }
     }
 
+    /**
+     * Checks if the content of a changed file has to be compared with its current online content.<p>
+     *
+     * Files like images or PDFs are often uploaded again or rewritten without changing a single byte.
+     * A comparison is only needed if the resource id and the length of the content did not change.<p>
+     *
+     * @param dbc the current database context
+     * @param onlineResource the online resource
+     * @param offlineResource the offline resource to publish
+     *
+     * @return <code>true</code> if the offline content may be identical to the online content
+     */
+    protected boolean isContentComparable(CmsDbContext dbc, CmsResource onlineResource, CmsResource offlineResource) {
+
+        if (!onlineResource.getResourceId().equals(offlineResource.getResourceId())
+            || (onlineResource.getLength() != offlineResource.getLength())) {
+            // the content has been replaced, no need to compare
+            return false;
+        }
+        CmsUUID projectId = dbc.getProjectId();
+        // the online content is always replaced if the database context has a project id
+        return (projectId == null) || projectId.isNullUUID();
+    }
+
     /**
      * Build the whole WHERE SQL statement part for the given log entry filter.<p>
      *
@@ -3071,14 +3029,31 @@ public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
             throw e;
         }
 
+        byte[] offlineContent = null;
+        if (needToUpdateContent
+            && (onlineResource != null)
+            && !publishedResourceIds.contains(offlineResource.getResourceId())
+            && isContentComparable(dbc, onlineResource, offlineResource)) {
+            // the offline content is read only once and then used for publishing as well
+            offlineContent = m_driverManager.getVfsDriver(dbc).readContent(
+                dbc,
+                dbc.currentProject().getUuid(),
+                offlineResource.getResourceId());
+            if (m_driverManager.isOnlineContentEqual(dbc, offlineResource.getResourceId(), offlineContent)) {
+                // the file was saved again without modifications, so the online content entry is kept
+                needToUpdateContent = false;
+            }
+        }
+
         CmsFile newFile;
         try {
             // publish the file content
-            newFile = m_driverManager.getProjectDriver(dbc).publishFileContent(
+            newFile = publishFileContent(
                 dbc,
                 dbc.currentProject(),
                 onlineProject,
                 offlineResource,
+                offlineContent,
                 publishedResourceIds,
                 needToUpdateContent,
                 publishTag);
@@ -3341,6 +3316,113 @@ public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
         }
     }
 
+    /**
+     * Publishes the content of a file.<p>
+     *
+     * @param dbc the current database context
+     * @param offlineProject the offline project
+     * @param onlineProject the online project
+     * @param offlineResource the resource to publish
+     * @param offlineContent the offline content of the file, if <code>null</code> it is read from the database
+     * @param publishedResourceIds contains the UUIDs of already published content records
+     * @param needToUpdateContent <code>true</code> if the content has to be updated
+     * @param publishTag the publish tag
+     *
+     * @return the published file
+     *
+     * @throws CmsDataAccessException if something goes wrong
+     */
+    protected CmsFile publishFileContent(
+        CmsDbContext dbc,
+        CmsProject offlineProject,
+        CmsProject onlineProject,
+        CmsResource offlineResource,
+        byte[] offlineContent,
+        Set<CmsUUID> publishedResourceIds,
+        boolean needToUpdateContent,
+        int publishTag) throws CmsDataAccessException {
+
+        CmsFile newFile = null;
+        try {
+            if (offlineContent == null) {
+                // read the file content offline
+                CmsUUID projectId = dbc.getProjectId();
+                boolean dbcHasProjectId = (projectId != null) && !projectId.isNullUUID();
+                CmsUUID projectIdForReading = (!dbcHasProjectId
+                ? offlineProject.getUuid()
+                : CmsProject.ONLINE_PROJECT_ID);
+                dbc.setProjectId(offlineProject.getUuid());
+                offlineContent = m_driverManager.getVfsDriver(dbc).readContent(
+                    dbc,
+                    projectIdForReading,
+                    offlineResource.getResourceId());
+                dbc.setProjectId(projectId);
+            }
+            CmsFile offlineFile = new CmsFile(offlineResource);
+            offlineFile.setContents(offlineContent);
+
+            // create the file online
+            newFile = (CmsFile)offlineFile.clone();
+            newFile.setState(CmsResource.STATE_UNCHANGED);
+
+            boolean createSibling = true;
+            // check if we are facing with a create new sibling operation
+            if (!offlineFile.getState().isNew()) {
+                createSibling = false;
+            } else {
+                // check if the resource entry already exists
+                if (!m_driverManager.getVfsDriver(dbc).validateResourceIdExists(
+                    dbc,
+                    onlineProject.getUuid(),
+                    offlineFile.getResourceId())) {
+                    // we are creating a normal resource and not a sibling
+                    createSibling = false;
+                }
+            }
+
+            // only update the content if it was not updated before
+            boolean alreadyPublished = publishedResourceIds.contains(offlineResource.getResourceId());
+            needToUpdateContent &= !alreadyPublished;
+
+            if (createSibling) {
+                if (!alreadyPublished) {
+                    // create the file online, the first time a sibling is published also the resource entry has to be actualized
+                    m_driverManager.getVfsDriver(dbc).createResource(dbc, onlineProject.getUuid(), newFile, null);
+                } else {
+                    // create the sibling online
+                    m_driverManager.getVfsDriver(dbc).createSibling(dbc, onlineProject, offlineResource);
+                }
+                newFile = new CmsFile(offlineResource);
+                newFile.setContents(offlineContent);
+            } else {
+                // update the online/offline structure and resource records of the file
+                m_driverManager.getVfsDriver(dbc).publishResource(dbc, onlineProject, newFile, offlineFile);
+            }
+            // update version numbers
+            m_driverManager.getVfsDriver(dbc).publishVersions(dbc, offlineResource, !alreadyPublished);
+
+            // create/update the content
+            m_driverManager.getVfsDriver(dbc).createOnlineContent(
+                dbc,
+                offlineFile.getResourceId(),
+                offlineFile.getContents(),
+                publishTag,
+                true,
+                needToUpdateContent);
+
+            // mark the resource as written to avoid that the same content is written for each sibling instance
+            publishedResourceIds.add(offlineResource.getResourceId());
+        } catch (CmsDataAccessException e) {
+            if (LOG.isErrorEnabled()) {
+                LOG.error(
+                    Messages.get().getBundle().key(Messages.LOG_PUBLISHING_FILE_CONTENT_1, offlineResource.toString()),
+                    e);
+            }
+            throw e;
+        }
+        return newFile;
+    }
+
     /**
      * Publishes a new file.<p>
      *
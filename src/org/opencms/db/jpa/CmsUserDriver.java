@@ -1668,7 +1668,7 @@ public class CmsUserDriver implements I_CmsUserDriver {
                 } else {
                     daoUser = (CmsDAOUsers)singleRes;
                 }
-                users.add(internalCreateUser(dbc, daoUser));
+                users.add(internalCreateUser(dbc, daoUser, searchParams.isLoadAdditionalInfos()));
             }
         } catch (PersistenceException e) {
             throw new CmsDataAccessException(Messages.get().container(Messages.ERR_JPA_PERSITENCE_1, e), e);
@@ -2314,6 +2314,23 @@ public class CmsUserDriver implements I_CmsUserDriver {
      */
     protected CmsUser internalCreateUser(CmsDbContext dbc, CmsDAOUsers u) throws CmsDataAccessException {
 
+        return internalCreateUser(dbc, u, true);
+    }
+
+    /**
+     * Semi-constructor to create a {@link CmsUser} instance from a JDBC result set.<p>
+     *
+     * @param dbc the current database context
+     * @param u the user
+     * @param readInfos if false, the additional infos of the user are not read
+     *
+     * @return the new CmsUser object
+     *
+     * @throws CmsDataAccessException if there is an error in de-serializing the user info
+     */
+    protected CmsUser internalCreateUser(CmsDbContext dbc, CmsDAOUsers u, boolean readInfos)
+    throws CmsDataAccessException {
+
         String userName = u.getUserName();
         String ou = CmsOrganizationalUnit.removeLeadingSeparator(u.getUserOu());
         CmsUUID userId = new CmsUUID(u.getUserId());
@@ -2322,7 +2339,7 @@ public class CmsUserDriver implements I_CmsUserDriver {
             LOG.debug(Messages.get().getBundle().key(Messages.LOG_DBG_CREATE_USER_1, userName));
         }
 
-        Map<String, Object> info = readUserInfos(dbc, userId);
+        Map<String, Object> info = readInfos ? readUserInfos(dbc, userId) : null;
         return new CmsUser(
             userId,
             ou + userName,
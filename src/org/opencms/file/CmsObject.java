@@ -67,6 +67,7 @@ import org.opencms.util.CmsUUID;
 import org.opencms.xml.content.CmsNumberSuffixNameSequence;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
@@ -1931,6 +1932,45 @@ public final class CmsObject {
             filter);
     }
 
+    /**
+     * Returns the resources from the given list for which the current user has the required permissions.<p>
+     *
+     * This is much faster than checking the resources one by one with
+     * {@link #hasPermissions(CmsResource, CmsPermissionSet, boolean, CmsResourceFilter)}, since
+     * the groups and roles of the user and the permissions of common parent folders are only evaluated once.<p>
+     *
+     * @param resources the resources to check the permissions for
+     * @param requiredPermissions the set of permissions to check for
+     * @param checkLock if <code>true</code> the lock status of the resources is checked for write operations
+     *      and the resources need to be locked by the current user so that the test is passed,
+     *      if <code>false</code> the lock is not checked at all
+     * @param filter the resource filter to use
+     *
+     * @return the resources for which the required permissions are satisfied, in their original order
+     *
+     * @throws CmsException if something goes wrong
+     */
+    public List<CmsResource> filterByPermissions(
+        List<CmsResource> resources,
+        CmsPermissionSet requiredPermissions,
+        boolean checkLock,
+        CmsResourceFilter filter) throws CmsException {
+
+        List<I_CmsPermissionHandler.CmsPermissionCheckResult> permissions = m_securityManager.hasPermissions(
+            m_context,
+            resources,
+            requiredPermissions,
+            checkLock,
+            filter);
+        List<CmsResource> result = new ArrayList<CmsResource>(resources.size());
+        for (int i = 0; i < resources.size(); i++) {
+            if (permissions.get(i).isAllowed()) {
+                result.add(resources.get(i));
+            }
+        }
+        return result;
+    }
+
     /**
      * Writes a list of access control entries as new access control entries of a given resource.<p>
      *
@@ -2947,6 +2987,26 @@ public final class CmsObject {
         return m_securityManager.readPropertyObjects(m_context, resource, search);
     }
 
+    /**
+     * Reads the property objects directly attached to each of the given resources.<p>
+     *
+     * This is equivalent to calling <code>{@link #readPropertyObjects(CmsResource, boolean)}</code>
+     * with <code>search = false</code> for each resource, but reads the properties of all resources
+     * which are not cached yet at once.<p>
+     *
+     * All properties in the result lists will be in frozen (read only) state.<p>
+     *
+     * @param resources the resources to read the properties for
+     *
+     * @return the properties of the resources, by structure id
+     *
+     * @throws CmsException if something goes wrong
+     */
+    public Map<CmsUUID, List<CmsProperty>> readPropertyObjects(List<CmsResource> resources) throws CmsException {
+
+        return m_securityManager.readPropertyObjectsForResources(m_context, resources);
+    }
+
     /**
      * Reads the resources that were published in a publish task for a given publish history ID.<p>
      *
@@ -3188,6 +3248,26 @@ public final class CmsObject {
         return m_securityManager.readResources(m_context, resource, filter, readTree);
     }
 
+    /**
+     * Reads the resources with the given structure ids, using the specified resource filter.<p>
+     *
+     * This is equivalent to calling <code>{@link #readResource(CmsUUID, CmsResourceFilter)}</code>
+     * for each id, but reads all resources at once. Ids of resources which don't exist, don't
+     * match the filter or can't be read by the current user are ignored.<p>
+     *
+     * @param structureIds the structure ids of the resources to read
+     * @param filter the resource filter to use while reading
+     *
+     * @return the resources that were read, in no particular order
+     *
+     * @throws CmsException if something goes wrong
+     */
+    public List<CmsResource> readResources(Collection<CmsUUID> structureIds, CmsResourceFilter filter)
+    throws CmsException {
+
+        return m_securityManager.readResourcesForIds(m_context, structureIds, filter);
+    }
+
     /**
      * Reads all resources that have a value set for the specified property.<p>
      *
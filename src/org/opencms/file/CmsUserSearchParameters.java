@@ -88,6 +88,12 @@ public class CmsUserSearchParameters {
     /** If true, core users will not be filtered out if filtering by flags. */
     private boolean m_keepCoreUsers;
 
+    /** The last user of the previous results page, used for keyset paging. */
+    private CmsUser m_keysetUser;
+
+    /** Indicates whether the additional infos of the resulting users should be loaded. */
+    private boolean m_loadAdditionalInfos = true;
+
     /** A collection of groups such that returned users must be in none of them. */
     private Collection<CmsGroup> m_notAnyGroups;
 
@@ -168,6 +174,18 @@ public class CmsUserSearchParameters {
         return m_group;
     }
 
+    /**
+     * Returns the last user of the previous results page, if keyset paging is used.<p>
+     *
+     * @return the last user of the previous results page, or <code>null</code>
+     *
+     * @see #setKeysetPaging(int, CmsUser)
+     */
+    public CmsUser getKeysetUser() {
+
+        return m_keysetUser;
+    }
+
     /**
      * Returns the groups whose users may not appear in the search results.<p>
      *
@@ -300,6 +318,18 @@ public class CmsUserSearchParameters {
         return m_filterCore;
     }
 
+    /**
+     * Returns true if the additional infos of the resulting users should be loaded.<p>
+     *
+     * The default value is <code>true</code>.<p>
+     *
+     * @return true if the additional infos of the resulting users should be loaded
+     */
+    public boolean isLoadAdditionalInfos() {
+
+        return m_loadAdditionalInfos;
+    }
+
     /**
      * Return true if core users should not be filtered out if filtering by flag.<p>
      *
@@ -402,6 +432,38 @@ public class CmsUserSearchParameters {
         m_keepCoreUsers = keepCoreUsers;
     }
 
+    /**
+     * Sets keyset based paging parameters.<p>
+     *
+     * Instead of skipping the results of all previous pages, the next page starts directly after
+     * the given user in the current sort order. This keeps the query cost constant for deep pages
+     * of large organizational units. Keyset paging is supported if no sort key or one of the sort keys
+     * {@link SortKey#loginName}, {@link SortKey#orgUnit} and {@link SortKey#lastLogin} is used,
+     * the search fails with an illegal argument exception for other sort keys.<p>
+     *
+     * @param pageSize the maximum page size
+     * @param lastUser the last user of the previous page, or <code>null</code> for the first page
+     */
+    public void setKeysetPaging(int pageSize, CmsUser lastUser) {
+
+        m_pageSize = pageSize;
+        m_page = 1;
+        m_keysetUser = lastUser;
+    }
+
+    /**
+     * Enables or disables loading the additional infos of the resulting users.<p>
+     *
+     * Lists which only display the core user attributes should disable this,
+     * since reading the additional infos requires an extra query per user.<p>
+     *
+     * @param loadAdditionalInfos if false, the additional infos of the resulting users will not be loaded
+     */
+    public void setLoadAdditionalInfos(boolean loadAdditionalInfos) {
+
+        m_loadAdditionalInfos = loadAdditionalInfos;
+    }
+
     /**
      * Sets the groups whose users may not appear in the search results.<p>
      *
@@ -442,6 +504,7 @@ public class CmsUserSearchParameters {
 
         m_pageSize = pageSize;
         m_page = page;
+        m_keysetUser = null;
     }
 
     /**
@@ -29,9 +29,11 @@ package org.opencms.file.collectors;
 
 import org.opencms.ade.contenteditor.shared.CmsEditorConstants;
 import org.opencms.ade.publish.CmsCollectorPublishListHelper;
+import org.opencms.cache.CmsQueryResultScope;
 import org.opencms.file.CmsDataAccessException;
 import org.opencms.file.CmsFile;
 import org.opencms.file.CmsObject;
+import org.opencms.file.CmsProperty;
 import org.opencms.file.CmsRequestContext;
 import org.opencms.file.CmsResource;
 import org.opencms.file.CmsResourceFilter;
@@ -40,13 +42,20 @@ import org.opencms.gwt.shared.I_CmsContentLoadCollectorInfo;
 import org.opencms.main.CmsException;
 import org.opencms.main.CmsIllegalArgumentException;
 import org.opencms.main.CmsLog;
+import org.opencms.main.CmsRuntimeException;
 import org.opencms.main.OpenCms;
 import org.opencms.util.CmsStringUtil;
+import org.opencms.util.CmsUUID;
 import org.opencms.xml.content.CmsXmlContent;
 import org.opencms.xml.content.CmsXmlContentFactory;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.Set;
 
 import org.apache.commons.lang.StringUtils;
@@ -304,6 +313,28 @@ public abstract class A_CmsResourceCollector implements I_CmsResourceCollector {
 
     }
 
+    /**
+     * Returns the folders and resource types the results of the given collector are read from,
+     * or <code>null</code> if the results must not be cached.<p>
+     *
+     * The results of collectors with a scope are shared between requests to the online project
+     * and are only collected again after a resource in the scope or in the result was published.
+     * Collectors that depend on anything else than the published resources, like the requested URI,
+     * request parameters or the current time, must return <code>null</code>, which is the default.<p>
+     *
+     * @param cms the current users OpenCms context
+     * @param collectorName the name of the collector
+     * @param param the collector parameter
+     *
+     * @return the scope of the collector results, or <code>null</code> if the results must not be cached
+     *
+     * @see org.opencms.cache.CmsQueryResultCache
+     */
+    public CmsQueryResultScope getResultCacheScope(CmsObject cms, String collectorName, String param) {
+
+        return null;
+    }
+
     /**
      * @see org.opencms.file.collectors.I_CmsResourceCollector#getResults(org.opencms.file.CmsObject)
      */
@@ -395,6 +426,54 @@ public abstract class A_CmsResourceCollector implements I_CmsResourceCollector {
         return getCreateInFolder(cms, new CmsCollectorData(param));
     }
 
+    /**
+     * Returns the scope of a collector that reads the resources of the folder and type given
+     * in a standard collector parameter.<p>
+     *
+     * @param cms the current users OpenCms context
+     * @param param the collector parameter
+     *
+     * @return the scope of the collector results, or <code>null</code> if the parameter is invalid
+     *
+     * @see CmsCollectorData
+     */
+    protected CmsQueryResultScope getFolderResultCacheScope(CmsObject cms, String param) {
+
+        try {
+            CmsCollectorData data = new CmsCollectorData(param);
+            return CmsQueryResultScope.create(cms.getRequestContext().addSiteRoot(data.getFileName()), data.getType());
+        } catch (CmsRuntimeException e) {
+            // the collector reports the invalid parameter itself
+            return null;
+        }
+    }
+
+    /**
+     * Reads the properties directly attached to all given resources at once.<p>
+     *
+     * The result can be handed to the property based comparators, so that they do not have to
+     * read the properties of every single resource while sorting. In case the bulk read fails,
+     * an empty map is returned and the properties are read one by one later.<p>
+     *
+     * @param cms the current OpenCms user context
+     * @param resources the resources to read the properties for
+     *
+     * @return the properties of the resources, by structure id
+     */
+    protected Map<CmsUUID, List<CmsProperty>> readPropertyObjects(CmsObject cms, List<CmsResource> resources) {
+
+        try {
+            return cms.readPropertyObjects(resources);
+        } catch (CmsException e) {
+            LOG.warn(
+                Messages.get().getBundle().key(
+                    Messages.LOG_PREFETCH_PROPERTIES_FAILED_1,
+                    Integer.valueOf(resources.size())),
+                e);
+            return Collections.emptyMap();
+        }
+    }
+
     /**
      * Shrinks a List to fit a maximum size.<p>
      *
@@ -426,4 +505,62 @@ public abstract class A_CmsResourceCollector implements I_CmsResourceCollector {
 
         return shrinkToFit(result, explicitNumResults > 0 ? explicitNumResults : maxSize);
     }
+
+    /**
+     * Sorts a List with the given comparator and shrinks it to fit a maximum size.<p>
+     *
+     * The result is the same as sorting the complete list and calling
+     * {@link #shrinkToFit(List, int, int)} afterwards. If only a few of many resources are
+     * requested, only the best resources are kept in a bounded heap while the list is scanned,
+     * so the complete list is never sorted.<p>
+     *
+     * @param result a List
+     * @param comparator the comparator that defines the sort order
+     * @param maxSize the maximum size of the List
+     * @param explicitNumResults the value of the numResults parameter given to the getResults method (this overrides maxSize if it is positive)
+     *
+     * @return the sorted and reduced list
+     */
+    protected List<CmsResource> sortAndShrinkToFit(
+        final List<CmsResource> result,
+        final Comparator<? super CmsResource> comparator,
+        int maxSize,
+        int explicitNumResults) {
+
+        int limit = explicitNumResults > 0 ? explicitNumResults : maxSize;
+        if ((limit <= 0) || (result.size() <= limit)) {
+            Collections.sort(result, comparator);
+            return result;
+        }
+
+        final List<CmsResource> resources = new ArrayList<CmsResource>(result);
+        // orders by the comparator, equal resources keep their original order like in a stable sort
+        final Comparator<Integer> order = new Comparator<Integer>() {
+
+            public int compare(Integer index0, Integer index1) {
+
+                int cmp = comparator.compare(resources.get(index0.intValue()), resources.get(index1.intValue()));
+                return cmp != 0 ? cmp : index0.compareTo(index1);
+            }
+        };
+        // the head of the heap is the worst of the best resources found so far
+        PriorityQueue<Integer> heap = new PriorityQueue<Integer>(limit, Collections.reverseOrder(order));
+        for (int i = 0, n = resources.size(); i < n; i++) {
+            Integer index = Integer.valueOf(i);
+            if (heap.size() < limit) {
+                heap.add(index);
+            } else if (order.compare(index, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(index);
+            }
+        }
+
+        List<Integer> indices = new ArrayList<Integer>(heap);
+        Collections.sort(indices, order);
+        List<CmsResource> top = new ArrayList<CmsResource>(indices.size());
+        for (Integer index : indices) {
+            top.add(resources.get(index.intValue()));
+        }
+        return top;
+    }
 }
\ No newline at end of file
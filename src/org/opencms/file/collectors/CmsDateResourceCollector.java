@@ -27,15 +27,20 @@
 
 package org.opencms.file.collectors;
 
+import org.opencms.cache.CmsQueryResultScope;
 import org.opencms.file.CmsDataAccessException;
 import org.opencms.file.CmsObject;
+import org.opencms.file.CmsProperty;
 import org.opencms.file.CmsResource;
 import org.opencms.file.CmsResourceFilter;
 import org.opencms.main.CmsException;
+import org.opencms.main.CmsRuntimeException;
+import org.opencms.util.CmsUUID;
 
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 /**
  * A default resource collector that supports flexible sorting based on resource dates.<p>
@@ -130,6 +135,24 @@ public class CmsDateResourceCollector extends A_CmsResourceCollector {
         return result;
     }
 
+    /**
+     * @see org.opencms.file.collectors.A_CmsResourceCollector#getResultCacheScope(org.opencms.file.CmsObject, java.lang.String, java.lang.String)
+     */
+    @Override
+    public CmsQueryResultScope getResultCacheScope(CmsObject cms, String collectorName, String param) {
+
+        if ((collectorName != null) && (COLLECTORS_LIST.indexOf(collectorName) < 0)) {
+            return null;
+        }
+        try {
+            CmsExtendedCollectorData data = new CmsExtendedCollectorData(param);
+            return CmsQueryResultScope.create(cms.getRequestContext().addSiteRoot(data.getFileName()), data.getType());
+        } catch (CmsRuntimeException e) {
+            // the collector reports the invalid parameter itself
+            return null;
+        }
+    }
+
     /**
      * @see org.opencms.file.collectors.I_CmsResourceCollector#getResults(org.opencms.file.CmsObject, java.lang.String, java.lang.String)
      */
@@ -199,10 +222,16 @@ public class CmsDateResourceCollector extends A_CmsResourceCollector {
         }
         List<CmsResource> result = cms.readResources(foldername, filter, tree);
 
+        Map<CmsUUID, List<CmsProperty>> properties = null;
+        if ((dateIdentifiers != null)
+            && !CmsDateResourceComparator.DATE_ATTRIBUTES_LIST.containsAll(dateIdentifiers)) {
+            // some dates are read from properties, read them for all resources at once
+            properties = readPropertyObjects(cms, result);
+        }
+
         // a special date comparator is used to sort the resources
-        CmsDateResourceComparator comparator = new CmsDateResourceComparator(cms, dateIdentifiers, asc);
-        Collections.sort(result, comparator);
+        CmsDateResourceComparator comparator = new CmsDateResourceComparator(cms, dateIdentifiers, asc, properties);
 
-        return shrinkToFit(result, data.getCount(), numResults);
+        return sortAndShrinkToFit(result, comparator, data.getCount(), numResults);
     }
 }
\ No newline at end of file
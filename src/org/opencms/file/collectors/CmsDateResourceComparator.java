@@ -97,6 +97,9 @@ public class CmsDateResourceComparator implements Comparator<CmsResource> {
     /** The internal map of comparator keys. */
     private Map<CmsUUID, CmsDateResourceComparator> m_keys;
 
+    /** The properties read in advance for the resources to sort, by structure id. */
+    private Map<CmsUUID, List<CmsProperty>> m_properties;
+
     /**
      * Creates a new instance of this comparator key.<p>
      *
@@ -115,6 +118,26 @@ public class CmsDateResourceComparator implements Comparator<CmsResource> {
         m_keys = new HashMap<CmsUUID, CmsDateResourceComparator>();
     }
 
+    /**
+     * Creates a new instance of this comparator key that uses properties read in advance.<p>
+     *
+     * The properties of resources missing in the given map are read when required.<p>
+     *
+     * @param cms the current OpenCms user context
+     * @param dateIdentifiers the names of the dates to check
+     * @param asc if true, the date sort order is ascending, otherwise descending
+     * @param properties the properties of the resources to sort, by structure id
+     */
+    public CmsDateResourceComparator(
+        CmsObject cms,
+        List<String> dateIdentifiers,
+        boolean asc,
+        Map<CmsUUID, List<CmsProperty>> properties) {
+
+        this(cms, dateIdentifiers, asc);
+        m_properties = properties;
+    }
+
     /**
      * Creates a new, empty instance of this comparator key, used for the calculated map valued.<p>
      */
@@ -141,8 +164,31 @@ public class CmsDateResourceComparator implements Comparator<CmsResource> {
         List<String> dateIdentifiers,
         long defaultValue) {
 
+        return calculateDate(cms, resource, dateIdentifiers, defaultValue, null);
+    }
+
+    /**
+     * Calculates the date to use for comparison of this resource based on the given date identifiers.<p>
+     *
+     * @param cms the current OpenCms user context
+     * @param resource the resource to create the key for
+     * @param dateIdentifiers the date identifiers to use for selecting the date
+     * @param defaultValue the default value to use in case no value can be calculated
+     * @param prefetched the properties of the resource read in advance, or <code>null</code> to read them when required
+     *
+     * @return the calculated date
+     *
+     * @see CmsDateResourceComparator for a description about how the date identifieres are used
+     */
+    public static long calculateDate(
+        CmsObject cms,
+        CmsResource resource,
+        List<String> dateIdentifiers,
+        long defaultValue,
+        List<CmsProperty> prefetched) {
+
         long result = 0;
-        List<CmsProperty> properties = null;
+        List<CmsProperty> properties = prefetched;
         for (int i = 0, size = dateIdentifiers.size(); i < size; i++) {
             // check all configured comparisons
             String date = dateIdentifiers.get(i);
@@ -214,13 +260,23 @@ public class CmsDateResourceComparator implements Comparator<CmsResource> {
      * @param cms the current OpenCms user context
      * @param resource the resource to create the key for
      * @param dateIdentifiers the date identifiers to use for selecting the date
+     * @param properties the properties read in advance, or <code>null</code>
      *
      * @return a new instance of this comparator key
      */
-    private static CmsDateResourceComparator create(CmsObject cms, CmsResource resource, List<String> dateIdentifiers) {
+    private static CmsDateResourceComparator create(
+        CmsObject cms,
+        CmsResource resource,
+        List<String> dateIdentifiers,
+        Map<CmsUUID, List<CmsProperty>> properties) {
 
         CmsDateResourceComparator result = new CmsDateResourceComparator();
-        result.m_date = calculateDate(cms, resource, dateIdentifiers, resource.getDateCreated());
+        result.m_date = calculateDate(
+            cms,
+            resource,
+            dateIdentifiers,
+            resource.getDateCreated(),
+            properties != null ? properties.get(resource.getStructureId()) : null);
         return result;
     }
 
@@ -238,12 +294,12 @@ public class CmsDateResourceComparator implements Comparator<CmsResource> {
 
         if (key0 == null) {
             // initialize key if null
-            key0 = CmsDateResourceComparator.create(m_cms, res0, m_dateIdentifiers);
+            key0 = CmsDateResourceComparator.create(m_cms, res0, m_dateIdentifiers, m_properties);
             m_keys.put(res0.getStructureId(), key0);
         }
         if (key1 == null) {
             // initialize key if null
-            key1 = CmsDateResourceComparator.create(m_cms, res1, m_dateIdentifiers);
+            key1 = CmsDateResourceComparator.create(m_cms, res1, m_dateIdentifiers, m_properties);
             m_keys.put(res1.getStructureId(), key1);
         }
 
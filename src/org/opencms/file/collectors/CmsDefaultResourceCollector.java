@@ -27,6 +27,7 @@
 
 package org.opencms.file.collectors;
 
+import org.opencms.cache.CmsQueryResultScope;
 import org.opencms.file.CmsDataAccessException;
 import org.opencms.file.CmsObject;
 import org.opencms.file.CmsResource;
@@ -160,6 +161,19 @@ public class CmsDefaultResourceCollector extends A_CmsResourceCollector {
         return result;
     }
 
+    /**
+     * @see org.opencms.file.collectors.A_CmsResourceCollector#getResultCacheScope(org.opencms.file.CmsObject, java.lang.String, java.lang.String)
+     */
+    @Override
+    public CmsQueryResultScope getResultCacheScope(CmsObject cms, String collectorName, String param) {
+
+        if ((collectorName == null) || (COLLECTORS_LIST.indexOf(collectorName) <= 0)) {
+            // reading a single file is cheap, and unknown collectors are reported by getResults
+            return null;
+        }
+        return getFolderResultCacheScope(cms, param);
+    }
+
     /**
      * @see org.opencms.file.collectors.I_CmsResourceCollector#getResults(org.opencms.file.CmsObject, java.lang.String, java.lang.String)
      */
@@ -236,9 +250,7 @@ public class CmsDefaultResourceCollector extends A_CmsResourceCollector {
         }
         List<CmsResource> result = cms.readResources(foldername, filter, tree);
 
-        Collections.sort(result, I_CmsResource.COMPARE_DATE_RELEASED);
-
-        return shrinkToFit(result, data.getCount(), numResults);
+        return sortAndShrinkToFit(result, I_CmsResource.COMPARE_DATE_RELEASED, data.getCount(), numResults);
     }
 
     /**
@@ -331,10 +343,12 @@ public class CmsDefaultResourceCollector extends A_CmsResourceCollector {
         }
         List<CmsResource> result = cms.readResources(foldername, filter, tree);
 
-        Collections.sort(result, I_CmsResource.COMPARE_ROOT_PATH);
-        Collections.reverse(result);
-
-        return shrinkToFit(result, data.getCount(), numResults);
+        // sorted by root path in reverse order
+        return sortAndShrinkToFit(
+            result,
+            Collections.reverseOrder(I_CmsResource.COMPARE_ROOT_PATH),
+            data.getCount(),
+            numResults);
     }
 
     /**
@@ -70,6 +70,9 @@ public class CmsPriorityDateResourceComparator implements Serializable, Comparat
     /** The priority of this comparator key. */
     private int m_priority;
 
+    /** The properties read in advance for the resources to sort, by structure id. */
+    private transient Map<CmsUUID, List<CmsProperty>> m_properties;
+
     /**
      * Creates a new instance of this comparator key.<p>
      *
@@ -83,18 +86,40 @@ public class CmsPriorityDateResourceComparator implements Serializable, Comparat
         m_keys = new HashMap<CmsUUID, CmsPriorityDateResourceComparator>();
     }
 
+    /**
+     * Creates a new instance of this comparator key that uses properties read in advance.<p>
+     *
+     * The properties of resources missing in the given map are read when required.<p>
+     *
+     * @param cms the current OpenCms user context
+     * @param asc if true, the date sort order is ascending, otherwise descending
+     * @param properties the properties of the resources to sort, by structure id
+     */
+    public CmsPriorityDateResourceComparator(
+        CmsObject cms,
+        boolean asc,
+        Map<CmsUUID, List<CmsProperty>> properties) {
+
+        this(cms, asc);
+        m_properties = properties;
+    }
+
     /**
      * Creates a new instance of this comparator key.<p>
      *
      * @param resource the resource to create the key for
      * @param cms the current OpenCms user context
+     * @param properties the properties read in advance, or <code>null</code>
      *
      * @return a new instance of this comparator key
      */
-    private static CmsPriorityDateResourceComparator create(CmsResource resource, CmsObject cms) {
+    private static CmsPriorityDateResourceComparator create(
+        CmsResource resource,
+        CmsObject cms,
+        Map<CmsUUID, List<CmsProperty>> properties) {
 
         CmsPriorityDateResourceComparator result = new CmsPriorityDateResourceComparator(null, false);
-        result.init(resource, cms);
+        result.init(resource, cms, properties);
         return result;
     }
 
@@ -112,12 +137,12 @@ public class CmsPriorityDateResourceComparator implements Serializable, Comparat
 
         if (key0 == null) {
             // initialize key if null
-            key0 = CmsPriorityDateResourceComparator.create(res0, m_cms);
+            key0 = CmsPriorityDateResourceComparator.create(res0, m_cms, m_properties);
             m_keys.put(res0.getStructureId(), key0);
         }
         if (key1 == null) {
             // initialize key if null
-            key1 = CmsPriorityDateResourceComparator.create(res1, m_cms);
+            key1 = CmsPriorityDateResourceComparator.create(res1, m_cms, m_properties);
             m_keys.put(res1.getStructureId(), key1);
         }
 
@@ -176,17 +201,20 @@ public class CmsPriorityDateResourceComparator implements Serializable, Comparat
      *
      * @param resource the resource to use
      * @param cms the current OpenCms user contxt
+     * @param prefetched the properties read in advance, or <code>null</code>
      */
-    private void init(CmsResource resource, CmsObject cms) {
+    private void init(CmsResource resource, CmsObject cms, Map<CmsUUID, List<CmsProperty>> prefetched) {
 
-        List<CmsProperty> properties;
+        List<CmsProperty> properties = prefetched != null ? prefetched.get(resource.getStructureId()) : null;
 
-        try {
-            properties = cms.readPropertyObjects(resource, false);
-        } catch (CmsException e) {
-            m_priority = 0;
-            m_date = 0;
-            return;
+        if (properties == null) {
+            try {
+                properties = cms.readPropertyObjects(resource, false);
+            } catch (CmsException e) {
+                m_priority = 0;
+                m_date = 0;
+                return;
+            }
         }
 
         try {
@@ -27,6 +27,7 @@
 
 package org.opencms.file.collectors;
 
+import org.opencms.cache.CmsQueryResultScope;
 import org.opencms.file.CmsDataAccessException;
 import org.opencms.file.CmsObject;
 import org.opencms.file.CmsProject;
@@ -34,12 +35,14 @@ import org.opencms.file.CmsProperty;
 import org.opencms.file.CmsResource;
 import org.opencms.file.CmsResourceFilter;
 import org.opencms.main.CmsException;
+import org.opencms.util.CmsUUID;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 /**
  * A collector to fetch sorted XML contents in a folder or subtree based on their priority
@@ -155,6 +158,20 @@ public class CmsPriorityResourceCollector extends A_CmsResourceCollector {
         return result;
     }
 
+    /**
+     * @see org.opencms.file.collectors.A_CmsResourceCollector#getResultCacheScope(org.opencms.file.CmsObject, java.lang.String, java.lang.String)
+     */
+    @Override
+    public CmsQueryResultScope getResultCacheScope(CmsObject cms, String collectorName, String param) {
+
+        int index = collectorName == null ? 0 : COLLECTORS_LIST.indexOf(collectorName);
+        if ((index < 0) || (index > 5)) {
+            // the "allMappedToUri" collectors depend on the requested URI
+            return null;
+        }
+        return getFolderResultCacheScope(cms, param);
+    }
+
     /**
      * @see org.opencms.file.collectors.I_CmsResourceCollector#getResults(org.opencms.file.CmsObject, java.lang.String, java.lang.String)
      */
@@ -238,12 +255,12 @@ public class CmsPriorityResourceCollector extends A_CmsResourceCollector {
             filter = filter.addExcludeTimerange();
         }
         List<CmsResource> result = cms.readResources(foldername, filter, tree);
+        Map<CmsUUID, List<CmsProperty>> properties = readPropertyObjects(cms, result);
 
         // create priority comparator to use to sort the resources
-        CmsPriorityDateResourceComparator comparator = new CmsPriorityDateResourceComparator(cms, asc);
-        Collections.sort(result, comparator);
+        CmsPriorityDateResourceComparator comparator = new CmsPriorityDateResourceComparator(cms, asc, properties);
 
-        return shrinkToFit(result, data.getCount(), numResults);
+        return sortAndShrinkToFit(result, comparator, data.getCount(), numResults);
     }
 
     /**
@@ -271,12 +288,12 @@ public class CmsPriorityResourceCollector extends A_CmsResourceCollector {
             filter = filter.addExcludeTimerange();
         }
         List<CmsResource> result = cms.readResources(foldername, filter, tree);
+        Map<CmsUUID, List<CmsProperty>> properties = readPropertyObjects(cms, result);
 
         // create priority comparator to use to sort the resources
-        CmsPriorityTitleResourceComparator comparator = new CmsPriorityTitleResourceComparator(cms);
-        Collections.sort(result, comparator);
+        CmsPriorityTitleResourceComparator comparator = new CmsPriorityTitleResourceComparator(cms, properties);
 
-        return shrinkToFit(result, data.getCount(), numResults);
+        return sortAndShrinkToFit(result, comparator, data.getCount(), numResults);
     }
 
     /**
@@ -308,12 +325,17 @@ public class CmsPriorityResourceCollector extends A_CmsResourceCollector {
         List<CmsResource> result = cms.readResources(foldername, filter, true);
         List<CmsResource> mapped = new ArrayList<CmsResource>();
 
+        // read the properties of all resources at once, the comparator needs them later anyway
+        Map<CmsUUID, List<CmsProperty>> properties = readPropertyObjects(cms, result);
+
         // sort out the resources mapped to the current page
         Iterator<CmsResource> i = result.iterator();
         while (i.hasNext()) {
             CmsResource res = i.next();
-            // read all properties - reason: comparator will do this later anyway, so we just prefill the cache
-            CmsProperty prop = cms.readPropertyObject(res, PROPERTY_CHANNEL, false);
+            List<CmsProperty> resProperties = properties.get(res.getStructureId());
+            CmsProperty prop = resProperties != null
+            ? CmsProperty.get(PROPERTY_CHANNEL, resProperties)
+            : cms.readPropertyObject(res, PROPERTY_CHANNEL, false);
             if (!prop.isNullProperty()) {
                 if (CmsProject.isInsideProject(
                     prop.getValueList(),
@@ -329,9 +351,8 @@ public class CmsPriorityResourceCollector extends A_CmsResourceCollector {
         }
 
         // create priority comparator to use to sort the resources
-        CmsPriorityDateResourceComparator comparator = new CmsPriorityDateResourceComparator(cms, asc);
-        Collections.sort(mapped, comparator);
+        CmsPriorityDateResourceComparator comparator = new CmsPriorityDateResourceComparator(cms, asc, properties);
 
-        return shrinkToFit(mapped, data.getCount(), numResults);
+        return sortAndShrinkToFit(mapped, comparator, data.getCount(), numResults);
     }
 }
\ No newline at end of file
@@ -58,12 +58,18 @@ public class CmsPriorityTitleResourceComparator implements Serializable, Compara
     /** The current OpenCms user context. */
     private transient CmsObject m_cms;
 
+    /** The collator used to compare the titles, created on first use. */
+    private transient Collator m_collator;
+
     /** The internal map of comparator keys. */
     private Map<CmsUUID, CmsPriorityTitleResourceComparator> m_keys;
 
     /** The priority of this comparator key. */
     private int m_priority;
 
+    /** The properties read in advance for the resources to sort, by structure id. */
+    private transient Map<CmsUUID, List<CmsProperty>> m_properties;
+
     /** The title of this comparator key. */
     private String m_title;
 
@@ -78,18 +84,36 @@ public class CmsPriorityTitleResourceComparator implements Serializable, Compara
         m_keys = new HashMap<CmsUUID, CmsPriorityTitleResourceComparator>();
     }
 
+    /**
+     * Creates a new instance of this comparator key that uses properties read in advance.<p>
+     *
+     * The properties of resources missing in the given map are read when required.<p>
+     *
+     * @param cms the current OpenCms user context
+     * @param properties the properties of the resources to sort, by structure id
+     */
+    public CmsPriorityTitleResourceComparator(CmsObject cms, Map<CmsUUID, List<CmsProperty>> properties) {
+
+        this(cms);
+        m_properties = properties;
+    }
+
     /**
      * Creates a new instance of this comparator key.<p>
      *
      * @param resource the resource to create the key for
      * @param cms the current OpenCms user context
+     * @param properties the properties read in advance, or <code>null</code>
      *
      * @return a new instance of this comparator key
      */
-    private static CmsPriorityTitleResourceComparator create(CmsResource resource, CmsObject cms) {
+    private static CmsPriorityTitleResourceComparator create(
+        CmsResource resource,
+        CmsObject cms,
+        Map<CmsUUID, List<CmsProperty>> properties) {
 
         CmsPriorityTitleResourceComparator result = new CmsPriorityTitleResourceComparator(null);
-        result.init(resource, cms);
+        result.init(resource, cms, properties);
         return result;
     }
 
@@ -107,12 +131,12 @@ public class CmsPriorityTitleResourceComparator implements Serializable, Compara
 
         if (key0 == null) {
             // initialize key if null
-            key0 = CmsPriorityTitleResourceComparator.create(res0, m_cms);
+            key0 = CmsPriorityTitleResourceComparator.create(res0, m_cms, m_properties);
             m_keys.put(res0.getStructureId(), key0);
         }
         if (key1 == null) {
             // initialize key if null
-            key1 = CmsPriorityTitleResourceComparator.create(res1, m_cms);
+            key1 = CmsPriorityTitleResourceComparator.create(res1, m_cms, m_properties);
             m_keys.put(res1.getStructureId(), key1);
         }
 
@@ -125,8 +149,10 @@ public class CmsPriorityTitleResourceComparator implements Serializable, Compara
         }
 
         // sort by title property depending on the locale
-        Collator collator = Collator.getInstance(m_cms.getRequestContext().getLocale());
-        return collator.compare(key0.getTitle(), key1.getTitle());
+        if (m_collator == null) {
+            m_collator = Collator.getInstance(m_cms.getRequestContext().getLocale());
+        }
+        return m_collator.compare(key0.getTitle(), key1.getTitle());
     }
 
     /**
@@ -154,17 +180,20 @@ public class CmsPriorityTitleResourceComparator implements Serializable, Compara
      *
      * @param resource the resource to use
      * @param cms the current OpenCms user contxt
+     * @param prefetched the properties read in advance, or <code>null</code>
      */
-    private void init(CmsResource resource, CmsObject cms) {
-
-        List<CmsProperty> properties;
-
-        try {
-            properties = cms.readPropertyObjects(resource, false);
-        } catch (CmsException e) {
-            m_priority = 0;
-            m_title = "";
-            return;
+    private void init(CmsResource resource, CmsObject cms, Map<CmsUUID, List<CmsProperty>> prefetched) {
+
+        List<CmsProperty> properties = prefetched != null ? prefetched.get(resource.getStructureId()) : null;
+
+        if (properties == null) {
+            try {
+                properties = cms.readPropertyObjects(resource, false);
+            } catch (CmsException e) {
+                m_priority = 0;
+                m_title = "";
+                return;
+            }
         }
 
         try {
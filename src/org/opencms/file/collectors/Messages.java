@@ -67,6 +67,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String ERR_UNKNOWN_RESTYPE_1 = "ERR_UNKNOWN_RESTYPE_1";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_PREFETCH_PROPERTIES_FAILED_1 = "LOG_PREFETCH_PROPERTIES_FAILED_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String LOG_RESOURCE_WITHOUT_NAVPROP_1 = "LOG_RESOURCE_WITHOUT_NAVPROP_1";
 
@@ -35,11 +35,20 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
 import java.security.AccessControlException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.MissingResourceException;
 import java.util.ResourceBundle;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Resource bundle loader for property based resource bundles from OpenCms that has a flushable cache.<p>
@@ -54,6 +63,10 @@ import java.util.ResourceBundle;
  * {@link java.util.ResourceBundle#getBundle(java.lang.String, java.util.Locale)} is used to look up
  * the resource bundle with the Java default resource bundle loading mechanism.<p>
  *
+ * Looking up a bundle requires no lock. Loaded bundles are kept in a concurrent map, and the permanent
+ * cache is an immutable map which is replaced as a whole on every change. Bundles which are loaded while
+ * the caches are changed are returned, but not cached.<p>
+ *
  * @see java.util.ResourceBundle
  * @see java.util.PropertyResourceBundle
  * @see org.opencms.i18n.CmsPropertyResourceBundle
@@ -70,21 +83,13 @@ public final class CmsResourceBundleLoader {
     private static class BundleKey {
 
         /** The base bundle name. */
-        private String m_baseName;
+        private final String m_baseName;
 
         /** The hash code. */
-        private int m_hashcode;
+        private final int m_hashcode;
 
         /** The locale. */
-        private Locale m_locale;
-
-        /**
-         * Create an ampty bundly key.<p>
-         */
-        BundleKey() {
-
-            // noop
-        }
+        private final Locale m_locale;
 
         /**
          * Create an initialized bundle key.<p>
@@ -94,7 +99,9 @@ public final class CmsResourceBundleLoader {
          */
         BundleKey(String s, Locale l) {
 
-            set(s, l);
+            m_baseName = s;
+            m_locale = l;
+            m_hashcode = m_baseName.hashCode() ^ m_locale.hashCode();
         }
 
         /**
@@ -119,18 +126,6 @@ public final class CmsResourceBundleLoader {
             return m_hashcode;
         }
 
-        /**
-         * Checks if the given base name is identical to the base name of this bundle key.<p>
-         *
-         * @param baseName the base name to compare
-         *
-         * @return <code>true</code> if the given base name is identical to the base name of this bundle key
-         */
-        public boolean isSameBase(String baseName) {
-
-            return m_baseName.equals(baseName);
-        }
-
         /**
          * @see java.lang.Object#toString()
          */
@@ -139,35 +134,33 @@ public final class CmsResourceBundleLoader {
 
             return m_baseName + "_" + m_locale;
         }
-
-        /**
-         * Initialize this bundle key.<p>
-         *
-         * @param s the base name
-         * @param l the locale
-         */
-        void set(String s, Locale l) {
-
-            m_baseName = s;
-            m_locale = l;
-            m_hashcode = m_baseName.hashCode() ^ m_locale.hashCode();
-        }
     }
 
+    /** Lock for all changes of the caches, reading the caches requires no lock. */
+    private static final Object LOCK = new Object();
+
     /**  The resource bundle cache. */
-    private static Map<BundleKey, ResourceBundle> m_bundleCache;
+    private static volatile ConcurrentHashMap<BundleKey, ResourceBundle> m_bundleCache;
+
+    /** Counts the changes of the caches, used to detect bundles loaded while a cache was changed. */
+    private static final AtomicLong m_cacheVersion = new AtomicLong();
 
     /** The last default Locale we saw, if this ever changes then we have to reset our caches. */
-    private static Locale m_lastDefaultLocale;
+    private static volatile Locale m_lastDefaultLocale;
+
+    /** The permanent list resource bundle cache, replaced as a whole on every change. */
+    private static volatile Map<String, I_CmsResourceBundle> m_permanentCache = Collections.emptyMap();
 
-    /** Cache lookup key to avoid having to a new one for every getBundle() call. */
-    private static BundleKey m_lookupKey = new BundleKey();
+    /** The bundle name suffixes to try for a locale, from the most to the least specialized one. */
+    private static final ConcurrentHashMap<Locale, String[]> m_suffixes = new ConcurrentHashMap<Locale, String[]>();
 
-    /**  The permanent list resource bundle cache. */
-    private static Map<String, I_CmsResourceBundle> m_permanentCache;
+    /**
+     * Static initializer for the resource bundle cache.<p>
+     */
+    static {
 
-    /** Singleton cache entry to represent previous failed lookups. */
-    private static final ResourceBundle NULL_ENTRY = new CmsListResourceBundle();
+        m_bundleCache = new ConcurrentHashMap<BundleKey, ResourceBundle>();
+    }
 
     /**
      * Hides the public constructor.<p>
@@ -184,21 +177,26 @@ public final class CmsResourceBundleLoader {
      * @param locale the locale
      * @param bundle the bundle to cache
      */
-    public static synchronized void addBundleToCache(String baseName, Locale locale, I_CmsResourceBundle bundle) {
-
-        String key = baseName;
-        if (locale != null) {
-            key += "_" + locale;
+    public static void addBundleToCache(String baseName, Locale locale, I_CmsResourceBundle bundle) {
+
+        synchronized (LOCK) {
+            Map<String, I_CmsResourceBundle> permanentCache = new HashMap<String, I_CmsResourceBundle>(
+                m_permanentCache);
+            permanentCache.put(getPermanentCacheKey(baseName, locale), bundle);
+            m_permanentCache = permanentCache;
+            m_cacheVersion.incrementAndGet();
         }
-        m_permanentCache.put(key, bundle);
     }
 
     /**
      * Flushes the complete resource bundle cache.<p>
      */
-    public static synchronized void flushBundleCache() {
+    public static void flushBundleCache() {
 
-        m_bundleCache.clear();
+        synchronized (LOCK) {
+            m_bundleCache = new ConcurrentHashMap<BundleKey, ResourceBundle>();
+            m_cacheVersion.incrementAndGet();
+        }
 
         // We are not flushing the permanent cache on clear!
         // Reason: It's not 100% clear if the cache would be filled correctly from the XML after a flush.
@@ -208,8 +206,6 @@ public final class CmsResourceBundleLoader {
         // seems likely that old references are held.
         // On the other hand, if something is changed in the XML, the cache is updated anyway, so we won't be
         // stuck with "old" resource bundles that require a server restart.
-
-        // m_permanentCache.clear();
     }
 
     /**
@@ -218,39 +214,13 @@ public final class CmsResourceBundleLoader {
      * @param baseName the bundle base name to flush the variations for
      * @param flushPermanent if true, the cache for additional message bundles will be flushed, too
      */
-    public static synchronized void flushBundleCache(String baseName, boolean flushPermanent) {
+    public static void flushBundleCache(String baseName, boolean flushPermanent) {
 
         if (baseName != null) {
-            // first check and clear the bundle cache
-            HashMap<BundleKey, ResourceBundle> bundleCacheNew = new HashMap<BundleKey, ResourceBundle>(
-                m_bundleCache.size());
-            for (Map.Entry<BundleKey, ResourceBundle> entry : m_bundleCache.entrySet()) {
-                if (!entry.getKey().isSameBase(baseName)) {
-                    // entry has a different base name, keep it
-                    bundleCacheNew.put(entry.getKey(), entry.getValue());
-                }
-            }
-            if (bundleCacheNew.size() < m_bundleCache.size()) {
-                // switch caches if only if at least one entry was removed
-                m_bundleCache = bundleCacheNew;
-            }
-            if (flushPermanent) {
-                // now check and clear the permanent cache
-                HashMap<String, I_CmsResourceBundle> permanentCacheNew = new HashMap<String, I_CmsResourceBundle>(
-                    m_permanentCache.size());
-                for (Map.Entry<String, I_CmsResourceBundle> entry : m_permanentCache.entrySet()) {
-                    String key = entry.getKey();
-                    if (!(key.startsWith(baseName)
-                        && ((key.length() == baseName.length()) || (key.charAt(baseName.length()) == '_')))) {
-                        // entry has a different base name, keep it
-                        permanentCacheNew.put(entry.getKey(), entry.getValue());
-                    }
-                }
-                if (permanentCacheNew.size() < m_permanentCache.size()) {
-                    // switch caches if only if at least one entry was removed
-                    m_permanentCache = permanentCacheNew;
-                }
-            }
+            replaceBundles(
+                Collections.singleton(baseName),
+                Collections.<String, Map<Locale, I_CmsResourceBundle>> emptyMap(),
+                flushPermanent);
         }
     }
 
@@ -292,50 +262,52 @@ public final class CmsResourceBundleLoader {
      * @param locale A locale
      * @return the desired resource bundle
      */
-    // This method is synchronized so that the cache is properly
-    // handled.
-    public static synchronized ResourceBundle getBundle(String baseName, Locale locale) {
+    public static ResourceBundle getBundle(String baseName, Locale locale) {
 
         // If the default locale changed since the last time we were called,
         // all cache entries are invalidated.
         Locale defaultLocale = Locale.getDefault();
         if (defaultLocale != m_lastDefaultLocale) {
-            m_bundleCache = new HashMap<BundleKey, ResourceBundle>();
-            m_lastDefaultLocale = defaultLocale;
-            if (m_permanentCache == null) {
-                // the permanent cache is not cleared after the default locale changes
-                m_permanentCache = new HashMap<String, I_CmsResourceBundle>();
+            synchronized (LOCK) {
+                if (defaultLocale != m_lastDefaultLocale) {
+                    m_bundleCache = new ConcurrentHashMap<BundleKey, ResourceBundle>();
+                    m_cacheVersion.incrementAndGet();
+                    m_lastDefaultLocale = defaultLocale;
+                }
             }
         }
 
         // This will throw NullPointerException if any arguments are null.
-        m_lookupKey.set(baseName, locale);
-
-        Object obj = m_bundleCache.get(m_lookupKey);
+        BundleKey key = new BundleKey(baseName, locale);
+        ConcurrentHashMap<BundleKey, ResourceBundle> bundleCache = m_bundleCache;
+        ResourceBundle bundle = bundleCache.get(key);
+        if (bundle != null) {
+            return bundle;
+        }
 
-        if (obj == NULL_ENTRY) {
+        long version = m_cacheVersion.get();
+        // First, look for a bundle for the specified locale. We don't want
+        // the base bundle this time.
+        boolean wantBase = locale.equals(defaultLocale);
+        bundle = tryBundle(baseName, locale, wantBase);
 
-        } else if (obj instanceof ResourceBundle) {
-            return (ResourceBundle)obj;
-        } else if (obj == NULL_ENTRY) {
-            // Lookup has failed previously. Fall through.
-        } else {
-            // First, look for a bundle for the specified locale. We don't want
-            // the base bundle this time.
-            boolean wantBase = locale.equals(defaultLocale);
-            ResourceBundle bundle = tryBundle(baseName, locale, wantBase);
+        // Try the default locale if necessary
+        if ((bundle == null) && !locale.equals(defaultLocale)) {
+            bundle = tryBundle(baseName, defaultLocale, true);
+        }
 
-            // Try the default locale if necessary
-            if ((bundle == null) && !locale.equals(defaultLocale)) {
-                bundle = tryBundle(baseName, defaultLocale, true);
+        if (bundle != null) {
+            // Cache the result and return it.
+            ResourceBundle cached = bundleCache.putIfAbsent(key, bundle);
+            if (cached != null) {
+                // another thread was faster
+                return cached;
             }
-
-            BundleKey key = new BundleKey(baseName, locale);
-            if (bundle != null) {
-                // Cache the result and return it.
-                m_bundleCache.put(key, bundle);
-                return bundle;
+            if (version != m_cacheVersion.get()) {
+                // the caches changed while the bundle was loaded, so it may be outdated already
+                bundleCache.remove(key, bundle);
             }
+            return bundle;
         }
 
         // unable to find the resource bundle with this implementation
@@ -343,6 +315,135 @@ public final class CmsResourceBundleLoader {
         return ResourceBundle.getBundle(baseName, locale);
     }
 
+    /**
+     * Replaces the permanent bundles for the given base names, as one atomic change of the caches.<p>
+     *
+     * All bundles for the given base names are removed from the caches, and then the new bundles are added.
+     * Threads reading bundles are not blocked, and either see the old or the new bundles.<p>
+     *
+     * @param baseNames the base names of the bundles to remove
+     * @param bundles the bundles to add, by base name and locale, the locale may be <code>null</code>
+     */
+    public static void replaceBundles(
+        Collection<String> baseNames,
+        Map<String, Map<Locale, I_CmsResourceBundle>> bundles) {
+
+        replaceBundles(baseNames, bundles, true);
+    }
+
+    /**
+     * Returns the key of a bundle in the permanent cache.<p>
+     *
+     * @param baseName the raw bundle name, without locale qualifiers
+     * @param locale the locale, may be <code>null</code>
+     *
+     * @return the key of the bundle in the permanent cache
+     */
+    private static String getPermanentCacheKey(String baseName, Locale locale) {
+
+        String key = baseName;
+        if (locale != null) {
+            key += "_" + locale;
+        }
+        return key;
+    }
+
+    /**
+     * Returns the bundle name suffixes to try for a locale, from the most to the least specialized one.<p>
+     *
+     * The base name without suffix is not included.<p>
+     *
+     * @param locale the locale
+     *
+     * @return the bundle name suffixes
+     */
+    private static String[] getSuffixes(Locale locale) {
+
+        String[] suffixes = m_suffixes.get(locale);
+        if (suffixes == null) {
+            List<String> result = new ArrayList<String>(3);
+            String language = locale.getLanguage();
+            String country = locale.getCountry();
+            String variant = locale.getVariant();
+            if (language.length() > 0) {
+                String suffix = "_" + language;
+                if (country.length() > 0) {
+                    if (variant.length() > 0) {
+                        result.add(suffix + "_" + country + "_" + variant);
+                    }
+                    result.add(suffix + "_" + country);
+                }
+                result.add(suffix);
+            }
+            suffixes = result.toArray(new String[result.size()]);
+            m_suffixes.put(locale, suffixes);
+        }
+        return suffixes;
+    }
+
+    /**
+     * Checks if a key of the permanent cache belongs to one of the given base names.<p>
+     *
+     * @param key the key of the permanent cache
+     * @param baseNames the base names
+     *
+     * @return <code>true</code> if the key belongs to one of the base names
+     */
+    private static boolean isPermanentKeyOf(String key, Collection<String> baseNames) {
+
+        for (String baseName : baseNames) {
+            if (key.startsWith(baseName)
+                && ((key.length() == baseName.length()) || (key.charAt(baseName.length()) == '_'))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Replaces the bundles for the given base names.<p>
+     *
+     * @param baseNames the base names of the bundles to remove
+     * @param bundles the bundles to add to the permanent cache
+     * @param flushPermanent if false, only the bundle cache is flushed and the permanent cache is not changed
+     */
+    private static void replaceBundles(
+        Collection<String> baseNames,
+        Map<String, Map<Locale, I_CmsResourceBundle>> bundles,
+        boolean flushPermanent) {
+
+        synchronized (LOCK) {
+            Set<String> flushed = new HashSet<String>(baseNames);
+            flushed.addAll(bundles.keySet());
+            if (flushPermanent) {
+                Map<String, I_CmsResourceBundle> permanentCache = new HashMap<String, I_CmsResourceBundle>(
+                    m_permanentCache.size());
+                for (Map.Entry<String, I_CmsResourceBundle> entry : m_permanentCache.entrySet()) {
+                    if (!isPermanentKeyOf(entry.getKey(), baseNames)) {
+                        // entry has a different base name, keep it
+                        permanentCache.put(entry.getKey(), entry.getValue());
+                    }
+                }
+                for (Map.Entry<String, Map<Locale, I_CmsResourceBundle>> entry : bundles.entrySet()) {
+                    for (Map.Entry<Locale, I_CmsResourceBundle> localeEntry : entry.getValue().entrySet()) {
+                        permanentCache.put(
+                            getPermanentCacheKey(entry.getKey(), localeEntry.getKey()),
+                            localeEntry.getValue());
+                    }
+                }
+                m_permanentCache = permanentCache;
+            }
+            // the permanent cache is already switched, so readers can load the new bundles from now on
+            m_cacheVersion.incrementAndGet();
+            Iterator<BundleKey> keys = m_bundleCache.keySet().iterator();
+            while (keys.hasNext()) {
+                if (flushed.contains(keys.next().m_baseName)) {
+                    keys.remove();
+                }
+            }
+        }
+    }
+
     /**
      * Tries to load a property file with the specified name.
      *
@@ -413,40 +514,19 @@ public final class CmsResourceBundleLoader {
      */
     private static ResourceBundle tryBundle(String baseName, Locale locale, boolean wantBase) {
 
-        String language = locale.getLanguage();
-        String country = locale.getCountry();
-        String variant = locale.getVariant();
-
-        int baseLen = baseName.length();
-
-        // Build up a StringBuffer containing the complete bundle name, fully
-        // qualified by locale.
-        StringBuffer sb = new StringBuffer(baseLen + variant.length() + 7);
-
-        sb.append(baseName);
-
-        if (language.length() > 0) {
-            sb.append('_');
-            sb.append(language);
-
-            if (country.length() > 0) {
-                sb.append('_');
-                sb.append(country);
-
-                if (variant.length() > 0) {
-                    sb.append('_');
-                    sb.append(variant);
-                }
-            }
-        }
-
         // Now try to load bundles, starting with the most specialized name.
         // Build up the parent chain as we go.
-        String bundleName = sb.toString();
+        String[] suffixes = getSuffixes(locale);
         I_CmsResourceBundle first = null; // The most specialized bundle.
         I_CmsResourceBundle last = null; // The least specialized bundle.
 
-        while (true) {
+        for (int i = 0; i <= suffixes.length; i++) {
+            if ((i == suffixes.length) && (first == null) && !wantBase && (suffixes.length > 0)) {
+                // Try the non-localized base name only if we already have a
+                // localized child bundle, or wantBase is true.
+                break;
+            }
+            String bundleName = i < suffixes.length ? baseName + suffixes[i] : baseName;
             I_CmsResourceBundle foundBundle = tryBundle(bundleName);
             if (foundBundle != null) {
                 if (first == null) {
@@ -460,16 +540,8 @@ public final class CmsResourceBundleLoader {
 
                 last = foundBundle;
             }
-            int idx = bundleName.lastIndexOf('_');
-            // Try the non-localized base name only if we already have a
-            // localized child bundle, or wantBase is true.
-            if ((idx > baseLen) || ((idx == baseLen) && ((first != null) || wantBase))) {
-                bundleName = bundleName.substring(0, idx);
-            } else {
-                break;
-            }
         }
 
         return (ResourceBundle)first;
     }
-}
\ No newline at end of file
+}
@@ -40,9 +40,11 @@ import org.opencms.util.CmsStringUtil;
 import org.opencms.util.CmsUUID;
 
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
 
 import org.apache.commons.logging.Log;
@@ -178,7 +180,9 @@ public class CmsVfsBundleManager implements I_CmsEventListener {
     public synchronized void reload(boolean isStartup) {
 
         if (OpenCms.getRunLevel() > OpenCms.RUNLEVEL_1_CORE_OBJECT) {
-            flushBundles();
+            // collect the bundles first, so that they can replace the old ones in one step
+            Map<String, Map<Locale, I_CmsResourceBundle>> bundles;
+            bundles = new HashMap<String, Map<Locale, I_CmsResourceBundle>>();
             try {
                 int xmlType = OpenCms.getResourceManager().getResourceType(TYPE_XML_BUNDLE).getTypeId();
                 List<CmsResource> xmlBundles = m_cms.readResources(
@@ -186,7 +190,7 @@ public class CmsVfsBundleManager implements I_CmsEventListener {
                     CmsResourceFilter.ALL.addRequireType(xmlType),
                     true);
                 for (CmsResource xmlBundle : xmlBundles) {
-                    addXmlBundle(xmlBundle);
+                    addXmlBundle(bundles, xmlBundle);
                 }
             } catch (Exception e) {
                 logError(e, isStartup);
@@ -198,11 +202,12 @@ public class CmsVfsBundleManager implements I_CmsEventListener {
                     CmsResourceFilter.ALL.addRequireType(propType),
                     true);
                 for (CmsResource propertyBundle : propertyBundles) {
-                    addPropertyBundle(propertyBundle);
+                    addPropertyBundle(bundles, propertyBundle);
                 }
             } catch (Exception e) {
                 logError(e, isStartup);
             }
+            replaceBundles(bundles);
         }
     }
 
@@ -252,29 +257,39 @@ public class CmsVfsBundleManager implements I_CmsEventListener {
     }
 
     /**
-     * Internal method for adding a resource bundle to the internal cache.<p>
+     * Internal method for adding a resource bundle to the collected bundles.<p>
      *
+     * @param bundles the collected bundles
      * @param baseName the base name of the resource bundle
      * @param locale the locale of the resource bundle
      * @param bundle the resource bundle to add
      */
-    private void addBundle(String baseName, Locale locale, I_CmsResourceBundle bundle) {
-
-        CmsResourceBundleLoader.addBundleToCache(baseName, locale, bundle);
+    private void addBundle(
+        Map<String, Map<Locale, I_CmsResourceBundle>> bundles,
+        String baseName,
+        Locale locale,
+        I_CmsResourceBundle bundle) {
+
+        Map<Locale, I_CmsResourceBundle> bundlesForName = bundles.get(baseName);
+        if (bundlesForName == null) {
+            bundlesForName = new HashMap<Locale, I_CmsResourceBundle>();
+            bundles.put(baseName, bundlesForName);
+        }
+        bundlesForName.put(locale, bundle);
     }
 
     /**
      * Adds a resource bundle based on a properties file in the VFS.<p>
      *
+     * @param bundles the collected bundles
      * @param bundleResource the properties file
      */
-    private void addPropertyBundle(CmsResource bundleResource) {
+    private void addPropertyBundle(Map<String, Map<Locale, I_CmsResourceBundle>> bundles, CmsResource bundleResource) {
 
         NameAndLocale nameAndLocale = getNameAndLocale(bundleResource);
         Locale locale = nameAndLocale.getLocale();
 
         String baseName = nameAndLocale.getName();
-        m_bundleBaseNames.add(baseName);
         LOG.info(
             String.format(
                 "Adding property VFS bundle (path=%s, name=%s, locale=%s)",
@@ -289,19 +304,19 @@ public class CmsVfsBundleManager implements I_CmsEventListener {
             locale == null,
             CmsVfsResourceBundle.TYPE_PROPERTIES);
         CmsVfsResourceBundle bundle = new CmsVfsResourceBundle(params);
-        addBundle(baseName, locale, bundle);
+        addBundle(bundles, baseName, locale, bundle);
     }
 
     /**
      * Adds an XML based message bundle.<p>
      *
+     * @param bundles the collected bundles
      * @param xmlBundle the XML content containing the message bundle data
      */
-    private void addXmlBundle(CmsResource xmlBundle) {
+    private void addXmlBundle(Map<String, Map<Locale, I_CmsResourceBundle>> bundles, CmsResource xmlBundle) {
 
         String name = xmlBundle.getName();
         String path = xmlBundle.getRootPath();
-        m_bundleBaseNames.add(name);
 
         LOG.info(String.format("Adding property VFS bundle (path=%s, name=%s)", xmlBundle.getRootPath(), name));
         for (Locale locale : getAllLocales()) {
@@ -312,7 +327,7 @@ public class CmsVfsBundleManager implements I_CmsEventListener {
                 false,
                 CmsVfsResourceBundle.TYPE_XML);
             CmsVfsResourceBundle bundle = new CmsVfsResourceBundle(params);
-            addBundle(name, locale, bundle);
+            addBundle(bundles, name, locale, bundle);
         }
         CmsVfsBundleParameters params = new CmsVfsBundleParameters(
             name,
@@ -321,22 +336,7 @@ public class CmsVfsBundleManager implements I_CmsEventListener {
             true,
             CmsVfsResourceBundle.TYPE_XML);
         CmsVfsResourceBundle defaultLocaleBundle = new CmsVfsResourceBundle(params);
-        addBundle(name, null, defaultLocaleBundle);
-    }
-
-    /**
-     * Clears the internal cache.
-     */
-    private void flushBundles() {
-
-        for (String baseName : m_bundleBaseNames) {
-            CmsResourceBundleLoader.flushBundleCache(baseName, true);
-        }
-        m_bundleBaseNames.clear();
-        if (OpenCms.getWorkplaceManager() != null) {
-            // may be null in some test case scenarios
-            OpenCms.getWorkplaceManager().flushMessageCache();
-        }
+        addBundle(bundles, name, null, defaultLocaleBundle);
     }
 
     /**
@@ -408,6 +408,21 @@ public class CmsVfsBundleManager implements I_CmsEventListener {
         }
     }
 
+    /**
+     * Replaces the bundles loaded before with the given bundles.<p>
+     *
+     * @param bundles the new bundles
+     */
+    private void replaceBundles(Map<String, Map<Locale, I_CmsResourceBundle>> bundles) {
+
+        CmsResourceBundleLoader.replaceBundles(m_bundleBaseNames, bundles);
+        m_bundleBaseNames = new HashSet<String>(bundles.keySet());
+        if (OpenCms.getWorkplaceManager() != null) {
+            // may be null in some test case scenarios
+            OpenCms.getWorkplaceManager().flushMessageCache();
+        }
+    }
+
     /**
      * Schedules a bundle reload.<p>
      */
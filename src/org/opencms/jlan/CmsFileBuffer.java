@@ -27,28 +27,127 @@
 
 package org.opencms.jlan;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
 /**
- * Buffer class which holds file contents for JLAN file access in memory before they are written to the VFS.<p>
+ * Buffer class which holds file contents for JLAN file access before they are written to the VFS.<p>
+ *
+ * The content is divided into pages of {@link #PAGE_SIZE} bytes. Pages which have not been modified are
+ * read directly from the original content passed to {@link #init(byte[])}, so opening a file doesn't copy
+ * its content. Modified pages are kept in memory, but only up to a fixed number of pages per buffer; if more
+ * pages are modified, the least recently used ones are spilled to a temporary file, which is deleted when the
+ * buffer is closed. This bounds the memory used by an open file independently of the number of bytes written.<p>
  *
- * This is implemented as a CmsByteBuffer instance together with a 'position' index which marks the next write position
+ * The buffer also has a 'position' index which marks the next write position.<p>
  */
 public class CmsFileBuffer {
 
-    /** The buffer used to store the file contents. */
-    CmsByteBuffer m_buffer = new CmsByteBuffer(8192);
+    /** The default maximum number of modified pages kept in memory. */
+    public static final int DEFAULT_MAX_PAGES = 16;
+
+    /** The size of a page in bytes. */
+    public static final int PAGE_SIZE = 64 * 1024;
+
+    /** The prefix for the names of the temporary files. */
+    private static final String SPILL_FILE_PREFIX = "opencms-jlan-";
+
+    /** The current content length. */
+    private long m_length;
+
+    /** The maximum number of modified pages kept in memory. */
+    private int m_maxPages;
+
+    /** The modified pages kept in memory, in access order. */
+    private Map<Long, byte[]> m_pages = new LinkedHashMap<Long, byte[]>(16, 0.75f, true);
 
     /** The current write position. */
-    long m_position;
+    private long m_position;
+
+    /** The original content. */
+    private byte[] m_source = new byte[0];
+
+    /** The number of bytes of the original content which are still part of the file. */
+    private long m_sourceLength;
+
+    /** The temporary file for spilled pages, created on demand. */
+    private RandomAccessFile m_spillFile;
+
+    /** The indexes of the pages which have been spilled to the temporary file. */
+    private Set<Long> m_spilled = new HashSet<Long>();
+
+    /** The path of the temporary file for spilled pages. */
+    private File m_spillPath;
+
+    /**
+     * Creates a new buffer which keeps at most {@link #DEFAULT_MAX_PAGES} modified pages in memory.<p>
+     */
+    public CmsFileBuffer() {
+
+        this(DEFAULT_MAX_PAGES);
+    }
+
+    /**
+     * Creates a new buffer.<p>
+     *
+     * @param maxPages the maximum number of modified pages kept in memory
+     */
+    public CmsFileBuffer(int maxPages) {
+
+        m_maxPages = Math.max(1, maxPages);
+    }
+
+    /**
+     * Releases the pages and deletes the temporary file of this buffer.<p>
+     *
+     * The buffer is empty afterwards.<p>
+     */
+    public void close() {
+
+        m_pages.clear();
+        m_spilled.clear();
+        m_source = new byte[0];
+        m_sourceLength = 0;
+        m_length = 0;
+        m_position = 0;
+        if (m_spillFile != null) {
+            try {
+                m_spillFile.close();
+            } catch (IOException e) {
+                // ignore, the file is deleted anyway
+            }
+            m_spillFile = null;
+        }
+        if (m_spillPath != null) {
+            m_spillPath.delete();
+            m_spillPath = null;
+        }
+    }
 
     /**
      * Gets the contents of this buffer as a byte array.<p>
      *
      * @return the file content
+     *
+     * @throws IOException if reading a spilled page fails or the content is too large for a byte array
      */
-    public byte[] getContents() {
+    public byte[] getContents() throws IOException {
 
-        byte[] contents = new byte[m_buffer.size()];
-        m_buffer.readBytes(contents, 0, 0, m_buffer.size());
+        if (m_length > Integer.MAX_VALUE) {
+            throw new IOException("File content too large: " + m_length);
+        }
+        if (m_pages.isEmpty() && m_spilled.isEmpty() && (m_sourceLength == m_length)) {
+            return m_sourceLength == m_source.length ? m_source : Arrays.copyOf(m_source, (int)m_length);
+        }
+        byte[] contents = new byte[(int)m_length];
+        read(contents, contents.length, 0, 0);
         return contents;
     }
 
@@ -60,7 +159,7 @@ public class CmsFileBuffer {
      */
     public long getLength() {
 
-        return m_buffer.size();
+        return m_length;
     }
 
     /**
@@ -76,12 +175,16 @@ public class CmsFileBuffer {
     /**
      * Initializes the file content data.<p>
      *
+     * The data array is not copied, so it must not be modified afterwards.<p>
+     *
      * @param data the file content data
      */
     public void init(byte[] data) {
 
-        m_position = 0;
-        m_buffer.writeBytes(data, 0, 0, data.length);
+        close();
+        m_source = data;
+        m_sourceLength = data.length;
+        m_length = data.length;
     }
 
     /**
@@ -94,18 +197,30 @@ public class CmsFileBuffer {
      * @param fileOffset the start index for this instance
      *
      * @return the number of bytes read, or -1 if we are at the end of the file
+     *
+     * @throws IOException if reading a spilled page fails
      */
-    public int read(byte[] dest, int length, int bufferOffset, int fileOffset) {
+    public int read(byte[] dest, int length, int bufferOffset, long fileOffset) throws IOException {
 
-        if (fileOffset >= m_buffer.size()) {
+        if (fileOffset >= m_length) {
             return -1;
         }
-        int readEnd = fileOffset + length;
-        if (readEnd > m_buffer.size()) {
-            length = length - (readEnd - m_buffer.size());
+        int count = (int)Math.min(length, m_length - fileOffset);
+        int done = 0;
+        while (done < count) {
+            long pos = fileOffset + done;
+            long pageIndex = pos / PAGE_SIZE;
+            int pageOffset = (int)(pos % PAGE_SIZE);
+            int chunk = Math.min(count - done, PAGE_SIZE - pageOffset);
+            byte[] page = getModifiedPage(pageIndex);
+            if (page != null) {
+                System.arraycopy(page, pageOffset, dest, bufferOffset + done, chunk);
+            } else {
+                readSource(pos, dest, bufferOffset + done, chunk);
+            }
+            done += chunk;
         }
-        m_buffer.readBytes(dest, fileOffset, bufferOffset, length);
-        return length;
+        return count;
     }
 
     /**
@@ -122,10 +237,34 @@ public class CmsFileBuffer {
      * Changes the size of this buffer.<p>
      *
      * @param size the new size
+     *
+     * @throws IOException if accessing a spilled page fails
      */
-    public void truncate(int size) {
+    public void truncate(long size) throws IOException {
 
-        m_buffer.truncate(size);
+        if (size < m_length) {
+            long lastPage = size / PAGE_SIZE;
+            int lastPageOffset = (int)(size % PAGE_SIZE);
+            Iterator<Long> iter = m_pages.keySet().iterator();
+            while (iter.hasNext()) {
+                if (iter.next().longValue() > lastPage) {
+                    iter.remove();
+                }
+            }
+            iter = m_spilled.iterator();
+            while (iter.hasNext()) {
+                if (iter.next().longValue() > lastPage) {
+                    iter.remove();
+                }
+            }
+            // the bytes after the new end must read as zero if the file is extended again later
+            byte[] page = getModifiedPage(lastPage);
+            if (page != null) {
+                Arrays.fill(page, lastPageOffset, PAGE_SIZE, (byte)0);
+            }
+            m_sourceLength = Math.min(m_sourceLength, size);
+        }
+        m_length = size;
         m_position = Math.min(size, m_position);
     }
 
@@ -133,9 +272,124 @@ public class CmsFileBuffer {
      * Writes the data to the internal buffer.<p>
      *
      * @param data the data to write
+     *
+     * @throws IOException if spilling a page to the temporary file fails
+     */
+    public void write(byte[] data) throws IOException {
+
+        write(data, 0, data.length);
+    }
+
+    /**
+     * Writes a part of a byte array to the internal buffer at the current write position.<p>
+     *
+     * @param data the data to write
+     * @param offset the start index in the data array
+     * @param length the number of bytes to write
+     *
+     * @throws IOException if spilling a page to the temporary file fails
+     */
+    public void write(byte[] data, int offset, int length) throws IOException {
+
+        int done = 0;
+        while (done < length) {
+            long pos = m_position + done;
+            long pageIndex = pos / PAGE_SIZE;
+            int pageOffset = (int)(pos % PAGE_SIZE);
+            int chunk = Math.min(length - done, PAGE_SIZE - pageOffset);
+            byte[] page = getPageForWrite(pageIndex);
+            System.arraycopy(data, offset + done, page, pageOffset, chunk);
+            done += chunk;
+        }
+        m_length = Math.max(m_length, m_position + length);
+    }
+
+    /**
+     * Returns the modified page with the given index, loading it from the temporary file if necessary.<p>
+     *
+     * @param pageIndex the page index
+     *
+     * @return the page, or null if the page has not been modified
+     *
+     * @throws IOException if reading the temporary file fails
+     */
+    private byte[] getModifiedPage(long pageIndex) throws IOException {
+
+        Long key = Long.valueOf(pageIndex);
+        byte[] page = m_pages.get(key);
+        if ((page == null) && m_spilled.contains(key)) {
+            page = new byte[PAGE_SIZE];
+            m_spillFile.seek(pageIndex * PAGE_SIZE);
+            m_spillFile.readFully(page);
+            m_spilled.remove(key);
+            putPage(key, page);
+        }
+        return page;
+    }
+
+    /**
+     * Returns the page with the given index for modification, copying it from the original content if necessary.<p>
+     *
+     * @param pageIndex the page index
+     *
+     * @return the page
+     *
+     * @throws IOException if accessing the temporary file fails
      */
-    public void write(byte[] data) {
+    private byte[] getPageForWrite(long pageIndex) throws IOException {
 
-        m_buffer.writeBytes(data, 0, (int)m_position, data.length);
+        byte[] page = getModifiedPage(pageIndex);
+        if (page == null) {
+            page = new byte[PAGE_SIZE];
+            long start = pageIndex * PAGE_SIZE;
+            if (start < m_sourceLength) {
+                readSource(start, page, 0, (int)Math.min(PAGE_SIZE, m_sourceLength - start));
+            }
+            putPage(Long.valueOf(pageIndex), page);
+        }
+        return page;
+    }
+
+    /**
+     * Adds a modified page to the pages in memory, and spills the least recently used pages if there are too many.<p>
+     *
+     * @param key the page index
+     * @param page the page
+     *
+     * @throws IOException if writing the temporary file fails
+     */
+    private void putPage(Long key, byte[] page) throws IOException {
+
+        m_pages.put(key, page);
+        Iterator<Map.Entry<Long, byte[]>> iter = m_pages.entrySet().iterator();
+        while (m_pages.size() > m_maxPages) {
+            Map.Entry<Long, byte[]> eldest = iter.next();
+            if (m_spillFile == null) {
+                m_spillPath = File.createTempFile(SPILL_FILE_PREFIX, ".tmp");
+                m_spillPath.deleteOnExit();
+                m_spillFile = new RandomAccessFile(m_spillPath, "rw");
+            }
+            m_spillFile.seek(eldest.getKey().longValue() * PAGE_SIZE);
+            m_spillFile.write(eldest.getValue());
+            m_spilled.add(eldest.getKey());
+            iter.remove();
+        }
+    }
+
+    /**
+     * Reads a range from the original content; bytes after the end of the original content are read as zero.<p>
+     *
+     * @param pos the start position
+     * @param dest the target byte array
+     * @param destOffset the start index in the target array
+     * @param length the number of bytes to read
+     */
+    private void readSource(long pos, byte[] dest, int destOffset, int length) {
+
+        int available = (int)Math.max(0, Math.min(length, m_sourceLength - pos));
+        if (available > 0) {
+            System.arraycopy(m_source, (int)pos, dest, destOffset, available);
+        }
+        Arrays.fill(dest, destOffset + available, destOffset + length, (byte)0);
     }
 }
@@ -54,6 +54,7 @@
 package org.opencms.json;
 
 import java.io.IOException;
+import java.io.StringWriter;
 import java.io.Writer;
 import java.lang.reflect.Array;
 import java.util.ArrayList;
@@ -897,7 +898,7 @@ public class JSONArray {
     public String toString() {
 
         try {
-            return '[' + join(",") + ']';
+            return write(new StringWriter()).toString();
         } catch (Exception e) {
             return null;
         }
@@ -944,14 +945,7 @@ public class JSONArray {
                 if (b) {
                     writer.write(',');
                 }
-                Object v = m_myArrayList.get(i);
-                if (v instanceof JSONObject) {
-                    ((JSONObject)v).write(writer);
-                } else if (v instanceof JSONArray) {
-                    ((JSONArray)v).write(writer);
-                } else {
-                    writer.write(JSONObject.valueToString(v));
-                }
+                JSONObject.writeValue(writer, m_myArrayList.get(i));
                 b = true;
             }
             writer.write(']');
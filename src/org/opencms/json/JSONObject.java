@@ -54,6 +54,7 @@
 package org.opencms.json;
 
 import java.io.IOException;
+import java.io.StringWriter;
 import java.io.Writer;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
@@ -547,56 +548,93 @@ public class JSONObject {
         if ((string == null) || (string.length() == 0)) {
             return "\"\"";
         }
+        StringWriter sw = new StringWriter(string.length() + 4);
+        try {
+            quote(string, sw);
+        } catch (IOException e) {
+            // can not happen when writing to a string
+        }
+        return sw.toString();
+    }
+
+    /**
+     * Write a string in double quotes with backslash sequences in all the
+     * right places to the given writer.<p>
+     *
+     * This produces the same output as {@link #quote(String)}, without creating
+     * an intermediate string. Runs of characters that need no escaping are
+     * written in one call.<p>
+     *
+     * @param string a String
+     * @param writer the writer to write the quoted string to
+     * @return the writer
+     * @throws IOException if writing to the writer fails
+     */
+    public static Writer quote(String string, Writer writer) throws IOException {
+
+        if ((string == null) || (string.length() == 0)) {
+            writer.write("\"\"");
+            return writer;
+        }
 
         char b;
         char c = 0;
-        int i;
         int len = string.length();
-        StringBuffer sb = new StringBuffer(len + 4);
+        // start of the current run of characters that need no escaping
+        int start = 0;
         String t;
 
-        sb.append('"');
-        for (i = 0; i < len; i += 1) {
+        writer.write('"');
+        for (int i = 0; i < len; i += 1) {
             b = c;
             c = string.charAt(i);
+            String escape;
             switch (c) {
                 case '\\':
+                    escape = "\\\\";
+                    break;
                 case '"':
-                    sb.append('\\');
-                    sb.append(c);
+                    escape = "\\\"";
                     break;
                 case '/':
-                    if (b == '<') {
-                        sb.append('\\');
-                    }
-                    sb.append(c);
+                    escape = b == '<' ? "\\/" : null;
                     break;
                 case '\b':
-                    sb.append("\\b");
+                    escape = "\\b";
                     break;
                 case '\t':
-                    sb.append("\\t");
+                    escape = "\\t";
                     break;
                 case '\n':
-                    sb.append("\\n");
+                    escape = "\\n";
                     break;
                 case '\f':
-                    sb.append("\\f");
+                    escape = "\\f";
                     break;
                 case '\r':
-                    sb.append("\\r");
+                    escape = "\\r";
                     break;
                 default:
                     if ((c < ' ') || ((c >= '\u0080') && (c < '\u00a0')) || ((c >= '\u2000') && (c < '\u2100'))) {
                         t = "000" + Integer.toHexString(c);
-                        sb.append("\\u" + t.substring(t.length() - 4));
+                        escape = "\\u" + t.substring(t.length() - 4);
                     } else {
-                        sb.append(c);
+                        escape = null;
                     }
             }
+            if (escape != null) {
+                if (i > start) {
+                    writer.write(string, start, i - start);
+                }
+                writer.write(escape);
+                start = i + 1;
+            }
         }
-        sb.append('"');
-        return sb.toString();
+        if (len > start) {
+            writer.write(string, start, len - start);
+        }
+        writer.write('"');
+        return writer;
     }
 
     /**
@@ -620,6 +658,40 @@ public class JSONObject {
         }
     }
 
+    /**
+     * Throws an exception if the value is or contains an NaN or infinite number.<p>
+     *
+     * JSONObjects, JSONArrays, maps, collections and arrays are checked recursively,
+     * so a value can be validated before any part of it is written.<p>
+     *
+     * Warning: This method assumes that the data structure is acyclical.<p>
+     *
+     * @param value the value to test
+     * @throws JSONException if the value is or contains a non-finite number
+     */
+    @SuppressWarnings("unchecked")
+    static void testValueValidity(Object value) throws JSONException {
+
+        if (value instanceof JSONObject) {
+            testValueValidity(((JSONObject)value).m_map.values());
+        } else if (value instanceof JSONArray) {
+            JSONArray array = (JSONArray)value;
+            for (int i = 0; i < array.length(); i += 1) {
+                testValueValidity(array.opt(i));
+            }
+        } else if (value instanceof Map) {
+            testValueValidity(((Map<Object, Object>)value).values());
+        } else if (value instanceof Collection) {
+            for (Object element : (Collection<Object>)value) {
+                testValueValidity(element);
+            }
+        } else if ((value != null) && value.getClass().isArray()) {
+            testValueValidity(new JSONArray(value));
+        } else {
+            testValidity(value);
+        }
+    }
+
     /**
      * Make a JSON text of an Object value.<p>
      *
@@ -733,6 +805,44 @@ public class JSONObject {
         return quote(value.toString());
     }
 
+    /**
+     * Write the JSON text of an object value to a writer.<p>
+     *
+     * Objects and arrays are written recursively, strings are quoted directly
+     * to the writer, so no intermediate string of the complete value is created.
+     * For compactness, no whitespace is added.<p>
+     *
+     * Warning: This method assumes that the data structure is acyclical.<p>
+     *
+     * @param writer the writer to write the value to
+     * @param value the value to be serialized
+     * @return the writer
+     * @throws JSONException if the value contains an invalid number
+     * @throws IOException if writing to the writer fails
+     */
+    @SuppressWarnings("unchecked")
+    static Writer writeValue(Writer writer, Object value) throws JSONException, IOException {
+
+        if ((value == null) || value.equals(null)) {
+            writer.write("null");
+        } else if (value instanceof JSONObject) {
+            ((JSONObject)value).write(writer);
+        } else if (value instanceof JSONArray) {
+            ((JSONArray)value).write(writer);
+        } else if (value instanceof String) {
+            quote((String)value, writer);
+        } else if (value instanceof Map) {
+            new JSONObject((Map<String, Object>)value).write(writer);
+        } else if (value instanceof Collection) {
+            new JSONArray((Collection<Object>)value).write(writer);
+        } else if (value.getClass().isArray()) {
+            new JSONArray(value).write(writer);
+        } else {
+            writer.write(valueToString(value));
+        }
+        return writer;
+    }
+
     /**
      * Accumulate values under a key.<p>
      *
@@ -1422,20 +1532,7 @@ public class JSONObject {
     public String toString() {
 
         try {
-            Iterator<String> keys = keys();
-            StringBuffer sb = new StringBuffer("{");
-
-            while (keys.hasNext()) {
-                if (sb.length() > 1) {
-                    sb.append(',');
-                }
-                Object o = keys.next();
-                sb.append(quote(o.toString()));
-                sb.append(':');
-                sb.append(valueToString(m_map.get(o)));
-            }
-            sb.append('}');
-            return sb.toString();
+            return write(new StringWriter()).toString();
         } catch (Exception e) {
             return null;
         }
@@ -1481,16 +1578,9 @@ public class JSONObject {
                     writer.write(',');
                 }
                 String k = keys.next();
-                writer.write(quote(k.toString()));
+                quote(k, writer);
                 writer.write(':');
-                Object v = m_map.get(k);
-                if (v instanceof JSONObject) {
-                    ((JSONObject)v).write(writer);
-                } else if (v instanceof JSONArray) {
-                    ((JSONArray)v).write(writer);
-                } else {
-                    writer.write(valueToString(v));
-                }
+                writeValue(writer, m_map.get(k));
                 b = true;
             }
             writer.write('}');
@@ -0,0 +1,353 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.json;
+
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * A pull parser that reads a JSON text from a {@link JSONTokener} one event at a time.<p>
+ *
+ * Unlike the JSONObject and JSONArray constructors, the parser never builds the complete
+ * tree of the JSON text, so large inputs can be processed with constant memory. Only the
+ * scalar values are created, as Boolean, Number, String or {@link JSONObject#NULL}, using
+ * the same lenient syntax rules as the tokener. For example: <pre>
+ * JSONPullParser parser = new JSONPullParser(reader);
+ * for (JSONPullParser.Event e = parser.next(); e != JSONPullParser.Event.END_DOCUMENT; e = parser.next()) {
+ *     if ((e == JSONPullParser.Event.KEY) && "title".equals(parser.getKey())) {
+ *         ...
+ *     }
+ * }</pre>
+ *
+ * @since 10.0.0
+ */
+public class JSONPullParser {
+
+    /**
+     * The parser events.<p>
+     */
+    public enum Event {
+        /** The end of an array. */
+        END_ARRAY,
+
+        /** The end of the JSON text. */
+        END_DOCUMENT,
+
+        /** The end of an object. */
+        END_OBJECT,
+
+        /** An object key, see {@link JSONPullParser#getKey()}. */
+        KEY,
+
+        /** The start of an array. */
+        START_ARRAY,
+
+        /** The start of an object. */
+        START_OBJECT,
+
+        /** A scalar value, see {@link JSONPullParser#getValue()}. */
+        VALUE
+    }
+
+    /** The initial depth of the scope stack. */
+    private static final int INITIAL_DEPTH = 16;
+
+    /** The last event returned by {@link #next()}. */
+    private Event m_event;
+
+    /** The key of the last {@link Event#KEY} event. */
+    private String m_key;
+
+    /**
+     * The scope stack. Values:
+     * 'a' (array, before the first value),
+     * 'A' (array, after a value),
+     * 'o' (object, before the first key),
+     * 'O' (object, after a value),
+     * 'v' (object, after a key).
+     */
+    private char[] m_stack;
+
+    /** Flag indicating if the parser has been started. */
+    private boolean m_started;
+
+    /** The tokener to read from. */
+    private JSONTokener m_tokener;
+
+    /** The stack top index. A value of 0 indicates that the stack is empty. */
+    private int m_top;
+
+    /** The value of the last {@link Event#VALUE} event. */
+    private Object m_value;
+
+    /**
+     * Creates a new pull parser for the given tokener.<p>
+     *
+     * @param tokener the tokener to read from
+     */
+    public JSONPullParser(JSONTokener tokener) {
+
+        m_tokener = tokener;
+        m_stack = new char[INITIAL_DEPTH];
+    }
+
+    /**
+     * Creates a new pull parser for the given reader.<p>
+     *
+     * @param reader the reader to read from
+     */
+    public JSONPullParser(Reader reader) {
+
+        this(new JSONTokener(reader));
+    }
+
+    /**
+     * Returns the current nesting depth, i.e. the number of open objects and arrays.<p>
+     *
+     * @return the current nesting depth
+     */
+    public int getDepth() {
+
+        return m_top;
+    }
+
+    /**
+     * Returns the last event returned by {@link #next()}.<p>
+     *
+     * @return the last event, or <code>null</code> if the parser has not been started
+     */
+    public Event getEvent() {
+
+        return m_event;
+    }
+
+    /**
+     * Returns the key if the last event was {@link Event#KEY}.<p>
+     *
+     * @return the key, or <code>null</code> for other events
+     */
+    public String getKey() {
+
+        return m_key;
+    }
+
+    /**
+     * Returns the value if the last event was {@link Event#VALUE}.<p>
+     *
+     * @return the value (a Boolean, Number, String or {@link JSONObject#NULL}),
+     *      or <code>null</code> for other events
+     */
+    public Object getValue() {
+
+        return m_value;
+    }
+
+    /**
+     * Reads the next event.<p>
+     *
+     * Once the JSON text has been read completely, {@link Event#END_DOCUMENT} is returned.<p>
+     *
+     * @return the next event
+     *
+     * @throws JSONException if the JSON text is malformed or can not be read
+     */
+    public Event next() throws JSONException {
+
+        m_key = null;
+        m_value = null;
+        if (m_top == 0) {
+            if (m_started) {
+                if (m_tokener.nextClean() != 0) {
+                    throw m_tokener.syntaxError("Unexpected text after the end of the JSON text");
+                }
+                m_event = Event.END_DOCUMENT;
+                return m_event;
+            }
+            m_started = true;
+            return readValue();
+        }
+        char c = m_tokener.nextClean();
+        switch (m_stack[m_top - 1]) {
+            case 'O':
+                // pairs are separated by ','; we will also tolerate ';' and a trailing separator
+                if (c == '}') {
+                    return end(Event.END_OBJECT);
+                }
+                if ((c != ',') && (c != ';')) {
+                    throw m_tokener.syntaxError("Expected a ',' or '}'");
+                }
+                c = m_tokener.nextClean();
+                if (c == '}') {
+                    return end(Event.END_OBJECT);
+                }
+                return readKey(c);
+            case 'o':
+                if (c == '}') {
+                    return end(Event.END_OBJECT);
+                }
+                return readKey(c);
+            case 'v':
+                m_stack[m_top - 1] = 'O';
+                m_tokener.back();
+                return readValue();
+            case 'A':
+                // values are separated by ','; we will also tolerate ';' and a trailing separator
+                if (c == ']') {
+                    return end(Event.END_ARRAY);
+                }
+                if ((c != ',') && (c != ';')) {
+                    throw m_tokener.syntaxError("Expected a ',' or ']'");
+                }
+                c = m_tokener.nextClean();
+                if (c == ']') {
+                    return end(Event.END_ARRAY);
+                }
+                m_tokener.back();
+                return readValue();
+            case 'a':
+            default:
+                if (c == ']') {
+                    return end(Event.END_ARRAY);
+                }
+                m_stack[m_top - 1] = 'A';
+                m_tokener.back();
+                return readValue();
+        }
+    }
+
+    /**
+     * Skips the contents of the object or array that has just been started.<p>
+     *
+     * If the last event was {@link Event#START_OBJECT} or {@link Event#START_ARRAY}, all events
+     * up to and including the matching end event are consumed. Otherwise nothing happens.<p>
+     *
+     * @throws JSONException if the JSON text is malformed or can not be read
+     */
+    public void skipChildren() throws JSONException {
+
+        if ((m_event != Event.START_OBJECT) && (m_event != Event.START_ARRAY)) {
+            return;
+        }
+        int depth = m_top;
+        while (m_top >= depth) {
+            if (next() == Event.END_DOCUMENT) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Closes the current scope.<p>
+     *
+     * @param event the end event to return
+     *
+     * @return the end event
+     */
+    private Event end(Event event) {
+
+        m_top -= 1;
+        m_event = event;
+        return event;
+    }
+
+    /**
+     * Pushes a new scope.<p>
+     *
+     * @param scope the scope to open
+     * @param event the start event to return
+     *
+     * @return the start event
+     */
+    private Event push(char scope, Event event) {
+
+        if (m_top == m_stack.length) {
+            m_stack = Arrays.copyOf(m_stack, m_stack.length * 2);
+        }
+        m_stack[m_top] = scope;
+        m_top += 1;
+        m_event = event;
+        return event;
+    }
+
+    /**
+     * Reads an object key and the following separator.<p>
+     *
+     * @param c the first character of the key
+     *
+     * @return the key event
+     *
+     * @throws JSONException if the JSON text is malformed
+     */
+    private Event readKey(char c) throws JSONException {
+
+        if (c == 0) {
+            throw m_tokener.syntaxError("A JSONObject text must end with '}'");
+        }
+        m_tokener.back();
+        String key = m_tokener.nextValue().toString();
+        // the key is followed by ':'; we will also tolerate '=' or '=>'
+        c = m_tokener.nextClean();
+        if (c == '=') {
+            if (m_tokener.next() != '>') {
+                m_tokener.back();
+            }
+        } else if (c != ':') {
+            throw m_tokener.syntaxError("Expected a ':' after a key");
+        }
+        m_stack[m_top - 1] = 'v';
+        m_key = key;
+        m_event = Event.KEY;
+        return m_event;
+    }
+
+    /**
+     * Reads the start of an object or array, or a scalar value.<p>
+     *
+     * @return the read event
+     *
+     * @throws JSONException if the JSON text is malformed
+     */
+    private Event readValue() throws JSONException {
+
+        char c = m_tokener.nextClean();
+        if (c == '{') {
+            return push('o', Event.START_OBJECT);
+        }
+        if (c == '[') {
+            return push('a', Event.START_ARRAY);
+        }
+        if (c == 0) {
+            throw m_tokener.syntaxError("Missing value");
+        }
+        m_tokener.back();
+        m_value = m_tokener.nextValue();
+        m_event = Event.VALUE;
+        return m_event;
+    }
+}
@@ -53,8 +53,12 @@
 
 package org.opencms.json;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.Writer;
+import java.nio.charset.Charset;
 
 /**
  * JSONWriter provides a quick and convenient way of producing JSON text.
@@ -83,9 +87,16 @@ import java.io.Writer;
  * <p>
  * This can sometimes be easier than using a JSONObject to build a string.<p>
  *
+ * All output, including the values of nested JSONObjects and JSONArrays, is written
+ * directly to the underlying writer, so large JSON texts can be produced without
+ * holding them in memory as a whole.<p>
+ *
  */
 public class JSONWriter {
 
+    /** The size of the buffer used when writing to an output stream. */
+    private static final int BUFFER_SIZE = 8192;
+
     /** The maximum depth. */
     private static final int MAXDEPTH = 20;
 
@@ -136,6 +147,20 @@ public class JSONWriter {
         m_writer = w;
     }
 
+    /**
+     * Make a fresh JSONWriter that writes to the given output stream.<p>
+     *
+     * The output is buffered, so {@link #flush()} has to be called
+     * once the JSON text is complete.<p>
+     *
+     * @param out the output stream to write to
+     * @param charset the charset used to encode the JSON text
+     */
+    public JSONWriter(OutputStream out, Charset charset) {
+
+        this(new BufferedWriter(new OutputStreamWriter(out, charset), BUFFER_SIZE));
+    }
+
     /**
      * Begin appending a new array.<p>
      *
@@ -183,6 +208,22 @@ public class JSONWriter {
         return end('k', '}');
     }
 
+    /**
+     * Flush the underlying writer.<p>
+     *
+     * @return this
+     * @throws JSONException if flushing the writer fails
+     */
+    public JSONWriter flush() throws JSONException {
+
+        try {
+            m_writer.flush();
+        } catch (IOException e) {
+            throw new JSONException(e);
+        }
+        return this;
+    }
+
     /**
      * Append a key. The key will be associated with the next value. In an
      * object, every value must be preceded by a key.<p>
@@ -202,7 +243,7 @@ public class JSONWriter {
                 if (m_comma) {
                     m_writer.write(',');
                 }
-                m_writer.write(JSONObject.quote(s));
+                JSONObject.quote(s, m_writer);
                 m_writer.write(':');
                 m_comma = false;
                 m_mode = 'o';
@@ -281,15 +322,30 @@ public class JSONWriter {
     /**
      * Append an object value.<p>
      *
+     * Strings, JSONObjects and JSONArrays are written directly to the
+     * underlying writer.<p>
+     *
      * @param o the object to append. It can be null, or a Boolean, Number,
      *   String, JSONObject, or JSONArray, or an object with a toJSONString()
      *   method
      * @return this
-     * @throws JSONException if the value is out of sequence
+     * @throws JSONException if the value is out of sequence or is or contains an invalid number
      */
     public JSONWriter value(Object o) throws JSONException {
 
-        return append(JSONObject.valueToString(o));
+        if ((o == null) || (o instanceof Boolean) || (o instanceof Number) || (o instanceof I_JSONString)) {
+            // scalar values are converted completely before anything is written
+            return append(JSONObject.valueToString(o));
+        }
+        // check the complete value first, so nothing is written if it contains an invalid number
+        JSONObject.testValueValidity(o);
+        startValue();
+        try {
+            JSONObject.writeValue(m_writer, o);
+        } catch (IOException e) {
+            throw new JSONException(e);
+        }
+        return endValue();
     }
 
     /**
@@ -304,22 +360,13 @@ public class JSONWriter {
         if (s == null) {
             throw new JSONException("Null pointer");
         }
-        if ((m_mode == 'o') || (m_mode == 'a')) {
-            try {
-                if (m_comma && (m_mode == 'a')) {
-                    m_writer.write(',');
-                }
-                m_writer.write(s);
-            } catch (IOException e) {
-                throw new JSONException(e);
-            }
-            if (m_mode == 'o') {
-                m_mode = 'k';
-            }
-            m_comma = true;
-            return this;
+        startValue();
+        try {
+            m_writer.write(s);
+        } catch (IOException e) {
+            throw new JSONException(e);
         }
-        throw new JSONException("Value out of sequence.");
+        return endValue();
     }
 
     /**
@@ -345,6 +392,20 @@ public class JSONWriter {
         return this;
     }
 
+    /**
+     * Finish appending a value.<p>
+     *
+     * @return this
+     */
+    private JSONWriter endValue() {
+
+        if (m_mode == 'o') {
+            m_mode = 'k';
+        }
+        m_comma = true;
+        return this;
+    }
+
     /**
      * Pop an array or object scope.<p>
      *
@@ -375,4 +436,23 @@ public class JSONWriter {
         m_mode = c;
         m_top += 1;
     }
+
+    /**
+     * Start appending a value, writing the separating comma if needed.<p>
+     *
+     * @throws JSONException if the value is out of sequence
+     */
+    private void startValue() throws JSONException {
+
+        if ((m_mode != 'o') && (m_mode != 'a')) {
+            throw new JSONException("Value out of sequence.");
+        }
+        if (m_comma && (m_mode == 'a')) {
+            try {
+                m_writer.write(',');
+            } catch (IOException e) {
+                throw new JSONException(e);
+            }
+        }
+    }
 }
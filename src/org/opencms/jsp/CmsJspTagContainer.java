@@ -60,6 +60,7 @@ import org.opencms.xml.containerpage.CmsADESessionCache;
 import org.opencms.xml.containerpage.CmsContainerBean;
 import org.opencms.xml.containerpage.CmsContainerElementBean;
 import org.opencms.xml.containerpage.CmsContainerPageBean;
+import org.opencms.xml.containerpage.CmsContainerPageResourceResolver;
 import org.opencms.xml.containerpage.CmsFormatterConfiguration;
 import org.opencms.xml.containerpage.CmsGroupContainerBean;
 import org.opencms.xml.containerpage.CmsXmlContainerPage;
@@ -71,11 +72,14 @@ import org.opencms.xml.containerpage.I_CmsFormatterBean;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 
 import javax.servlet.ServletRequest;
 import javax.servlet.ServletResponse;
@@ -586,6 +590,14 @@ public class CmsJspTagContainer extends BodyTagSupport {
                 } else {
                     allElements.addAll(container.getElements());
                 }
+                // resolve the element and formatter resources of the whole page at once
+                List<CmsContainerElementBean> pageElements = new ArrayList<CmsContainerElementBean>(allElements);
+                if (containerPage != null) {
+                    pageElements.addAll(containerPage.getElements());
+                }
+                CmsContainerPageResourceResolver.getInstance(req).resolve(
+                    cms,
+                    collectResourceIds(cms, pageElements));
                 // iterate over elements to render
                 int numRenderedElements = 0;
                 for (CmsContainerElementBean elementBean : allElements) {
@@ -1042,6 +1054,42 @@ public class CmsJspTagContainer extends BodyTagSupport {
         }
     }
 
+    /**
+     * Collects the structure ids of the resources needed to render the given elements.<p>
+     *
+     * These are the element resources themselves and the formatter JSPs, either referenced directly
+     * by the elements or through the formatter configurations in their settings.<p>
+     *
+     * @param cms the CMS context
+     * @param elements the elements
+     *
+     * @return the structure ids
+     */
+    private Set<CmsUUID> collectResourceIds(CmsObject cms, Collection<CmsContainerElementBean> elements) {
+
+        Map<CmsUUID, I_CmsFormatterBean> formatters = OpenCms.getADEManager().getCachedFormatters(
+            cms.getRequestContext().getCurrentProject().isOnlineProject()).getFormatters();
+        Set<CmsUUID> ids = new HashSet<CmsUUID>();
+        for (CmsContainerElementBean element : elements) {
+            if (!element.isInMemoryOnly()) {
+                ids.add(element.getId());
+            }
+            if (element.getFormatterId() != null) {
+                ids.add(element.getFormatterId());
+            }
+            for (Map.Entry<String, String> setting : element.getIndividualSettings().entrySet()) {
+                if (setting.getKey().startsWith(CmsFormatterConfig.FORMATTER_SETTINGS_KEY)
+                    && CmsUUID.isValidUUID(setting.getValue())) {
+                    I_CmsFormatterBean formatter = formatters.get(new CmsUUID(setting.getValue()));
+                    if (formatter != null) {
+                        ids.add(formatter.getJspStructureId());
+                    }
+                }
+            }
+        }
+        return ids;
+    }
+
     /**
      * Generates the detail view element.<p>
      *
@@ -1257,7 +1305,8 @@ public class CmsJspTagContainer extends BodyTagSupport {
         if (isOnline && !showInContext) {
             return false;
         }
-        element.initResource(cms);
+        CmsContainerPageResourceResolver resolver = CmsContainerPageResourceResolver.getInstance(request);
+        element.initResource(cms, resolver);
         if (isOnline && !element.isReleasedAndNotExpired()) {
             // do not render expired resources for the online project
             return false;
@@ -1302,10 +1351,11 @@ public class CmsJspTagContainer extends BodyTagSupport {
             }
             // wrapping the elements with DIV containing initial element data. To be removed by the container-page editor
             printElementWrapperTagStart(isOnline, cms, element, standardContext.getPage(), true);
+            resolver.resolve(cms, collectResourceIds(cms, subElements));
             for (CmsContainerElementBean subelement : subElements) {
 
                 try {
-                    subelement.initResource(cms);
+                    subelement.initResource(cms, resolver);
                     boolean shouldShowSubElementInContext = shouldShowInContext(subelement, contextKey);
                     if (isOnline && (!shouldShowSubElementInContext || !subelement.isReleasedAndNotExpired())) {
                         continue;
@@ -1344,8 +1394,10 @@ public class CmsJspTagContainer extends BodyTagSupport {
                     try {
                         String formatterSitePath;
                         try {
-                            CmsResource formatterResource = cms.readResource(
-                                subElementFormatterConfig.getJspStructureId());
+                            CmsResource formatterResource = resolver.readResource(
+                                cms,
+                                subElementFormatterConfig.getJspStructureId(),
+                                CmsResourceFilter.DEFAULT);
                             formatterSitePath = cms.getSitePath(formatterResource);
                         } catch (CmsVfsResourceNotFoundException ex) {
                             LOG.debug("Formatter JSP not found by id, try using path.", ex);
@@ -1405,15 +1457,18 @@ public class CmsJspTagContainer extends BodyTagSupport {
                 try {
                     if (formatterConfig != null) {
                         try {
-                            CmsResource formatterResource = cms.readResource(formatterConfig.getJspStructureId());
+                            CmsResource formatterResource = resolver.readResource(
+                                cms,
+                                formatterConfig.getJspStructureId(),
+                                CmsResourceFilter.DEFAULT);
                             formatter = cms.getSitePath(formatterResource);
                         } catch (CmsVfsResourceNotFoundException ex) {
                             LOG.debug("Formatter JSP not found by id, try using path.", ex);
                             formatter = cms.getRequestContext().removeSiteRoot(formatterConfig.getJspRootPath());
                         }
-                        formatter = cms.getSitePath(cms.readResource(formatterConfig.getJspStructureId()));
                     } else {
-                        formatter = cms.getSitePath(cms.readResource(element.getFormatterId()));
+                        formatter = cms.getSitePath(
+                            resolver.readResource(cms, element.getFormatterId(), CmsResourceFilter.DEFAULT));
                     }
                 } catch (CmsException e) {
                     LOG.debug("Formatter resource can not be found, try reading it form the configuration.", e);
@@ -1438,7 +1493,10 @@ public class CmsJspTagContainer extends BodyTagSupport {
                         return false;
                     }
                     try {
-                        CmsResource formatterResource = cms.readResource(elementFormatterBean.getJspStructureId());
+                        CmsResource formatterResource = resolver.readResource(
+                            cms,
+                            elementFormatterBean.getJspStructureId(),
+                            CmsResourceFilter.DEFAULT);
                         formatter = cms.getSitePath(formatterResource);
                     } catch (CmsVfsResourceNotFoundException ex) {
                         LOG.debug("Formatter JSP not found by id, try using path.", ex);
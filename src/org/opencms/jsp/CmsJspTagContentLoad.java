@@ -27,6 +27,7 @@
 
 package org.opencms.jsp;
 
+import org.opencms.cache.CmsQueryResultCache;
 import org.opencms.file.CmsFile;
 import org.opencms.file.collectors.I_CmsResourceCollector;
 import org.opencms.flex.CmsFlexController;
@@ -572,7 +573,11 @@ public class CmsJspTagContentLoad extends CmsJspTagResourceLoad implements I_Cms
             }
             // execute the collector if not already done in parent tag
             if (m_collectorResult == null) {
-                m_collectorResult = collector.getResults(m_cms, m_collectorName, m_collectorParam);
+                m_collectorResult = CmsQueryResultCache.getQueryResultCache().getCollectorResults(
+                    m_cms,
+                    collector,
+                    m_collectorName,
+                    m_collectorParam);
             }
 
             m_contentInfoBean = new CmsContentInfoBean();
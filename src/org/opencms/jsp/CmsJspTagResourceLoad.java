@@ -27,6 +27,7 @@
 
 package org.opencms.jsp;
 
+import org.opencms.cache.CmsQueryResultCache;
 import org.opencms.file.CmsObject;
 import org.opencms.file.CmsResource;
 import org.opencms.file.collectors.I_CmsResourceCollector;
@@ -636,7 +637,11 @@ public class CmsJspTagResourceLoad extends CmsJspScopedVarBodyTagSuport implemen
             }
             // execute the collector if not already done in parent tag
             if (m_collectorResult == null) {
-                m_collectorResult = collector.getResults(m_cms, m_collectorName, m_collectorParam);
+                m_collectorResult = CmsQueryResultCache.getQueryResultCache().getCollectorResults(
+                    m_cms,
+                    collector,
+                    m_collectorName,
+                    m_collectorParam);
             }
 
             m_contentInfoBean = new CmsContentInfoBean();
@@ -28,11 +28,15 @@
 package org.opencms.jsp;
 
 import org.opencms.ade.publish.CmsPublishListHelper;
+import org.opencms.cache.CmsQueryResultCache;
+import org.opencms.cache.CmsQueryResultScope;
 import org.opencms.file.CmsFile;
 import org.opencms.file.CmsObject;
+import org.opencms.file.CmsProject;
 import org.opencms.file.CmsResource;
 import org.opencms.file.collectors.I_CmsCollectorPublishListProvider;
 import org.opencms.flex.CmsFlexController;
+import org.opencms.flex.CmsFlexRequestContextInfo;
 import org.opencms.gwt.shared.I_CmsContentLoadCollectorInfo;
 import org.opencms.i18n.CmsLocaleManager;
 import org.opencms.jsp.search.config.CmsSearchConfiguration;
@@ -60,6 +64,7 @@ import org.opencms.xml.content.CmsXmlContentFactory;
 
 import java.util.HashSet;
 import java.util.Set;
+import java.util.TreeSet;
 
 import javax.servlet.jsp.JspException;
 
@@ -384,6 +389,25 @@ public class CmsJspTagSearch extends CmsJspScopedVarBodyTagSuport implements I_C
         }
     }
 
+    /**
+     * Returns a string that identifies the given query, independent of the order of its parameters.<p>
+     *
+     * @param query the query
+     *
+     * @return a string that identifies the query
+     */
+    private String getCacheQuery(CmsSolrQuery query) {
+
+        StringBuffer result = new StringBuffer(256);
+        result.append(m_index.getName());
+        for (String name : new TreeSet<String>(query.getParameterNames())) {
+            for (String value : query.getParams(name)) {
+                result.append('&').append(name).append('=').append(value);
+            }
+        }
+        return result.toString();
+    }
+
     /** Here the search query is composed and executed.
      *  The result is wrapped in an easily usable form.
      *  It is exposed to the JSP via the tag's "var" attribute.
@@ -396,8 +420,32 @@ public class CmsJspTagSearch extends CmsJspScopedVarBodyTagSuport implements I_C
         CmsSolrQuery query = new CmsSolrQuery();
         m_searchController.addQueryParts(query);
         try {
-            // use "complicated" constructor to allow more than 50 results -> set ignoreMaxResults to true
-            CmsSolrResultList solrResultList = m_index.search(m_cms, query, true);
+            CmsSolrResultList solrResultList = null;
+            CmsQueryResultCache cache = null;
+            String cacheKey = null;
+            if (CmsProject.ONLINE_PROJECT_NAME.equals(m_index.getProject())) {
+                // the online index only changes when resources are published, so the results can be cached
+                cache = CmsQueryResultCache.getQueryResultCache();
+                cacheKey = CmsQueryResultCache.getCacheKey(m_cms, CmsQueryResultCache.KEY_SOLR, getCacheQuery(query));
+                solrResultList = (CmsSolrResultList)cache.getCachedObject(m_cms, cacheKey);
+            }
+            if (solrResultList == null) {
+                long generation = cache != null ? cache.getGeneration() : 0;
+                CmsQueryResultScope scope = CmsQueryResultScope.createForSolrFilterQueries(query.getFilterQueries());
+                CmsFlexRequestContextInfo info = cache != null ? cache.startRecordingDates(m_cms) : null;
+                CmsFlexRequestContextInfo dates = null;
+                try {
+                    // use "complicated" constructor to allow more than 50 results -> set ignoreMaxResults to true
+                    solrResultList = m_index.search(m_cms, query, true);
+                } finally {
+                    if (cache != null) {
+                        dates = cache.stopRecordingDates(m_cms, info);
+                    }
+                }
+                if (cache != null) {
+                    cache.putCachedResult(m_cms, cacheKey, generation, scope, solrResultList, solrResultList, dates);
+                }
+            }
             return new CmsSearchResultWrapper(m_searchController, solrResultList, query, m_cms, null);
         } catch (CmsSearchException e) {
             LOG.warn(Messages.get().getBundle().key(Messages.LOG_TAG_SEARCH_SEARCH_FAILED_0), e);
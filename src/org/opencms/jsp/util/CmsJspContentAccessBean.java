@@ -33,6 +33,7 @@ import org.opencms.file.CmsObject;
 import org.opencms.file.CmsProject;
 import org.opencms.file.CmsResource;
 import org.opencms.file.CmsResourceFilter;
+import org.opencms.file.types.CmsResourceTypeXmlContent;
 import org.opencms.file.types.CmsResourceTypeXmlPage;
 import org.opencms.i18n.CmsEncoder;
 import org.opencms.i18n.CmsLocaleManager;
@@ -45,6 +46,8 @@ import org.opencms.util.CmsCollectionsGenericWrapper;
 import org.opencms.util.CmsConstantMap;
 import org.opencms.util.CmsUUID;
 import org.opencms.xml.I_CmsXmlDocument;
+import org.opencms.xml.content.CmsXmlContent;
+import org.opencms.xml.content.CmsXmlContentCompactModel;
 import org.opencms.xml.content.CmsXmlContentFactory;
 import org.opencms.xml.page.CmsXmlPageFactory;
 import org.opencms.xml.types.I_CmsXmlContentValue;
@@ -81,7 +84,12 @@ public class CmsJspContentAccessBean {
          */
         public Object transform(Object input) {
 
-            return Boolean.valueOf(getRawContent().hasLocale(CmsJspElFunctions.convertLocale(input)));
+            Locale locale = CmsJspElFunctions.convertLocale(input);
+            CmsXmlContentCompactModel model = getCompactModelInternal();
+            if (model != null) {
+                return Boolean.valueOf(model.hasLocale(locale));
+            }
+            return Boolean.valueOf(getRawContent().hasLocale(locale));
         }
     }
 
@@ -98,7 +106,8 @@ public class CmsJspContentAccessBean {
 
             Locale locale = CmsJspElFunctions.convertLocale(input);
             Map<String, Boolean> result;
-            if (getRawContent().hasLocale(locale)) {
+            CmsXmlContentCompactModel model = getCompactModelInternal();
+            if ((model != null) ? model.hasLocale(locale) : getRawContent().hasLocale(locale)) {
                 result = CmsCollectionsGenericWrapper.createLazyMap(new CmsHasValueTransformer(locale));
             } else {
                 result = CmsConstantMap.CONSTANT_BOOLEAN_FALSE_MAP;
@@ -131,6 +140,11 @@ public class CmsJspContentAccessBean {
          */
         public Object transform(Object input) {
 
+            CmsXmlContentCompactModel model = getCompactModelInternal();
+            if ((model != null) && !model.hasLinkValues(m_selectedLocale)) {
+                // link values may have been removed for the current request, so they must be checked in the content
+                return Boolean.valueOf(model.hasValue(String.valueOf(input), m_selectedLocale));
+            }
             return Boolean.valueOf(getRawContent().hasValue(String.valueOf(input), m_selectedLocale));
         }
     }
@@ -408,6 +422,9 @@ public class CmsJspContentAccessBean {
     /** The OpenCms context of the current user. */
     private CmsObject m_cms;
 
+    /** The compact model of the XML content returned by {@link #getCompactModel()}. */
+    private CmsXmlContentCompactModel m_compactModel;
+
     /** The XML content to access. */
     private I_CmsXmlDocument m_content;
 
@@ -502,6 +519,29 @@ public class CmsJspContentAccessBean {
         return m_cms;
     }
 
+    /**
+     * Returns the compact, read-only model of the XML content accessed by this bean.<p>
+     *
+     * The compact model allows fast checks for locales and values, and access to the raw
+     * text of simple values. In the online project, the model cached with the XML content is used
+     * if links removed for the current request can not affect it, otherwise the model is created
+     * from the XML content read by the current user.<p>
+     *
+     * @return the compact model of the XML content, or <code>null</code> if the accessed document is no XML content
+     */
+    public CmsXmlContentCompactModel getCompactModel() {
+
+        if (m_compactModel == null) {
+            CmsXmlContentCompactModel model = getCompactModelInternal();
+            if ((model != null) && !model.hasLinkValues()) {
+                m_compactModel = model;
+            } else if (getRawContent() instanceof CmsXmlContent) {
+                m_compactModel = CmsXmlContentCompactModel.create((CmsXmlContent)m_content);
+            }
+        }
+        return m_compactModel;
+    }
+
     /**
      * Returns the raw VFS file object the content accessed by this bean was created from.<p>
      *
@@ -725,7 +765,12 @@ public class CmsJspContentAccessBean {
 
         // check the content if the locale has not been set yet
         if (m_locale == null) {
-            getRawContent();
+            CmsXmlContentCompactModel model = getCompactModelInternal();
+            if (model != null) {
+                initLocale(model.getLocales());
+            } else {
+                getRawContent();
+            }
         }
         return m_locale;
     }
@@ -903,19 +948,7 @@ public class CmsJspContentAccessBean {
 
         // make sure a valid locale is used
         if (m_locale == null) {
-            m_locale = m_requestedLocale;
-            // check if the requested locale is available
-            if (!m_content.hasLocale(m_locale)) {
-                Iterator<Locale> it = OpenCms.getLocaleManager().getDefaultLocales().iterator();
-                while (it.hasNext()) {
-                    Locale locale = it.next();
-                    if (m_content.hasLocale(locale)) {
-                        // found a matching locale
-                        m_locale = locale;
-                        break;
-                    }
-                }
-            }
+            initLocale(m_content.getLocales());
         }
 
         return m_content;
@@ -1024,5 +1057,46 @@ public class CmsJspContentAccessBean {
         m_requestedLocale = locale;
         m_content = content;
         m_resource = resource;
+        m_compactModel = null;
+    }
+
+    /**
+     * Returns the compact model of the XML content if it can be used instead of the full XML content.<p>
+     *
+     * This is only the case in the online project, if the XML content has been unmarshalled before, so
+     * its model is cached. Otherwise the XML content is unmarshalled by the caller, which also caches
+     * the model for later requests. Once the full XML content has been unmarshalled, it is used directly.<p>
+     *
+     * @return the compact model of the XML content, or <code>null</code> if the full XML content should be used
+     */
+    protected CmsXmlContentCompactModel getCompactModelInternal() {
+
+        if ((m_content != null) || (m_resource == null) || !CmsResourceTypeXmlContent.isXmlContent(m_resource)) {
+            return null;
+        }
+        return CmsXmlContentFactory.getCachedCompactModel(m_cms, m_resource);
+    }
+
+    /**
+     * Initializes the locale used for accessing the content, using a default locale
+     * as fallback in case the requested locale is not available.<p>
+     *
+     * @param availableLocales the locales available in the content
+     */
+    private void initLocale(List<Locale> availableLocales) {
+
+        m_locale = m_requestedLocale;
+        // check if the requested locale is available
+        if (!availableLocales.contains(m_locale)) {
+            Iterator<Locale> it = OpenCms.getLocaleManager().getDefaultLocales().iterator();
+            while (it.hasNext()) {
+                Locale locale = it.next();
+                if (availableLocales.contains(locale)) {
+                    // found a matching locale
+                    m_locale = locale;
+                    break;
+                }
+            }
+        }
     }
-}
\ No newline at end of file
+}
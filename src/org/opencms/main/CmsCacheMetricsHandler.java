@@ -0,0 +1,120 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.main;
+
+import org.opencms.file.CmsObject;
+import org.opencms.monitor.I_CmsCacheStatistics;
+import org.opencms.security.CmsRole;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Locale;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.commons.logging.Log;
+
+/**
+ * Writes the usage statistics of the memory monitor caches as plain text, in the Prometheus text format.<p>
+ *
+ * The handler is available at <code>/handleCacheMetrics</code> if it is configured in the request handlers
+ * of <code>opencms-system.xml</code>. Only users with the root administrator role can read the statistics.<p>
+ *
+ * @since 10.0.0
+ */
+public class CmsCacheMetricsHandler implements I_CmsRequestHandler {
+
+    /** The handler name. */
+    public static final String HANDLER_NAME = "CacheMetrics";
+
+    /** The handler names. */
+    private static final String[] HANDLER_NAMES = new String[] {HANDLER_NAME};
+
+    /** The log object for this class. */
+    private static final Log LOG = CmsLog.getLog(CmsCacheMetricsHandler.class);
+
+    /**
+     * @see org.opencms.main.I_CmsRequestHandler#getHandlerNames()
+     */
+    public String[] getHandlerNames() {
+
+        return HANDLER_NAMES;
+    }
+
+    /**
+     * @see org.opencms.main.I_CmsRequestHandler#handle(javax.servlet.http.HttpServletRequest, javax.servlet.http.HttpServletResponse, java.lang.String)
+     */
+    public void handle(HttpServletRequest req, HttpServletResponse res, String name) throws IOException {
+
+        try {
+            CmsObject cms = OpenCmsCore.getInstance().initCmsObjectFromSession(req);
+            if ((cms == null) || !OpenCms.getRoleManager().hasRole(cms, CmsRole.ROOT_ADMIN)) {
+                res.sendError(HttpServletResponse.SC_FORBIDDEN);
+                return;
+            }
+        } catch (CmsException e) {
+            LOG.error(e.getLocalizedMessage(), e);
+            res.sendError(HttpServletResponse.SC_FORBIDDEN);
+            return;
+        }
+        res.setContentType("text/plain; version=0.0.4; charset=UTF-8");
+        res.setHeader("Cache-Control", "no-cache");
+        PrintWriter writer = res.getWriter();
+        for (I_CmsCacheStatistics statistics : OpenCms.getMemoryMonitor().getCacheStatistics()) {
+            String cache = statistics.getName().toLowerCase(Locale.ENGLISH);
+            writeMetric(writer, "opencms_cache_hits_total", cache, statistics.getHitCount());
+            writeMetric(writer, "opencms_cache_misses_total", cache, statistics.getMissCount());
+            writeMetric(writer, "opencms_cache_puts_total", cache, statistics.getPutCount());
+            writeMetric(writer, "opencms_cache_evictions_total", cache, statistics.getEvictionCount());
+            writeMetric(writer, "opencms_cache_loads_total", cache, statistics.getLoadCount());
+            writeMetric(writer, "opencms_cache_load_milliseconds_total", cache, statistics.getTotalLoadTime());
+            writeMetric(writer, "opencms_cache_size", cache, statistics.getSize());
+            writeMetric(writer, "opencms_cache_capacity", cache, statistics.getCapacity());
+        }
+        writer.flush();
+    }
+
+    /**
+     * Writes a single metric line.<p>
+     *
+     * @param writer the writer
+     * @param metric the metric name
+     * @param cache the cache name
+     * @param value the value
+     */
+    private void writeMetric(PrintWriter writer, String metric, String cache, long value) {
+
+        writer.print(metric);
+        writer.print("{cache=\"");
+        writer.print(cache);
+        writer.print("\"} ");
+        writer.print(value);
+        writer.print('\n');
+    }
+}
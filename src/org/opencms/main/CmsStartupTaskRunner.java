@@ -0,0 +1,407 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.main;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+
+/**
+ * Runs the initialization steps of the OpenCms core managers in dependency order.<p>
+ *
+ * Every task declares the names of the tasks it depends on, these must have been added before.
+ * A task is started as soon as all of its dependencies are finished, so independent tasks are executed
+ * concurrently by a small pool of startup threads. Since tasks are queued in the order they were added,
+ * a task only ever waits for tasks which are already running or finished.<p>
+ *
+ * Critical tasks are executed by {@link #runCriticalTasks()}, which waits for all of them.
+ * Deferred tasks are started with {@link #startDeferredTasks()}, usually after OpenCms already accepts
+ * requests. Code that requires the result of a deferred task calls {@link #waitForTask(String)}, which
+ * starts the deferred tasks early if required.<p>
+ *
+ * With a single startup thread, the tasks are executed one after another in the order they were added.
+ * This is not the order of the former sequential initialization, and deferred tasks are still
+ * executed after the critical ones.<p>
+ *
+ * The duration of every task and every phase is written to the OpenCms init log.<p>
+ *
+ * @since 10.0.0
+ */
+public class CmsStartupTaskRunner {
+
+    /**
+     * The state of a single startup task.<p>
+     */
+    private static class Task implements Runnable {
+
+        /** Indicates if this is a deferred task. */
+        boolean m_deferred;
+
+        /** The tasks this task depends on. */
+        List<Task> m_dependencies;
+
+        /** Released when the task is finished, failed or skipped. */
+        CountDownLatch m_done = new CountDownLatch(1);
+
+        /** The error of the task or of one of its dependencies. */
+        volatile Throwable m_error;
+
+        /** Set by the thread which executes the task. */
+        AtomicBoolean m_started = new AtomicBoolean();
+
+        /** The task name. */
+        String m_name;
+
+        /** The actual startup step. */
+        I_CmsStartupTask m_task;
+
+        /** The duration of the task in milliseconds, or -1 if the task did not finish. */
+        volatile long m_time = -1;
+
+        /**
+         * @see java.lang.Runnable#run()
+         */
+        public void run() {
+
+            if (!m_started.compareAndSet(false, true)) {
+                // already executed by a thread waiting for this task
+                return;
+            }
+            WORKER.set(Boolean.TRUE);
+            try {
+                for (Task dependency : m_dependencies) {
+                    dependency.runOrAwait();
+                    if (dependency.m_error != null) {
+                        // the dependency failed, so this task is skipped
+                        m_error = dependency.m_error;
+                        return;
+                    }
+                }
+                long start = System.currentTimeMillis();
+                m_task.run();
+                m_time = System.currentTimeMillis() - start;
+                if (CmsLog.INIT.isInfoEnabled()) {
+                    CmsLog.INIT.info(
+                        Messages.get().getBundle().key(Messages.INIT_STARTUP_TASK_2, m_name, Long.valueOf(m_time)));
+                }
+            } catch (Throwable e) {
+                m_error = e;
+                LOG.error(Messages.get().getBundle().key(Messages.LOG_STARTUP_TASK_FAILED_1, m_name), e);
+            } finally {
+                m_done.countDown();
+            }
+        }
+
+        /**
+         * Executes this task in the current startup thread if it is not yet started, otherwise waits for it.<p>
+         *
+         * Startup threads never wait for a task that is only queued, so the pool can not run out of threads
+         * while tasks wait for each other.<p>
+         *
+         * @throws InterruptedException if the current thread is interrupted
+         */
+        void runOrAwait() throws InterruptedException {
+
+            run();
+            m_done.await();
+        }
+
+        /**
+         * Marks this task as failed without executing it, if it is not yet started.<p>
+         *
+         * @param error the error
+         */
+        void skip(Throwable error) {
+
+            if (m_started.compareAndSet(false, true)) {
+                m_error = error;
+                m_done.countDown();
+            }
+        }
+    }
+
+    /** The name of the critical phase used in the init log. */
+    private static final String PHASE_CRITICAL = "critical";
+
+    /** The name of the deferred phase used in the init log. */
+    private static final String PHASE_DEFERRED = "deferred";
+
+    /** The log object for this class. */
+    static final Log LOG = CmsLog.getLog(CmsStartupTaskRunner.class);
+
+    /** Marks the threads of the startup pool. */
+    static final ThreadLocal<Boolean> WORKER = new ThreadLocal<Boolean>();
+
+    /** Released when the critical tasks are finished or failed. */
+    private CountDownLatch m_criticalDone = new CountDownLatch(1);
+
+    /** Indicates if the deferred tasks have been started. */
+    private boolean m_deferredStarted;
+
+    /** The executor for the startup tasks. */
+    private ExecutorService m_executor;
+
+    /** The startup tasks by name, in the order they were added. */
+    private Map<String, Task> m_tasks = new LinkedHashMap<String, Task>();
+
+    /**
+     * Creates a new startup task runner.<p>
+     *
+     * @param threads the number of threads used to execute the startup tasks
+     */
+    public CmsStartupTaskRunner(int threads) {
+
+        final AtomicInteger count = new AtomicInteger();
+        m_executor = Executors.newFixedThreadPool(Math.max(1, threads), new ThreadFactory() {
+
+            public Thread newThread(Runnable r) {
+
+                Thread thread = new Thread(r, "OpenCms-Startup-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Adds a startup task.<p>
+     *
+     * @param name the unique name of the task
+     * @param deferred if <code>true</code>, the task is only executed by {@link #startDeferredTasks()}
+     * @param task the startup step to execute
+     * @param dependencies the names of the tasks which must be finished before this task is started
+     */
+    public void addTask(String name, boolean deferred, I_CmsStartupTask task, String... dependencies) {
+
+        if (m_tasks.containsKey(name)) {
+            throw new IllegalArgumentException("Duplicate startup task: " + name);
+        }
+        Task t = new Task();
+        t.m_name = name;
+        t.m_deferred = deferred;
+        t.m_task = task;
+        t.m_dependencies = new ArrayList<Task>();
+        for (String dependency : dependencies) {
+            Task d = m_tasks.get(dependency);
+            if ((d == null) || (d.m_deferred && !deferred)) {
+                // this also guarantees that the tasks are added in dependency order
+                throw new IllegalArgumentException("Invalid dependency of startup task " + name + ": " + dependency);
+            }
+            t.m_dependencies.add(d);
+        }
+        m_tasks.put(name, t);
+    }
+
+    /**
+     * Returns the durations of all finished tasks in milliseconds, by task name.<p>
+     *
+     * @return the durations of all finished tasks
+     */
+    public Map<String, Long> getTaskTimes() {
+
+        Map<String, Long> result = new LinkedHashMap<String, Long>();
+        for (Task task : m_tasks.values()) {
+            if (task.m_time >= 0) {
+                result.put(task.m_name, Long.valueOf(task.m_time));
+            }
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * Executes all critical tasks and waits until they are finished.<p>
+     *
+     * @throws Exception the error of the first failed task
+     */
+    public void runCriticalTasks() throws Exception {
+
+        Throwable error = null;
+        try {
+            List<Task> tasks = submit(false);
+            long start = System.currentTimeMillis();
+            for (Task task : tasks) {
+                task.m_done.await();
+                if ((error == null) && (task.m_error != null)) {
+                    error = task.m_error;
+                }
+            }
+            logPhase(PHASE_CRITICAL, start);
+        } finally {
+            m_criticalDone.countDown();
+        }
+        if (error instanceof Exception) {
+            throw (Exception)error;
+        } else if (error != null) {
+            throw new CmsRuntimeException(
+                Messages.get().container(Messages.ERR_CRITICAL_INIT_MANAGERS_0),
+                error);
+        }
+    }
+
+    /**
+     * Stops the startup threads, running tasks are interrupted.<p>
+     *
+     * Tasks which are not yet started are marked as failed, so no thread waits for them forever.<p>
+     */
+    public synchronized void shutDown() {
+
+        m_executor.shutdownNow();
+        CmsRuntimeException error = new CmsRuntimeException(
+            Messages.get().container(Messages.ERR_CRITICAL_INIT_MANAGERS_0));
+        for (Task task : m_tasks.values()) {
+            task.skip(error);
+        }
+        m_criticalDone.countDown();
+    }
+
+    /**
+     * Starts the deferred tasks in the background.<p>
+     *
+     * The startup threads are stopped once all deferred tasks are finished.<p>
+     */
+    public synchronized void startDeferredTasks() {
+
+        if (m_deferredStarted || m_executor.isShutdown()) {
+            return;
+        }
+        final long start = System.currentTimeMillis();
+        final List<Task> tasks = submit(true);
+        m_deferredStarted = true;
+        m_executor.execute(new Runnable() {
+
+            public void run() {
+
+                try {
+                    for (Task task : tasks) {
+                        task.m_done.await();
+                    }
+                    logPhase(PHASE_DEFERRED, start);
+                } catch (InterruptedException e) {
+                    // shutdown during startup
+                } finally {
+                    m_executor.shutdown();
+                }
+            }
+        });
+    }
+
+    /**
+     * Waits until all deferred tasks are finished, after starting them if necessary.<p>
+     */
+    public void waitForDeferredTasks() {
+
+        startDeferredTasks();
+        for (Task task : m_tasks.values()) {
+            waitForTask(task.m_name);
+        }
+    }
+
+    /**
+     * Waits until the task with the given name is finished.<p>
+     *
+     * If the task is a deferred task, the deferred tasks are started once the critical tasks are finished,
+     * even if {@link #startDeferredTasks()} was not yet called. A startup thread executes the task itself
+     * if it is not yet started.<p>
+     *
+     * Returns immediately if the task does not exist, or if a critical task requires a deferred task,
+     * since the deferred tasks can only start after the critical task is finished.<p>
+     *
+     * @param name the name of the task
+     */
+    public void waitForTask(String name) {
+
+        Task task = m_tasks.get(name);
+        if (task == null) {
+            return;
+        }
+        boolean worker = Boolean.TRUE.equals(WORKER.get());
+        try {
+            if (task.m_deferred) {
+                if (worker && (m_criticalDone.getCount() > 0)) {
+                    // called by a critical task, waiting would block the startup forever
+                    return;
+                }
+                m_criticalDone.await();
+                startDeferredTasks();
+            }
+            if (worker) {
+                task.runOrAwait();
+            } else {
+                task.m_done.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Writes the duration of a startup phase to the init log.<p>
+     *
+     * @param phase the name of the phase
+     * @param start the start time of the phase
+     */
+    void logPhase(String phase, long start) {
+
+        if (CmsLog.INIT.isInfoEnabled()) {
+            CmsLog.INIT.info(
+                Messages.get().getBundle().key(
+                    Messages.INIT_STARTUP_PHASE_2,
+                    phase,
+                    Long.valueOf(System.currentTimeMillis() - start)));
+        }
+    }
+
+    /**
+     * Submits all critical or all deferred tasks to the executor.<p>
+     *
+     * @param deferred selects the deferred or the critical tasks
+     *
+     * @return the submitted tasks
+     */
+    private List<Task> submit(boolean deferred) {
+
+        List<Task> result = new ArrayList<Task>();
+        for (Task task : m_tasks.values()) {
+            if (task.m_deferred == deferred) {
+                result.add(task);
+                m_executor.execute(task);
+            }
+        }
+        return result;
+    }
+}
@@ -336,6 +336,12 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String INIT_SHUTDOWN_TIME_1 = "INIT_SHUTDOWN_TIME_1";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String INIT_STARTUP_PHASE_2 = "INIT_STARTUP_PHASE_2";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String INIT_STARTUP_TASK_2 = "INIT_STARTUP_TASK_2";
+
     /** Message constant for key in the resource bundle. */
     public static final String INIT_STARTUP_TIME_1 = "INIT_STARTUP_TIME_1";
 
@@ -474,6 +480,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String LOG_STARTUP_CONSOLE_NOTE_2 = "LOG_STARTUP_CONSOLE_NOTE_2";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_STARTUP_TASK_FAILED_1 = "LOG_STARTUP_TASK_FAILED_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String LOG_THREADSTORE_CHECK_PUBLISH_THREAD_ERROR_0 = "LOG_THREADSTORE_CHECK_PUBLISH_THREAD_ERROR_0";
 
@@ -166,6 +166,15 @@ public final class OpenCmsCore {
     /** Lock object for synchronization. */
     private static final Object LOCK = new Object();
 
+    /** The name of the startup task initializing the search manager. */
+    private static final String STARTUP_TASK_SEARCH = "search";
+
+    /** The name of the startup task initializing the template context manager. */
+    private static final String STARTUP_TASK_TEMPLATE_CONTEXTS = "templateContexts";
+
+    /** The name of the startup task initializing the workplace app manager. */
+    private static final String STARTUP_TASK_WORKPLACE_APPS = "workplaceApps";
+
     /** Indicates if the configuration was successfully finished or not. */
     private static CmsMessageContainer m_errorCondition;
 
@@ -271,6 +280,9 @@ public final class OpenCmsCore {
     /** The site manager contains information about all configured sites. */
     private CmsSiteManagerImpl m_siteManager;
 
+    /** The startup task runner, which initializes the managers. */
+    private CmsStartupTaskRunner m_startupTasks;
+
     /** The static export manager. */
     private CmsStaticExportManager m_staticExportManager;
 
@@ -730,6 +742,7 @@ public final class OpenCmsCore {
      */
     protected CmsSearchManager getSearchManager() {
 
+        waitForStartupTask(STARTUP_TASK_SEARCH);
         return m_searchManager;
     }
 
@@ -811,6 +824,7 @@ public final class OpenCmsCore {
      */
     protected CmsTemplateContextManager getTemplateContextManager() {
 
+        waitForStartupTask(STARTUP_TASK_TEMPLATE_CONTEXTS);
         return m_templateContextManager;
 
     }
@@ -852,6 +866,7 @@ public final class OpenCmsCore {
      */
     protected CmsWorkplaceAppManager getWorkplaceAppManager() {
 
+        waitForStartupTask(STARTUP_TASK_WORKPLACE_APPS);
         return m_workplaceAppManager;
     }
 
@@ -1174,7 +1189,7 @@ public final class OpenCmsCore {
         }
 
         // get the system configuration
-        CmsSystemConfiguration systemConfiguration = (CmsSystemConfiguration)m_configurationManager.getConfiguration(
+        final CmsSystemConfiguration systemConfiguration = (CmsSystemConfiguration)m_configurationManager.getConfiguration(
             CmsSystemConfiguration.class);
 
         // initialize the memory monitor
@@ -1369,10 +1384,10 @@ public final class OpenCmsCore {
         m_runtimeProperties.putAll(systemConfiguration.getRuntimeProperties());
 
         // initialize the session storage provider
-        I_CmsSessionStorageProvider sessionStorageProvider = systemConfiguration.getSessionStorageProvider();
+        final I_CmsSessionStorageProvider sessionStorageProvider = systemConfiguration.getSessionStorageProvider();
 
         // get an Admin cms context object with site root set to "/"
-        CmsObject adminCms;
+        final CmsObject adminCms;
         try {
             adminCms = initCmsObject(null, null, getDefaultUsers().getUserAdmin(), (String)null, (String)null);
         } catch (CmsException e) {
@@ -1380,72 +1395,20 @@ public final class OpenCmsCore {
         }
 
         m_repositoryManager.initializeCms(adminCms);
-        // now initialize the other managers
+        m_localeManager = systemConfiguration.getLocaleManager();
+        m_publishManager.setPublishEngine(m_publishEngine);
+        m_publishManager.setSecurityManager(m_securityManager);
+        m_publishManager.setPublishListRemoveMode(systemConfiguration.getPublishListRemoveMode());
+        m_subscriptionManager.setSecurityManager(m_securityManager);
+
+        // now initialize the other managers, independent managers are initialized concurrently
+        m_startupTasks = new CmsStartupTaskRunner(
+            configuration.getInteger("startup.threads", Math.max(2, Runtime.getRuntime().availableProcessors())));
+        addStartupTasks(adminCms, systemConfiguration, sessionStorageProvider);
         try {
-            // initialize the scheduler
-            m_scheduleManager.initialize(initCmsObject(adminCms));
-
-            // initialize the locale manager
-            m_localeManager = systemConfiguration.getLocaleManager();
-            m_localeManager.initialize(initCmsObject(adminCms));
-
-            // initialize the site manager
-            m_siteManager.initialize(initCmsObject(adminCms));
-
-            // initialize the static export manager
-            m_staticExportManager.initialize(initCmsObject(adminCms));
-
-            // initialize the XML content type manager
-            m_xmlContentTypeManager.initialize(initCmsObject(adminCms));
-
-            m_orgUnitManager.initialize(initCmsObject(adminCms));
-
-            // initialize the module manager
-            m_moduleManager.initialize(initCmsObject(adminCms), m_configurationManager);
-
-            // initialize the resource manager
-            m_resourceManager.initialize(initCmsObject(adminCms));
-
-            // initialize the publish manager
-            m_publishManager.setPublishEngine(m_publishEngine);
-            m_publishManager.setSecurityManager(m_securityManager);
-            m_publishManager.setPublishListRemoveMode(systemConfiguration.getPublishListRemoveMode());
-            m_publishManager.initialize(initCmsObject(adminCms));
-
-            // initialize the search manager
-            m_searchManager.initialize(initCmsObject(adminCms));
-
-            // initialize the VFS bundle manager
-            m_vfsBundleManager = new CmsVfsBundleManager(adminCms);
-
-            // initialize the workplace manager
-            m_workplaceManager.initialize(initCmsObject(adminCms));
-
-            // initialize the session manager
-            m_sessionManager.initialize(sessionStorageProvider);
-            m_sessionManager.setUserSessionMode(systemConfiguration.getUserSessionMode(true));
-
-            // initialize the subscription manager
-            m_subscriptionManager.setSecurityManager(m_securityManager);
-            m_subscriptionManager.initialize(adminCms);
-
-            // initialize ade manager
-            // initialize the formatter configuration
-            CmsFormatterConfiguration.initialize(adminCms);
-            CmsPersistentLoginTokenHandler.setAdminCms(initCmsObject(adminCms));
-            CmsLoginUI.setAdminCmsObject(initCmsObject(adminCms));
-            //m_adeManager = new CmsADEManager(initCmsObject(adminCms), m_memoryMonitor, systemConfiguration);
-            m_adeManager = new CmsADEManager(initCmsObject(adminCms), m_memoryMonitor, systemConfiguration);
-            m_workplaceAppManager = new CmsWorkplaceAppManager(initCmsObject(adminCms));
-            m_workplaceAppManager.loadApps();
-            m_templateContextManager = new CmsTemplateContextManager(initCmsObject(adminCms));
-            m_workflowManager = systemConfiguration.getWorkflowManager();
-            if (m_workflowManager == null) {
-                m_workflowManager = new CmsDefaultWorkflowManager();
-                m_workflowManager.setParameters(new HashMap<String, String>());
-            }
-            m_workflowManager.initialize(initCmsObject(adminCms));
-        } catch (CmsException e) {
+            m_startupTasks.runCriticalTasks();
+        } catch (Exception e) {
+            m_startupTasks.shutDown();
             throw new CmsInitException(Messages.get().container(Messages.ERR_CRITICAL_INIT_MANAGERS_0), e);
         }
 
@@ -1817,6 +1780,10 @@ public final class OpenCmsCore {
                     LOG.debug(Messages.get().getBundle().key(Messages.LOG_SHUTDOWN_TRACE_0), new Exception());
                 }
 
+                if (m_startupTasks != null) {
+                    // stop managers still initializing in the background
+                    m_startupTasks.shutDown();
+                }
                 try {
                     // the first thing we have to do is to wait until the current publish process finishes
                     if (null != m_publishEngine) {
@@ -2036,6 +2003,8 @@ public final class OpenCmsCore {
             setRunLevel(OpenCms.RUNLEVEL_3_SHELL_ACCESS);
 
             afterUpgradeRunlevel();
+            // the shell has no requests to serve in the meantime, so wait for the deferred managers
+            m_startupTasks.waitForDeferredTasks();
 
             return m_instance;
         }
@@ -2076,6 +2045,8 @@ public final class OpenCmsCore {
             setRunLevel(OpenCms.RUNLEVEL_4_SERVLET_ACCESS);
 
             afterUpgradeRunlevel();
+            // initialize the managers not required for serving requests in the background
+            m_startupTasks.startDeferredTasks();
 
             return m_instance;
         }
@@ -2116,6 +2087,170 @@ public final class OpenCmsCore {
         m_exportPoints = Collections.unmodifiableSet(newSet);
     }
 
+    /**
+     * Adds the initialization of the core managers as tasks to the startup task runner.<p>
+     *
+     * The dependencies between the tasks reflect the order in which the managers access each other during
+     * their initialization. Module action classes may access any manager, so the module manager
+     * depends on all managers initialized before it.<p>
+     *
+     * @param adminCms an Admin cms context object
+     * @param systemConfiguration the system configuration
+     * @param sessionStorageProvider the session storage provider
+     */
+    private void addStartupTasks(
+        final CmsObject adminCms,
+        final CmsSystemConfiguration systemConfiguration,
+        final I_CmsSessionStorageProvider sessionStorageProvider) {
+
+        m_startupTasks.addTask("scheduler", false, new I_CmsStartupTask() {
+
+            public void run() throws Exception {
+
+                m_scheduleManager.initialize(initCmsObject(adminCms));
+            }
+        });
+        m_startupTasks.addTask("locales", false, new I_CmsStartupTask() {
+
+            public void run() throws Exception {
+
+                m_localeManager.initialize(initCmsObject(adminCms));
+            }
+        });
+        m_startupTasks.addTask("orgUnits", false, new I_CmsStartupTask() {
+
+            public void run() throws Exception {
+
+                m_orgUnitManager.initialize(initCmsObject(adminCms));
+            }
+        });
+        m_startupTasks.addTask("sites", false, new I_CmsStartupTask() {
+
+            public void run() throws Exception {
+
+                m_siteManager.initialize(initCmsObject(adminCms));
+            }
+        }, "locales");
+        m_startupTasks.addTask("xmlContentTypes", false, new I_CmsStartupTask() {
+
+            public void run() throws Exception {
+
+                m_xmlContentTypeManager.initialize(initCmsObject(adminCms));
+            }
+        }, "locales");
+        m_startupTasks.addTask("staticExport", false, new I_CmsStartupTask() {
+
+            public void run() throws Exception {
+
+                m_staticExportManager.initialize(initCmsObject(adminCms));
+            }
+        }, "sites");
+        m_startupTasks.addTask("modules", false, new I_CmsStartupTask() {
+
+            public void run() throws Exception {
+
+                m_moduleManager.initialize(initCmsObject(adminCms), m_configurationManager);
+            }
+        }, "scheduler", "orgUnits", "xmlContentTypes", "staticExport");
+        m_startupTasks.addTask("resources", false, new I_CmsStartupTask() {
+
+            public void run() throws Exception {
+
+                m_resourceManager.initialize(initCmsObject(adminCms));
+            }
+        }, "modules");
+        m_startupTasks.addTask("publish", false, new I_CmsStartupTask() {
+
+            public void run() throws Exception {
+
+                m_publishManager.initialize(initCmsObject(adminCms));
+            }
+        }, "resources");
+        m_startupTasks.addTask("vfsBundles", false, new I_CmsStartupTask() {
+
+            public void run() throws Exception {
+
+                m_vfsBundleManager = new CmsVfsBundleManager(initCmsObject(adminCms));
+            }
+        }, "resources");
+        m_startupTasks.addTask("workplace", false, new I_CmsStartupTask() {
+
+            public void run() throws Exception {
+
+                m_workplaceManager.initialize(initCmsObject(adminCms));
+            }
+        }, "resources");
+        m_startupTasks.addTask("sessions", false, new I_CmsStartupTask() {
+
+            public void run() throws Exception {
+
+                m_sessionManager.initialize(sessionStorageProvider);
+                m_sessionManager.setUserSessionMode(systemConfiguration.getUserSessionMode(true));
+            }
+        });
+        m_startupTasks.addTask("subscriptions", false, new I_CmsStartupTask() {
+
+            public void run() throws Exception {
+
+                m_subscriptionManager.initialize(initCmsObject(adminCms));
+            }
+        });
+        m_startupTasks.addTask("ade", false, new I_CmsStartupTask() {
+
+            public void run() throws Exception {
+
+                // initialize the formatter configuration
+                CmsFormatterConfiguration.initialize(initCmsObject(adminCms));
+                CmsPersistentLoginTokenHandler.setAdminCms(initCmsObject(adminCms));
+                CmsLoginUI.setAdminCmsObject(initCmsObject(adminCms));
+                m_adeManager = new CmsADEManager(initCmsObject(adminCms), m_memoryMonitor, systemConfiguration);
+            }
+        }, "workplace");
+        m_startupTasks.addTask("workflow", false, new I_CmsStartupTask() {
+
+            public void run() throws Exception {
+
+                m_workflowManager = systemConfiguration.getWorkflowManager();
+                if (m_workflowManager == null) {
+                    m_workflowManager = new CmsDefaultWorkflowManager();
+                    m_workflowManager.setParameters(new HashMap<String, String>());
+                }
+                m_workflowManager.initialize(initCmsObject(adminCms));
+            }
+        }, "publish", "ade");
+
+        // the following managers are not required to serve requests, so they are initialized in the background
+        m_startupTasks.addTask(STARTUP_TASK_SEARCH, true, new I_CmsStartupTask() {
+
+            public void run() throws Exception {
+
+                try {
+                    m_searchManager.initialize(initCmsObject(adminCms));
+                } finally {
+                    // publish jobs must not be finished before the search manager listens for publish events,
+                    // but a failed search manager must not stop publishing
+                    m_publishManager.startPublishing();
+                }
+            }
+        }, "publish", "workplace");
+        m_startupTasks.addTask(STARTUP_TASK_WORKPLACE_APPS, true, new I_CmsStartupTask() {
+
+            public void run() throws Exception {
+
+                CmsWorkplaceAppManager workplaceAppManager = new CmsWorkplaceAppManager(initCmsObject(adminCms));
+                workplaceAppManager.loadApps();
+                m_workplaceAppManager = workplaceAppManager;
+            }
+        }, "ade");
+        m_startupTasks.addTask(STARTUP_TASK_TEMPLATE_CONTEXTS, true, new I_CmsStartupTask() {
+
+            public void run() throws Exception {
+
+                m_templateContextManager = new CmsTemplateContextManager(initCmsObject(adminCms));
+            }
+        }, "ade");
+    }
+
     /**
      * Finishes the startup sequence after last runlevel upgrade.<p>
      */
@@ -2131,9 +2266,6 @@ public final class OpenCmsCore {
                     e);
             }
         }
-
-        // everything is initialized, now start publishing
-        m_publishManager.startPublishing();
     }
 
     /**
@@ -2812,4 +2944,17 @@ public final class OpenCmsCore {
         }
     }
 
+    /**
+     * Waits until the startup task with the given name is finished, if the managers are initialized in the background.<p>
+     *
+     * @param name the name of the startup task
+     */
+    private void waitForStartupTask(String name) {
+
+        CmsStartupTaskRunner startupTasks = m_startupTasks;
+        if (startupTasks != null) {
+            startupTasks.waitForTask(name);
+        }
+    }
+
 }
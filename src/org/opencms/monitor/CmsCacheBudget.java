@@ -0,0 +1,248 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.monitor;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Distributes a global budget of cache entries between the monitored caches, based on their observed usage.<p>
+ *
+ * On every call of {@link #rebalance(Collection)}, the misses and evictions since the last call are
+ * used to estimate how many additional hits a cache would get with a larger capacity: a miss which follows
+ * an eviction is a lookup which might have been a hit. Caches which do not use their capacity are shrunk,
+ * unless they were flushed since the last call, e.g. by publishing, since their size then says nothing
+ * about the capacity they need. Free entries are given to the caches with the highest estimated gain,
+ * and if the budget is used up, entries are moved from the cache with the lowest to the cache with the highest gain per entry.<p>
+ *
+ * Capacities are only changed if they differ by more than 10 percent from the current capacity,
+ * since changing the capacity of a cache copies the entries held in memory.<p>
+ *
+ * @since 10.0.0
+ */
+public class CmsCacheBudget {
+
+    /** The smallest capacity a cache is shrunk to. */
+    public static final int MIN_CAPACITY = 16;
+
+    /** The part of the budget moved between two caches in one step. */
+    private static final int STEP_DIVISOR = 20;
+
+    /** The total number of entries for all caches. */
+    private int m_budget;
+
+    /** The eviction counts of the caches at the last rebalancing. */
+    private Map<String, Long> m_lastEvictions = new HashMap<String, Long>();
+
+    /** The flush counts of the caches at the last rebalancing. */
+    private Map<String, Long> m_lastFlushes = new HashMap<String, Long>();
+
+    /** The miss counts of the caches at the last rebalancing. */
+    private Map<String, Long> m_lastMisses = new HashMap<String, Long>();
+
+    /** The minimum capacities of the caches. */
+    private Map<String, Integer> m_minCapacities = new HashMap<String, Integer>();
+
+    /** The names of the caches resized at the last rebalancing. */
+    private Set<String> m_resized = new HashSet<String>();
+
+    /**
+     * Creates a new cache budget.<p>
+     *
+     * @param budget the total number of entries for all caches
+     */
+    public CmsCacheBudget(int budget) {
+
+        m_budget = budget;
+    }
+
+    /**
+     * Fits the configured capacities of the given caches into the budget.<p>
+     *
+     * If the configured capacities exceed the budget, they are scaled down proportionally.
+     * The configured capacities are also used to determine the minimum capacity of each cache.<p>
+     *
+     * @param caches the caches
+     */
+    public synchronized void distribute(Collection<CmsMonitoredCacheMap<?>> caches) {
+
+        long total = 0;
+        for (CmsMonitoredCacheMap<?> cache : caches) {
+            total += cache.getCapacity();
+            m_minCapacities.put(cache.getName(), Integer.valueOf(Math.max(MIN_CAPACITY, cache.getCapacity() / 4)));
+        }
+        if (total > m_budget) {
+            for (CmsMonitoredCacheMap<?> cache : caches) {
+                int capacity = (int)((cache.getCapacity() * (long)m_budget) / total);
+                cache.setCapacity(Math.max(getMinCapacity(cache), capacity));
+            }
+        }
+    }
+
+    /**
+     * Returns the total number of entries for all caches.<p>
+     *
+     * @return the total number of entries for all caches
+     */
+    public int getBudget() {
+
+        return m_budget;
+    }
+
+    /**
+     * Changes the capacities of the given caches according to their usage since the last call.<p>
+     *
+     * @param caches the caches
+     */
+    public synchronized void rebalance(Collection<CmsMonitoredCacheMap<?>> caches) {
+
+        // the caches are maps with value based equality, so they must be compared by identity
+        Map<CmsMonitoredCacheMap<?>, Integer> targets = new IdentityHashMap<CmsMonitoredCacheMap<?>, Integer>();
+        Map<CmsMonitoredCacheMap<?>, Long> gains = new IdentityHashMap<CmsMonitoredCacheMap<?>, Long>();
+        long free = m_budget;
+        long totalGain = 0;
+        for (CmsMonitoredCacheMap<?> cache : caches) {
+            String name = cache.getName();
+            long misses = delta(m_lastMisses, name, cache.getMissCount());
+            long evictions = delta(m_lastEvictions, name, cache.getEvictionCount());
+            long flushes = delta(m_lastFlushes, name, cache.getFlushCount());
+            int capacity = cache.getCapacity();
+            int target = capacity;
+            if ((evictions == 0)
+                && (flushes == 0)
+                && (cache.getSize() < (capacity / 2))
+                && !m_resized.contains(name)) {
+                // the cache does not need its capacity
+                target = Math.max(getMinCapacity(cache), Math.max(cache.getSize() * 2, (capacity * 3) / 4));
+            }
+            long gain = Math.min(misses, evictions);
+            targets.put(cache, Integer.valueOf(target));
+            gains.put(cache, Long.valueOf(gain));
+            free -= target;
+            totalGain += gain;
+        }
+        if (totalGain > 0) {
+            if (free > 0) {
+                // distribute the free entries according to the gain
+                for (CmsMonitoredCacheMap<?> cache : caches) {
+                    long gain = gains.get(cache).longValue();
+                    if (gain > 0) {
+                        int extra = (int)((free * gain) / totalGain);
+                        targets.put(cache, Integer.valueOf(targets.get(cache).intValue() + extra));
+                    }
+                }
+            } else {
+                moveStep(caches, targets, gains);
+            }
+        }
+        m_resized.clear();
+        for (CmsMonitoredCacheMap<?> cache : caches) {
+            int target = targets.get(cache).intValue();
+            if (Math.abs(target - cache.getCapacity()) > (cache.getCapacity() / 10)) {
+                cache.setCapacity(target);
+                m_resized.add(cache.getName());
+            }
+        }
+    }
+
+    /**
+     * Returns the difference between the given counter value and the value stored at the last call.<p>
+     *
+     * @param last the counter values of the last call
+     * @param name the cache name
+     * @param value the current counter value
+     *
+     * @return the difference to the last value
+     */
+    private long delta(Map<String, Long> last, String name, long value) {
+
+        Long previous = last.put(name, Long.valueOf(value));
+        if ((previous == null) || (previous.longValue() > value)) {
+            // first call, or the statistics were reset
+            return 0;
+        }
+        return value - previous.longValue();
+    }
+
+    /**
+     * Returns the minimum capacity of a cache.<p>
+     *
+     * @param cache the cache
+     *
+     * @return the minimum capacity
+     */
+    private int getMinCapacity(CmsMonitoredCacheMap<?> cache) {
+
+        Integer min = m_minCapacities.get(cache.getName());
+        return min != null ? min.intValue() : MIN_CAPACITY;
+    }
+
+    /**
+     * Moves a part of the budget from the cache with the lowest to the cache with the highest gain per entry.<p>
+     *
+     * @param caches the caches
+     * @param targets the target capacities
+     * @param gains the estimated gains
+     */
+    private void moveStep(
+        Collection<CmsMonitoredCacheMap<?>> caches,
+        Map<CmsMonitoredCacheMap<?>, Integer> targets,
+        Map<CmsMonitoredCacheMap<?>, Long> gains) {
+
+        CmsMonitoredCacheMap<?> donor = null;
+        CmsMonitoredCacheMap<?> receiver = null;
+        double donorRatio = Double.MAX_VALUE;
+        double receiverRatio = 0;
+        for (CmsMonitoredCacheMap<?> cache : caches) {
+            int target = targets.get(cache).intValue();
+            double ratio = gains.get(cache).doubleValue() / Math.max(1, target);
+            if ((target > getMinCapacity(cache)) && (ratio < donorRatio)) {
+                donor = cache;
+                donorRatio = ratio;
+            }
+            if (ratio > receiverRatio) {
+                receiver = cache;
+                receiverRatio = ratio;
+            }
+        }
+        // only move entries if the difference is significant, to avoid oscillation
+        if ((donor == null) || (receiver == null) || (donor == receiver) || (receiverRatio <= (2 * donorRatio))) {
+            return;
+        }
+        int donorTarget = targets.get(donor).intValue();
+        int step = Math.min(m_budget / STEP_DIVISOR, donorTarget - getMinCapacity(donor));
+        if (step > 0) {
+            targets.put(donor, Integer.valueOf(donorTarget - step));
+            targets.put(receiver, Integer.valueOf(targets.get(receiver).intValue() + step));
+        }
+    }
+}
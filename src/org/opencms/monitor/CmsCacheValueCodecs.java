@@ -0,0 +1,285 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.monitor;
+
+import org.opencms.db.CmsResourceState;
+import org.opencms.file.CmsFile;
+import org.opencms.file.CmsFolder;
+import org.opencms.file.CmsProperty;
+import org.opencms.file.CmsResource;
+import org.opencms.util.CmsUUID;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Codecs for the values of the memory monitor caches which can have a second level.<p>
+ *
+ * @since 10.0.0
+ */
+public final class CmsCacheValueCodecs {
+
+    /**
+     * Codec for lists of values.<p>
+     *
+     * @param <V> the element type
+     */
+    private static class ListCodec<V> implements I_CmsCacheValueCodec<List<V>> {
+
+        /** The codec for the elements. */
+        private I_CmsCacheValueCodec<V> m_elementCodec;
+
+        /**
+         * Creates a new list codec.<p>
+         *
+         * @param elementCodec the codec for the elements
+         */
+        ListCodec(I_CmsCacheValueCodec<V> elementCodec) {
+
+            m_elementCodec = elementCodec;
+        }
+
+        /**
+         * @see org.opencms.monitor.I_CmsCacheValueCodec#canEncode(java.lang.Object)
+         */
+        public boolean canEncode(List<V> value) {
+
+            for (V element : value) {
+                if (!m_elementCodec.canEncode(element)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * @see org.opencms.monitor.I_CmsCacheValueCodec#read(java.io.DataInput)
+         */
+        public List<V> read(DataInput in) throws IOException {
+
+            int size = in.readInt();
+            List<V> result = new ArrayList<V>(size);
+            for (int i = 0; i < size; i++) {
+                result.add(m_elementCodec.read(in));
+            }
+            return result;
+        }
+
+        /**
+         * @see org.opencms.monitor.I_CmsCacheValueCodec#write(java.io.DataOutput, java.lang.Object)
+         */
+        public void write(DataOutput out, List<V> value) throws IOException {
+
+            out.writeInt(value.size());
+            for (V element : value) {
+                m_elementCodec.write(out, element);
+            }
+        }
+    }
+
+    /** Codec for properties. */
+    public static final I_CmsCacheValueCodec<CmsProperty> PROPERTY = new I_CmsCacheValueCodec<CmsProperty>() {
+
+        public boolean canEncode(CmsProperty value) {
+
+            return true;
+        }
+
+        public CmsProperty read(DataInput in) throws IOException {
+
+            CmsProperty property = new CmsProperty();
+            property.setName(readString(in));
+            property.setStructureValue(readString(in));
+            property.setResourceValue(readString(in));
+            property.setOrigin(readString(in));
+            property.setAutoCreatePropertyDefinition(in.readBoolean());
+            property.setFrozen(in.readBoolean());
+            return property;
+        }
+
+        public void write(DataOutput out, CmsProperty value) throws IOException {
+
+            writeString(out, value.getName());
+            writeString(out, value.getStructureValue());
+            writeString(out, value.getResourceValue());
+            writeString(out, value.getOrigin());
+            out.writeBoolean(value.autoCreatePropertyDefinition());
+            out.writeBoolean(value.isFrozen());
+        }
+    };
+
+    /** Codec for property lists. */
+    public static final I_CmsCacheValueCodec<List<CmsProperty>> PROPERTY_LIST = new ListCodec<CmsProperty>(PROPERTY);
+
+    /** Codec for resources, files with content are not supported. */
+    public static final I_CmsCacheValueCodec<CmsResource> RESOURCE = new I_CmsCacheValueCodec<CmsResource>() {
+
+        public boolean canEncode(CmsResource value) {
+
+            // files carry their content, which is not worth keeping in the second level
+            return !(value instanceof CmsFile) && !value.isTouched();
+        }
+
+        public CmsResource read(DataInput in) throws IOException {
+
+            boolean isFolderInstance = in.readBoolean();
+            CmsResource resource = new CmsResource(
+                readUUID(in),
+                readUUID(in),
+                readString(in),
+                in.readInt(),
+                in.readBoolean(),
+                in.readInt(),
+                readUUID(in),
+                CmsResourceState.valueOf(in.readInt()),
+                in.readLong(),
+                readUUID(in),
+                in.readLong(),
+                readUUID(in),
+                in.readLong(),
+                in.readLong(),
+                in.readInt(),
+                in.readInt(),
+                in.readLong(),
+                in.readInt());
+            return isFolderInstance ? new CmsFolder(resource) : resource;
+        }
+
+        public void write(DataOutput out, CmsResource value) throws IOException {
+
+            out.writeBoolean(value instanceof CmsFolder);
+            writeUUID(out, value.getStructureId());
+            writeUUID(out, value.getResourceId());
+            writeString(out, value.getRootPath());
+            out.writeInt(value.getTypeId());
+            out.writeBoolean(value.isFolder());
+            out.writeInt(value.getFlags());
+            writeUUID(out, value.getProjectLastModified());
+            out.writeInt(value.getState().getState());
+            out.writeLong(value.getDateCreated());
+            writeUUID(out, value.getUserCreated());
+            out.writeLong(value.getDateLastModified());
+            writeUUID(out, value.getUserLastModified());
+            out.writeLong(value.getDateReleased());
+            out.writeLong(value.getDateExpired());
+            out.writeInt(value.getSiblingCount());
+            out.writeInt(value.getLength());
+            out.writeLong(value.getDateContent());
+            out.writeInt(value.getVersion());
+        }
+    };
+
+    /** Codec for resource lists. */
+    public static final I_CmsCacheValueCodec<List<CmsResource>> RESOURCE_LIST = new ListCodec<CmsResource>(RESOURCE);
+
+    /**
+     * Hidden constructor.<p>
+     */
+    private CmsCacheValueCodecs() {
+
+        // only static members
+    }
+
+    /**
+     * Reads a string written by {@link #writeString(DataOutput, String)}.<p>
+     *
+     * @param in the input
+     *
+     * @return the string, may be <code>null</code>
+     *
+     * @throws IOException if reading fails
+     */
+    static String readString(DataInput in) throws IOException {
+
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, "UTF-8");
+    }
+
+    /**
+     * Reads a UUID written by {@link #writeUUID(DataOutput, CmsUUID)}.<p>
+     *
+     * @param in the input
+     *
+     * @return the UUID, may be <code>null</code>
+     *
+     * @throws IOException if reading fails
+     */
+    static CmsUUID readUUID(DataInput in) throws IOException {
+
+        if (!in.readBoolean()) {
+            return null;
+        }
+        byte[] bytes = new byte[16];
+        in.readFully(bytes);
+        return new CmsUUID(bytes);
+    }
+
+    /**
+     * Writes a string which may be <code>null</code> or longer than supported
+     * by {@link DataOutput#writeUTF(String)}.<p>
+     *
+     * @param out the output
+     * @param value the string to write
+     *
+     * @throws IOException if writing fails
+     */
+    static void writeString(DataOutput out, String value) throws IOException {
+
+        if (value == null) {
+            out.writeInt(-1);
+        } else {
+            byte[] bytes = value.getBytes("UTF-8");
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Writes a UUID as 16 bytes.<p>
+     *
+     * @param out the output
+     * @param value the UUID to write, may be <code>null</code>
+     *
+     * @throws IOException if writing fails
+     */
+    static void writeUUID(DataOutput out, CmsUUID value) throws IOException {
+
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.write(value.toByteArray());
+        }
+    }
+}
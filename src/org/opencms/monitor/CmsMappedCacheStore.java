@@ -0,0 +1,312 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.monitor;
+
+import org.opencms.main.CmsLog;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.apache.commons.logging.Log;
+
+/**
+ * Disk backed store for cache entries, used as second level of a {@link CmsTieredCacheMap}.<p>
+ *
+ * The entries are appended to a fixed number of memory mapped segment files, which are used as a ring.
+ * When the current segment is full, the oldest segment is reused and all entries stored in it
+ * are dropped from the index. This way the disk space used by a store is bounded
+ * and no compaction is required.<p>
+ *
+ * The index is a concurrent map, so lookups of missing keys and removals do not lock. Reading an entry
+ * takes a shared lock, appending entries and reusing segments take an exclusive lock.
+ * The store is reset every time it is created.<p>
+ *
+ * @param <V> the type of the stored values
+ *
+ * @since 10.0.0
+ */
+public class CmsMappedCacheStore<V> {
+
+    /**
+     * Location of an entry in the segments.<p>
+     */
+    private static class Location {
+
+        /** The length of the entry. */
+        int m_length;
+
+        /** The offset of the entry in the segment. */
+        int m_offset;
+
+        /** The segment index. */
+        int m_segment;
+
+        /**
+         * Creates a new location.<p>
+         *
+         * @param segment the segment index
+         * @param offset the offset in the segment
+         * @param length the length of the entry
+         */
+        Location(int segment, int offset, int length) {
+
+            m_segment = segment;
+            m_offset = offset;
+            m_length = length;
+        }
+    }
+
+    /** The number of segments of a store. */
+    public static final int SEGMENT_COUNT = 4;
+
+    /** The log object for this class. */
+    private static final Log LOG = CmsLog.getLog(CmsMappedCacheStore.class);
+
+    /** The codec for the values. */
+    private I_CmsCacheValueCodec<V> m_codec;
+
+    /** The index of the segment entries are currently appended to. */
+    private int m_currentSegment;
+
+    /** The segment files. */
+    private File[] m_files;
+
+    /** The locations of the stored entries. */
+    private Map<String, Location> m_index;
+
+    /** The lock protecting the segment contents. */
+    private ReadWriteLock m_lock;
+
+    /** The write position in the current segment. */
+    private int m_position;
+
+    /** The size of a single segment in bytes. */
+    private int m_segmentSize;
+
+    /** The mapped segments, <code>null</code> if the store is closed. */
+    private MappedByteBuffer[] m_segments;
+
+    /**
+     * Creates a new store.<p>
+     *
+     * @param folder the folder for the segment files
+     * @param name the name of the store, used as prefix for the segment files
+     * @param maxSize the maximum disk space used by the store in bytes
+     * @param codec the codec for the values
+     *
+     * @throws IOException if the segment files could not be created
+     */
+    public CmsMappedCacheStore(File folder, String name, long maxSize, I_CmsCacheValueCodec<V> codec)
+    throws IOException {
+
+        m_codec = codec;
+        m_index = new ConcurrentHashMap<String, Location>(64, 0.75f, CmsMemoryMonitor.CONCURRENCY_LEVEL);
+        m_lock = new ReentrantReadWriteLock();
+        m_segmentSize = (int)Math.min(Integer.MAX_VALUE, Math.max(1024, maxSize / SEGMENT_COUNT));
+        m_segments = new MappedByteBuffer[SEGMENT_COUNT];
+        m_files = new File[SEGMENT_COUNT];
+        if (!folder.exists() && !folder.mkdirs()) {
+            throw new IOException(folder.getAbsolutePath());
+        }
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            m_files[i] = new File(folder, name + "." + i + ".seg");
+            RandomAccessFile file = new RandomAccessFile(m_files[i], "rw");
+            try {
+                // entries of a previous run are not valid anymore, so the file is simply overwritten
+                file.setLength(m_segmentSize);
+                m_segments[i] = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, m_segmentSize);
+            } finally {
+                file.close();
+            }
+        }
+    }
+
+    /**
+     * Removes all entries from the store.<p>
+     */
+    public void clear() {
+
+        m_lock.writeLock().lock();
+        try {
+            m_index.clear();
+            m_currentSegment = 0;
+            m_position = 0;
+        } finally {
+            m_lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Closes the store and deletes the segment files.<p>
+     */
+    public void close() {
+
+        m_lock.writeLock().lock();
+        try {
+            m_index.clear();
+            m_segments = null;
+        } finally {
+            m_lock.writeLock().unlock();
+        }
+        for (File file : m_files) {
+            if (!file.delete()) {
+                // the mapping may still be alive on some platforms
+                file.deleteOnExit();
+            }
+        }
+    }
+
+    /**
+     * Returns the value stored for the given key.<p>
+     *
+     * @param key the key
+     *
+     * @return the value, or <code>null</code> if no value is stored for the key
+     */
+    public V get(String key) {
+
+        Location location = m_index.get(key);
+        if (location == null) {
+            return null;
+        }
+        byte[] data;
+        m_lock.readLock().lock();
+        try {
+            // the segment may have been reused while waiting for the lock, which drops the location from the index
+            if ((m_segments == null) || (m_index.get(key) != location)) {
+                return null;
+            }
+            ByteBuffer buffer = m_segments[location.m_segment].duplicate();
+            buffer.position(location.m_offset);
+            data = new byte[location.m_length];
+            buffer.get(data);
+        } finally {
+            m_lock.readLock().unlock();
+        }
+        try {
+            return m_codec.read(new DataInputStream(new ByteArrayInputStream(data)));
+        } catch (IOException e) {
+            LOG.warn(e.getLocalizedMessage(), e);
+            m_index.remove(key, location);
+            return null;
+        }
+    }
+
+    /**
+     * Stores a value.<p>
+     *
+     * Values which can not be encoded or which are larger than a segment are ignored.<p>
+     *
+     * @param key the key
+     * @param value the value
+     */
+    public void put(String key, V value) {
+
+        if (!m_codec.canEncode(value)) {
+            return;
+        }
+        // encode outside of the lock
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try {
+            m_codec.write(new DataOutputStream(bytes), value);
+        } catch (IOException e) {
+            LOG.warn(e.getLocalizedMessage(), e);
+            return;
+        }
+        byte[] data = bytes.toByteArray();
+        if (data.length > m_segmentSize) {
+            return;
+        }
+        m_lock.writeLock().lock();
+        try {
+            if (m_segments == null) {
+                return;
+            }
+            if ((m_position + data.length) > m_segmentSize) {
+                nextSegment();
+            }
+            ByteBuffer buffer = m_segments[m_currentSegment].duplicate();
+            buffer.position(m_position);
+            buffer.put(data);
+            m_index.put(key, new Location(m_currentSegment, m_position, data.length));
+            m_position += data.length;
+        } finally {
+            m_lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the value stored for the given key.<p>
+     *
+     * @param key the key
+     */
+    public void remove(String key) {
+
+        m_index.remove(key);
+    }
+
+    /**
+     * Returns the number of entries in the store.<p>
+     *
+     * @return the number of entries in the store
+     */
+    public int size() {
+
+        return m_index.size();
+    }
+
+    /**
+     * Switches to the next segment, dropping all entries stored in it.<p>
+     *
+     * Must be called while holding the write lock.<p>
+     */
+    private void nextSegment() {
+
+        m_currentSegment = (m_currentSegment + 1) % SEGMENT_COUNT;
+        m_position = 0;
+        Iterator<Location> it = m_index.values().iterator();
+        while (it.hasNext()) {
+            if (it.next().m_segment == m_currentSegment) {
+                it.remove();
+            }
+        }
+    }
+}
@@ -29,6 +29,8 @@ package org.opencms.monitor;
 
 import org.opencms.cache.CmsLruCache;
 import org.opencms.cache.CmsMemoryObjectCache;
+import org.opencms.cache.CmsQueryResultCache;
+import org.opencms.cache.CmsQueryResultCacheEntry;
 import org.opencms.cache.CmsVfsMemoryObjectCache;
 import org.opencms.configuration.CmsSystemConfiguration;
 import org.opencms.db.CmsCacheSettings;
@@ -70,11 +72,16 @@ import org.opencms.util.PrintfFormat;
 import org.opencms.xml.CmsXmlContentDefinition;
 import org.opencms.xml.CmsXmlEntityResolver;
 
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.ConcurrentModificationException;
 import java.util.Date;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.Hashtable;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
@@ -82,6 +89,11 @@ import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 import javax.mail.internet.InternetAddress;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
 
 import org.apache.commons.collections.Buffer;
 import org.apache.commons.collections.buffer.SynchronizedBuffer;
@@ -133,6 +145,8 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
         PUBLISH_QUEUE,
         /** Published resources cache. */
         PUBLISHED_RESOURCES,
+        /** Collector and search result cache. */
+        QUERY_RESULT,
         /** Resource cache. */
         RESOURCE,
         /** Resource List cache. */
@@ -154,7 +168,10 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
     }
 
     /** The concurrency level for the guava caches. */
-    private static final int CONCURRENCY_LEVEL = 8;
+    static final int CONCURRENCY_LEVEL = 8;
+
+    /** The folder for the disk backed second level of the caches, relative to WEB-INF. */
+    private static final String DISK_CACHE_FOLDER = "cache/monitor";
 
     /** Set interval for clearing the caches to 10 minutes. */
     private static final int INTERVAL_CLEAR = 1000 * 60 * 10;
@@ -162,6 +179,12 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
     /** The log object for this class. */
     private static final Log LOG = CmsLog.getLog(CmsMemoryMonitor.class);
 
+    /** Interval for changing the cache sizes according to the cache budget, 10 minutes. */
+    private static final int INTERVAL_REBALANCE = 1000 * 60 * 10;
+
+    /** The JMX domain for the cache statistics. */
+    private static final String JMX_DOMAIN = "org.opencms";
+
     /** Flag indicating if monitor is currently running. */
     private static boolean m_currentlyRunning;
 
@@ -192,6 +215,9 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
     /** Cache for organizational units. */
     private Map<String, CmsOrganizationalUnit> m_cacheOrgUnit;
 
+    /** The budget for the adaptive cache sizes, <code>null</code> if the cache sizes are fixed. */
+    private CmsCacheBudget m_cacheBudget;
+
     /** Cache for permission checks. */
     private Map<String, I_CmsPermissionHandler.CmsPermissionCheckResult> m_cachePermission;
 
@@ -210,6 +236,9 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
     /** Cache for published resources. */
     private Map<String, List<CmsPublishedResource>> m_cachePublishedResources;
 
+    /** Cache for collector and search results. */
+    private Map<String, CmsQueryResultCacheEntry> m_cacheQueryResult;
+
     /** Cache for resources. */
     private Map<String, CmsResource> m_cacheResource;
 
@@ -219,6 +248,9 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
     /** Cache for role lists. */
     private Map<String, List<CmsRole>> m_cacheRoleLists;
 
+    /** The disk backed second levels of the tiered caches. */
+    private List<CmsMappedCacheStore<?>> m_cacheStores = new ArrayList<CmsMappedCacheStore<?>>();
+
     /** Cache for user data. */
     private Map<String, CmsUser> m_cacheUser;
 
@@ -267,6 +299,9 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
     /** The time the last warning log was written. */
     private long m_lastLogWarning;
 
+    /** The time of the last change of the cache sizes. */
+    private long m_lastRebalance;
+
     /** The number of times the log entry was written. */
     private int m_logCount;
 
@@ -279,6 +314,10 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
     /** The current memory status. */
     private CmsMemoryStatus m_memoryCurrent;
 
+    /** The caches which record usage statistics. */
+    private Map<CacheType, CmsMonitoredCacheMap<?>> m_monitoredCaches = Collections.synchronizedMap(
+        new EnumMap<CacheType, CmsMonitoredCacheMap<?>>(CacheType.class));
+
     /** Contains the object to be monitored. */
     private Map<String, Object> m_monitoredObjects;
 
@@ -758,6 +797,20 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
         m_publishHistory.add(publishJob);
     }
 
+    /**
+     * Caches the given collector or search result under the given cache key.<p>
+     *
+     * @param key the cache key
+     * @param entry the result to cache
+     */
+    public void cacheQueryResult(String key, CmsQueryResultCacheEntry entry) {
+
+        if (m_disabled.get(CacheType.QUERY_RESULT) != null) {
+            return;
+        }
+        m_cacheQueryResult.put(key, entry);
+    }
+
     /**
      * Caches the given resource under the given cache key.<p>
      *
@@ -908,6 +961,34 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
         clearResourceCache();
     }
 
+    /**
+     * Clears the cached access control lists of a resource and all resources below it,
+     * when the access control entries of this resource are changed.<p>
+     *
+     * The cache keys of access control lists start with the root path of the resource, so
+     * cached access control lists of resources outside of the given subtree remain valid.<p>
+     *
+     * The permission check results and the resource lists must still be flushed completely:
+     * permission check results are keyed by structure id only, so the results for the subtree can not be found,
+     * and resource lists are cached after they have been filtered by permissions, so a list read from
+     * any parent folder may contain resources of the subtree. Both are cheap to recompute as long as the
+     * access control lists are cached. The cached resources and roles do not depend on access control entries
+     * and are kept.<p>
+     *
+     * @param rootPath the root path of the resource whose access control entries have been changed
+     */
+    public void clearAccessControlListCache(String rootPath) {
+
+        Iterator<String> itKeys = m_cacheAccessControlList.keySet().iterator();
+        while (itKeys.hasNext()) {
+            if (itKeys.next().startsWith(rootPath)) {
+                itKeys.remove();
+            }
+        }
+        flushCache(CacheType.PERMISSION);
+        flushCache(CacheType.RESOURCE_LIST);
+    }
+
     /**
      * Clears almost all internal caches.<p>
      */
@@ -1065,6 +1146,9 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
                 case PUBLISH_QUEUE:
                     m_publishQueue.clear();
                     break;
+                case QUERY_RESULT:
+                    m_cacheQueryResult.clear();
+                    break;
                 case RESOURCE:
                     m_cacheResource.clear();
                     break;
@@ -1406,6 +1490,16 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
         return new ArrayList<CmsPublishJobInfoBean>(m_publishHistory);
     }
 
+    /**
+     * Returns the usage statistics of the caches with a configured size.<p>
+     *
+     * @return the usage statistics of the caches
+     */
+    public List<I_CmsCacheStatistics> getCacheStatistics() {
+
+        return new ArrayList<I_CmsCacheStatistics>(m_monitoredCaches.values());
+    }
+
     /**
      * Returns the ACL cached with the given cache key or <code>null</code> if not found.<p>
      *
@@ -1605,6 +1699,28 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
         return null;
     }
 
+    /**
+     * Returns the collector or search result cached with the given cache key or <code>null</code> if not found.<p>
+     *
+     * @param key the cache key to look for
+     *
+     * @return the collector or search result cached with the given cache key
+     */
+    public CmsQueryResultCacheEntry getCachedQueryResult(String key) {
+
+        return m_cacheQueryResult.get(key);
+    }
+
+    /**
+     * Returns the keys of all cached collector and search results.<p>
+     *
+     * @return the keys of all cached collector and search results
+     */
+    public List<String> getCachedQueryResultKeys() {
+
+        return new ArrayList<String>(m_cacheQueryResult.keySet());
+    }
+
     /**
      * Returns the resource cached with the given cache key or <code>null</code> if not found.<p>
      *
@@ -1835,6 +1951,20 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
             }
         }
 
+        // folder for the optional disk backed second level of the resource and property caches
+        File diskCacheFolder = null;
+        long diskCacheSize = cacheSettings.getDiskCacheSize() * 1024L * 1024L;
+        if (diskCacheSize > 0) {
+            diskCacheFolder = new File(OpenCms.getSystemInfo().getAbsoluteRfsPathRelativeToWebInf(DISK_CACHE_FOLDER));
+            if (CmsLog.INIT.isInfoEnabled()) {
+                CmsLog.INIT.info(
+                    Messages.get().getBundle().key(
+                        Messages.LOG_MM_DISK_CACHE_2,
+                        new Integer(cacheSettings.getDiskCacheSize()),
+                        diskCacheFolder.getAbsolutePath()));
+            }
+        }
+
         // create and register all system caches
 
         // temporary xml entities cache
@@ -1858,35 +1988,55 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
         register(CmsLocaleManager.class.getName(), m_cacheLocale);
 
         // permissions cache
-        m_cachePermission = createLRUCacheMap(cacheSettings.getPermissionCacheSize());
+        m_cachePermission = createMonitoredCacheMap(
+            CacheType.PERMISSION,
+            cacheSettings.getPermissionCacheSize(),
+            null,
+            0,
+            null);
         register(CmsSecurityManager.class.getName(), m_cachePermission);
 
         // user cache
-        m_cacheUser = createLRUCacheMap(cacheSettings.getUserCacheSize());
+        m_cacheUser = createMonitoredCacheMap(CacheType.USER, cacheSettings.getUserCacheSize(), null, 0, null);
         register(CmsDriverManager.class.getName() + ".userCache", m_cacheUser);
 
         // user list cache
-        m_cacheUserList = createLRUCacheMap(cacheSettings.getUserCacheSize());
+        m_cacheUserList = createMonitoredCacheMap(CacheType.USER_LIST, cacheSettings.getUserCacheSize(), null, 0, null);
         register(CmsDriverManager.class.getName() + ".userListCache", m_cacheUserList);
 
         // group cache
-        m_cacheGroup = createLRUCacheMap(cacheSettings.getGroupCacheSize());
+        m_cacheGroup = createMonitoredCacheMap(CacheType.GROUP, cacheSettings.getGroupCacheSize(), null, 0, null);
         register(CmsDriverManager.class.getName() + ".groupCache", m_cacheGroup);
 
         // organizational unit cache
-        m_cacheOrgUnit = createLRUCacheMap(cacheSettings.getOrgUnitCacheSize());
+        m_cacheOrgUnit = createMonitoredCacheMap(
+            CacheType.ORG_UNIT,
+            cacheSettings.getOrgUnitCacheSize(),
+            null,
+            0,
+            null);
         register(CmsDriverManager.class.getName() + ".orgUnitCache", m_cacheOrgUnit);
 
         // user groups list cache
-        m_cacheUserGroups = createLRUCacheMap(cacheSettings.getUserGroupsCacheSize());
+        m_cacheUserGroups = createMonitoredCacheMap(
+            CacheType.USERGROUPS,
+            cacheSettings.getUserGroupsCacheSize(),
+            null,
+            0,
+            null);
         register(CmsDriverManager.class.getName() + ".userGroupsCache", m_cacheUserGroups);
 
         // project cache
-        m_cacheProject = createLRUCacheMap(cacheSettings.getProjectCacheSize());
+        m_cacheProject = createMonitoredCacheMap(CacheType.PROJECT, cacheSettings.getProjectCacheSize(), null, 0, null);
         register(CmsDriverManager.class.getName() + ".projectCache", m_cacheProject);
 
         // project resources cache cache
-        m_cacheProjectResources = createLRUCacheMap(cacheSettings.getProjectResourcesCacheSize());
+        m_cacheProjectResources = createMonitoredCacheMap(
+            CacheType.PROJECT_RESOURCES,
+            cacheSettings.getProjectResourcesCacheSize(),
+            null,
+            0,
+            null);
         register(CmsDriverManager.class.getName() + ".projectResourcesCache", m_cacheProjectResources);
 
         // publish history
@@ -1901,27 +2051,61 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
         register(CmsPublishQueue.class.getName() + ".publishQueue", buffer);
 
         // resource cache
-        m_cacheResource = createLRUCacheMap(cacheSettings.getResourceCacheSize());
+        m_cacheResource = createMonitoredCacheMap(
+            CacheType.RESOURCE,
+            cacheSettings.getResourceCacheSize(),
+            diskCacheFolder,
+            diskCacheSize,
+            CmsCacheValueCodecs.RESOURCE);
         register(CmsDriverManager.class.getName() + ".resourceCache", m_cacheResource);
 
         // roles cache
-        m_cacheHasRoles = createLRUCacheMap(cacheSettings.getRolesCacheSize());
+        m_cacheHasRoles = createMonitoredCacheMap(CacheType.HAS_ROLE, cacheSettings.getRolesCacheSize(), null, 0, null);
         register(CmsDriverManager.class.getName() + ".rolesCache", m_cacheHasRoles);
 
         // role lists cache
-        m_cacheRoleLists = createLRUCacheMap(cacheSettings.getRolesCacheSize());
+        m_cacheRoleLists = createMonitoredCacheMap(
+            CacheType.ROLE_LIST,
+            cacheSettings.getRolesCacheSize(),
+            null,
+            0,
+            null);
         register(CmsDriverManager.class.getName() + ".roleListsCache", m_cacheRoleLists);
 
+        // collector and search result cache
+        m_cacheQueryResult = createMonitoredCacheMap(
+            CacheType.QUERY_RESULT,
+            cacheSettings.getQueryResultCacheSize(),
+            null,
+            0,
+            null);
+        register(CmsQueryResultCache.class.getName(), m_cacheQueryResult);
+
         // resource list cache
-        m_cacheResourceList = createLRUCacheMap(cacheSettings.getResourcelistCacheSize());
+        m_cacheResourceList = createMonitoredCacheMap(
+            CacheType.RESOURCE_LIST,
+            cacheSettings.getResourcelistCacheSize(),
+            diskCacheFolder,
+            diskCacheSize,
+            CmsCacheValueCodecs.RESOURCE_LIST);
         register(CmsDriverManager.class.getName() + ".resourceListCache", m_cacheResourceList);
 
         // property cache
-        m_cacheProperty = createLRUCacheMap(cacheSettings.getPropertyCacheSize());
+        m_cacheProperty = createMonitoredCacheMap(
+            CacheType.PROPERTY,
+            cacheSettings.getPropertyCacheSize(),
+            diskCacheFolder,
+            diskCacheSize,
+            CmsCacheValueCodecs.PROPERTY);
         register(CmsDriverManager.class.getName() + ".propertyCache", m_cacheProperty);
 
         // property list cache
-        m_cachePropertyList = createLRUCacheMap(cacheSettings.getPropertyListsCacheSize());
+        m_cachePropertyList = createMonitoredCacheMap(
+            CacheType.PROPERTY_LIST,
+            cacheSettings.getPropertyListsCacheSize(),
+            diskCacheFolder,
+            diskCacheSize,
+            CmsCacheValueCodecs.PROPERTY_LIST);
         register(CmsDriverManager.class.getName() + ".propertyListCache", m_cachePropertyList);
 
         // published resources list cache
@@ -1929,7 +2113,12 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
         register(CmsDriverManager.class.getName() + ".publishedResourcesCache", m_cachePublishedResources);
 
         // acl cache
-        m_cacheAccessControlList = createLRUCacheMap(cacheSettings.getAclCacheSize());
+        m_cacheAccessControlList = createMonitoredCacheMap(
+            CacheType.ACL,
+            cacheSettings.getAclCacheSize(),
+            null,
+            0,
+            null);
         register(CmsDriverManager.class.getName() + ".accessControlListCache", m_cacheAccessControlList);
 
         // vfs object cache
@@ -1940,6 +2129,21 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
         m_cacheMemObject = new ConcurrentHashMap<String, Object>();
         register(CmsMemoryObjectCache.class.getName(), m_cacheMemObject);
 
+        // adaptive cache sizes
+        m_cacheBudget = null;
+        m_lastRebalance = System.currentTimeMillis();
+        if (cacheSettings.getCacheBudget() > 0) {
+            m_cacheBudget = new CmsCacheBudget(cacheSettings.getCacheBudget());
+            m_cacheBudget.distribute(new ArrayList<CmsMonitoredCacheMap<?>>(m_monitoredCaches.values()));
+            if (CmsLog.INIT.isInfoEnabled()) {
+                CmsLog.INIT.info(
+                    Messages.get().getBundle().key(
+                        Messages.LOG_MM_CACHE_BUDGET_1,
+                        new Integer(cacheSettings.getCacheBudget())));
+            }
+        }
+        registerCacheStatistics();
+
         if (LOG.isDebugEnabled()) {
             // this will happen only once during system startup
             LOG.debug(Messages.get().getBundle().key(Messages.LOG_MM_CREATED_1, new Date(System.currentTimeMillis())));
@@ -2050,6 +2254,14 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
                 monitor.clearCaches();
             }
 
+            // check if the cache sizes must be adjusted to the cache usage
+            if ((monitor.m_cacheBudget != null)
+                && ((System.currentTimeMillis() - monitor.m_lastRebalance) > INTERVAL_REBALANCE)) {
+                monitor.m_lastRebalance = System.currentTimeMillis();
+                monitor.m_cacheBudget.rebalance(
+                    new ArrayList<CmsMonitoredCacheMap<?>>(monitor.m_monitoredCaches.values()));
+            }
+
             // check if regular a log entry must be written
             if ((System.currentTimeMillis() - monitor.m_lastLogStatus) > monitor.m_intervalLog) {
                 monitor.monitorWriteLog(false);
@@ -2181,6 +2393,11 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
         for (CacheType type : CacheType.values()) {
             flushCache(type);
         }
+        for (CmsMappedCacheStore<?> store : m_cacheStores) {
+            store.close();
+        }
+        m_cacheStores.clear();
+        unregisterCacheStatistics();
     }
 
     /**
@@ -2262,6 +2479,16 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
         m_publishHistory.remove(publishJob);
     }
 
+    /**
+     * Removes the collector or search result cached with the given key.<p>
+     *
+     * @param key the cache key to remove from cache
+     */
+    public void uncacheQueryResult(String key) {
+
+        m_cacheQueryResult.remove(key);
+    }
+
     /**
      * Removes the given user from the cache.<p>
      *
@@ -2315,6 +2542,41 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
         System.gc();
     }
 
+    /**
+     * Creates a cache map which records usage statistics, optionally with a disk backed second level.<p>
+     *
+     * @param <V> the type of the cached values
+     *
+     * @param type the cache type
+     * @param capacity the capacity of the first level
+     * @param folder the folder for the files of the second level, <code>null</code> to disable it
+     * @param diskSize the maximum disk space used by the second level in bytes
+     * @param codec the codec for the values, only needed if there is a second level
+     *
+     * @return the cache map
+     */
+    protected <V> Map<String, V> createMonitoredCacheMap(
+        CacheType type,
+        int capacity,
+        File folder,
+        long diskSize,
+        I_CmsCacheValueCodec<V> codec) {
+
+        CmsMappedCacheStore<V> store = null;
+        String name = type.name().toLowerCase();
+        if ((folder != null) && (diskSize > 0) && (codec != null)) {
+            try {
+                store = new CmsMappedCacheStore<V>(folder, name, diskSize, codec);
+                m_cacheStores.add(store);
+            } catch (IOException e) {
+                LOG.error(Messages.get().getBundle().key(Messages.LOG_MM_DISK_CACHE_FAILED_1, name), e);
+            }
+        }
+        CmsMonitoredCacheMap<V> cache = new CmsMonitoredCacheMap<V>(type.name(), capacity, store);
+        m_monitoredCaches.put(type, cache);
+        return cache;
+    }
+
     /**
      * Returns the cache costs of a monitored object.<p>
      *
@@ -2440,10 +2702,33 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
         if (obj instanceof LRUMap) {
             return Integer.toString(((LRUMap)obj).maxSize());
         }
+        if (obj instanceof CmsMonitoredCacheMap) {
+            return Integer.toString(((CmsMonitoredCacheMap<?>)obj).getCapacity());
+        }
 
         return "-";
     }
 
+    /**
+     * Returns the JMX object name for the usage statistics of a cache.<p>
+     *
+     * @param statistics the usage statistics
+     *
+     * @return the JMX object name
+     *
+     * @throws MalformedObjectNameException if the name is invalid
+     */
+    protected ObjectName getStatisticsObjectName(I_CmsCacheStatistics statistics)
+    throws MalformedObjectNameException {
+
+        Hashtable<String, String> properties = new Hashtable<String, String>();
+        properties.put("type", "CacheStatistics");
+        // several OpenCms web applications may run in the same VM
+        properties.put("webapp", ObjectName.quote(String.valueOf(OpenCms.getSystemInfo().getWebApplicationName())));
+        properties.put("name", statistics.getName());
+        return new ObjectName(JMX_DOMAIN, properties);
+    }
+
     /**
      * Sends a warning or status email with OpenCms Memory information.<p>
      *
@@ -2728,6 +3013,44 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
         }
     }
 
+    /**
+     * Registers the usage statistics of the caches as JMX beans.<p>
+     */
+    protected void registerCacheStatistics() {
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (I_CmsCacheStatistics statistics : getCacheStatistics()) {
+            try {
+                ObjectName name = getStatisticsObjectName(statistics);
+                if (server.isRegistered(name)) {
+                    // left over from a previous initialization
+                    server.unregisterMBean(name);
+                }
+                server.registerMBean(new StandardMBean(statistics, I_CmsCacheStatistics.class), name);
+            } catch (JMException e) {
+                LOG.warn(e.getLocalizedMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Removes the JMX beans for the usage statistics of the caches.<p>
+     */
+    protected void unregisterCacheStatistics() {
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (I_CmsCacheStatistics statistics : getCacheStatistics()) {
+            try {
+                ObjectName name = getStatisticsObjectName(statistics);
+                if (server.isRegistered(name)) {
+                    server.unregisterMBean(name);
+                }
+            } catch (JMException e) {
+                LOG.warn(e.getLocalizedMessage(), e);
+            }
+        }
+    }
+
     /**
      * Updates the memory information of the memory monitor.<p>
      */
@@ -0,0 +1,370 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.monitor;
+
+import java.util.AbstractMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
+
+/**
+ * LRU cache map of the memory monitor which records usage statistics and can be resized.<p>
+ *
+ * The load time of a value is measured from a failed lookup until a value is stored for the same key
+ * in the same thread, which matches the way the driver manager reads and caches values.<p>
+ *
+ * Changing the capacity replaces the map holding the entries and copies the entries over to the new map.
+ * Writes which still reach the old map while it is replaced are repeated on the new map, so removals
+ * are never lost. If the map has a disk backed second level, the second level is kept.<p>
+ *
+ * @param <V> the type of the cached values
+ *
+ * @since 10.0.0
+ */
+public class CmsMonitoredCacheMap<V> extends AbstractMap<String, V> implements I_CmsCacheStatistics {
+
+    /** The current capacity. */
+    private volatile int m_capacity;
+
+    /** The map holding the entries. */
+    private volatile ConcurrentMap<String, V> m_delegate;
+
+    /** The number of evicted entries. */
+    private AtomicLong m_evictionCount = new AtomicLong();
+
+    /** The number of times the cache was flushed. */
+    private AtomicLong m_flushCount = new AtomicLong();
+
+    /** The number of successful lookups. */
+    private AtomicLong m_hitCount = new AtomicLong();
+
+    /** The number of loaded values. */
+    private AtomicLong m_loadCount = new AtomicLong();
+
+    /** The total load time in nanoseconds. */
+    private AtomicLong m_loadTime = new AtomicLong();
+
+    /** The number of failed lookups. */
+    private AtomicLong m_missCount = new AtomicLong();
+
+    /** The name of the cache. */
+    private String m_name;
+
+    /** The key and start time of the last failed lookup of the current thread. */
+    private ThreadLocal<Object[]> m_pendingLoad = new ThreadLocal<Object[]>();
+
+    /** The number of stored values. */
+    private AtomicLong m_putCount = new AtomicLong();
+
+    /** The optional disk backed second level. */
+    private CmsMappedCacheStore<V> m_store;
+
+    /**
+     * Creates a new monitored cache map.<p>
+     *
+     * @param name the name of the cache
+     * @param capacity the initial capacity
+     * @param store the optional disk backed second level, may be <code>null</code>
+     */
+    public CmsMonitoredCacheMap(String name, int capacity, CmsMappedCacheStore<V> store) {
+
+        m_name = name;
+        m_store = store;
+        m_capacity = capacity;
+        m_delegate = createDelegate(capacity);
+    }
+
+    /**
+     * @see java.util.AbstractMap#clear()
+     */
+    @Override
+    public synchronized void clear() {
+
+        // synchronized with setCapacity, so the entries of a flushed map are never copied to the new map
+        m_flushCount.incrementAndGet();
+        m_delegate.clear();
+    }
+
+    /**
+     * @see java.util.AbstractMap#containsKey(java.lang.Object)
+     */
+    @Override
+    public boolean containsKey(Object key) {
+
+        return m_delegate.containsKey(key);
+    }
+
+    /**
+     * @see java.util.AbstractMap#entrySet()
+     */
+    @Override
+    public Set<Map.Entry<String, V>> entrySet() {
+
+        return m_delegate.entrySet();
+    }
+
+    /**
+     * @see java.util.AbstractMap#get(java.lang.Object)
+     */
+    @Override
+    public V get(Object key) {
+
+        V value = m_delegate.get(key);
+        if (value != null) {
+            m_hitCount.incrementAndGet();
+        } else {
+            m_missCount.incrementAndGet();
+            m_pendingLoad.set(new Object[] {key, Long.valueOf(System.nanoTime())});
+        }
+        return value;
+    }
+
+    /**
+     * @see org.opencms.monitor.I_CmsCacheStatistics#getAverageLoadTime()
+     */
+    public double getAverageLoadTime() {
+
+        long count = m_loadCount.get();
+        return count == 0 ? 0 : (double)getTotalLoadTime() / count;
+    }
+
+    /**
+     * @see org.opencms.monitor.I_CmsCacheStatistics#getCapacity()
+     */
+    public int getCapacity() {
+
+        return m_capacity;
+    }
+
+    /**
+     * @see org.opencms.monitor.I_CmsCacheStatistics#getEvictionCount()
+     */
+    public long getEvictionCount() {
+
+        return m_evictionCount.get();
+    }
+
+    /**
+     * Returns the number of times the cache was flushed.<p>
+     *
+     * @return the number of times the cache was flushed
+     */
+    public long getFlushCount() {
+
+        return m_flushCount.get();
+    }
+
+    /**
+     * @see org.opencms.monitor.I_CmsCacheStatistics#getHitCount()
+     */
+    public long getHitCount() {
+
+        return m_hitCount.get();
+    }
+
+    /**
+     * @see org.opencms.monitor.I_CmsCacheStatistics#getHitRate()
+     */
+    public double getHitRate() {
+
+        long hits = m_hitCount.get();
+        long lookups = hits + m_missCount.get();
+        return lookups == 0 ? 0 : (double)hits / lookups;
+    }
+
+    /**
+     * @see org.opencms.monitor.I_CmsCacheStatistics#getLoadCount()
+     */
+    public long getLoadCount() {
+
+        return m_loadCount.get();
+    }
+
+    /**
+     * @see org.opencms.monitor.I_CmsCacheStatistics#getMissCount()
+     */
+    public long getMissCount() {
+
+        return m_missCount.get();
+    }
+
+    /**
+     * @see org.opencms.monitor.I_CmsCacheStatistics#getName()
+     */
+    public String getName() {
+
+        return m_name;
+    }
+
+    /**
+     * @see org.opencms.monitor.I_CmsCacheStatistics#getPutCount()
+     */
+    public long getPutCount() {
+
+        return m_putCount.get();
+    }
+
+    /**
+     * @see org.opencms.monitor.I_CmsCacheStatistics#getSize()
+     */
+    public int getSize() {
+
+        return m_delegate.size();
+    }
+
+    /**
+     * @see org.opencms.monitor.I_CmsCacheStatistics#getTotalLoadTime()
+     */
+    public long getTotalLoadTime() {
+
+        return TimeUnit.NANOSECONDS.toMillis(m_loadTime.get());
+    }
+
+    /**
+     * @see java.util.AbstractMap#put(java.lang.Object, java.lang.Object)
+     */
+    @Override
+    public V put(String key, V value) {
+
+        m_putCount.incrementAndGet();
+        Object[] pending = m_pendingLoad.get();
+        if (pending != null) {
+            m_pendingLoad.remove();
+            if (pending[0].equals(key)) {
+                m_loadCount.incrementAndGet();
+                m_loadTime.addAndGet(System.nanoTime() - ((Long)pending[1]).longValue());
+            }
+        }
+        Map<String, V> delegate = m_delegate;
+        V result = delegate.put(key, value);
+        Map<String, V> current = m_delegate;
+        if (current != delegate) {
+            // the map was replaced meanwhile, the entries copied from the old map may be outdated
+            current.put(key, value);
+        }
+        return result;
+    }
+
+    /**
+     * @see java.util.AbstractMap#remove(java.lang.Object)
+     */
+    @Override
+    public V remove(Object key) {
+
+        Map<String, V> delegate = m_delegate;
+        V result = delegate.remove(key);
+        Map<String, V> current = m_delegate;
+        if (current != delegate) {
+            // the map was replaced meanwhile, the entry may already have been copied to the new map
+            current.remove(key);
+        }
+        return result;
+    }
+
+    /**
+     * @see org.opencms.monitor.I_CmsCacheStatistics#resetStatistics()
+     */
+    public void resetStatistics() {
+
+        m_hitCount.set(0);
+        m_missCount.set(0);
+        m_putCount.set(0);
+        m_evictionCount.set(0);
+        m_loadCount.set(0);
+        m_loadTime.set(0);
+    }
+
+    /**
+     * Changes the capacity of the cache.<p>
+     *
+     * The entries held in memory are copied, if the new capacity is smaller, the copy evicts the surplus entries.<p>
+     *
+     * @param capacity the new capacity
+     */
+    public synchronized void setCapacity(int capacity) {
+
+        if (capacity == m_capacity) {
+            return;
+        }
+        ConcurrentMap<String, V> previous = m_delegate;
+        ConcurrentMap<String, V> delegate = createDelegate(capacity);
+        m_capacity = capacity;
+        m_delegate = delegate;
+        for (Map.Entry<String, V> entry : previous.entrySet()) {
+            String key = entry.getKey();
+            V value = entry.getValue();
+            // values written to the new map meanwhile are newer than the copied ones
+            delegate.putIfAbsent(key, value);
+            if (previous.get(key) != value) {
+                // removed or replaced while copying, the writer may have missed the copied value
+                delegate.remove(key, value);
+            }
+        }
+    }
+
+    /**
+     * @see java.util.AbstractMap#size()
+     */
+    @Override
+    public int size() {
+
+        return m_delegate.size();
+    }
+
+    /**
+     * Creates the map holding the entries.<p>
+     *
+     * @param capacity the capacity of the map
+     *
+     * @return the map
+     */
+    private ConcurrentMap<String, V> createDelegate(int capacity) {
+
+        if (m_store != null) {
+            return new CmsTieredCacheMap<V>(capacity, m_store, m_evictionCount);
+        }
+        RemovalListener<String, V> listener = new RemovalListener<String, V>() {
+
+            public void onRemoval(RemovalNotification<String, V> notification) {
+
+                if (notification.getCause() == RemovalCause.SIZE) {
+                    m_evictionCount.incrementAndGet();
+                }
+            }
+        };
+        return CacheBuilder.newBuilder().concurrencyLevel(CmsMemoryMonitor.CONCURRENCY_LEVEL).maximumSize(
+            capacity).removalListener(listener).build().asMap();
+    }
+}
@@ -0,0 +1,333 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.monitor;
+
+import java.util.AbstractMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.google.common.base.Function;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.collect.Maps;
+
+/**
+ * Two level cache map, with an LRU map in memory as first level and a {@link CmsMappedCacheStore} as second level.<p>
+ *
+ * Entries evicted from the first level because of its size limit are written to the second level.
+ * Entries found in the second level are moved back to the first level on access.
+ * Removing entries or clearing the map affects both levels, so flushing a cache
+ * also invalidates its second level.<p>
+ *
+ * Evicted entries are written to the second level after they have left the first level, so a concurrent
+ * removal could be overtaken by writing the stale value. To prevent this, removing and clearing bump
+ * an epoch counter, and an evicted entry is only written if the epoch of its key did not change
+ * since the entry was put into the first level. The epochs are striped by the hash code of the keys.<p>
+ *
+ * The size and the entry set of the map only reflect the first level, and so do the conditional
+ * operations of the {@link ConcurrentMap} interface.<p>
+ *
+ * @param <V> the type of the cached values
+ *
+ * @since 10.0.0
+ */
+public class CmsTieredCacheMap<V> extends AbstractMap<String, V> implements ConcurrentMap<String, V> {
+
+    /**
+     * Value of the first level, together with the epoch of its key at the time it was stored.<p>
+     *
+     * @param <V> the type of the cached value
+     */
+    private static class EpochValue<V> {
+
+        /** The epoch of the key when the value was stored. */
+        long m_epoch;
+
+        /** The value. */
+        V m_value;
+
+        /**
+         * Creates a new value.<p>
+         *
+         * @param value the value
+         * @param epoch the epoch of the key
+         */
+        EpochValue(V value, long epoch) {
+
+            m_value = value;
+            m_epoch = epoch;
+        }
+    }
+
+    /** The number of epoch stripes, must be a power of two. */
+    private static final int EPOCH_STRIPES = 1024;
+
+    /** The epochs, bumped on removal. */
+    AtomicLongArray m_epochs = new AtomicLongArray(EPOCH_STRIPES);
+
+    /** The optional counter for entries evicted from the first level. */
+    AtomicLong m_evictionCount;
+
+    /** The first level. */
+    ConcurrentMap<String, EpochValue<V>> m_memory;
+
+    /** The second level. */
+    CmsMappedCacheStore<V> m_store;
+
+    /**
+     * Creates a new tiered cache map.<p>
+     *
+     * @param capacity the capacity of the first level
+     * @param store the second level
+     */
+    public CmsTieredCacheMap(int capacity, CmsMappedCacheStore<V> store) {
+
+        this(capacity, store, null);
+    }
+
+    /**
+     * Creates a new tiered cache map.<p>
+     *
+     * @param capacity the capacity of the first level
+     * @param store the second level
+     * @param evictionCount optional counter for entries evicted from the first level, may be <code>null</code>
+     */
+    public CmsTieredCacheMap(int capacity, CmsMappedCacheStore<V> store, AtomicLong evictionCount) {
+
+        m_store = store;
+        m_evictionCount = evictionCount;
+        CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder().concurrencyLevel(
+            CmsMemoryMonitor.CONCURRENCY_LEVEL).maximumSize(capacity);
+        m_memory = builder.removalListener(new RemovalListener<String, EpochValue<V>>() {
+
+            public void onRemoval(RemovalNotification<String, EpochValue<V>> notification) {
+
+                // only spill entries evicted because of the size limit, not removed or replaced ones
+                if (notification.getCause() != RemovalCause.SIZE) {
+                    return;
+                }
+                if (m_evictionCount != null) {
+                    m_evictionCount.incrementAndGet();
+                }
+                if ((notification.getKey() != null) && (notification.getValue() != null)) {
+                    spill(notification.getKey(), notification.getValue());
+                }
+            }
+        }).build().asMap();
+    }
+
+    /**
+     * @see java.util.AbstractMap#clear()
+     */
+    @Override
+    public void clear() {
+
+        m_memory.clear();
+        for (int i = 0; i < EPOCH_STRIPES; i++) {
+            m_epochs.incrementAndGet(i);
+        }
+        m_store.clear();
+    }
+
+    /**
+     * @see java.util.AbstractMap#containsKey(java.lang.Object)
+     */
+    @Override
+    public boolean containsKey(Object key) {
+
+        return get(key) != null;
+    }
+
+    /**
+     * @see java.util.AbstractMap#entrySet()
+     */
+    @Override
+    public Set<Map.Entry<String, V>> entrySet() {
+
+        return Maps.transformValues(m_memory, new Function<EpochValue<V>, V>() {
+
+            public V apply(EpochValue<V> input) {
+
+                return input.m_value;
+            }
+        }).entrySet();
+    }
+
+    /**
+     * @see java.util.AbstractMap#get(java.lang.Object)
+     */
+    @Override
+    public V get(Object key) {
+
+        EpochValue<V> entry = m_memory.get(key);
+        if (entry != null) {
+            return entry.m_value;
+        }
+        V value = null;
+        if (key instanceof String) {
+            value = m_store.get((String)key);
+            if (value != null) {
+                put((String)key, value);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Returns the second level of this map.<p>
+     *
+     * @return the second level
+     */
+    public CmsMappedCacheStore<V> getStore() {
+
+        return m_store;
+    }
+
+    /**
+     * @see java.util.AbstractMap#put(java.lang.Object, java.lang.Object)
+     */
+    @Override
+    public V put(String key, V value) {
+
+        EpochValue<V> previous = m_memory.put(key, new EpochValue<V>(value, m_epochs.get(stripe(key))));
+        m_store.remove(key);
+        return previous != null ? previous.m_value : null;
+    }
+
+    /**
+     * @see java.util.concurrent.ConcurrentMap#putIfAbsent(java.lang.Object, java.lang.Object)
+     */
+    public V putIfAbsent(String key, V value) {
+
+        EpochValue<V> previous = m_memory.putIfAbsent(key, new EpochValue<V>(value, m_epochs.get(stripe(key))));
+        if (previous != null) {
+            return previous.m_value;
+        }
+        m_store.remove(key);
+        return null;
+    }
+
+    /**
+     * @see java.util.AbstractMap#remove(java.lang.Object)
+     */
+    @Override
+    public V remove(Object key) {
+
+        EpochValue<V> previous = m_memory.remove(key);
+        if (key instanceof String) {
+            m_epochs.incrementAndGet(stripe(key));
+            m_store.remove((String)key);
+        }
+        return previous != null ? previous.m_value : null;
+    }
+
+    /**
+     * @see java.util.concurrent.ConcurrentMap#remove(java.lang.Object, java.lang.Object)
+     */
+    public boolean remove(Object key, Object value) {
+
+        EpochValue<V> current = m_memory.get(key);
+        if ((current == null) || (value == null) || !value.equals(current.m_value)) {
+            return false;
+        }
+        if (!m_memory.remove(key, current)) {
+            return false;
+        }
+        m_epochs.incrementAndGet(stripe(key));
+        m_store.remove((String)key);
+        return true;
+    }
+
+    /**
+     * @see java.util.concurrent.ConcurrentMap#replace(java.lang.String, java.lang.Object)
+     */
+    public V replace(String key, V value) {
+
+        EpochValue<V> previous = m_memory.replace(key, new EpochValue<V>(value, m_epochs.get(stripe(key))));
+        return previous != null ? previous.m_value : null;
+    }
+
+    /**
+     * @see java.util.concurrent.ConcurrentMap#replace(java.lang.String, java.lang.Object, java.lang.Object)
+     */
+    public boolean replace(String key, V oldValue, V newValue) {
+
+        EpochValue<V> current = m_memory.get(key);
+        if ((current == null) || (oldValue == null) || !oldValue.equals(current.m_value)) {
+            return false;
+        }
+        return m_memory.replace(key, current, new EpochValue<V>(newValue, m_epochs.get(stripe(key))));
+    }
+
+    /**
+     * @see java.util.AbstractMap#size()
+     */
+    @Override
+    public int size() {
+
+        return m_memory.size();
+    }
+
+    /**
+     * Writes an entry evicted from the first level to the second level.<p>
+     *
+     * @param key the key
+     * @param entry the evicted entry
+     */
+    void spill(String key, EpochValue<V> entry) {
+
+        int stripe = stripe(key);
+        if ((m_epochs.get(stripe) != entry.m_epoch) || m_memory.containsKey(key)) {
+            // removed or replaced since the entry was stored
+            return;
+        }
+        m_store.put(key, entry.m_value);
+        if (m_epochs.get(stripe) != entry.m_epoch) {
+            // removed while writing, the removal may have missed the written entry
+            m_store.remove(key);
+        }
+    }
+
+    /**
+     * Returns the epoch stripe of a key.<p>
+     *
+     * @param key the key
+     *
+     * @return the epoch stripe
+     */
+    private int stripe(Object key) {
+
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (EPOCH_STRIPES - 1);
+    }
+}
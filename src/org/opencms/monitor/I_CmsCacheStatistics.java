@@ -0,0 +1,120 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.monitor;
+
+/**
+ * Usage statistics of a memory monitor cache.<p>
+ *
+ * This interface is also used as management interface when the caches are registered as JMX beans.<p>
+ *
+ * @since 10.0.0
+ */
+public interface I_CmsCacheStatistics {
+
+    /**
+     * Returns the average time needed to load a value after a cache miss in milliseconds.<p>
+     *
+     * @return the average load time in milliseconds
+     */
+    double getAverageLoadTime();
+
+    /**
+     * Returns the maximum number of entries the cache currently holds in memory.<p>
+     *
+     * @return the capacity of the cache
+     */
+    int getCapacity();
+
+    /**
+     * Returns the number of entries evicted because of the capacity limit.<p>
+     *
+     * @return the number of evicted entries
+     */
+    long getEvictionCount();
+
+    /**
+     * Returns the number of successful lookups.<p>
+     *
+     * @return the number of successful lookups
+     */
+    long getHitCount();
+
+    /**
+     * Returns the ratio of successful lookups to all lookups.<p>
+     *
+     * @return the hit rate, or <code>0</code> if there were no lookups yet
+     */
+    double getHitRate();
+
+    /**
+     * Returns the number of values stored after a miss for the same key in the same thread.<p>
+     *
+     * @return the number of loaded values
+     */
+    long getLoadCount();
+
+    /**
+     * Returns the number of failed lookups.<p>
+     *
+     * @return the number of failed lookups
+     */
+    long getMissCount();
+
+    /**
+     * Returns the name of the cache.<p>
+     *
+     * @return the name of the cache
+     */
+    String getName();
+
+    /**
+     * Returns the number of values stored in the cache.<p>
+     *
+     * @return the number of stored values
+     */
+    long getPutCount();
+
+    /**
+     * Returns the number of entries currently held in memory.<p>
+     *
+     * @return the number of entries
+     */
+    int getSize();
+
+    /**
+     * Returns the total time needed to load values after cache misses in milliseconds.<p>
+     *
+     * @return the total load time in milliseconds
+     */
+    long getTotalLoadTime();
+
+    /**
+     * Resets all counters to zero.<p>
+     */
+    void resetStatistics();
+}
@@ -0,0 +1,74 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.monitor;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Compact binary encoding of cached values, used to store values in the second level of a tiered cache.<p>
+ *
+ * @param <V> the type of the cached values
+ *
+ * @since 10.0.0
+ */
+public interface I_CmsCacheValueCodec<V> {
+
+    /**
+     * Checks if the given value can be encoded.<p>
+     *
+     * Values which can not be encoded are not stored in the second level cache.<p>
+     *
+     * @param value the value to check
+     *
+     * @return <code>true</code> if the value can be encoded
+     */
+    boolean canEncode(V value);
+
+    /**
+     * Reads a value.<p>
+     *
+     * @param in the input to read from
+     *
+     * @return the value that was read
+     *
+     * @throws IOException if reading fails
+     */
+    V read(DataInput in) throws IOException;
+
+    /**
+     * Writes a value.<p>
+     *
+     * @param out the output to write to
+     * @param value the value to write
+     *
+     * @throws IOException if writing fails
+     */
+    void write(DataOutput out, V value) throws IOException;
+}
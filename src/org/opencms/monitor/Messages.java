@@ -43,12 +43,21 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String LOG_CLEAR_CACHE_MEM_CONS_0 = "LOG_CLEAR_CACHE_MEM_CONS_0";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_MM_CACHE_BUDGET_1 = "LOG_MM_CACHE_BUDGET_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String LOG_MM_CONNECTIONS_3 = "LOG_MM_CONNECTIONS_3";
 
     /** Message constant for key in the resource bundle. */
     public static final String LOG_MM_CREATED_1 = "LOG_MM_CREATED_1";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_MM_DISK_CACHE_2 = "LOG_MM_DISK_CACHE_2";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_MM_DISK_CACHE_FAILED_1 = "LOG_MM_DISK_CACHE_FAILED_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String LOG_MM_EMAIL_DISABLED_0 = "LOG_MM_EMAIL_DISABLED_0";
 
@@ -133,7 +133,12 @@ public class CmsPublishHistory {
                 throw e;
             } finally {
                 dbc.clear();
+                // delete the temporary file of the publish report, also if it could not be written
+                publishJob.deletePublishReport();
             }
+        } else {
+            // the publish report is only kept in the database
+            publishJob.deletePublishReport();
         }
     }
 
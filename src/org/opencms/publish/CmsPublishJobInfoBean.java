@@ -386,6 +386,20 @@ public final class CmsPublishJobInfoBean {
         return result.toString();
     }
 
+    /**
+     * Removes the assigned publish report and deletes its temporary file.<p>
+     *
+     * This is used when the publish report is not written to the database,
+     * for example if writing the publish job failed or persistency is not required.<p>
+     */
+    protected void deletePublishReport() {
+
+        I_CmsReport report = removePublishReport();
+        if (report instanceof CmsPublishReport) {
+            ((CmsPublishReport)report).deleteSpoolFile();
+        }
+    }
+
     /**
      * Signalizes that the publish job has been enqueued.<p>
      * Actually sets the enqueue time only if it is not set already (re-enqueue during startup).<p>
@@ -28,28 +28,53 @@
 package org.opencms.publish;
 
 import org.opencms.i18n.CmsMessageContainer;
+import org.opencms.main.CmsLog;
 import org.opencms.report.CmsHtmlReport;
 import org.opencms.report.CmsPrintStreamReport;
 import org.opencms.report.I_CmsReport;
+import org.opencms.util.CmsFileUtil;
 import org.opencms.util.CmsStringUtil;
 
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.PrintStream;
 import java.util.List;
 import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.logging.Log;
 
 /**
  * Report class used for the publish operations.<p>
  *
- * It stores nothing. It just prints everything to a temporary file.<p>
+ * It stores nothing. It just prints everything gzip compressed to a temporary file,
+ * or to memory if no temporary file can be created.<p>
  *
  * @since 6.5.5
  */
 public class CmsPublishReport extends CmsPrintStreamReport {
 
-    /** The output stream. */
-    protected ByteArrayOutputStream m_outputStream;
+    /** The maximum number of lines a decorated HTML report keeps until they are fetched by the workplace. */
+    public static final int MAX_PENDING_ENTRIES = 10000;
+
+    /** The log object for this class. */
+    private static final Log LOG = CmsLog.getLog(CmsPublishReport.class);
+
+    /** The size of the buffer used to write the temporary file. */
+    private static final int SPOOL_BUFFER_SIZE = 8192;
+
+    /** The compressing output stream. */
+    protected OutputStream m_outputStream;
+
+    /** The in-memory target of the compressed output, <code>null</code> if a temporary file is used. */
+    private ByteArrayOutputStream m_buffer;
 
     /** The busy flag to prevent duplicated output. */
     private boolean m_busy;
@@ -57,6 +82,9 @@ public class CmsPublishReport extends CmsPrintStreamReport {
     /** The original report. */
     private I_CmsReport m_report;
 
+    /** The temporary file holding the compressed output, <code>null</code> if the output is kept in memory. */
+    private File m_spoolFile;
+
     /**
      * Constructs a new publish report using the provided locale for the output language.<p>
      *
@@ -65,22 +93,19 @@ public class CmsPublishReport extends CmsPrintStreamReport {
      */
     protected CmsPublishReport(Locale locale) {
 
-        this(new ByteArrayOutputStream(), locale);
+        this(createSpoolFile(), new ByteArrayOutputStream(), locale);
     }
 
     /**
      * Constructs a new publish report using the provided locale for the output language.<p>
      *
-     * @param outputStream the underlying byte array output stream
+     * @param spoolFile the temporary file to write to, may be <code>null</code>
+     * @param buffer the in-memory target to use if the temporary file can not be written
      * @param locale the locale to use for the output language
-     *
      */
-    private CmsPublishReport(ByteArrayOutputStream outputStream, Locale locale) {
-
-        super(new PrintStream(outputStream), locale, true);
-        init(locale, null);
+    private CmsPublishReport(File spoolFile, ByteArrayOutputStream buffer, Locale locale) {
 
-        m_outputStream = outputStream;
+        this(createOutputStream(spoolFile, buffer), spoolFile, buffer, locale);
     }
 
     /**
@@ -90,9 +115,11 @@ public class CmsPublishReport extends CmsPrintStreamReport {
      */
     private CmsPublishReport(I_CmsReport report) {
 
-        this(new ByteArrayOutputStream(), report.getLocale());
+        this(report.getLocale());
         m_report = report;
         if (report instanceof CmsHtmlReport) {
+            // the complete output goes to the temporary file, so the workplace only needs the lines not fetched yet
+            ((CmsHtmlReport)report).setMaxPendingEntries(MAX_PENDING_ENTRIES);
             if (((CmsHtmlReport)report).isWriteHtml()) {
                 try {
                     m_outputStream.write(CmsStringUtil.substitute(getReportUpdate(), "\\n", "").getBytes());
@@ -103,6 +130,49 @@ public class CmsPublishReport extends CmsPrintStreamReport {
         }
     }
 
+    /**
+     * Constructs a new publish report using the provided locale for the output language.<p>
+     *
+     * @param outputStream the compressing output stream
+     * @param spoolFile the temporary file, only used if it still exists
+     * @param buffer the in-memory target, only used if the temporary file does not exist
+     * @param locale the locale to use for the output language
+     */
+    private CmsPublishReport(OutputStream outputStream, File spoolFile, ByteArrayOutputStream buffer, Locale locale) {
+
+        super(new PrintStream(outputStream), locale, true);
+        init(locale, null);
+
+        m_outputStream = outputStream;
+        if ((spoolFile != null) && spoolFile.exists()) {
+            m_spoolFile = spoolFile;
+        } else {
+            m_buffer = buffer;
+        }
+    }
+
+    /**
+     * Returns the uncompressed publish report contents.<p>
+     *
+     * Contents written before publish reports were stored compressed are returned unchanged.<p>
+     *
+     * @param contents the publish report contents as stored, may be <code>null</code>
+     *
+     * @return the uncompressed publish report contents
+     *
+     * @throws IOException if the contents can not be uncompressed
+     */
+    public static byte[] uncompress(byte[] contents) throws IOException {
+
+        if ((contents == null)
+            || (contents.length < 2)
+            || ((contents[0] & 0xff) != (GZIPInputStream.GZIP_MAGIC & 0xff))
+            || ((contents[1] & 0xff) != (GZIPInputStream.GZIP_MAGIC >> 8))) {
+            return contents;
+        }
+        return CmsFileUtil.readFully(new GZIPInputStream(new ByteArrayInputStream(contents)));
+    }
+
     /**
      * Returns a publish report instance that writes to the given report as well as
      * to the given temporary file.<p>
@@ -116,6 +186,68 @@ public class CmsPublishReport extends CmsPrintStreamReport {
         return new CmsPublishReport(report);
     }
 
+    /**
+     * Opens the compressing output stream for the given target.<p>
+     *
+     * @param spoolFile the temporary file to write to, may be <code>null</code>
+     * @param buffer the in-memory target to use if the temporary file can not be written
+     *
+     * @return the compressing output stream
+     */
+    private static OutputStream createOutputStream(File spoolFile, ByteArrayOutputStream buffer) {
+
+        if (spoolFile != null) {
+            OutputStream out = null;
+            try {
+                out = new BufferedOutputStream(new FileOutputStream(spoolFile), SPOOL_BUFFER_SIZE);
+                return new GZIPOutputStream(out, SPOOL_BUFFER_SIZE);
+            } catch (IOException e) {
+                LOG.warn(Messages.get().getBundle().key(Messages.LOG_PUBLISH_REPORT_SPOOL_FAILED_0), e);
+                if (out != null) {
+                    try {
+                        out.close();
+                    } catch (IOException e1) {
+                        // ignore
+                    }
+                }
+                deleteFile(spoolFile);
+            }
+        }
+        try {
+            return new GZIPOutputStream(buffer);
+        } catch (IOException e) {
+            // can not happen when writing to memory, store the report uncompressed
+            return buffer;
+        }
+    }
+
+    /**
+     * Creates the temporary file for a new publish report.<p>
+     *
+     * @return the temporary file, or <code>null</code> if it could not be created
+     */
+    private static File createSpoolFile() {
+
+        try {
+            return File.createTempFile("opencms-publish-report-", ".html.gz");
+        } catch (IOException e) {
+            LOG.warn(Messages.get().getBundle().key(Messages.LOG_PUBLISH_REPORT_SPOOL_FAILED_0), e);
+            return null;
+        }
+    }
+
+    /**
+     * Deletes the given file, logging a failure.<p>
+     *
+     * @param file the file to delete
+     */
+    private static void deleteFile(File file) {
+
+        if (file.exists() && !file.delete()) {
+            LOG.warn(Messages.get().getBundle().key(Messages.LOG_PUBLISH_REPORT_DELETE_FAILED_1, file.getAbsolutePath()));
+        }
+    }
+
     /**
      * @see org.opencms.report.A_CmsReport#addError(java.lang.Object)
      */
@@ -144,14 +276,54 @@ public class CmsPublishReport extends CmsPrintStreamReport {
         m_busy = false;
     }
 
+    /**
+     * Deletes the temporary file holding the publish report output, if any.<p>
+     *
+     * The report contents are no longer available afterwards.<p>
+     */
+    public synchronized void deleteSpoolFile() {
+
+        close();
+        if (m_spoolFile != null) {
+            deleteFile(m_spoolFile);
+            m_spoolFile = null;
+        }
+        m_buffer = new ByteArrayOutputStream();
+    }
+
+    /**
+     * Returns the gzip compressed contents of the publish report as byte array.<p>
+     *
+     * This closes the report, so it should only be called once the report has been finished.<p>
+     *
+     * @return the compressed contents of the publish report
+     *
+     * @throws IOException if the temporary file can not be read
+     */
+    public synchronized byte[] getCompressedContents() throws IOException {
+
+        close();
+        if (m_spoolFile != null) {
+            return CmsFileUtil.readFully(new FileInputStream(m_spoolFile), (int)m_spoolFile.length());
+        }
+        return m_buffer.toByteArray();
+    }
+
     /**
      * Returns the contents of the publish report as byte array.<p>
      *
+     * This closes the report, so it should only be called once the report has been finished.<p>
+     *
      * @return the contents of the publish report
      */
     public byte[] getContents() {
 
-        return m_outputStream.toByteArray();
+        try {
+            return uncompress(getCompressedContents());
+        } catch (IOException e) {
+            LOG.error(e.getLocalizedMessage(), e);
+            return new byte[0];
+        }
     }
 
     /**
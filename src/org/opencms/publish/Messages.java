@@ -166,6 +166,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String LOG_PUBLISH_REPORT_DELETE_FAILED_1 = "LOG_PUBLISH_REPORT_DELETE_FAILED_1";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_PUBLISH_REPORT_SPOOL_FAILED_0 = "LOG_PUBLISH_REPORT_SPOOL_FAILED_0";
+
     /** Message constant for key in the resource bundle. */
     public static final String LOG_THREADSTORE_PUBLISH_THREAD_INTERRUPT_2 = "LOG_THREADSTORE_PUBLISH_THREAD_INTERRUPT_2";
 
@@ -53,7 +53,7 @@ public class CmsHtmlReport extends A_CmsReport {
      */
     protected static final String LINEBREAK_TRADITIONAL = "<br>\\n";
 
-    /** The list of report objects e.g. String, CmsPageLink, Exception ... */
+    /** The list of report objects e.g. String, CmsPageLink, Exception ... not yet delivered by {@link #getReportUpdate()}. */
     private List<Object> m_content;
 
     /**
@@ -62,11 +62,14 @@ public class CmsHtmlReport extends A_CmsReport {
      */
     private int m_indexNext;
 
+    /** The maximum number of undelivered report objects kept in memory, or <code>0</code> for no limit. */
+    private int m_maxPendingEntries;
+
     /** Flag to indicate if an exception should be displayed long or short. */
     private boolean m_showExceptionStackTrace;
 
-    /** If set to <code>true</code> nothing is kept in memory. */
-    private boolean m_transient;
+    /** The number of undelivered report objects dropped since the last update because of the pending limit. */
+    private int m_skippedEntries;
 
     /** Boolean flag indicating whether this report should generate HTML or JavaScript output. */
     private boolean m_writeHtml;
@@ -88,7 +91,7 @@ public class CmsHtmlReport extends A_CmsReport {
      * @param locale the locale to use for the output language
      * @param siteRoot the site root of the user who started this report (may be <code>null</code>)
      * @param writeHtml if <code>true</code>, this report should generate HTML instead of JavaScript output
-     * @param isTransient If set to <code>true</code> nothing is kept in memory
+     * @param isTransient ignored, report objects are always released once they have been delivered
      */
     public CmsHtmlReport(Locale locale, String siteRoot, boolean writeHtml, boolean isTransient) {
 
@@ -96,7 +99,16 @@ public class CmsHtmlReport extends A_CmsReport {
         m_content = new ArrayList<Object>(256);
         m_showExceptionStackTrace = true;
         m_writeHtml = writeHtml;
-        m_transient = isTransient;
+    }
+
+    /**
+     * Returns the maximum number of undelivered report objects kept in memory.<p>
+     *
+     * @return the maximum number of undelivered report objects, or <code>0</code> for no limit
+     */
+    public int getMaxPendingEntries() {
+
+        return m_maxPendingEntries;
     }
 
     /**
@@ -105,20 +117,22 @@ public class CmsHtmlReport extends A_CmsReport {
     public synchronized String getReportUpdate() {
 
         StringBuffer result = new StringBuffer();
+        if (m_skippedEntries > 0) {
+            result.append(getSkippedElement(m_skippedEntries));
+            m_skippedEntries = 0;
+        }
         int indexEnd = m_content.size();
         for (int i = m_indexNext; i < indexEnd; i++) {
-            int pos = m_transient ? 0 : i;
-            Object obj = m_content.get(pos);
+            Object obj = m_content.get(i);
             if ((obj instanceof String) || (obj instanceof StringBuffer)) {
                 result.append(obj);
             } else if (obj instanceof Throwable) {
                 result.append(getExceptionElement((Throwable)obj));
             }
-            if (m_transient) {
-                m_content.remove(m_indexNext);
-            }
         }
-        m_indexNext = m_transient ? 0 : indexEnd;
+        // delivered objects are never reported again, so there is no need to keep them
+        m_content.subList(0, indexEnd).clear();
+        m_indexNext = 0;
         return result.toString();
     }
 
@@ -188,7 +202,7 @@ public class CmsHtmlReport extends A_CmsReport {
             if (value.trim().endsWith(getLineBreak())) {
                 buf.append("aB(); ");
             }
-            m_content.add(buf.toString());
+            addContent(buf.toString());
         } else {
             switch (format) {
                 case FORMAT_HEADLINE:
@@ -230,7 +244,7 @@ public class CmsHtmlReport extends A_CmsReport {
             if (value.trim().endsWith(getLineBreak())) {
                 buf.append("\n");
             }
-            m_content.add(buf.toString());
+            addContent(buf.toString());
         }
         setLastEntryTime(System.currentTimeMillis());
     }
@@ -243,13 +257,29 @@ public class CmsHtmlReport extends A_CmsReport {
         print(getLineBreak());
     }
 
+    /**
+     * Sets the maximum number of undelivered report objects kept in memory.<p>
+     *
+     * If more objects are printed before the next call of {@link #getReportUpdate()},
+     * the oldest ones are dropped and a note with the number of omitted lines is shown instead.
+     * This keeps the memory of long running reports bounded when the output is also
+     * written elsewhere, e.g. by a {@link org.opencms.publish.CmsPublishReport}.<p>
+     *
+     * @param maxPendingEntries the maximum number of undelivered report objects, or <code>0</code> for no limit
+     */
+    public synchronized void setMaxPendingEntries(int maxPendingEntries) {
+
+        m_maxPendingEntries = Math.max(maxPendingEntries, 0);
+        trimContent();
+    }
+
     /**
      * @see org.opencms.report.I_CmsReport#println(java.lang.Throwable)
      */
     public synchronized void println(Throwable t) {
 
         addError(t.getMessage());
-        m_content.add(t);
+        addContent(t);
         setLastEntryTime(System.currentTimeMillis());
     }
 
@@ -263,6 +293,17 @@ public class CmsHtmlReport extends A_CmsReport {
         return m_writeHtml ? LINEBREAK_TRADITIONAL : LINEBREAK;
     }
 
+    /**
+     * Adds the given object to the list of undelivered report objects.<p>
+     *
+     * @param obj the object to add
+     */
+    private void addContent(Object obj) {
+
+        m_content.add(obj);
+        trimContent();
+    }
+
     /**
      * Output helper method to format a reported {@link Throwable} element.<p>
      *
@@ -324,4 +365,33 @@ public class CmsHtmlReport extends A_CmsReport {
         }
         return buf;
     }
-}
\ No newline at end of file
+
+    /**
+     * Output helper method to format the note about report objects that were dropped
+     * because of the pending limit.<p>
+     *
+     * @param count the number of dropped report objects
+     *
+     * @return the formatted note
+     */
+    private String getSkippedElement(int count) {
+
+        String value = getMessages().key(Messages.RPT_ENTRIES_SKIPPED_1, new Object[] {Integer.valueOf(count)});
+        if (!m_writeHtml) {
+            return "aN('" + CmsStringUtil.escapeJavaScript(value) + "'); a('" + LINEBREAK + "'); aB(); ";
+        }
+        return "<span class='note'>" + value + "</span>" + LINEBREAK_TRADITIONAL + "\n";
+    }
+
+    /**
+     * Drops the oldest undelivered report objects if there are more than allowed.<p>
+     */
+    private void trimContent() {
+
+        int overflow = m_content.size() - m_maxPendingEntries;
+        if ((m_maxPendingEntries > 0) && (overflow > 0)) {
+            m_content.subList(0, overflow).clear();
+            m_skippedEntries += overflow;
+        }
+    }
+}
@@ -46,6 +46,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String RPT_DOTS_0 = "RPT_DOTS_0";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String RPT_ENTRIES_SKIPPED_1 = "RPT_ENTRIES_SKIPPED_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String RPT_ERROR_0 = "RPT_ERROR_0";
 
@@ -113,43 +113,52 @@ public abstract class A_CmsVfsDocument implements I_CmsDocumentFactory {
         if (index.isExtractingContent()) {
             // do full text content extraction only if required
 
+            // compare "date of last modification of content" from Lucene index and OpenCms VFS
+            // if this is identical, then the data from the Lucene index can be re-used
+            I_CmsSearchDocument oldDoc = index.getDocument(CmsSearchField.FIELD_PATH, resource.getRootPath());
+            // first check if the document is already in the index
+            if ((oldDoc != null) && (oldDoc.getFieldValueAsDate(CmsSearchField.FIELD_DATE_CONTENT) != null)) {
+                long contentDateIndex = oldDoc.getFieldValueAsDate(CmsSearchField.FIELD_DATE_CONTENT).getTime();
+                // now compare the date with the date stored in the resource
+                if (contentDateIndex == resource.getDateContent()) {
+                    // extract stored content blob from index
+                    content = CmsExtractionResult.fromBytes(oldDoc.getContentBlob());
+                }
+            }
+
             // check if caching is enabled for this document type
             CmsExtractionResultCache cache = getCache();
             String cacheName = null;
-            if ((cache != null) && (resource.getSiblingCount() > 1)) {
-                // hard drive based caching only makes sense for resources that have siblings,
-                // because the index will also store the content as a blob
-                cacheName = cache.getCacheName(
-                    resource,
-                    isLocaleDependend() ? index.getLocaleForResource(cms, resource, null) : null,
-                    getName());
-                content = cache.getCacheObject(cacheName);
-            }
-
-            if (content == null) {
-                // extraction result has not been found in the cache
-                // compare "date of last modification of content" from Lucene index and OpenCms VFS
-                // if this is identical, then the data from the Lucene index can be re-used
-                I_CmsSearchDocument oldDoc = index.getDocument(CmsSearchField.FIELD_PATH, resource.getRootPath());
-                // first check if the document is already in the index
-                if ((oldDoc != null) && (oldDoc.getFieldValueAsDate(CmsSearchField.FIELD_DATE_CONTENT) != null)) {
-                    long contentDateIndex = oldDoc.getFieldValueAsDate(CmsSearchField.FIELD_DATE_CONTENT).getTime();
-                    // now compare the date with the date stored in the resource
-                    if (contentDateIndex == resource.getDateContent()) {
-                        // extract stored content blob from index
-                        content = CmsExtractionResult.fromBytes(oldDoc.getContentBlob());
+            CmsResource extractionResource = resource;
+            if ((content == null) && (cache != null) && isExtractingFromContentOnly()) {
+                // the cache is keyed by the content digest, so identical content of copies,
+                // siblings or re-uploads is only extracted once
+                // the file read here is passed on to the extraction, so the content is read only once
+                try {
+                    CmsFile file = cms.readFile(resource);
+                    extractionResource = file;
+                    if (file.getLength() > 0) {
+                        cacheName = cache.getCacheName(
+                            file,
+                            isLocaleDependend() ? index.getLocaleForResource(cms, resource, null) : null,
+                            getName(),
+                            getExtractorVersion());
+                        content = cache.getCacheObject(cacheName);
                     }
+                } catch (CmsException e) {
+                    // the extraction will fail as well and report the error
+                    LOG.debug(e.getLocalizedMessage(), e);
                 }
             }
 
             if (content == null) {
                 // extraction result has not been attached to the resource
                 try {
-                    content = extractContent(cms, resource, index);
+                    content = extractContent(cms, extractionResource, index);
                     if (LOG.isDebugEnabled()) {
                         LOG.debug("Extracting content for '" + resource.getRootPath() + "' successful.");
                     }
-                    if ((cache != null) && (resource.getSiblingCount() > 1)) {
+                    if (cacheName != null) {
                         // save extracted content to the cache
                         cache.saveCacheObject(cacheName, content);
                     }
@@ -230,6 +239,36 @@ public abstract class A_CmsVfsDocument implements I_CmsDocumentFactory {
         m_cache = cache;
     }
 
+    /**
+     * Returns the version of the text extraction used by this document factory.<p>
+     *
+     * The version is part of the key of cached extraction results, so results created by
+     * a different version are not reused. The default implementation uses the class name of the
+     * document factory and the OpenCms version. Factories which change their extraction independently
+     * of OpenCms, e.g. by configuration, should override this.<p>
+     *
+     * @return the version of the text extraction
+     */
+    protected String getExtractorVersion() {
+
+        return getClass().getName() + "_" + OpenCms.getSystemInfo().getVersionNumber();
+    }
+
+    /**
+     * Returns if the text extracted by this document factory only depends on the content of the file.<p>
+     *
+     * Only the results of such factories are stored in the extraction result cache, which is keyed by
+     * a digest of the file content. The default implementation returns <code>false</code>, since
+     * e.g. the extraction of XML contents also depends on properties and on linked resources.
+     * Factories for binary documents should override this.<p>
+     *
+     * @return <code>true</code> if the text extracted by this document factory only depends on the content of the file
+     */
+    protected boolean isExtractingFromContentOnly() {
+
+        return false;
+    }
+
     /**
      * Logs content extraction for the specified resource and index.<p>
      *
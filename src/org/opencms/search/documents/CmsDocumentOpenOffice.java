@@ -88,4 +88,13 @@ public class CmsDocumentOpenOffice extends A_CmsVfsDocument {
 
         return true;
     }
+
+    /**
+     * @see org.opencms.search.documents.A_CmsVfsDocument#isExtractingFromContentOnly()
+     */
+    @Override
+    protected boolean isExtractingFromContentOnly() {
+
+        return true;
+    }
 }
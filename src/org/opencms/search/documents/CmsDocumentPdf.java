@@ -102,4 +102,13 @@ public class CmsDocumentPdf extends A_CmsVfsDocument {
 
         return true;
     }
+
+    /**
+     * @see org.opencms.search.documents.A_CmsVfsDocument#isExtractingFromContentOnly()
+     */
+    @Override
+    protected boolean isExtractingFromContentOnly() {
+
+        return true;
+    }
 }
\ No newline at end of file
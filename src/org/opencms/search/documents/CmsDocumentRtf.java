@@ -89,4 +89,13 @@ public class CmsDocumentRtf extends A_CmsVfsDocument {
 
         return true;
     }
+
+    /**
+     * @see org.opencms.search.documents.A_CmsVfsDocument#isExtractingFromContentOnly()
+     */
+    @Override
+    protected boolean isExtractingFromContentOnly() {
+
+        return true;
+    }
 }
\ No newline at end of file
@@ -28,45 +28,88 @@
 package org.opencms.search.documents;
 
 import org.opencms.cache.CmsVfsDiskCache;
-import org.opencms.file.CmsResource;
+import org.opencms.file.CmsFile;
 import org.opencms.main.CmsLog;
 import org.opencms.search.extractors.CmsExtractionResult;
 import org.opencms.search.extractors.I_CmsExtractionResult;
 import org.opencms.util.CmsFileUtil;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 
 import org.apache.commons.logging.Log;
 
+import com.google.common.hash.Hashing;
+
 /**
  * Implements a disk cache that stores text extraction results in the RFS.<p>
  *
- * This cache operates on resource file names, plus a hash code calculated from
- * {@link org.opencms.file.CmsResource#getDateLastModified()}
- * and {@link org.opencms.file.CmsResource#getLength()}. Optional a locale can be appended to this name.<p>
- *
- * Since text extraction is done only on the content of a resource, all siblings must have the same content.
- * The difference can be only by the locale setting in case of an XML content or XML page. However,
- * the most problematic contents to extract for the search are in fact the MS Office and PDF formats.
- * For these documents, all siblings must produce the exact same text extraction result.<p>
+ * The cache entries are keyed by a digest of the resource content, the search document type,
+ * the optional locale and the version of the extractor. Since text extraction depends only on these,
+ * siblings, copies and re-uploads of identical binary content share a single cache entry, and
+ * reindexing only extracts content which is really new. The cache is usable for resources from the
+ * online AND the offline project at the same time.<p>
  *
- * This cache is usable for resources from the online AND the offline project at the same time,
- * because any change to a resource will result in a changed hash code. This means a resource changed in the offline
- * project will have a new hash code compared to the online project. If the resource is identical in the online and
- * the offline project, the generated hash codes will be the same.<p>
+ * The extraction results are stored in the compact binary format of
+ * {@link CmsExtractionResult#toCompactBytes(I_CmsExtractionResult)}. The cache keeps an index of
+ * all entries in memory, ordered by last access, which is used for lookups and to remove the least recently
+ * used entries once the maximum cache size is exceeded. The index is written to an index file
+ * in the cache folder when the cache is cleaned, and read from it on startup. New entries are appended
+ * to a journal file in between, so they are not lost if OpenCms is stopped without cleaning the cache.<p>
  *
  * @since 6.2.0
  */
 public class CmsExtractionResultCache {
 
+    /** The default maximum size of all cached extraction results in bytes. */
+    public static final long DEFAULT_MAX_SIZE = 512L * 1024L * 1024L;
+
+    /** The file extension of the cache entries. */
+    private static final String EXTENSION = ".ext";
+
+    /** The marker at the start of the index file, also used as format version. */
+    private static final int INDEX_FORMAT_MARKER = 0x4F434549;
+
+    /** The name of the index file. */
+    private static final String INDEX_NAME = "extraction.idx";
+
+    /** The name of the journal file with the entries added since the index file was written. */
+    private static final String JOURNAL_NAME = "extraction.jnl";
+
     /** The log object for this class. */
     private static final Log LOG = CmsLog.getLog(CmsExtractionResultCache.class);
 
+    /** The cache entries by file name, as pairs of file size and last access time, in LRU order. */
+    private LinkedHashMap<String, long[]> m_index;
+
+    /** The stream to append new entries to the journal file, opened on the first new entry. */
+    private DataOutputStream m_journal;
+
+    /** The maximum size of all cached extraction results in bytes. */
+    private long m_maxSize;
+
     /** The name of the cache base repository folder in the RFS. */
     private String m_rfsRepository;
 
+    /** The current size of all cached extraction results in bytes. */
+    private long m_size;
+
     /**
      * Creates a new disk cache.<p>
      *
@@ -77,66 +120,72 @@ public class CmsExtractionResultCache {
 
         // normalize the given folder name
         m_rfsRepository = CmsFileUtil.normalizePath(basepath + foldername + File.separatorChar);
+        m_maxSize = DEFAULT_MAX_SIZE;
     }
 
     /**
      * Removes all expired extraction result cache entries from the RFS cache.<p>
      *
-     * @param maxAge the maximum age of the extraction result cache files in hours (or fractions of hours)
+     * Files in the cache folder which are not part of the cache index, e.g. files written
+     * by previous versions of this cache, are removed as well. Afterwards the cache index is saved.<p>
+     *
+     * @param maxAge the maximum age of the extraction result cache entries since their last use in hours (or fractions of hours)
      *
      * @return the total number of deleted resources
      */
     public synchronized int cleanCache(float maxAge) {
 
-        // calculate oldest possible date for the cache files
+        // calculate oldest possible date for the cache entries
         long expireDate = System.currentTimeMillis() - (long)(maxAge * 60.0f * 60.0f * 1000.0f);
-        File basedir = new File(m_rfsRepository);
-        // perform the cache cleanup
+        Map<String, long[]> index = getIndex();
         int count = 0;
+        Iterator<Map.Entry<String, long[]>> entries = index.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<String, long[]> entry = entries.next();
+            if (entry.getValue()[1] < expireDate) {
+                entries.remove();
+                m_size -= entry.getValue()[0];
+                if (deleteFile(new File(m_rfsRepository, entry.getKey()))) {
+                    count++;
+                }
+            }
+        }
+        File basedir = new File(m_rfsRepository);
         if (basedir.canRead() && basedir.isDirectory()) {
             File[] files = basedir.listFiles();
             if (files != null) {
-                for (int i = 0; i < files.length; i++) {
-                    File f = files[i];
-                    if (f.canWrite()) {
-                        if (f.lastModified() < expireDate) {
-                            try {
-                                f.delete();
-                                count++;
-                            } catch (Exception e) {
-                                if (LOG.isWarnEnabled()) {
-                                    LOG.warn(
-                                        Messages.get().getBundle().key(
-                                            Messages.LOG_EXCERPT_CACHE_DELETE_ERROR_1,
-                                            f.getAbsolutePath()),
-                                        e);
-                                }
-                            }
+                for (File f : files) {
+                    if (f.isFile()
+                        && !index.containsKey(f.getName())
+                        && !INDEX_NAME.equals(f.getName())
+                        && !JOURNAL_NAME.equals(f.getName())) {
+                        if (deleteFile(f)) {
+                            count++;
                         }
                     }
                 }
             }
         }
+        writeIndex();
         return count;
     }
 
     /**
-     * Returns the RFS name used for caching an the text extraction result
-     * based on the given VFS resource and locale.<p>
+     * Returns the RFS name used for caching the text extraction result of the given file content.<p>
      *
-     * @param resource the VFS resource to generate the cache name for
+     * @param file the VFS file, including its content, to generate the cache name for
      * @param locale the locale to generate the cache name for (may be <code>null</code>)
      * @param docTypeName the name of the search document type
+     * @param extractorVersion the version of the extractor, a changed version invalidates the cached results
      *
-     * @return the RFS name to use for caching the given VFS resource with parameters
+     * @return the RFS name to use for caching the extraction result of the given file
      */
-    public String getCacheName(CmsResource resource, Locale locale, String docTypeName) {
+    public String getCacheName(CmsFile file, Locale locale, String docTypeName, String extractorVersion) {
 
-        // create a StringBuffer for the result
-        StringBuffer buf = new StringBuffer(m_rfsRepository.length() + 36);
+        StringBuffer buf = new StringBuffer(m_rfsRepository.length() + 64);
         buf.append(m_rfsRepository);
         buf.append('/');
-        buf.append(resource.getResourceId().toString());
+        buf.append(Hashing.sha1().hashBytes(file.getContents()).toString());
 
         if (docTypeName != null) {
             buf.append('_');
@@ -149,19 +198,19 @@ public class CmsExtractionResultCache {
             buf.append(locale.toString());
         }
 
-        // append the date of last content modification to the result buffer
-        // please note that we need only worry about last change in content, since properties are ignored here
-        buf.append('_');
-        buf.append(resource.getDateContent());
+        if (extractorVersion != null) {
+            buf.append('_');
+            buf.append(Integer.toHexString(extractorVersion.hashCode()));
+        }
 
         // finally append the extension
-        buf.append(".ext");
+        buf.append(EXTENSION);
         return buf.toString();
     }
 
     /**
      * Returns the extraction result in the requested file in the disk cache, or <code>null</code> if the
-     * file is not found in the cache, or is found but out-dated.<p>
+     * file is not found in the cache.<p>
      *
      * @param rfsName the file RFS name to look up in the cache
      *
@@ -169,22 +218,35 @@ public class CmsExtractionResultCache {
      */
     public CmsExtractionResult getCacheObject(String rfsName) {
 
-        try {
-            File f = new File(rfsName);
-            if (f.exists()) {
-                long age = f.lastModified();
-                if ((System.currentTimeMillis() - age) > 3600000) {
-                    // file has not been touched for 1 hour, touch the file with the current date
-                    f.setLastModified(System.currentTimeMillis());
-                }
-                byte[] byteContent = CmsFileUtil.readFile(f);
-                return CmsExtractionResult.fromBytes(byteContent);
+        File f = new File(rfsName);
+        synchronized (this) {
+            long[] entry = getIndex().get(f.getName());
+            if (entry == null) {
+                return null;
             }
+            entry[1] = System.currentTimeMillis();
+        }
+        CmsExtractionResult result = null;
+        try {
+            result = CmsExtractionResult.fromCompactBytes(CmsFileUtil.readFile(f));
         } catch (IOException e) {
             // unable to read content
         }
-        // this code can be reached only in case of an error
-        return null;
+        if (result == null) {
+            // the file was removed or is corrupt
+            removeEntry(f);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the maximum size of all cached extraction results in bytes.<p>
+     *
+     * @return the maximum size of all cached extraction results in bytes
+     */
+    public long getMaxSize() {
+
+        return m_maxSize;
     }
 
     /**
@@ -198,18 +260,318 @@ public class CmsExtractionResultCache {
     }
 
     /**
-     * Serializes the given extraction result and saves it in the disk cache.<p>
+     * Saves the given extraction result in the disk cache, in the compact binary format.<p>
+     *
+     * If the cache size exceeds the maximum size afterwards, the least recently used entries are removed.<p>
      *
      * @param rfsName the RFS name of the file to save the extraction result in
-     * @param content the extraction result to serialize and save
+     * @param content the extraction result to save
      *
      * @throws IOException in case of disk access errors
      */
     public void saveCacheObject(String rfsName, I_CmsExtractionResult content) throws IOException {
 
-        byte[] byteContent = content.getBytes();
+        byte[] byteContent = CmsExtractionResult.toCompactBytes(content);
         if (byteContent != null) {
-            CmsVfsDiskCache.saveFile(rfsName, byteContent);
+            File f = CmsVfsDiskCache.saveFile(rfsName, byteContent);
+            synchronized (this) {
+                Map<String, long[]> index = getIndex();
+                long[] added = new long[] {byteContent.length, System.currentTimeMillis()};
+                long[] previous = index.put(f.getName(), added);
+                if (previous != null) {
+                    m_size -= previous[0];
+                }
+                m_size += byteContent.length;
+                appendJournal(f.getName(), added);
+                // remove the least recently used entries if the cache is too large
+                Iterator<Map.Entry<String, long[]>> entries = index.entrySet().iterator();
+                while ((m_size > m_maxSize) && entries.hasNext()) {
+                    Map.Entry<String, long[]> entry = entries.next();
+                    if (entry.getKey().equals(f.getName())) {
+                        continue;
+                    }
+                    entries.remove();
+                    m_size -= entry.getValue()[0];
+                    deleteFile(new File(m_rfsRepository, entry.getKey()));
+                }
+            }
+        }
+    }
+
+    /**
+     * Sets the maximum size of all cached extraction results in bytes.<p>
+     *
+     * @param maxSize the maximum size of all cached extraction results in bytes
+     */
+    public synchronized void setMaxSize(long maxSize) {
+
+        m_maxSize = maxSize;
+    }
+
+    /**
+     * Appends a new entry to the journal file.<p>
+     *
+     * Must be called while holding the monitor of this cache.<p>
+     *
+     * @param name the file name of the entry
+     * @param entry the size and last access time of the entry
+     */
+    private void appendJournal(String name, long[] entry) {
+
+        try {
+            if (m_journal == null) {
+                m_journal = new DataOutputStream(
+                    new BufferedOutputStream(new FileOutputStream(new File(m_rfsRepository, JOURNAL_NAME), true)));
+            }
+            m_journal.writeUTF(name);
+            m_journal.writeLong(entry[0]);
+            m_journal.writeLong(entry[1]);
+            m_journal.flush();
+        } catch (IOException e) {
+            LOG.warn(
+                Messages.get().getBundle().key(
+                    Messages.LOG_EXTRACTION_CACHE_INDEX_ERROR_1,
+                    new File(m_rfsRepository, JOURNAL_NAME).getAbsolutePath()),
+                e);
+            closeJournal();
+        }
+    }
+
+    /**
+     * Closes the stream to the journal file, if open.<p>
+     */
+    private void closeJournal() {
+
+        if (m_journal != null) {
+            try {
+                m_journal.close();
+            } catch (IOException e) {
+                // ignore
+            }
+            m_journal = null;
+        }
+    }
+
+    /**
+     * Deletes a file of the cache folder.<p>
+     *
+     * @param f the file to delete
+     *
+     * @return <code>true</code> if the file was deleted
+     */
+    private boolean deleteFile(File f) {
+
+        if (!f.exists()) {
+            return false;
+        }
+        try {
+            return f.delete();
+        } catch (Exception e) {
+            if (LOG.isWarnEnabled()) {
+                LOG.warn(
+                    Messages.get().getBundle().key(Messages.LOG_EXCERPT_CACHE_DELETE_ERROR_1, f.getAbsolutePath()),
+                    e);
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Returns the cache index, reading it from the index file, or rebuilding it from the cache folder if required.<p>
+     *
+     * Must be called while holding the monitor of this cache.<p>
+     *
+     * @return the cache index
+     */
+    private Map<String, long[]> getIndex() {
+
+        if (m_index == null) {
+            m_index = new LinkedHashMap<String, long[]>(256, 0.75f, true);
+            m_size = 0;
+            if (!readIndex()) {
+                m_index.clear();
+                m_size = 0;
+                rebuildIndex();
+            }
+        }
+        return m_index;
+    }
+
+    /**
+     * Rebuilds the cache index from the files in the cache folder, using their modification dates as last access times.<p>
+     */
+    private void rebuildIndex() {
+
+        File[] files = new File(m_rfsRepository).listFiles();
+        if (files == null) {
+            return;
+        }
+        List<File> entries = new ArrayList<File>(Arrays.asList(files));
+        Collections.sort(entries, new Comparator<File>() {
+
+            public int compare(File a, File b) {
+
+                long diff = a.lastModified() - b.lastModified();
+                return diff < 0 ? -1 : (diff > 0 ? 1 : 0);
+            }
+        });
+        for (File f : entries) {
+            if (f.isFile() && f.getName().endsWith(EXTENSION)) {
+                m_index.put(f.getName(), new long[] {f.length(), f.lastModified()});
+                m_size += f.length();
+            }
+        }
+    }
+
+    /**
+     * Reads the cache index from the index file.<p>
+     *
+     * @return <code>true</code> if the index file was read successfully
+     */
+    private boolean readIndex() {
+
+        File indexFile = new File(m_rfsRepository, INDEX_NAME);
+        if (!indexFile.canRead()) {
+            return false;
+        }
+        DataInputStream in = null;
+        try {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)));
+            if (in.readInt() != INDEX_FORMAT_MARKER) {
+                return false;
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String name = in.readUTF();
+                long size = in.readLong();
+                long lastAccess = in.readLong();
+                m_index.put(name, new long[] {size, lastAccess});
+                m_size += size;
+            }
+            readJournal();
+            return true;
+        } catch (IOException e) {
+            LOG.warn(
+                Messages.get().getBundle().key(
+                    Messages.LOG_EXTRACTION_CACHE_INDEX_ERROR_1,
+                    indexFile.getAbsolutePath()),
+                e);
+            return false;
+        } finally {
+            if (in != null) {
+                try {
+                    in.close();
+                } catch (IOException e) {
+                    // ignore
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds the entries of the journal file to the cache index.<p>
+     *
+     * An incomplete last entry, e.g. written while OpenCms was stopped, is ignored.<p>
+     */
+    private void readJournal() {
+
+        File journalFile = new File(m_rfsRepository, JOURNAL_NAME);
+        if (!journalFile.canRead()) {
+            return;
+        }
+        DataInputStream in = null;
+        try {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(journalFile)));
+            while (true) {
+                String name = in.readUTF();
+                long size = in.readLong();
+                long lastAccess = in.readLong();
+                long[] previous = m_index.put(name, new long[] {size, lastAccess});
+                if (previous != null) {
+                    m_size -= previous[0];
+                }
+                m_size += size;
+            }
+        } catch (EOFException e) {
+            // end of the journal reached
+        } catch (IOException e) {
+            LOG.warn(
+                Messages.get().getBundle().key(
+                    Messages.LOG_EXTRACTION_CACHE_INDEX_ERROR_1,
+                    journalFile.getAbsolutePath()),
+                e);
+        } finally {
+            if (in != null) {
+                try {
+                    in.close();
+                } catch (IOException e) {
+                    // ignore
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes the entry for the given file from the cache.<p>
+     *
+     * @param f the file of the cache entry
+     */
+    private synchronized void removeEntry(File f) {
+
+        long[] entry = getIndex().remove(f.getName());
+        if (entry != null) {
+            m_size -= entry[0];
+        }
+        deleteFile(f);
+    }
+
+    /**
+     * Writes the cache index to the index file, and removes the journal file which is included in the index now.<p>
+     *
+     * Must be called while holding the monitor of this cache.<p>
+     */
+    private void writeIndex() {
+
+        File basedir = new File(m_rfsRepository);
+        if (!basedir.isDirectory()) {
+            return;
+        }
+        File tempFile = new File(basedir, INDEX_NAME + ".tmp");
+        DataOutputStream out = null;
+        try {
+            out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)));
+            out.writeInt(INDEX_FORMAT_MARKER);
+            out.writeInt(m_index.size());
+            for (Map.Entry<String, long[]> entry : m_index.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeLong(entry.getValue()[0]);
+                out.writeLong(entry.getValue()[1]);
+            }
+            out.close();
+            out = null;
+            File indexFile = new File(basedir, INDEX_NAME);
+            indexFile.delete();
+            if (tempFile.renameTo(indexFile)) {
+                closeJournal();
+                new File(basedir, JOURNAL_NAME).delete();
+            } else {
+                LOG.warn(
+                    Messages.get().getBundle().key(
+                        Messages.LOG_EXTRACTION_CACHE_INDEX_ERROR_1,
+                        indexFile.getAbsolutePath()));
+            }
+        } catch (IOException e) {
+            LOG.warn(
+                Messages.get().getBundle().key(Messages.LOG_EXTRACTION_CACHE_INDEX_ERROR_1, tempFile.getAbsolutePath()),
+                e);
+        } finally {
+            if (out != null) {
+                try {
+                    out.close();
+                } catch (IOException e) {
+                    // ignore
+                }
+            }
         }
     }
-}
\ No newline at end of file
+}
@@ -27,13 +27,19 @@
 
 package org.opencms.search.extractors;
 
+import org.opencms.i18n.CmsEncoder;
+import org.opencms.i18n.CmsLocaleManager;
 import org.opencms.util.CmsStringUtil;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
@@ -52,6 +58,9 @@ import java.util.Map;
  */
 public class CmsExtractionResult implements I_CmsExtractionResult, Serializable {
 
+    /** Marker at the start of the compact binary format, also used as format version. */
+    private static final int COMPACT_FORMAT_MARKER = 0x4F434531;
+
     /** UID required for safe serialization. */
     private static final long serialVersionUID = 1465447302192195154L;
 
@@ -179,6 +188,189 @@ public class CmsExtractionResult implements I_CmsExtractionResult, Serializable
         return null;
     }
 
+    /**
+     * Creates an extraction result from the compact binary format.<p>
+     *
+     * @param bytes the extraction result in the compact binary format
+     *
+     * @return the extraction result, or <code>null</code> if the bytes are not in the compact binary format
+     *
+     * @see #toCompactBytes(I_CmsExtractionResult)
+     */
+    public static final CmsExtractionResult fromCompactBytes(byte[] bytes) {
+
+        if (bytes == null) {
+            return null;
+        }
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+            if (in.readInt() != COMPACT_FORMAT_MARKER) {
+                return null;
+            }
+            Locale defaultLocale = readLocale(in);
+            int localeCount = in.readInt();
+            Map<Locale, Map<String, String>> contentItems = new HashMap<Locale, Map<String, String>>(localeCount);
+            for (int i = 0; i < localeCount; i++) {
+                Locale locale = readLocale(in);
+                contentItems.put(locale, readMap(in));
+            }
+            Map<String, String> fieldMappings = readMap(in);
+            return new CmsExtractionResult(defaultLocale, contentItems, fieldMappings);
+        } catch (IOException e) {
+            // truncated or corrupt data
+            return null;
+        }
+    }
+
+    /**
+     * Writes an extraction result in a compact binary format.<p>
+     *
+     * In contrast to {@link #getBytes()}, which uses Java serialization, this format contains only
+     * the locales and the Strings of the content items and field mappings, and can be read much faster.<p>
+     *
+     * @param result the extraction result to write
+     *
+     * @return the extraction result in the compact binary format
+     *
+     * @see #fromCompactBytes(byte[])
+     */
+    public static final byte[] toCompactBytes(I_CmsExtractionResult result) {
+
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(COMPACT_FORMAT_MARKER);
+            Locale defaultLocale = result.getDefaultLocale();
+            writeLocale(out, defaultLocale);
+            List<Locale> locales = new ArrayList<Locale>();
+            locales.add(defaultLocale);
+            for (Locale locale : result.getLocales()) {
+                if (!locale.equals(defaultLocale)) {
+                    locales.add(locale);
+                }
+            }
+            out.writeInt(locales.size());
+            for (Locale locale : locales) {
+                writeLocale(out, locale);
+                writeMap(out, locale == defaultLocale ? result.getContentItems() : result.getContentItems(locale));
+            }
+            writeMap(out, result.getFieldMappings());
+            out.close();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            // can not happen when writing to a byte array
+            return null;
+        }
+    }
+
+    /**
+     * Reads a locale written by {@link #writeLocale(DataOutputStream, Locale)}.<p>
+     *
+     * @param in the input to read from
+     *
+     * @return the locale, may be <code>null</code>
+     *
+     * @throws IOException if reading fails
+     */
+    private static Locale readLocale(DataInputStream in) throws IOException {
+
+        String locale = readString(in);
+        return locale == null ? null : CmsLocaleManager.getLocale(locale);
+    }
+
+    /**
+     * Reads a String map written by {@link #writeMap(DataOutputStream, Map)}.<p>
+     *
+     * @param in the input to read from
+     *
+     * @return the map
+     *
+     * @throws IOException if reading fails
+     */
+    private static Map<String, String> readMap(DataInputStream in) throws IOException {
+
+        int size = in.readInt();
+        Map<String, String> result = new HashMap<String, String>(size);
+        for (int i = 0; i < size; i++) {
+            String key = readString(in);
+            result.put(key, readString(in));
+        }
+        return result;
+    }
+
+    /**
+     * Reads a String written by {@link #writeString(DataOutputStream, String)}.<p>
+     *
+     * @param in the input to read from
+     *
+     * @return the String, may be <code>null</code>
+     *
+     * @throws IOException if reading fails
+     */
+    private static String readString(DataInputStream in) throws IOException {
+
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] utf8 = new byte[length];
+        in.readFully(utf8);
+        return new String(utf8, CmsEncoder.ENCODING_UTF_8);
+    }
+
+    /**
+     * Writes a locale, which may be <code>null</code>.<p>
+     *
+     * @param out the output to write to
+     * @param locale the locale
+     *
+     * @throws IOException if writing fails
+     */
+    private static void writeLocale(DataOutputStream out, Locale locale) throws IOException {
+
+        writeString(out, locale == null ? null : locale.toString());
+    }
+
+    /**
+     * Writes a String map.<p>
+     *
+     * @param out the output to write to
+     * @param map the map, may be <code>null</code>
+     *
+     * @throws IOException if writing fails
+     */
+    private static void writeMap(DataOutputStream out, Map<String, String> map) throws IOException {
+
+        if (map == null) {
+            out.writeInt(0);
+            return;
+        }
+        out.writeInt(map.size());
+        for (Map.Entry<String, String> entry : map.entrySet()) {
+            writeString(out, entry.getKey());
+            writeString(out, entry.getValue());
+        }
+    }
+
+    /**
+     * Writes a String, which may be <code>null</code>, as UTF-8 without the length limit of {@link DataOutputStream#writeUTF(String)}.<p>
+     *
+     * @param out the output to write to
+     * @param value the String
+     *
+     * @throws IOException if writing fails
+     */
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] utf8 = value.getBytes(CmsEncoder.ENCODING_UTF_8);
+        out.writeInt(utf8.length);
+        out.write(utf8);
+    }
+
     /**
      * @see org.opencms.search.extractors.I_CmsExtractionResult#getBytes()
      */
@@ -33,6 +33,7 @@ import org.opencms.db.CmsDbContext;
 import org.opencms.db.CmsDriverManager;
 import org.opencms.db.CmsSecurityManager;
 import org.opencms.db.I_CmsCacheKey;
+import org.opencms.file.CmsGroup;
 import org.opencms.file.CmsProject;
 import org.opencms.file.CmsResource;
 import org.opencms.file.CmsResourceFilter;
@@ -44,7 +45,11 @@ import org.opencms.main.CmsInitException;
 import org.opencms.main.CmsLog;
 import org.opencms.main.OpenCms;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 
 import org.apache.commons.logging.Log;
 
@@ -53,7 +58,57 @@ import org.apache.commons.logging.Log;
  *
  * @since 7.0.2
  */
-public class CmsDefaultPermissionHandler implements I_CmsPermissionHandler {
+public class CmsDefaultPermissionHandler implements I_CmsBatchPermissionHandler {
+
+    /**
+     * State shared between the permission checks of a batch of resources.<p>
+     *
+     * The groups and roles of the current user and the access control lists of common parent folders
+     * are only read once for the whole batch.<p>
+     */
+    protected class CmsPermissionBatch {
+
+        /** The access control lists read so far, shared for common parent folders. */
+        private Map<String, CmsAccessControlList> m_aclCache = new HashMap<String, CmsAccessControlList>();
+
+        /** The current database context. */
+        private CmsDbContext m_dbc;
+
+        /** The groups of the current user, lazily initialized. */
+        private List<CmsGroup> m_groups;
+
+        /** The roles of the current user, lazily initialized. */
+        private List<CmsRole> m_roles;
+
+        /**
+         * Creates a new batch state.<p>
+         *
+         * @param dbc the current database context
+         */
+        protected CmsPermissionBatch(CmsDbContext dbc) {
+
+            m_dbc = dbc;
+        }
+
+        /**
+         * Returns the permissions of the current user on the given resource, based on the access control list.<p>
+         *
+         * @param resource the resource
+         *
+         * @return the permissions of the current user
+         *
+         * @throws CmsException if something goes wrong
+         */
+        protected CmsPermissionSetCustom getPermissions(CmsResource resource) throws CmsException {
+
+            CmsUser user = m_dbc.currentUser();
+            if (m_groups == null) {
+                m_groups = m_driverManager.getGroupsOfUser(m_dbc, user.getName(), false);
+                m_roles = m_driverManager.getRolesForUser(m_dbc, user);
+            }
+            return m_driverManager.getPermissions(m_dbc, resource, user, m_groups, m_roles, m_aclCache);
+        }
+    }
 
     /** The log object for this class. */
     private static final Log LOG = CmsLog.getLog(CmsDefaultPermissionHandler.class);
@@ -77,6 +132,49 @@ public class CmsDefaultPermissionHandler implements I_CmsPermissionHandler {
         boolean checkLock,
         CmsResourceFilter filter) throws CmsException {
 
+        return hasPermissions(dbc, resource, requiredPermissions, checkLock, filter, null);
+    }
+
+    /**
+     * @see org.opencms.security.I_CmsBatchPermissionHandler#hasPermissions(org.opencms.db.CmsDbContext, java.util.List, org.opencms.security.CmsPermissionSet, boolean, org.opencms.file.CmsResourceFilter)
+     */
+    public List<CmsPermissionCheckResult> hasPermissions(
+        CmsDbContext dbc,
+        List<CmsResource> resources,
+        CmsPermissionSet requiredPermissions,
+        boolean checkLock,
+        CmsResourceFilter filter) throws CmsException {
+
+        CmsPermissionBatch batch = new CmsPermissionBatch(dbc);
+        List<CmsPermissionCheckResult> result = new ArrayList<CmsPermissionCheckResult>(resources.size());
+        for (CmsResource resource : resources) {
+            result.add(hasPermissions(dbc, resource, requiredPermissions, checkLock, filter, batch));
+        }
+        return result;
+    }
+
+    /**
+     * Performs the permission check on a single resource.<p>
+     *
+     * @param dbc the current database context
+     * @param resource the resource on which permissions are required
+     * @param requiredPermissions the set of permissions required for the operation
+     * @param checkLock if true, a lock for the current user is required for all write operations
+     * @param filter the resource filter to use
+     * @param batch the state shared between the checks of a batch, or <code>null</code> for a single check
+     *
+     * @return the permission check result
+     *
+     * @throws CmsException in case of i/o errors (NOT because of insufficient permissions)
+     */
+    protected CmsPermissionCheckResult hasPermissions(
+        CmsDbContext dbc,
+        CmsResource resource,
+        CmsPermissionSet requiredPermissions,
+        boolean checkLock,
+        CmsResourceFilter filter,
+        CmsPermissionBatch batch) throws CmsException {
+
         // check if the resource is valid according to the current filter
         // if not, throw a CmsResourceNotFoundException
         if (!filter.isValid(dbc.getRequestContext(), resource)) {
@@ -140,7 +238,9 @@ public class CmsDefaultPermissionHandler implements I_CmsPermissionHandler {
             permissions = new CmsPermissionSetCustom(~0);
         } else {
             // otherwise, get the permissions from the access control list
-            permissions = m_driverManager.getPermissions(dbc, resource, dbc.currentUser());
+            permissions = (batch == null)
+            ? m_driverManager.getPermissions(dbc, resource, dbc.currentUser())
+            : batch.getPermissions(resource);
         }
 
         // revoke the denied permissions
@@ -33,6 +33,8 @@ import org.opencms.file.CmsObject;
 import org.opencms.file.CmsResource;
 import org.opencms.file.CmsResourceFilter;
 import org.opencms.file.CmsUser;
+import org.opencms.file.CmsUserSearchParameters;
+import org.opencms.file.CmsUserSearchParameters.SortKey;
 import org.opencms.main.CmsException;
 import org.opencms.main.OpenCms;
 
@@ -229,6 +231,46 @@ public class CmsRoleManager {
         return users;
     }
 
+    /**
+     * Returns one page of the users of organizational units for which the current user has
+     * the {@link CmsRole#ACCOUNT_MANAGER} role, ordered by login name.<p>
+     *
+     * In contrast to {@link #getManageableUsers(CmsObject, String, boolean, boolean)}, the users are read
+     * with a single keyset paged query and without their additional infos, so this method can be used for
+     * organizational units with a large number of users.<p>
+     *
+     * @param cms the current cms context
+     * @param ouFqn the fully qualified name of the organizational unit
+     * @param includeSubOus if sub organizational units should be included in the search
+     * @param includeWebusers if webuser organizational units should be included in the search
+     * @param pageSize the maximum number of users to return
+     * @param lastUser the last user of the previous page, or <code>null</code> for the first page
+     *
+     * @return a list of {@link org.opencms.file.CmsUser} objects
+     *
+     * @throws CmsException if something goes wrong
+     */
+    public List<CmsUser> getManageableUsers(
+        CmsObject cms,
+        String ouFqn,
+        boolean includeSubOus,
+        boolean includeWebusers,
+        int pageSize,
+        CmsUser lastUser)
+    throws CmsException {
+
+        List<CmsOrganizationalUnit> ous = getManageableOrgUnits(cms, ouFqn, includeSubOus, includeWebusers);
+        if (ous.isEmpty()) {
+            return new ArrayList<CmsUser>();
+        }
+        CmsUserSearchParameters params = new CmsUserSearchParameters();
+        params.setAllowedOus(ous);
+        params.setSorting(SortKey.loginName, true);
+        params.setKeysetPaging(pageSize, lastUser);
+        params.setLoadAdditionalInfos(false);
+        return OpenCms.getOrgUnitManager().searchUsers(cms, params);
+    }
+
     /**
      * Returns all the organizational units for which the current user has the given role.<p>
      *
@@ -0,0 +1,75 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.security;
+
+import org.opencms.db.CmsDbContext;
+import org.opencms.file.CmsResource;
+import org.opencms.file.CmsResourceFilter;
+import org.opencms.main.CmsException;
+
+import java.util.List;
+
+/**
+ * Optional extension of the permission handler interface for checking the permissions of many resources at once.<p>
+ *
+ * If the configured permission handler does not implement this interface, the security manager checks
+ * the resources one by one with
+ * {@link I_CmsPermissionHandler#hasPermissions(CmsDbContext, CmsResource, CmsPermissionSet, boolean, CmsResourceFilter)}.<p>
+ *
+ * @since 10.0.0
+ *
+ * @see org.opencms.db.CmsSecurityManager#hasPermissions(org.opencms.file.CmsRequestContext, List, CmsPermissionSet, boolean, CmsResourceFilter)
+ */
+public interface I_CmsBatchPermissionHandler extends I_CmsPermissionHandler {
+
+    /**
+     * Performs a non-blocking permission check on a list of resources.<p>
+     *
+     * The results are the same as calling {@link #hasPermissions(CmsDbContext, CmsResource, CmsPermissionSet, boolean, CmsResourceFilter)}
+     * for every single resource, but implementations should share the evaluation of the groups and roles
+     * of the current user and of the access control lists of common parent folders.<p>
+     *
+     * @param dbc the current database context
+     * @param resources the resources on which permissions are required
+     * @param requiredPermissions the set of permissions required for the operation
+     * @param checkLock if true, a lock for the current user is required for
+     *      all write operations, if false it's ok to write as long as the resource
+     *      is not locked by another user
+     * @param filter the resource filter to use
+     *
+     * @return the permission check results, in the same order as the given resources
+     *
+     * @throws CmsException in case of i/o errors (NOT because of insufficient permissions)
+     */
+    List<CmsPermissionCheckResult> hasPermissions(
+        CmsDbContext dbc,
+        List<CmsResource> resources,
+        CmsPermissionSet requiredPermissions,
+        boolean checkLock,
+        CmsResourceFilter filter) throws CmsException;
+}
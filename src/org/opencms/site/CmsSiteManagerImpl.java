@@ -74,15 +74,6 @@ public final class CmsSiteManagerImpl {
     /** The static log object for this class. */
     private static final Log LOG = CmsLog.getLog(CmsSiteManagerImpl.class);
 
-    /** The path to the "/sites/" folder. */
-    private static final String SITES_FOLDER = "/sites/";
-
-    /** The length of the "/sites/" folder plus 1. */
-    private static final int SITES_FOLDER_POS = SITES_FOLDER.length() + 1;
-
-    /** A list of additional site roots, that is site roots that are not below the "/sites/" folder. */
-    private List<String> m_additionalSiteRoots;
-
     /**
      * The list of aliases for the site that is configured at the moment,
      * needed for the sites added during configuration. */
@@ -100,14 +91,14 @@ public final class CmsSiteManagerImpl {
     /** The shared folder name. */
     private String m_sharedFolder;
 
-    /** Contains all configured site matchers in a list for direct access. */
-    private List<CmsSiteMatcher> m_siteMatchers;
+    /** Maps all configured site matchers to themselves, to look up the configured instance for a request. */
+    private Map<CmsSiteMatcher, CmsSiteMatcher> m_siteMatchers;
 
     /** Maps site matchers to sites. */
     private Map<CmsSiteMatcher, CmsSite> m_siteMatcherSites;
 
-    /** Maps site roots to sites. */
-    private Map<String, CmsSite> m_siteRootSites;
+    /** Maps site roots to sites, with the index used to look up the site for a root path. */
+    private volatile CmsSiteRootIndex m_siteRootIndex;
 
     /** The workplace server. */
     private String m_workplaceServer;
@@ -121,10 +112,9 @@ public final class CmsSiteManagerImpl {
      */
     public CmsSiteManagerImpl() {
 
-        m_siteMatcherSites = new HashMap<CmsSiteMatcher, CmsSite>();
-        m_siteRootSites = new HashMap<String, CmsSite>();
+        setSiteMatcherSites(new HashMap<CmsSiteMatcher, CmsSite>());
+        setSiteRootSites(new HashMap<String, CmsSite>());
         m_aliases = new ArrayList<CmsSiteMatcher>();
-        m_additionalSiteRoots = new ArrayList<String>();
 
         if (CmsLog.INIT.isInfoEnabled()) {
             CmsLog.INIT.info(Messages.get().getBundle().key(Messages.INIT_START_SITE_CONFIG_0));
@@ -279,8 +269,9 @@ public final class CmsSiteManagerImpl {
             addServer(matcher, site);
         }
         m_aliases = new ArrayList<CmsSiteMatcher>();
-        m_siteRootSites = new HashMap<String, CmsSite>(m_siteRootSites);
-        m_siteRootSites.put(site.getSiteRoot(), site);
+        Map<String, CmsSite> siteRootSites = new HashMap<String, CmsSite>(m_siteRootIndex.getSites());
+        siteRootSites.put(site.getSiteRoot(), site);
+        setSiteRootSites(siteRootSites);
         if (CmsLog.INIT.isInfoEnabled()) {
             CmsLog.INIT.info(Messages.get().getBundle().key(Messages.INIT_SITE_ROOT_ADDED_1, site.toString()));
         }
@@ -363,6 +354,7 @@ public final class CmsSiteManagerImpl {
             }
 
             Collections.sort(siteroots); // sort by resource name
+            Map<String, CmsSite> siteRootSites = m_siteRootIndex.getSites();
             Iterator<String> roots = siteroots.iterator();
             while (roots.hasNext()) {
                 String folder = roots.next();
@@ -387,7 +379,7 @@ public final class CmsSiteManagerImpl {
                                 CmsResourceFilter.ONLY_VISIBLE)) {
 
                             // get the title and the position from the system configuration first
-                            CmsSite configuredSite = m_siteRootSites.get(CmsFileUtil.removeTrailingSeparator(folder));
+                            CmsSite configuredSite = siteRootSites.get(CmsFileUtil.removeTrailingSeparator(folder));
 
                             // get the title
                             String title = null;
@@ -566,7 +558,7 @@ public final class CmsSiteManagerImpl {
     public Optional<CmsSite> getSiteForDefaultUri() {
 
         String defaultUri = getDefaultUri();
-        CmsSite candidate = m_siteRootSites.get(CmsFileUtil.removeTrailingSeparator(defaultUri));
+        CmsSite candidate = m_siteRootIndex.getSites().get(CmsFileUtil.removeTrailingSeparator(defaultUri));
         return Optional.fromNullable(candidate);
     }
 
@@ -587,14 +579,7 @@ public final class CmsSiteManagerImpl {
         if ((rootPath.length() > 0) && !rootPath.endsWith("/")) {
             rootPath = rootPath + "/";
         }
-        // most sites will be below the "/sites/" folder,
-        CmsSite result = lookupSitesFolder(rootPath);
-        if (result != null) {
-            return result;
-        }
-        // look through all folders that are not below "/sites/"
-        String siteRoot = lookupAdditionalSite(rootPath);
-        return (siteRoot != null) ? getSiteForSiteRoot(siteRoot) : null;
+        return m_siteRootIndex.getSite(rootPath);
     }
 
     /**
@@ -614,7 +599,7 @@ public final class CmsSiteManagerImpl {
      */
     public CmsSite getSiteForSiteRoot(String siteRoot) {
 
-        return m_siteRootSites.get(siteRoot);
+        return m_siteRootIndex.getSites().get(siteRoot);
     }
 
     /**
@@ -638,13 +623,8 @@ public final class CmsSiteManagerImpl {
         if (!rootPath.endsWith("/")) {
             rootPath = rootPath + "/";
         }
-        // most sites will be below the "/sites/" folder,
-        CmsSite site = lookupSitesFolder(rootPath);
-        if (site != null) {
-            return site.getSiteRoot();
-        }
-        // look through all folders that are not below "/sites/"
-        return lookupAdditionalSite(rootPath);
+        CmsSite site = m_siteRootIndex.getSite(rootPath);
+        return (site != null) ? site.getSiteRoot() : null;
     }
 
     /**
@@ -654,7 +634,7 @@ public final class CmsSiteManagerImpl {
      */
     public Set<String> getSiteRoots() {
 
-        return m_siteRootSites.keySet();
+        return m_siteRootIndex.getSites().keySet();
     }
 
     /**
@@ -788,13 +768,6 @@ public final class CmsSiteManagerImpl {
             // set site lists to unmodifiable
             setSiteMatcherSites(m_siteMatcherSites);
 
-            // store additional site roots to optimize lookups later
-            for (String root : m_siteRootSites.keySet()) {
-                if (!root.startsWith(SITES_FOLDER)) {
-                    m_additionalSiteRoots.add(root);
-                }
-            }
-
             // initialization is done, set the frozen flag to true
             m_frozen = true;
         } catch (CmsException e) {
@@ -971,9 +944,9 @@ public final class CmsSiteManagerImpl {
         setSiteMatcherSites(siteMatcherSites);
 
         // remove the site from the map holding the site roots as keys and the sites as values
-        Map<String, CmsSite> siteRootSites = new HashMap<String, CmsSite>(m_siteRootSites);
+        Map<String, CmsSite> siteRootSites = new HashMap<String, CmsSite>(m_siteRootIndex.getSites());
         siteRootSites.remove(site.getSiteRoot());
-        m_siteRootSites = Collections.unmodifiableMap(siteRootSites);
+        setSiteRootSites(siteRootSites);
 
         // re-initialize, will freeze the state when finished
         initialize(cms);
@@ -1150,60 +1123,37 @@ public final class CmsSiteManagerImpl {
 
         CmsSiteMatcher matcher = new CmsSiteMatcher(req.getScheme(), req.getServerName(), req.getServerPort());
         // this is required to get the right configured time offset
-        int index = m_siteMatchers.indexOf(matcher);
-        if (index < 0) {
-            return matcher;
-        }
-        return m_siteMatchers.get(index);
+        CmsSiteMatcher configured = m_siteMatchers.get(matcher);
+        return (configured != null) ? configured : matcher;
     }
 
     /**
-     * Returns <code>true</code> if the given root path matches any of the stored additional sites.<p>
-     *
-     * @param rootPath the root path to check
+     * Sets the class member variables {@link #m_siteMatcherSites} and  {@link #m_siteMatchers}
+     * from the provided map of configured site matchers.<p>
      *
-     * @return <code>true</code> if the given root path matches any of the stored additional sites
+     * @param siteMatcherSites the site matches to set
      */
-    private String lookupAdditionalSite(String rootPath) {
+    private void setSiteMatcherSites(Map<CmsSiteMatcher, CmsSite> siteMatcherSites) {
 
-        for (int i = 0, size = m_additionalSiteRoots.size(); i < size; i++) {
-            String siteRoot = m_additionalSiteRoots.get(i);
-            if (rootPath.startsWith(siteRoot)) {
-                return siteRoot;
-            }
+        m_siteMatcherSites = Collections.unmodifiableMap(siteMatcherSites);
+        Map<CmsSiteMatcher, CmsSiteMatcher> siteMatchers = new HashMap<CmsSiteMatcher, CmsSiteMatcher>();
+        for (CmsSiteMatcher matcher : m_siteMatcherSites.keySet()) {
+            siteMatchers.put(matcher, matcher);
         }
-        return null;
+        m_siteMatchers = Collections.unmodifiableMap(siteMatchers);
     }
 
     /**
-     * Returns the configured site if the given root path matches site in the "/sites/" folder,
-     * or <code>null</code> otherwise.<p>
+     * Sets the class member variable {@link #m_siteRootIndex} from the provided map
+     * of configured site roots.<p>
      *
-     * @param rootPath the root path to check
-     *
-     * @return the configured site if the given root path matches site in the "/sites/" folder,
-     *      or <code>null</code> otherwise
-     */
-    private CmsSite lookupSitesFolder(String rootPath) {
-
-        int pos = rootPath.indexOf('/', SITES_FOLDER_POS);
-        if (pos > 0) {
-            // this assumes that the root path may likely start with something like "/sites/default/"
-            // just cut the first 2 directories from the root path and do a direct lookup in the internal map
-            return m_siteRootSites.get(rootPath.substring(0, pos));
-        }
-        return null;
-    }
-
-    /**
-     * Sets the class member variables {@link #m_siteMatcherSites} and  {@link #m_siteMatchers}
-     * from the provided map of configured site matchers.<p>
+     * The map and its index are published together through the single volatile field,
+     * so readers never see a map that does not match the index.<p>
      *
-     * @param siteMatcherSites the site matches to set
+     * @param siteRootSites the sites, with their site roots as keys
      */
-    private void setSiteMatcherSites(Map<CmsSiteMatcher, CmsSite> siteMatcherSites) {
+    private void setSiteRootSites(Map<String, CmsSite> siteRootSites) {
 
-        m_siteMatcherSites = Collections.unmodifiableMap(siteMatcherSites);
-        m_siteMatchers = Collections.unmodifiableList(new ArrayList<CmsSiteMatcher>(m_siteMatcherSites.keySet()));
+        m_siteRootIndex = new CmsSiteRootIndex(siteRootSites);
     }
 }
\ No newline at end of file
@@ -29,6 +29,8 @@ package org.opencms.site;
 
 import org.opencms.util.CmsStringUtil;
 
+import java.util.Locale;
+
 /**
  * A matcher object to compare request data against the configured sites.<p>
  *
@@ -278,7 +280,8 @@ public final class CmsSiteMatcher implements Cloneable {
     public int hashCode() {
 
         if (m_hashCode == null) {
-            m_hashCode = new Integer(toString().hashCode());
+            // the server name is compared case insensitive in equals, so its case must not influence the hash code
+            m_hashCode = new Integer(toString().toLowerCase(Locale.ENGLISH).hashCode());
         }
         return m_hashCode.intValue();
     }
@@ -0,0 +1,191 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.site;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Index over the configured site roots, used to find the site for a root path.<p>
+ *
+ * Most site roots are directly below the "/sites/" folder. For root paths below this folder, only
+ * the first two folder levels are used as site root, like "/sites/default", and looked up directly.
+ * All other site roots are stored in a prefix trie. A lookup walks the characters of the root path once
+ * and returns the site with the longest of these site roots that is a parent folder of (or equal to)
+ * the root path.<p>
+ *
+ * The index also keeps the map of site roots it was built from, so both are published together.
+ * The index is immutable, the site manager builds a new one whenever the configured site roots change.<p>
+ *
+ * @since 10.0.0
+ */
+final class CmsSiteRootIndex {
+
+    /**
+     * A node of the trie.<p>
+     */
+    private static final class Node {
+
+        /** The characters leading to the child nodes, sorted. */
+        char[] m_chars = new char[0];
+
+        /** The child nodes, in the order of {@link #m_chars}. */
+        Node[] m_children = new Node[0];
+
+        /** The site whose site root plus a trailing "/" ends at this node. */
+        CmsSite m_site;
+
+        /**
+         * Returns the child node for the given character.<p>
+         *
+         * @param c the character
+         *
+         * @return the child node, or <code>null</code> if there is none
+         */
+        Node getChild(char c) {
+
+            int pos = Arrays.binarySearch(m_chars, c);
+            return pos < 0 ? null : m_children[pos];
+        }
+
+        /**
+         * Returns the child node for the given character, creating it if necessary.<p>
+         *
+         * @param c the character
+         *
+         * @return the child node
+         */
+        Node getOrCreateChild(char c) {
+
+            int pos = Arrays.binarySearch(m_chars, c);
+            if (pos >= 0) {
+                return m_children[pos];
+            }
+            pos = -(pos + 1);
+            int len = m_chars.length;
+            char[] chars = new char[len + 1];
+            Node[] children = new Node[len + 1];
+            System.arraycopy(m_chars, 0, chars, 0, pos);
+            System.arraycopy(m_children, 0, children, 0, pos);
+            System.arraycopy(m_chars, pos, chars, pos + 1, len - pos);
+            System.arraycopy(m_children, pos, children, pos + 1, len - pos);
+            Node child = new Node();
+            chars[pos] = c;
+            children[pos] = child;
+            m_chars = chars;
+            m_children = children;
+            return child;
+        }
+    }
+
+    /** The folder containing most of the site roots. */
+    private static final String SITES_FOLDER = "/sites/";
+
+    /** The root node of the trie for the site roots outside of the "/sites/" folder. */
+    private final Node m_root;
+
+    /** The sites, with their site roots as keys. */
+    private final Map<String, CmsSite> m_sites;
+
+    /**
+     * Creates a new index for the given sites.<p>
+     *
+     * The given map must not be modified afterwards.<p>
+     *
+     * @param siteRootSites the sites, with their site roots as keys
+     */
+    CmsSiteRootIndex(Map<String, CmsSite> siteRootSites) {
+
+        m_sites = Collections.unmodifiableMap(siteRootSites);
+        m_root = new Node();
+        for (Map.Entry<String, CmsSite> entry : siteRootSites.entrySet()) {
+            String key = entry.getKey();
+            if (key.startsWith(SITES_FOLDER)) {
+                // looked up directly with the first two folder levels of the root path
+                continue;
+            }
+            Node node = m_root;
+            for (int i = 0, len = key.length(); i < len; i++) {
+                node = node.getOrCreateChild(key.charAt(i));
+            }
+            if (!key.endsWith("/")) {
+                node = node.getOrCreateChild('/');
+            }
+            node.m_site = entry.getValue();
+        }
+    }
+
+    /**
+     * Returns the site for the given root path.<p>
+     *
+     * For root paths below the "/sites/" folder, the site with the first two folder levels
+     * of the root path as site root is returned if there is one. Otherwise, the site with the longest
+     * site root outside of the "/sites/" folder matching the given root path is returned.<p>
+     *
+     * @param rootPath the root path, which must end with a "/"
+     *
+     * @return the matching site, or <code>null</code> if no site root matches
+     */
+    CmsSite getSite(String rootPath) {
+
+        if (rootPath.startsWith(SITES_FOLDER)) {
+            int pos = rootPath.indexOf('/', SITES_FOLDER.length());
+            if (pos > 0) {
+                // the root path likely starts with something like "/sites/default/"
+                CmsSite site = m_sites.get(rootPath.substring(0, pos));
+                if (site != null) {
+                    return site;
+                }
+            }
+        }
+        CmsSite result = null;
+        Node node = m_root;
+        for (int i = 0, len = rootPath.length(); i < len; i++) {
+            node = node.getChild(rootPath.charAt(i));
+            if (node == null) {
+                break;
+            }
+            if (node.m_site != null) {
+                result = node.m_site;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the unmodifiable map of the indexed sites, with their site roots as keys.<p>
+     *
+     * @return the indexed sites
+     */
+    Map<String, CmsSite> getSites() {
+
+        return m_sites;
+    }
+}
@@ -47,6 +47,7 @@ import org.opencms.util.CmsUUID;
 import org.opencms.workplace.CmsWorkplace;
 
 import java.net.URI;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 
@@ -163,53 +164,84 @@ public class CmsDefaultLinkSubstitutionHandler implements I_CmsLinkSubstitutionH
         String originalVfsName = vfsName;
         String detailPage = null;
         CmsResource detailContent = null;
-        try {
-            String rootVfsName;
-            if (!vfsName.startsWith(targetSiteRoot)
-                && !vfsName.startsWith(CmsResource.VFS_FOLDER_SYSTEM + "/")
-                && !OpenCms.getSiteManager().startsWithShared(vfsName)) {
-                rootVfsName = CmsStringUtil.joinPaths(targetSiteRoot, vfsName);
-            } else {
-                rootVfsName = vfsName;
-            }
-            if (!rootVfsName.startsWith(CmsWorkplace.VFS_PATH_WORKPLACE)) {
-                // never use the ADE manager for workplace links, to be sure the workplace stays usable in case of configuration errors
-                I_CmsDetailPageFinder finder = OpenCms.getADEManager().getDetailPageFinder();
-                detailPage = finder.getDetailPage(cms, rootVfsName, cms.getRequestContext().getUri());
-            }
-            if (detailPage != null) {
-                CmsSite detailPageSite = OpenCms.getSiteManager().getSiteForRootPath(detailPage);
+        List<String> linkDependencies = new ArrayList<String>();
+
+        // in the online project, use the cached link if available
+        CmsOnlineLinkCache linkCache = null;
+        String linkCacheKey = null;
+        long linkCacheGeneration = 0;
+        CmsOnlineLinkCacheEntry cachedLink = null;
+        if (cms.getRequestContext().getCurrentProject().isOnlineProject()) {
+            linkCache = OpenCms.getStaticExportManager().getOnlineLinkCache();
+            linkCacheKey = CmsOnlineLinkCache.getCacheKey(
+                cms,
+                targetSiteRoot,
+                (parameters != null) ? vfsName.concat(parameters) : vfsName);
+            linkCacheGeneration = linkCache.getGeneration();
+            cachedLink = linkCache.getCachedLink(linkCacheKey);
+        }
+
+        if (cachedLink != null) {
+            if (cachedLink.getOverrideSiteRoot() != null) {
+                // the cached link points to a detail page in another site
+                CmsSite detailPageSite = OpenCms.getSiteManager().getSiteForSiteRoot(
+                    cachedLink.getOverrideSiteRoot());
                 if (detailPageSite != null) {
                     targetSite = detailPageSite;
                     overrideSiteRoot = targetSiteRoot = targetSite.getSiteRoot();
-                    detailPage = detailPage.substring(targetSiteRoot.length());
-                    if (!detailPage.startsWith("/")) {
-                        detailPage = "/" + detailPage;
-                    }
                 }
-                String originalSiteRoot = cms.getRequestContext().getSiteRoot();
-                try {
-                    cms.getRequestContext().setSiteRoot("");
-                    CmsResource element = cms.readResource(rootVfsName);
-                    detailContent = element;
-                    Locale locale = cms.getRequestContext().getLocale();
-                    List<Locale> defaultLocales = OpenCms.getLocaleManager().getDefaultLocales();
-                    vfsName = CmsStringUtil.joinPaths(
-                        detailPage,
-                        cms.getDetailName(element, locale, defaultLocales),
-                        "/");
-
-                } catch (CmsVfsException e) {
-                    LOG.error(e.getLocalizedMessage(), e);
-                } finally {
-                    cms.getRequestContext().setSiteRoot(originalSiteRoot);
+            }
+        } else {
+            try {
+                String rootVfsName;
+                if (!vfsName.startsWith(targetSiteRoot)
+                    && !vfsName.startsWith(CmsResource.VFS_FOLDER_SYSTEM + "/")
+                    && !OpenCms.getSiteManager().startsWithShared(vfsName)) {
+                    rootVfsName = CmsStringUtil.joinPaths(targetSiteRoot, vfsName);
+                } else {
+                    rootVfsName = vfsName;
+                }
+                linkDependencies.add(rootVfsName);
+                if (!rootVfsName.startsWith(CmsWorkplace.VFS_PATH_WORKPLACE)) {
+                    // never use the ADE manager for workplace links, to be sure the workplace stays usable in case of configuration errors
+                    I_CmsDetailPageFinder finder = OpenCms.getADEManager().getDetailPageFinder();
+                    detailPage = finder.getDetailPage(cms, rootVfsName, cms.getRequestContext().getUri());
+                }
+                if (detailPage != null) {
+                    linkDependencies.add(detailPage);
+                    CmsSite detailPageSite = OpenCms.getSiteManager().getSiteForRootPath(detailPage);
+                    if (detailPageSite != null) {
+                        targetSite = detailPageSite;
+                        overrideSiteRoot = targetSiteRoot = targetSite.getSiteRoot();
+                        detailPage = detailPage.substring(targetSiteRoot.length());
+                        if (!detailPage.startsWith("/")) {
+                            detailPage = "/" + detailPage;
+                        }
+                    }
+                    String originalSiteRoot = cms.getRequestContext().getSiteRoot();
+                    try {
+                        cms.getRequestContext().setSiteRoot("");
+                        CmsResource element = cms.readResource(rootVfsName);
+                        detailContent = element;
+                        Locale locale = cms.getRequestContext().getLocale();
+                        List<Locale> defaultLocales = OpenCms.getLocaleManager().getDefaultLocales();
+                        vfsName = CmsStringUtil.joinPaths(
+                            detailPage,
+                            cms.getDetailName(element, locale, defaultLocales),
+                            "/");
+
+                    } catch (CmsVfsException e) {
+                        LOG.error(e.getLocalizedMessage(), e);
+                    } finally {
+                        cms.getRequestContext().setSiteRoot(originalSiteRoot);
 
+                    }
                 }
+            } catch (CmsVfsResourceNotFoundException e) {
+                LOG.info(e.getLocalizedMessage(), e);
+            } catch (CmsException e) {
+                LOG.error(e.getLocalizedMessage(), e);
             }
-        } catch (CmsVfsResourceNotFoundException e) {
-            LOG.info(e.getLocalizedMessage(), e);
-        } catch (CmsException e) {
-            LOG.error(e.getLocalizedMessage(), e);
         }
 
         // if the link points to another site, there needs to be a server prefix
@@ -221,7 +253,7 @@ public class CmsDefaultLinkSubstitutionHandler implements I_CmsLinkSubstitutionH
         }
 
         // in the online project, check static export and secure settings
-        if (cms.getRequestContext().getCurrentProject().isOnlineProject()) {
+        if (linkCache != null) {
             // first check if this link needs static export
             CmsStaticExportManager exportManager = OpenCms.getStaticExportManager();
             String oriUri = cms.getRequestContext().getUri();
@@ -247,106 +279,66 @@ public class CmsDefaultLinkSubstitutionHandler implements I_CmsLinkSubstitutionH
                     OpenCms.getStaticExportManager().getRfsPrefix(cms.getRequestContext().getSiteRoot() + oriUri));
             }
 
-            String detailPagePart = detailPage == null ? "" : detailPage + ":";
-            // check if we have the absolute VFS name for the link target cached
-            // (We really need the target site root in the cache key, because different resources with the same site paths
-            // but in different sites may have different export settings. It seems we don't really need the site root
-            // from the request context as part of the key, but we'll leave it in to make sure we don't break anything.)
-            String cacheKey = cms.getRequestContext().getSiteRoot()
-                + ":"
-                + targetSiteRoot
-                + ":"
-                + detailPagePart
-                + absoluteLink;
-            resultLink = exportManager.getCachedOnlineLink(cacheKey);
-            if (resultLink == null) {
-                String storedSiteRoot = cms.getRequestContext().getSiteRoot();
-                try {
-                    cms.getRequestContext().setSiteRoot(targetSite.getSiteRoot());
-                    // didn't find the link in the cache
-                    if (exportManager.isExportLink(cms, vfsName)) {
-                        // export required, get export name for target link
-                        resultLink = exportManager.getRfsName(cms, vfsName, parameters);
-                        // now set the parameters to null, we do not need them anymore
-                        parameters = null;
-                    } else {
-                        // no export required for the target link
-                        resultLink = exportManager.getVfsPrefix().concat(vfsName);
-                        // add cut off parameters if required
-                        if (parameters != null) {
-                            resultLink = resultLink.concat(parameters);
+            if (cachedLink == null) {
+                // didn't find the link in the cache, check for the export part, which does not depend on the page
+                String exportCacheKey = CmsOnlineLinkCache.getExportCacheKey(
+                    cms,
+                    targetSiteRoot,
+                    (parameters != null) ? vfsName.concat(parameters) : vfsName);
+                CmsOnlineLinkCacheEntry exportLink = linkCache.getCachedExportLink(exportCacheKey);
+                if (exportLink != null) {
+                    resultLink = exportLink.getLink();
+                } else {
+                    String storedSiteRoot = cms.getRequestContext().getSiteRoot();
+                    try {
+                        cms.getRequestContext().setSiteRoot(targetSite.getSiteRoot());
+                        if (exportManager.isExportLink(cms, vfsName)) {
+                            // export required, get export name for target link
+                            resultLink = exportManager.getRfsName(cms, vfsName, parameters);
+                        } else {
+                            // no export required for the target link
+                            resultLink = exportManager.getVfsPrefix().concat(vfsName);
+                            // add cut off parameters if required
+                            if (parameters != null) {
+                                resultLink = resultLink.concat(parameters);
+                            }
                         }
+                    } finally {
+                        cms.getRequestContext().setSiteRoot(storedSiteRoot);
                     }
-                } finally {
-                    cms.getRequestContext().setSiteRoot(storedSiteRoot);
+                    // the export part depends only on the link target and the detail page
+                    exportLink = new CmsOnlineLinkCacheEntry(resultLink, null, null, linkDependencies);
+                    linkCache.putCachedExportLink(exportCacheKey, linkCacheGeneration, exportLink);
+                }
+                Boolean secureLink = null;
+                // check if either the current site or the target site does have a secure server configured
+                if ((targetSite.hasSecureServer() || currentSite.hasSecureServer())
+                    && !vfsName.startsWith(CmsWorkplace.VFS_PATH_SYSTEM)) {
+                    // don't make a secure connection to the "/system" folder (why ?)
+                    secureLink = isSecureTarget(cms, originalVfsName, vfsName, detailPage, detailContent, targetSite);
+                    linkDependencies.add(cms.getRequestContext().addSiteRoot(originalVfsName));
+                    linkDependencies.add(cms.getRequestContext().addSiteRoot(oriUri));
                 }
                 // cache the result
-                exportManager.cacheOnlineLink(cacheKey, resultLink);
+                cachedLink = new CmsOnlineLinkCacheEntry(resultLink, overrideSiteRoot, secureLink, linkDependencies);
+                linkCache.putCachedLink(linkCacheKey, linkCacheGeneration, cachedLink);
             }
+            resultLink = cachedLink.getLink();
 
             // now check for the secure settings
-
-            // check if either the current site or the target site does have a secure server configured
-            if (targetSite.hasSecureServer() || currentSite.hasSecureServer()) {
-
-                if (!vfsName.startsWith(CmsWorkplace.VFS_PATH_SYSTEM)) {
-                    // don't make a secure connection to the "/system" folder (why ?)
-                    int linkType = -1;
-                    try {
-                        // read the linked resource
-                        linkType = cms.readResource(originalVfsName).getTypeId();
-                    } catch (CmsException e) {
-                        // the resource could not be read
-                        if (LOG.isInfoEnabled()) {
-                            String message = Messages.get().getBundle().key(
-                                Messages.LOG_RESOURCE_ACESS_ERROR_3,
-                                vfsName,
-                                cms.getRequestContext().getCurrentUser().getName(),
-                                cms.getRequestContext().getSiteRoot());
-                            if (LOG.isDebugEnabled()) {
-                                LOG.debug(message, e);
-                            } else {
-                                LOG.info(message);
-                            }
-                        }
-                    }
-
-                    // images are always referenced without a server prefix
-                    int imageId;
-                    try {
-                        imageId = OpenCms.getResourceManager().getResourceType(
-                            CmsResourceTypeImage.getStaticTypeName()).getTypeId();
-                    } catch (CmsLoaderException e1) {
-                        // should really never happen
-                        LOG.warn(e1.getLocalizedMessage(), e1);
-                        imageId = CmsResourceTypeImage.getStaticTypeId();
-                    }
-                    boolean hasIsImageLinkAttr = Boolean.parseBoolean(
-                        "" + cms.getRequestContext().getAttribute(ATTR_IS_IMAGE_LINK));
-                    if ((linkType != imageId) && !hasIsImageLinkAttr) {
-                        // check the secure property of the link
-                        boolean secureRequest = cms.getRequestContext().isSecureRequest()
-                            || exportManager.isSecureLink(cms, oriUri);
-
-                        boolean secureLink;
-                        if (detailContent == null) {
-                            secureLink = isSecureLink(cms, vfsName, targetSite, secureRequest);
-                        } else {
-                            secureLink = isDetailPageLinkSecure(
-                                cms,
-                                detailPage,
-                                detailContent,
-                                targetSite,
-                                secureRequest);
-
-                        }
-                        // if we are on a normal server, and the requested resource is secure,
-                        // the server name has to be prepended
-                        if (secureLink && (forceSecure || !secureRequest)) {
-                            serverPrefix = targetSite.getSecureUrl();
-                        } else if (!secureLink && secureRequest) {
-                            serverPrefix = targetSite.getUrl();
-                        }
+            if (cachedLink.getSecureLink() != null) {
+                boolean hasIsImageLinkAttr = Boolean.parseBoolean(
+                    "" + cms.getRequestContext().getAttribute(ATTR_IS_IMAGE_LINK));
+                if (!hasIsImageLinkAttr) {
+                    boolean secureRequest = cms.getRequestContext().isSecureRequest()
+                        || exportManager.isSecureLink(cms, oriUri);
+                    boolean secureLink = cachedLink.getSecureLink().booleanValue();
+                    // if we are on a normal server, and the requested resource is secure,
+                    // the server name has to be prepended
+                    if (secureLink && (forceSecure || !secureRequest)) {
+                        serverPrefix = targetSite.getSecureUrl();
+                    } else if (!secureLink && secureRequest) {
+                        serverPrefix = targetSite.getUrl();
                     }
                 }
             }
@@ -699,4 +691,64 @@ public class CmsDefaultLinkSubstitutionHandler implements I_CmsLinkSubstitutionH
         }
     }
 
+    /**
+     * Checks if the target of an online link is secure.<p>
+     *
+     * @param cms the current CMS context
+     * @param originalVfsName the path of the link target, before detail page links are resolved
+     * @param vfsName the path of the link target
+     * @param detailPage the detail page path, or <code>null</code> if the link does not point to a detail page
+     * @param detailContent the detail content resource, or <code>null</code> if the link does not point to a detail page
+     * @param targetSite the target site of the link
+     *
+     * @return <code>true</code> if the link target is secure, or <code>null</code> if the link target is an image
+     */
+    private Boolean isSecureTarget(
+        CmsObject cms,
+        String originalVfsName,
+        String vfsName,
+        String detailPage,
+        CmsResource detailContent,
+        CmsSite targetSite) {
+
+        int linkType = -1;
+        try {
+            // read the linked resource
+            linkType = cms.readResource(originalVfsName).getTypeId();
+        } catch (CmsException e) {
+            // the resource could not be read
+            if (LOG.isInfoEnabled()) {
+                String message = Messages.get().getBundle().key(
+                    Messages.LOG_RESOURCE_ACESS_ERROR_3,
+                    vfsName,
+                    cms.getRequestContext().getCurrentUser().getName(),
+                    cms.getRequestContext().getSiteRoot());
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug(message, e);
+                } else {
+                    LOG.info(message);
+                }
+            }
+        }
+
+        // images are always referenced without a server prefix
+        int imageId;
+        try {
+            imageId = OpenCms.getResourceManager().getResourceType(CmsResourceTypeImage.getStaticTypeName()).getTypeId();
+        } catch (CmsLoaderException e1) {
+            // should really never happen
+            LOG.warn(e1.getLocalizedMessage(), e1);
+            imageId = CmsResourceTypeImage.getStaticTypeId();
+        }
+        if (linkType == imageId) {
+            return null;
+        }
+        // check the secure property of the link
+        boolean secureRequest = cms.getRequestContext().isSecureRequest()
+            || OpenCms.getStaticExportManager().isSecureLink(cms, cms.getRequestContext().getUri());
+        if (detailContent == null) {
+            return Boolean.valueOf(isSecureLink(cms, vfsName, targetSite, secureRequest));
+        }
+        return Boolean.valueOf(isDetailPageLinkSecure(cms, detailPage, detailContent, targetSite, secureRequest));
+    }
 }
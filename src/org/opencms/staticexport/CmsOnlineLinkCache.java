@@ -0,0 +1,322 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.staticexport;
+
+import org.opencms.db.CmsPublishedResource;
+import org.opencms.file.CmsObject;
+import org.opencms.main.CmsEvent;
+import org.opencms.main.CmsException;
+import org.opencms.main.CmsLog;
+import org.opencms.main.I_CmsEventListener;
+import org.opencms.main.OpenCms;
+import org.opencms.monitor.CmsMemoryMonitor;
+import org.opencms.util.CmsFileUtil;
+import org.opencms.util.CmsUUID;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+
+/**
+ * Caches the links calculated by the link substitution handler for the online project.<p>
+ *
+ * Calculating an online link involves the detail page lookup, the export rules and the export and secure
+ * properties of the link target. Each cached link records the root paths of the resources it was calculated
+ * from, so a publish operation only removes the links whose targets were actually changed. All links are
+ * removed by the online ADE configuration cache whenever it has applied a changed sitemap or module
+ * configuration, since these define the detail pages, see {@link #flush()}.<p>
+ *
+ * The cache keys contain the site root, user, URI, locale and secure flag of the current request,
+ * since the detail page lookup and the secure settings depend on them. The export part of a link,
+ * which does not depend on the current page, is cached separately with keys that contain only the
+ * request site root, the target site root and the resolved link, so it is shared between pages.<p>
+ *
+ * @since 10.0.0
+ */
+public class CmsOnlineLinkCache implements I_CmsEventListener {
+
+    /** The log object for this class. */
+    private static final Log LOG = CmsLog.getLog(CmsOnlineLinkCache.class);
+
+    /** The cached export parts of links, which do not depend on the current page. */
+    private Map<String, CmsOnlineLinkCacheEntry> m_exportLinks;
+
+    /** Incremented whenever cached links are removed. */
+    private AtomicLong m_generation = new AtomicLong();
+
+    /** The cached links. */
+    private Map<String, CmsOnlineLinkCacheEntry> m_links;
+
+    /**
+     * Creates a new online link cache.<p>
+     *
+     * @param size the maximum number of cached links, and of cached export parts of links
+     */
+    public CmsOnlineLinkCache(int size) {
+
+        m_links = CmsMemoryMonitor.createLRUCacheMap(size);
+        OpenCms.getMemoryMonitor().register(getClass().getName(), m_links);
+        m_exportLinks = CmsMemoryMonitor.createLRUCacheMap(size);
+        OpenCms.getMemoryMonitor().register(getClass().getName() + ".m_exportLinks", m_exportLinks);
+        OpenCms.addCmsEventListener(
+            this,
+            new int[] {
+                I_CmsEventListener.EVENT_PUBLISH_PROJECT,
+                I_CmsEventListener.EVENT_CLEAR_CACHES,
+                I_CmsEventListener.EVENT_CLEAR_ONLINE_CACHES,
+                I_CmsEventListener.EVENT_UPDATE_EXPORTS});
+    }
+
+    /**
+     * Returns the cache key for a link.<p>
+     *
+     * @param cms the current users OpenCms context
+     * @param targetSiteRoot the root of the site the link should point to
+     * @param link the absolute link, including parameters but without anchor
+     *
+     * @return the cache key
+     */
+    public static String getCacheKey(CmsObject cms, String targetSiteRoot, String link) {
+
+        StringBuffer result = new StringBuffer(128 + link.length());
+        result.append(cms.getRequestContext().getSiteRoot()).append('|');
+        result.append(cms.getRequestContext().getCurrentUser().getId()).append('|');
+        result.append(targetSiteRoot).append('|');
+        result.append(cms.getRequestContext().getUri()).append('|');
+        result.append(cms.getRequestContext().getLocale()).append('|');
+        result.append(cms.getRequestContext().isSecureRequest() ? 's' : 'n').append('|');
+        result.append(link);
+        return result.toString();
+    }
+
+    /**
+     * Returns the cache key for the export part of a link, which does not depend on the current page.<p>
+     *
+     * @param cms the current users OpenCms context
+     * @param targetSiteRoot the root of the site the link points to, after detail pages are resolved
+     * @param link the link, after detail pages are resolved, including parameters but without anchor
+     *
+     * @return the cache key
+     */
+    public static String getExportCacheKey(CmsObject cms, String targetSiteRoot, String link) {
+
+        StringBuffer result = new StringBuffer(64 + link.length());
+        result.append(cms.getRequestContext().getSiteRoot()).append('|');
+        result.append(targetSiteRoot).append('|');
+        result.append(link);
+        return result.toString();
+    }
+
+    /**
+     * @see org.opencms.main.I_CmsEventListener#cmsEvent(org.opencms.main.CmsEvent)
+     */
+    public void cmsEvent(CmsEvent event) {
+
+        if (event.getType() != I_CmsEventListener.EVENT_PUBLISH_PROJECT) {
+            flush();
+            return;
+        }
+        m_generation.incrementAndGet();
+        String publishId = (String)event.getData().get(I_CmsEventListener.KEY_PUBLISHID);
+        List<CmsPublishedResource> publishedResources = null;
+        if (publishId != null) {
+            try {
+                CmsObject cms = OpenCms.initCmsObject(OpenCms.getDefaultUsers().getUserGuest());
+                publishedResources = cms.readPublishedResources(new CmsUUID(publishId));
+            } catch (CmsException e) {
+                LOG.warn(Messages.get().getBundle().key(Messages.LOG_ONLINE_LINKS_PUBLISHED_FAILED_1, publishId), e);
+            }
+        }
+        if ((publishedResources == null) || publishedResources.isEmpty()) {
+            // not a normal publish process, remove all links to be on the safe side
+            flush();
+        } else {
+            uncachePublishedResources(publishedResources);
+        }
+    }
+
+    /**
+     * Removes all cached links.<p>
+     *
+     * This is called by the online ADE configuration cache after it has applied changed configurations,
+     * and not already when the configurations are published, since links calculated before the changes
+     * are applied would otherwise be cached with the old detail pages.<p>
+     */
+    public void flush() {
+
+        m_generation.incrementAndGet();
+        m_links.clear();
+        m_exportLinks.clear();
+    }
+
+    /**
+     * Returns the export part of a link cached with the given key, or <code>null</code> if not found.<p>
+     *
+     * @param key the cache key, see {@link #getExportCacheKey(CmsObject, String, String)}
+     *
+     * @return the cached export part of a link, or <code>null</code>
+     */
+    public CmsOnlineLinkCacheEntry getCachedExportLink(String key) {
+
+        return m_exportLinks.get(key);
+    }
+
+    /**
+     * Returns the link cached with the given key, or <code>null</code> if not found.<p>
+     *
+     * @param key the cache key
+     *
+     * @return the cached link, or <code>null</code>
+     */
+    public CmsOnlineLinkCacheEntry getCachedLink(String key) {
+
+        return m_links.get(key);
+    }
+
+    /**
+     * Returns the generation of the cache.<p>
+     *
+     * The generation changes whenever cached links are removed. It must be read before a link is
+     * calculated and passed to {@link #putCachedLink(String, long, CmsOnlineLinkCacheEntry)}, so that
+     * links calculated while resources were published are not cached.<p>
+     *
+     * @return the generation of the cache
+     */
+    public long getGeneration() {
+
+        return m_generation.get();
+    }
+
+    /**
+     * Caches the export part of a link, if no links were removed since the given generation was read.<p>
+     *
+     * @param key the cache key, see {@link #getExportCacheKey(CmsObject, String, String)}
+     * @param generation the generation of the cache before the link was calculated
+     * @param link the export part of the link to cache
+     */
+    public void putCachedExportLink(String key, long generation, CmsOnlineLinkCacheEntry link) {
+
+        putCachedEntry(m_exportLinks, key, generation, link);
+    }
+
+    /**
+     * Caches a link, if no links were removed since the given generation was read.<p>
+     *
+     * @param key the cache key
+     * @param generation the generation of the cache before the link was calculated
+     * @param link the link to cache
+     */
+    public void putCachedLink(String key, long generation, CmsOnlineLinkCacheEntry link) {
+
+        putCachedEntry(m_links, key, generation, link);
+    }
+
+    /**
+     * Caches an entry in the given map, if no links were removed since the given generation was read.<p>
+     *
+     * Links are removed after the generation is incremented. If the generation changed while the entry
+     * was put, the removal may have missed the entry, so it is removed again.<p>
+     *
+     * @param cache the map to cache the entry in
+     * @param key the cache key
+     * @param generation the generation of the cache before the link was calculated
+     * @param link the entry to cache
+     */
+    private void putCachedEntry(
+        Map<String, CmsOnlineLinkCacheEntry> cache,
+        String key,
+        long generation,
+        CmsOnlineLinkCacheEntry link) {
+
+        if (generation == getGeneration()) {
+            cache.put(key, link);
+            if (generation != getGeneration()) {
+                cache.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Removes all entries from the given map that are outdated by publishing the given resources.<p>
+     *
+     * @param cache the map to remove the entries from
+     * @param publishedPaths the root paths of the published resources, without trailing slashes
+     * @param publishedParentFolders the parent folders of the published resources, without trailing slashes
+     *
+     * @return the number of removed entries
+     */
+    private int uncacheEntries(
+        Map<String, CmsOnlineLinkCacheEntry> cache,
+        Set<String> publishedPaths,
+        Set<String> publishedParentFolders) {
+
+        int removed = 0;
+        Iterator<CmsOnlineLinkCacheEntry> links = cache.values().iterator();
+        while (links.hasNext()) {
+            if (links.next().isAffectedBy(publishedPaths, publishedParentFolders)) {
+                links.remove();
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Removes all cached links that may be changed by publishing the given resources.<p>
+     *
+     * @param publishedResources the published resources
+     */
+    private void uncachePublishedResources(List<CmsPublishedResource> publishedResources) {
+
+        Set<String> publishedPaths = new HashSet<String>();
+        Set<String> publishedParentFolders = new HashSet<String>();
+        for (CmsPublishedResource resource : publishedResources) {
+            String path = CmsFileUtil.removeTrailingSeparator(resource.getRootPath());
+            publishedPaths.add(path);
+            String parentFolder = CmsOnlineLinkCacheEntry.getParentPath(path);
+            if (parentFolder != null) {
+                publishedParentFolders.add(parentFolder);
+            }
+        }
+        int size = m_links.size();
+        int removed = uncacheEntries(m_links, publishedPaths, publishedParentFolders);
+        uncacheEntries(m_exportLinks, publishedPaths, publishedParentFolders);
+        if (LOG.isDebugEnabled()) {
+            LOG.debug(
+                Messages.get().getBundle().key(
+                    Messages.LOG_ONLINE_LINKS_UNCACHED_2,
+                    Integer.valueOf(removed),
+                    Integer.valueOf(size)));
+        }
+    }
+}
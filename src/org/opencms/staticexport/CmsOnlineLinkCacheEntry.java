@@ -0,0 +1,178 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.staticexport;
+
+import org.opencms.util.CmsFileUtil;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A link calculated for the online project.<p>
+ *
+ * Stores the parts of a link that do not depend on the current request, together with the root paths
+ * of the resources the link was calculated from. The link is outdated when one of these resources,
+ * one of their parent folders or a resource directly inside them is published.<p>
+ *
+ * @since 10.0.0
+ */
+public class CmsOnlineLinkCacheEntry {
+
+    /** The root paths of the resources the link was calculated from, without trailing slashes. */
+    private Set<String> m_dependencies;
+
+    /** The link, without server prefix and anchor. */
+    private String m_link;
+
+    /** The root of the site the link points to, if it differs from the requested target site. */
+    private String m_overrideSiteRoot;
+
+    /** Indicates if the link target is secure, or <code>null</code> if the secure settings do not apply. */
+    private Boolean m_secureLink;
+
+    /**
+     * Creates a new cache entry.<p>
+     *
+     * @param link the link, without server prefix and anchor
+     * @param overrideSiteRoot the root of the site the link points to if it differs from the requested target site, or <code>null</code>
+     * @param secureLink indicates if the link target is secure, or <code>null</code> if the secure settings do not apply
+     * @param dependencies the root paths of the resources the link was calculated from
+     */
+    public CmsOnlineLinkCacheEntry(
+        String link,
+        String overrideSiteRoot,
+        Boolean secureLink,
+        Collection<String> dependencies) {
+
+        m_link = link;
+        m_overrideSiteRoot = overrideSiteRoot;
+        m_secureLink = secureLink;
+        Set<String> paths = new HashSet<String>(dependencies.size());
+        for (String dependency : dependencies) {
+            if (dependency != null) {
+                paths.add(CmsFileUtil.removeTrailingSeparator(dependency));
+            }
+        }
+        m_dependencies = Collections.unmodifiableSet(paths);
+    }
+
+    /**
+     * Returns the parent folder of the given root path without trailing slash,
+     * or <code>null</code> for the root folder.<p>
+     *
+     * @param path the root path, without trailing slash
+     *
+     * @return the parent folder of the given root path, or <code>null</code>
+     */
+    static String getParentPath(String path) {
+
+        int pos = path.lastIndexOf('/');
+        if (pos > 0) {
+            return path.substring(0, pos);
+        }
+        return (path.length() > 1) ? "/" : null;
+    }
+
+    /**
+     * Returns the root paths of the resources the link was calculated from, without trailing slashes.<p>
+     *
+     * @return the root paths of the resources the link was calculated from
+     */
+    public Set<String> getDependencies() {
+
+        return m_dependencies;
+    }
+
+    /**
+     * Returns the link, without server prefix and anchor.<p>
+     *
+     * @return the link
+     */
+    public String getLink() {
+
+        return m_link;
+    }
+
+    /**
+     * Returns the root of the site the link points to, if it differs from the requested target site.<p>
+     *
+     * This is the case for links to detail pages in other sites.<p>
+     *
+     * @return the root of the site the link points to, or <code>null</code>
+     */
+    public String getOverrideSiteRoot() {
+
+        return m_overrideSiteRoot;
+    }
+
+    /**
+     * Indicates if the link target is secure.<p>
+     *
+     * Returns <code>null</code> if the secure settings do not apply to the link, because neither
+     * the current site nor the target site have a secure server, or because the target is an image
+     * or a resource in the "/system/" folder.<p>
+     *
+     * @return indicates if the link target is secure, or <code>null</code>
+     */
+    public Boolean getSecureLink() {
+
+        return m_secureLink;
+    }
+
+    /**
+     * Checks if the link is outdated by a publish operation.<p>
+     *
+     * The link is outdated if one of the resources it depends on, or one of their parent folders,
+     * was published, since the export and secure properties are inherited from the parent folders.
+     * It is also outdated if a resource directly inside one of the folders it depends on was
+     * published, since this may be the default file of the folder.<p>
+     *
+     * @param publishedPaths the root paths of the published resources, without trailing slashes
+     * @param publishedParentFolders the parent folders of the published resources, without trailing slashes
+     *
+     * @return <code>true</code> if the link is outdated
+     */
+    public boolean isAffectedBy(Set<String> publishedPaths, Set<String> publishedParentFolders) {
+
+        for (String dependency : m_dependencies) {
+            if (publishedParentFolders.contains(dependency)) {
+                return true;
+            }
+            String path = dependency;
+            while (path != null) {
+                if (publishedPaths.contains(path)) {
+                    return true;
+                }
+                path = getParentPath(path);
+            }
+        }
+        return false;
+    }
+}
@@ -220,6 +220,9 @@ public class CmsStaticExportManager implements I_CmsEventListener {
     /** Lock object for write access to the {@link #m_exportnameResources} map in {@link #computeVfsExportnames()}. */
     private Object m_lockSetExportnames;
 
+    /** Cache for the links calculated for the online project. */
+    private CmsOnlineLinkCache m_onlineLinkCache;
+
     /** Indicates if the quick static export for plain resources is enabled. */
     private boolean m_quickPlainExport;
 
@@ -1166,6 +1169,16 @@ public class CmsStaticExportManager implements I_CmsEventListener {
         return m_linkSubstitutionHandler;
     }
 
+    /**
+     * Returns the cache for the links calculated for the online project.<p>
+     *
+     * @return the cache for the links calculated for the online project
+     */
+    public CmsOnlineLinkCache getOnlineLinkCache() {
+
+        return m_onlineLinkCache;
+    }
+
     /**
      * Gets the plain export optimization value as a string representation.<p>
      *
@@ -1639,6 +1652,9 @@ public class CmsStaticExportManager implements I_CmsEventListener {
         m_cacheExportLinks = CmsMemoryMonitor.createLRUCacheMap(2048);
         OpenCms.getMemoryMonitor().register(this.getClass().getName() + ".m_cacheExportLinks", m_cacheExportLinks);
 
+        // the online link cache listens to publish events itself, since it is also used if the static export is disabled
+        m_onlineLinkCache = new CmsOnlineLinkCache(8192);
+
         // register this object as event listener
         OpenCms.addCmsEventListener(
             this,
@@ -223,6 +223,12 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String LOG_NUM_RESOURCES_1 = "LOG_NUM_RESOURCES_1";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_ONLINE_LINKS_PUBLISHED_FAILED_1 = "LOG_ONLINE_LINKS_PUBLISHED_FAILED_1";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_ONLINE_LINKS_UNCACHED_2 = "LOG_ONLINE_LINKS_UNCACHED_2";
+
     /** Message constant for key in the resource bundle. */
     public static final String LOG_PROCESSING_1 = "LOG_PROCESSING_1";
 
@@ -1434,9 +1434,7 @@ implements I_CmsWorkplaceApp, I_CmsCachableApp, ViewChangeListener, I_CmsWindowC
         try {
             CmsResource folder = cms.readResource(m_currentFolder, FOLDERS);
             List<CmsResource> childResources = cms.readResources(cms.getSitePath(folder), FILES_N_FOLDERS, false);
-            for (CmsResource child : childResources) {
-                m_fileTable.update(child.getStructureId(), false);
-            }
+            m_fileTable.updateItems(cms, childResources);
 
         } catch (CmsException e) {
             CmsErrorDialog.showErrorDialog(e);
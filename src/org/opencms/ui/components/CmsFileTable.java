@@ -303,6 +303,7 @@ public class CmsFileTable extends CmsResourceTable {
 
             public String getStyle(Table source, Object itemId, Object propertyId) {
 
+                m_container.loadDetails(itemId);
                 return getStateStyle(m_container.getItem(itemId))
                     + (CmsResourceTableProperty.PROPERTY_RESOURCE_NAME == propertyId
                     ? " " + OpenCmsTheme.HOVER_COLUMN
@@ -525,6 +526,7 @@ public class CmsFileTable extends CmsResourceTable {
 
         m_editItemId = itemId;
         m_editProperty = propertyId;
+        m_container.loadDetails(itemId);
         m_originalEditValue = (String)m_container.getItem(m_editItemId).getItemProperty(m_editProperty).getValue();
         m_editHandler = editHandler;
         m_fileTable.setEditable(true);
@@ -65,8 +65,10 @@ import org.opencms.workplace.explorer.CmsResourceUtil;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
 
 import org.apache.commons.logging.Log;
@@ -74,6 +76,7 @@ import org.apache.commons.logging.Log;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import com.vaadin.data.Item;
+import com.vaadin.data.Property;
 import com.vaadin.data.util.IndexedContainer;
 import com.vaadin.event.dd.DropHandler;
 import com.vaadin.server.ThemeResource;
@@ -232,12 +235,125 @@ public class CmsResourceTable extends A_CmsCustomComponent {
 
     /**
      * Extending the indexed container to make the number of un-filtered items available.<p>
+     *
+     * The container also supports items for which only the basic resource data is set, see
+     * {@link #addItemWithoutDetails(CmsResource, Locale)}. The remaining data, which requires further
+     * VFS access like lock state, permissions, titles and user names, is only read when the table accesses
+     * the item for rendering, or when the items are filtered or sorted by one of these columns.<p>
      */
     protected static class ItemContainer extends IndexedContainer {
 
+        /** The properties which are set for items without details. */
+        private static final Set<CmsResourceTableProperty> BASIC_PROPERTIES = Sets.newHashSet(
+            PROPERTY_RESOURCE_NAME,
+            PROPERTY_RESOURCE_TYPE,
+            PROPERTY_IS_FOLDER,
+            PROPERTY_SIZE,
+            PROPERTY_DATE_MODIFIED,
+            PROPERTY_DATE_CREATED,
+            PROPERTY_DATE_RELEASED,
+            PROPERTY_DATE_EXPIRED,
+            PROPERTY_STATE);
+
         /** The serial version id. */
         private static final long serialVersionUID = -2033722658471550506L;
 
+        /** The workplace locale used for the items without details. */
+        private Locale m_locale;
+
+        /** The resources of the items without details, by item id. */
+        private Map<Object, CmsResource> m_pendingDetails = new HashMap<Object, CmsResource>();
+
+        /**
+         * @see com.vaadin.data.util.IndexedContainer#addContainerFilter(com.vaadin.data.Container.Filter)
+         */
+        @Override
+        public void addContainerFilter(Filter filter) {
+
+            // filters may check any property
+            loadAllDetails();
+            super.addContainerFilter(filter);
+        }
+
+        /**
+         * @see com.vaadin.data.util.IndexedContainer#getContainerProperty(java.lang.Object, java.lang.Object)
+         */
+        @SuppressWarnings("rawtypes")
+        @Override
+        public Property getContainerProperty(Object itemId, Object propertyId) {
+
+            loadDetails(itemId);
+            return super.getContainerProperty(itemId, propertyId);
+        }
+
+        /**
+         * @see com.vaadin.data.util.IndexedContainer#removeAllItems()
+         */
+        @Override
+        public boolean removeAllItems() {
+
+            m_pendingDetails.clear();
+            return super.removeAllItems();
+        }
+
+        /**
+         * @see com.vaadin.data.util.IndexedContainer#removeItem(java.lang.Object)
+         */
+        @Override
+        public boolean removeItem(Object itemId) {
+
+            m_pendingDetails.remove(itemId);
+            return super.removeItem(itemId);
+        }
+
+        /**
+         * @see com.vaadin.data.util.IndexedContainer#sort(java.lang.Object[], boolean[])
+         */
+        @Override
+        public void sort(Object[] propertyId, boolean[] ascending) {
+
+            for (Object prop : propertyId) {
+                if (!BASIC_PROPERTIES.contains(prop)) {
+                    loadAllDetails();
+                    break;
+                }
+            }
+            super.sort(propertyId, ascending);
+        }
+
+        /**
+         * Adds an item for the given resource, setting only the data available from the resource itself.<p>
+         *
+         * @param resource the resource
+         * @param locale the workplace locale
+         */
+        protected void addItemWithoutDetails(CmsResource resource, Locale locale) {
+
+            m_locale = locale;
+            Item item = getUnfilteredItem(resource.getStructureId());
+            if (item == null) {
+                item = addItem(resource.getStructureId());
+            }
+            I_CmsResourceType type = OpenCms.getResourceManager().getResourceType(resource);
+            item.getItemProperty(PROPERTY_RESOURCE_NAME).setValue(resource.getName());
+            item.getItemProperty(PROPERTY_RESOURCE_TYPE).setValue(
+                CmsWorkplaceMessages.getResourceTypeName(locale, type.getTypeName()));
+            item.getItemProperty(PROPERTY_IS_FOLDER).setValue(Boolean.valueOf(resource.isFolder()));
+            if (resource.isFile()) {
+                item.getItemProperty(PROPERTY_SIZE).setValue(Integer.valueOf(resource.getLength()));
+            }
+            item.getItemProperty(PROPERTY_DATE_MODIFIED).setValue(Long.valueOf(resource.getDateLastModified()));
+            item.getItemProperty(PROPERTY_DATE_CREATED).setValue(Long.valueOf(resource.getDateCreated()));
+            if (resource.getDateReleased() != CmsResource.DATE_RELEASED_DEFAULT) {
+                item.getItemProperty(PROPERTY_DATE_RELEASED).setValue(Long.valueOf(resource.getDateReleased()));
+            }
+            if (resource.getDateExpired() != CmsResource.DATE_EXPIRED_DEFAULT) {
+                item.getItemProperty(PROPERTY_DATE_EXPIRED).setValue(Long.valueOf(resource.getDateExpired()));
+            }
+            item.getItemProperty(PROPERTY_STATE).setValue(resource.getState());
+            m_pendingDetails.put(resource.getStructureId(), resource);
+        }
+
         /**
          * Returns the number of items in the container, not considering any filters.<p>
          *
@@ -247,6 +363,48 @@ public class CmsResourceTable extends A_CmsCustomComponent {
 
             return getAllItemIds().size();
         }
+
+        /**
+         * Marks the details of the given item as loaded, e.g. because the item is filled completely.<p>
+         *
+         * @param itemId the item id
+         */
+        protected void markDetailsLoaded(Object itemId) {
+
+            m_pendingDetails.remove(itemId);
+        }
+
+        /**
+         * Reads the details of all items which were added without details.<p>
+         */
+        protected void loadAllDetails() {
+
+            for (Object itemId : Lists.newArrayList(m_pendingDetails.keySet())) {
+                loadDetails(itemId);
+            }
+        }
+
+        /**
+         * Reads the details of the given item, if it was added without details.<p>
+         *
+         * @param itemId the item id
+         */
+        protected void loadDetails(Object itemId) {
+
+            if (m_pendingDetails.isEmpty()) {
+                return;
+            }
+            // remove first, since filling the item accesses the container again
+            CmsResource resource = m_pendingDetails.remove(itemId);
+            if (resource != null) {
+                fillItemDefault(
+                    getUnfilteredItem(itemId),
+                    A_CmsUI.getCmsObject(),
+                    resource,
+                    CmsVaadinUtils.getWpMessagesForCurrentLocale(),
+                    m_locale);
+            }
+        }
     }
 
     /** Flag to mark columns as initially collapsed.*/
@@ -501,7 +659,8 @@ public class CmsResourceTable extends A_CmsCustomComponent {
         m_container.removeAllItems();
         m_container.removeAllContainerFilters();
         for (CmsResource resource : resources) {
-            fillItem(cms, resource, wpLocale);
+            // the details are only read for the rows which are actually displayed
+            m_container.addItemWithoutDetails(resource, wpLocale);
         }
         m_fileTable.sort();
         clearSelection();
@@ -586,6 +745,22 @@ public class CmsResourceTable extends A_CmsCustomComponent {
         m_fileTable.setDropHandler(handler);
     }
 
+    /**
+     * Updates the items for the given resources, adding items for new resources.<p>
+     *
+     * The details of the items are read again once they are displayed.<p>
+     *
+     * @param cms the current CMS context
+     * @param resources the resources to update
+     */
+    public void updateItems(CmsObject cms, List<CmsResource> resources) {
+
+        Locale wpLocale = OpenCms.getWorkplaceManager().getWorkplaceLocale(cms);
+        for (CmsResource resource : resources) {
+            m_container.addItemWithoutDetails(resource, wpLocale);
+        }
+    }
+
     /**
      * Fills the file item data.<p>
      *
@@ -595,6 +770,8 @@ public class CmsResourceTable extends A_CmsCustomComponent {
      */
     protected void fillItem(CmsObject cms, CmsResource resource, Locale locale) {
 
+        // the item is filled completely, so there is no need to read the details later
+        m_container.markDetailsLoaded(resource.getStructureId());
         Item resourceItem = m_container.getItem(resource.getStructureId());
         if (resourceItem == null) {
             resourceItem = m_container.addItem(resource.getStructureId());
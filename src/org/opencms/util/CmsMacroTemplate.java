@@ -0,0 +1,292 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * A compiled representation of a String containing macros in the form <code>%(key)</code> or <code>${key}</code>.<p>
+ *
+ * The input is scanned for macro delimiters only once. Resolving a compiled template
+ * just appends the literal segments and the values returned by the given
+ * {@link I_CmsMacroResolver} for the macro segments, with exactly the same result as
+ * {@link CmsMacroResolver#resolveMacros(String, I_CmsMacroResolver)}.<p>
+ *
+ * Compiled templates are immutable and can be shared between threads.
+ * Templates obtained with {@link #compile(String)} are cached by their input String.<p>
+ *
+ * @since 10.0.0
+ */
+public final class CmsMacroTemplate {
+
+    /** The maximum number of compiled templates kept in the cache. */
+    private static final int CACHE_SIZE = 2000;
+
+    /** The maximum length of an input String for which the compiled template is cached. */
+    private static final int MAX_CACHED_LENGTH = 4096;
+
+    /** The cache of compiled templates, with the input String as key. */
+    private static final Cache<String, CmsMacroTemplate> TEMPLATES = CacheBuilder.newBuilder().maximumSize(
+        CACHE_SIZE).concurrencyLevel(4).build();
+
+    /** The input this template was compiled from. */
+    private final String m_input;
+
+    /** The macro names, <code>null</code> for literal segments. */
+    private final String[] m_names;
+
+    /** The segments, either literal text or the complete macro text including the delimiters. */
+    private final String[] m_segments;
+
+    /**
+     * Creates a new compiled template.<p>
+     *
+     * @param input the input the template was compiled from
+     * @param segments the segments
+     * @param names the macro names, <code>null</code> for literal segments
+     */
+    private CmsMacroTemplate(String input, String[] segments, String[] names) {
+
+        m_input = input;
+        m_segments = segments;
+        m_names = names;
+    }
+
+    /**
+     * Returns the compiled template for the given input.<p>
+     *
+     * Templates for short inputs are cached, so compiling the same input again is a cache lookup.<p>
+     *
+     * @param input the input to compile
+     *
+     * @return the compiled template
+     */
+    public static CmsMacroTemplate compile(String input) {
+
+        if ((input == null) || (input.length() > MAX_CACHED_LENGTH)) {
+            return parse(input);
+        }
+        CmsMacroTemplate result = TEMPLATES.getIfPresent(input);
+        if (result == null) {
+            result = parse(input);
+            TEMPLATES.put(input, result);
+        }
+        return result;
+    }
+
+    /**
+     * Parses the given input into literal and macro segments.<p>
+     *
+     * @param input the input to parse
+     *
+     * @return the compiled template
+     */
+    private static CmsMacroTemplate parse(final String input) {
+
+        List<String> segments = new ArrayList<String>();
+        List<String> names = new ArrayList<String>();
+        if ((input == null) || (input.length() < 3)) {
+            // macro must have at last 3 chars "${}" or "%()"
+            return new CmsMacroTemplate(input, new String[0], new String[0]);
+        }
+
+        int pn = input.indexOf(I_CmsMacroResolver.MACRO_DELIMITER);
+        int po = input.indexOf(I_CmsMacroResolver.MACRO_DELIMITER_OLD);
+
+        if ((po == -1) && (pn == -1)) {
+            // no macro delimiter found in input
+            return new CmsMacroTemplate(input, new String[0], new String[0]);
+        }
+
+        int len = input.length();
+        StringBuffer literal = new StringBuffer(len);
+        int np, pp1, pp2, e;
+        char ds, de;
+        int p;
+
+        if ((po == -1) || ((pn > -1) && (pn < po))) {
+            p = pn;
+            ds = I_CmsMacroResolver.MACRO_START;
+            de = I_CmsMacroResolver.MACRO_END;
+        } else {
+            p = po;
+            ds = I_CmsMacroResolver.MACRO_START_OLD;
+            de = I_CmsMacroResolver.MACRO_END_OLD;
+        }
+
+        // collect chars before the first delimiter found
+        literal.append(input, 0, p);
+        do {
+            pp1 = p + 1;
+            pp2 = pp1 + 1;
+            if (pp2 >= len) {
+                // remaining chars can't be a macro (minimum size is 3)
+                literal.append(input, p, len);
+                break;
+            }
+            // get the next macro delimiter
+            if ((pn > -1) && (pn < pp1)) {
+                pn = input.indexOf(I_CmsMacroResolver.MACRO_DELIMITER, pp1);
+            }
+            if ((po > -1) && (po < pp1)) {
+                po = input.indexOf(I_CmsMacroResolver.MACRO_DELIMITER_OLD, pp1);
+            }
+            if ((po == -1) && (pn == -1)) {
+                // none found, make sure remaining chars in this segment are collected
+                np = len;
+            } else {
+                // check if the next delimiter is old or new style
+                if ((po == -1) || ((pn > -1) && (pn < po))) {
+                    np = pn;
+                } else {
+                    np = po;
+                }
+            }
+            // check if the next char is a "macro start"
+            char st = input.charAt(pp1);
+            e = p;
+            if (st == ds) {
+                // we have a starting macro sequence "${" or "%(", now check if this segment contains a "}" or ")"
+                int end = input.indexOf(de, p);
+                if ((end > 0) && (end < np)) {
+                    // this segment contains a closing macro delimiter "}" or ")", so we have found a macro
+                    e = end + 1;
+                    if (literal.length() > 0) {
+                        segments.add(literal.toString());
+                        names.add(null);
+                        literal.setLength(0);
+                    }
+                    segments.add(input.substring(p, e));
+                    names.add(input.substring(pp2, end));
+                }
+            }
+            // set macro style for next delimiter found
+            if (np == pn) {
+                ds = I_CmsMacroResolver.MACRO_START;
+                de = I_CmsMacroResolver.MACRO_END;
+            } else {
+                ds = I_CmsMacroResolver.MACRO_START_OLD;
+                de = I_CmsMacroResolver.MACRO_END_OLD;
+            }
+            // collect the remaining chars after the macro up to the start of the next macro
+            literal.append(input, e, np);
+            p = np;
+        } while (p < len);
+
+        if (names.isEmpty()) {
+            // no complete macro found
+            return new CmsMacroTemplate(input, new String[0], new String[0]);
+        }
+        if (literal.length() > 0) {
+            segments.add(literal.toString());
+            names.add(null);
+        }
+        return new CmsMacroTemplate(
+            input,
+            segments.toArray(new String[segments.size()]),
+            names.toArray(new String[names.size()]));
+    }
+
+    /**
+     * Returns the input this template was compiled from.<p>
+     *
+     * @return the input this template was compiled from
+     */
+    public String getInput() {
+
+        return m_input;
+    }
+
+    /**
+     * Returns if this template contains at least one macro.<p>
+     *
+     * @return <code>true</code> if this template contains at least one macro
+     */
+    public boolean hasMacros() {
+
+        return m_names.length > 0;
+    }
+
+    /**
+     * Resolves the macros of this template using the given macro resolver.<p>
+     *
+     * If a macro can not be mapped to a value by the given macro resolver,
+     * <code>{@link I_CmsMacroResolver#isKeepEmptyMacros()}</code> controls if the macro is replaced by
+     * an empty String, or is left untouched. If nothing was resolved and macros are kept,
+     * the original input is returned.<p>
+     *
+     * @param resolver the macro resolver to use
+     *
+     * @return the input with all macros resolved
+     *
+     * @see CmsMacroResolver#resolveMacros(String, I_CmsMacroResolver)
+     */
+    public String resolve(I_CmsMacroResolver resolver) {
+
+        if (m_names.length == 0) {
+            return m_input;
+        }
+        boolean keep = resolver.isKeepEmptyMacros();
+        boolean resolvedNone = true;
+        StringBuffer result = new StringBuffer(m_input.length() << 1);
+        for (int i = 0; i < m_segments.length; i++) {
+            if (m_names[i] == null) {
+                result.append(m_segments[i]);
+                continue;
+            }
+            String value = resolver.getMacroValue(m_names[i]);
+            if (value != null) {
+                // macro was successfully resolved
+                result.append(value);
+                resolvedNone = false;
+            } else if (keep) {
+                // macro was unknown, but should be kept
+                result.append(m_segments[i]);
+            }
+        }
+        if (resolvedNone && keep) {
+            // nothing was resolved and macros should be kept, return original input
+            return m_input;
+        }
+        return result.toString();
+    }
+
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+
+        return m_input;
+    }
+}
@@ -64,6 +64,9 @@ public final class CmsADECache extends CmsVfsCache {
     /** Cache for online group containers. */
     private Map<String, CmsXmlGroupContainer> m_groupContainersOnline;
 
+    /** Cache for parsed online XML contents, only used as templates for copies. */
+    private Map<String, CmsXmlContent> m_xmlContentsOnline;
+
     /** Read-write lock to ensure that the cache maps aren't accessed while we iterate through them to remove invalid entries. */
     private ReadWriteLock m_lock = new ReentrantReadWriteLock(true);
 
@@ -119,6 +122,19 @@ public final class CmsADECache extends CmsVfsCache {
         }
     }
 
+    /**
+     * Flushes the online XML content cache.<p>
+     */
+    public void flushXmlContents() {
+
+        try {
+            m_lock.writeLock().lock();
+            m_xmlContentsOnline.clear();
+        } finally {
+            m_lock.writeLock().unlock();
+        }
+    }
+
     /**
      * Returns the cached container page under the given key and for the given project.<p>
      *
@@ -239,6 +255,54 @@ public final class CmsADECache extends CmsVfsCache {
         return structureId.toString() + "_" + keepEncoding;
     }
 
+    /**
+     * Returns the cached online XML content under the given key.<p>
+     *
+     * The returned instance is shared and must never be modified or handed out to callers,
+     * it is only intended to be used as template for a copy.<p>
+     *
+     * @param key the cache key, see {@link #getXmlContentCacheKey(CmsResource, boolean)}
+     *
+     * @return the cached XML content or <code>null</code> if not found
+     */
+    public CmsXmlContent getCacheXmlContent(String key) {
+
+        try {
+            m_lock.readLock().lock();
+            CmsXmlContent retValue = m_xmlContentsOnline.get(key);
+            if (LOG.isDebugEnabled()) {
+                if (retValue == null) {
+                    LOG.debug(
+                        Messages.get().getBundle().key(Messages.LOG_DEBUG_CACHE_MISSED_ONLINE_1, new Object[] {key}));
+                } else {
+                    LOG.debug(
+                        Messages.get().getBundle().key(
+                            Messages.LOG_DEBUG_CACHE_MATCHED_ONLINE_2,
+                            new Object[] {key, retValue}));
+                }
+            }
+            return retValue;
+        } finally {
+            m_lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the cache key for a parsed online XML content.<p>
+     *
+     * The key contains the date of last modification, so a cached content can never
+     * be returned for a newer version of the same resource.<p>
+     *
+     * @param resource the XML content resource
+     * @param keepEncoding if to keep the encoding while unmarshalling
+     *
+     * @return the cache key for the given XML content and parameters
+     */
+    public String getXmlContentCacheKey(CmsResource resource, boolean keepEncoding) {
+
+        return resource.getStructureId().toString() + "_" + resource.getDateLastModified() + "_" + keepEncoding;
+    }
+
     /**
      * Caches the given container page under the given key and for the given project.<p>
      *
@@ -307,6 +371,28 @@ public final class CmsADECache extends CmsVfsCache {
         }
     }
 
+    /**
+     * Caches the given parsed online XML content under the given key.<p>
+     *
+     * The given instance must not be modified after it has been cached.<p>
+     *
+     * @param key the cache key, see {@link #getXmlContentCacheKey(CmsResource, boolean)}
+     * @param content the XML content to cache
+     */
+    public void setCacheXmlContent(String key, CmsXmlContent content) {
+
+        try {
+            m_lock.writeLock().lock();
+            m_xmlContentsOnline.put(key, content);
+            if (LOG.isDebugEnabled()) {
+                LOG.debug(
+                    Messages.get().getBundle().key(Messages.LOG_DEBUG_CACHE_SET_ONLINE_2, new Object[] {key, content}));
+            }
+        } finally {
+            m_lock.writeLock().unlock();
+        }
+    }
+
     /**
      * Removes the container page identified by its structure id from the cache.<p>
      *
@@ -361,6 +447,9 @@ public final class CmsADECache extends CmsVfsCache {
             m_lock.writeLock().lock();
             flushContainerPages(online);
             flushGroupContainers(online);
+            if (online) {
+                flushXmlContents();
+            }
         } finally {
             m_lock.writeLock().unlock();
         }
@@ -409,6 +498,10 @@ public final class CmsADECache extends CmsVfsCache {
 
         m_groupContainersOnline = CmsMemoryMonitor.createLRUCacheMap(cacheSettings.getGroupContainerOnlineSize());
         memMonitor.register(CmsADECache.class.getName() + ".groupContainersOnline", m_groupContainersOnline);
+
+        // parsed online XML content cache
+        m_xmlContentsOnline = CmsMemoryMonitor.createLRUCacheMap(cacheSettings.getXmlContentOnlineSize());
+        memMonitor.register(CmsADECache.class.getName() + ".xmlContentsOnline", m_xmlContentsOnline);
     }
 
     /**
@@ -52,6 +52,12 @@ public class CmsADECacheSettings {
     /** The size of the group container online cache. */
     private int m_groupContainerOnlineSize;
 
+    /** Default size for the online XML content cache. */
+    private static final int DEFAULT_XML_CONTENT_SIZE = 256;
+
+    /** The size of the online XML content cache. */
+    private int m_xmlContentOnlineSize;
+
     /**
      * Default constructor.<p>
      */
@@ -132,6 +138,19 @@ public class CmsADECacheSettings {
         return m_groupContainerOnlineSize;
     }
 
+    /**
+     * Returns the size of the online XML content cache.<p>
+     *
+     * @return the size of the online XML content cache
+     */
+    public int getXmlContentOnlineSize() {
+
+        if (m_xmlContentOnlineSize <= 0) {
+            return DEFAULT_XML_CONTENT_SIZE;
+        }
+        return m_xmlContentOnlineSize;
+    }
+
     /**
      * Sets the size of the cache for offline group containers.<p>
      *
@@ -152,6 +171,16 @@ public class CmsADECacheSettings {
         m_groupContainerOnlineSize = getIntValue(size, DEFAULT_GROUP_CONTAINER_SIZE);
     }
 
+    /**
+     * Sets the size of the cache for parsed online XML contents.<p>
+     *
+     * @param size the size of the cache for parsed online XML contents
+     */
+    public void setXmlContentOnlineSize(String size) {
+
+        m_xmlContentOnlineSize = getIntValue(size, DEFAULT_XML_CONTENT_SIZE);
+    }
+
     /**
      * Turns a string into an int.<p>
      *
@@ -456,8 +456,21 @@ public class CmsContainerElementBean implements Cloneable {
      */
     public void initResource(CmsObject cms) throws CmsException {
 
+        initResource(cms, null);
+    }
+
+    /**
+     * Initializes the resource and the site path of this element, using the resources already resolved for the current page.<p>
+     *
+     * @param cms the CMS context
+     * @param resolver the resolver for the resources of the current page, may be <code>null</code>
+     *
+     * @throws CmsException if something goes wrong reading the element resource
+     */
+    public void initResource(CmsObject cms, CmsContainerPageResourceResolver resolver) throws CmsException {
+
         if (m_resource == null) {
-            m_resource = cms.readResource(getId(), CmsResourceFilter.IGNORE_EXPIRATION);
+            m_resource = readResource(cms, resolver, getId());
             m_releasedAndNotExpired = m_resource.isReleasedAndNotExpired(cms.getRequestContext().getRequestTime());
         } else if (!isInMemoryOnly()) {
             CmsUUID id = m_resource.getStructureId();
@@ -466,11 +479,11 @@ public class CmsContainerElementBean implements Cloneable {
             }
             // the resource object may have a wrong root path, e.g. if it was created before the resource was moved
             if (cms.getRequestContext().getCurrentProject().isOnlineProject()) {
-                m_resource = cms.readResource(id, CmsResourceFilter.IGNORE_EXPIRATION);
+                m_resource = readResource(cms, resolver, id);
                 m_releasedAndNotExpired = m_resource.isReleasedAndNotExpired(cms.getRequestContext().getRequestTime());
             } else {
                 if (!isTemporaryContent()) {
-                    m_resource = cms.readResource(getId(), CmsResourceFilter.IGNORE_EXPIRATION);
+                    m_resource = readResource(cms, resolver, getId());
                 }
                 m_releasedAndNotExpired = m_resource.isReleasedAndNotExpired(cms.getRequestContext().getRequestTime());
             }
@@ -690,6 +703,26 @@ public class CmsContainerElementBean implements Cloneable {
         return "";
     }
 
+    /**
+     * Reads the element resource, using the given resolver if available.<p>
+     *
+     * @param cms the CMS context
+     * @param resolver the resolver for the resources of the current page, may be <code>null</code>
+     * @param id the structure id of the resource
+     *
+     * @return the resource
+     *
+     * @throws CmsException if reading the resource fails
+     */
+    private CmsResource readResource(CmsObject cms, CmsContainerPageResourceResolver resolver, CmsUUID id)
+    throws CmsException {
+
+        if (resolver != null) {
+            return resolver.readResource(cms, id, CmsResourceFilter.IGNORE_EXPIRATION);
+        }
+        return cms.readResource(id, CmsResourceFilter.IGNORE_EXPIRATION);
+    }
+
     /**
      * Sets the settings map.<p>
      *
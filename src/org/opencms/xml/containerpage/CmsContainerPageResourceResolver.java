@@ -0,0 +1,145 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.xml.containerpage;
+
+import org.opencms.file.CmsObject;
+import org.opencms.file.CmsResource;
+import org.opencms.file.CmsResourceFilter;
+import org.opencms.main.CmsException;
+import org.opencms.main.CmsLog;
+import org.opencms.util.CmsUUID;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.servlet.ServletRequest;
+
+import org.apache.commons.logging.Log;
+
+/**
+ * Request scoped resolver for the resources needed to render a container page.<p>
+ *
+ * The ids of all element and formatter resources of a page are collected up front and read with a single
+ * bulk read, so rendering the elements doesn't need to read every resource separately, and resources used
+ * by several elements or containers are only read once per request.<p>
+ *
+ * Resources are resolved with {@link CmsResourceFilter#IGNORE_EXPIRATION}. Lookups with a stricter filter
+ * check the resolved resource against that filter and fall back to reading the resource if it doesn't match,
+ * so the same exceptions are thrown as for a direct read.<p>
+ *
+ * @since 10.0.0
+ */
+public class CmsContainerPageResourceResolver {
+
+    /** The request attribute used to store the resolver. */
+    private static final String ATTR_RESOLVER = CmsContainerPageResourceResolver.class.getName();
+
+    /** The logger instance for this class. */
+    private static final Log LOG = CmsLog.getLog(CmsContainerPageResourceResolver.class);
+
+    /** The ids which have already been resolved, including those which could not be read. */
+    private Set<CmsUUID> m_resolvedIds = new HashSet<CmsUUID>();
+
+    /** The resolved resources by structure id. */
+    private Map<CmsUUID, CmsResource> m_resources = new HashMap<CmsUUID, CmsResource>();
+
+    /**
+     * Returns the resolver for the given request, creating it if necessary.<p>
+     *
+     * @param req the current request
+     *
+     * @return the resolver for the request
+     */
+    public static CmsContainerPageResourceResolver getInstance(ServletRequest req) {
+
+        CmsContainerPageResourceResolver result = (CmsContainerPageResourceResolver)req.getAttribute(ATTR_RESOLVER);
+        if (result == null) {
+            result = new CmsContainerPageResourceResolver();
+            req.setAttribute(ATTR_RESOLVER, result);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the resolved resource with the given structure id, reading it if it has not been resolved yet.<p>
+     *
+     * @param cms the current CMS context
+     * @param structureId the structure id
+     * @param filter the resource filter to use
+     *
+     * @return the resource
+     *
+     * @throws CmsException if the resource can not be read with the given filter
+     */
+    public CmsResource readResource(CmsObject cms, CmsUUID structureId, CmsResourceFilter filter)
+    throws CmsException {
+
+        CmsResource resource = m_resources.get(structureId);
+        if ((resource != null) && filter.isValid(cms.getRequestContext(), resource)) {
+            return resource;
+        }
+        resource = cms.readResource(structureId, filter);
+        m_resources.put(structureId, resource);
+        m_resolvedIds.add(structureId);
+        return resource;
+    }
+
+    /**
+     * Resolves the resources with the given structure ids which have not been resolved yet.<p>
+     *
+     * Resources which can not be read are skipped, reading them with {@link #readResource(CmsObject, CmsUUID, CmsResourceFilter)}
+     * will throw the appropriate exception.<p>
+     *
+     * @param cms the current CMS context
+     * @param structureIds the structure ids to resolve
+     */
+    public void resolve(CmsObject cms, Collection<CmsUUID> structureIds) {
+
+        List<CmsUUID> missing = new ArrayList<CmsUUID>();
+        for (CmsUUID id : structureIds) {
+            if ((id != null) && !id.isNullUUID() && m_resolvedIds.add(id)) {
+                missing.add(id);
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+        try {
+            for (CmsResource resource : cms.readResources(missing, CmsResourceFilter.IGNORE_EXPIRATION)) {
+                m_resources.put(resource.getStructureId(), resource);
+            }
+        } catch (CmsException e) {
+            LOG.debug(e.getLocalizedMessage(), e);
+        }
+    }
+}
@@ -113,6 +113,9 @@ public class CmsXmlContent extends A_CmsXmlDocument {
     /** The XML content definition object (i.e. XML schema) used by this content. */
     protected CmsXmlContentDefinition m_contentDefinition;
 
+    /** The compact model of this XML content, only created for the cached online contents. */
+    private volatile CmsXmlContentCompactModel m_compactModel;
+
     /**
      * Hides the public constructor.<p>
      */
@@ -392,6 +395,28 @@ public class CmsXmlContent extends A_CmsXmlDocument {
         return clone;
     }
 
+    /**
+     * Creates a copy of this XML content which is based on a deep copy of the underlying XML document.<p>
+     *
+     * In contrast to {@link #clone()}, changes to the copy do not affect this instance.
+     * The copy is created without parsing the XML again, which is used by the
+     * {@link CmsXmlContentFactory} to hand out instances of cached online contents.<p>
+     *
+     * @return a deep copy of this XML content
+     */
+    protected CmsXmlContent copyDocument() {
+
+        CmsXmlContent copy = new CmsXmlContent();
+        copy.m_autoCorrectionEnabled = m_autoCorrectionEnabled;
+        copy.m_contentDefinition = m_contentDefinition;
+        copy.m_conversion = m_conversion;
+        copy.m_document = (Document)m_document.clone();
+        copy.m_encoding = m_encoding;
+        copy.m_file = m_file;
+        copy.initDocument();
+        return copy;
+    }
+
     /**
      * Copies the content of the given source locale to the given destination locale in this XML document.<p>
      *
@@ -1067,6 +1092,24 @@ public class CmsXmlContent extends A_CmsXmlDocument {
         m_file = file;
     }
 
+    /**
+     * Returns the compact model of this XML content, which is created on first access.<p>
+     *
+     * The model is kept with this instance, so this must only be used for instances which are never
+     * modified, i.e. the cached online contents of the {@link CmsXmlContentFactory}.<p>
+     *
+     * @return the compact model of this XML content
+     */
+    CmsXmlContentCompactModel getCompactModel() {
+
+        CmsXmlContentCompactModel model = m_compactModel;
+        if (model == null) {
+            model = CmsXmlContentCompactModel.create(this);
+            m_compactModel = model;
+        }
+        return model;
+    }
+
     /**
      * Ensures the parent values to the given path are created.<p>
      *
@@ -0,0 +1,339 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.xml.content;
+
+import org.opencms.util.CmsUUID;
+import org.opencms.xml.CmsXmlUtils;
+import org.opencms.xml.types.CmsXmlVarLinkValue;
+import org.opencms.xml.types.CmsXmlVfsFileValue;
+import org.opencms.xml.types.I_CmsXmlContentValue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compact, read-only representation of the values of an XML content.<p>
+ *
+ * For every locale, the xpaths of all values are stored as sorted array of interned Strings,
+ * so identical paths of different contents share the same String instances.
+ * The text of all simple values is stored in a single shared char buffer, with
+ * primitive offsets per value. A lookup is a binary search over the paths of a locale,
+ * no dom4j document or value wrapper objects are kept.<p>
+ *
+ * The text returned by {@link #getText(String, Locale)} is the raw text of the XML element,
+ * i.e. links in HTML or VFS file values are not processed. Use the full {@link CmsXmlContent}
+ * if processed values are required.<p>
+ *
+ * The model of a cached online content is created from the content before links that are invalid
+ * for the current request are removed. The content handler removes VFS file and link values with
+ * invalid targets, so for locales with such values ({@link #hasLinkValues(Locale)}) the model may
+ * contain values that are missing from the content read by the current user.<p>
+ *
+ * Instances are immutable and can be shared between threads,
+ * use {@link CmsXmlContentFactory#getCachedCompactModel(org.opencms.file.CmsObject, org.opencms.file.CmsResource)}
+ * to obtain the cached instance for an online content.<p>
+ *
+ * @since 10.0.0
+ */
+public final class CmsXmlContentCompactModel {
+
+    /** Marker for values without text, i.e. nested values. */
+    private static final int NO_TEXT = -1;
+
+    /** The shared buffer for the texts of all values. */
+    private final char[] m_buffer;
+
+    /** The date of last modification of the resource this model was created from. */
+    private final long m_dateLastModified;
+
+    /** The text lengths of the values, per locale in the same order as the paths. */
+    private final int[][] m_lengths;
+
+    /** Indicates which locales contain VFS file or link values, in the same order as the locales. */
+    private final boolean[] m_linkValues;
+
+    /** The locales of the content, sorted by their String representation. */
+    private final Locale[] m_locales;
+
+    /** The text offsets of the values, per locale in the same order as the paths. */
+    private final int[][] m_offsets;
+
+    /** The sorted xpaths of the values, per locale. */
+    private final String[][] m_paths;
+
+    /** The structure id of the resource this model was created from. */
+    private final CmsUUID m_structureId;
+
+    /**
+     * Creates a new compact model.<p>
+     *
+     * @param structureId the structure id of the resource
+     * @param dateLastModified the date of last modification of the resource
+     * @param locales the sorted locales
+     * @param paths the sorted paths per locale
+     * @param offsets the text offsets per locale
+     * @param lengths the text lengths per locale
+     * @param linkValues indicates which locales contain VFS file or link values
+     * @param buffer the shared text buffer
+     */
+    private CmsXmlContentCompactModel(
+        CmsUUID structureId,
+        long dateLastModified,
+        Locale[] locales,
+        String[][] paths,
+        int[][] offsets,
+        int[][] lengths,
+        boolean[] linkValues,
+        char[] buffer) {
+
+        m_structureId = structureId;
+        m_dateLastModified = dateLastModified;
+        m_locales = locales;
+        m_paths = paths;
+        m_offsets = offsets;
+        m_lengths = lengths;
+        m_linkValues = linkValues;
+        m_buffer = buffer;
+    }
+
+    /**
+     * Creates a compact model for the given XML content.<p>
+     *
+     * @param content the XML content
+     *
+     * @return the compact model of the XML content
+     */
+    public static CmsXmlContentCompactModel create(CmsXmlContent content) {
+
+        List<Locale> localeList = new ArrayList<Locale>(content.getLocales());
+        Collections.sort(localeList, new Comparator<Locale>() {
+
+            public int compare(Locale a, Locale b) {
+
+                return a.toString().compareTo(b.toString());
+            }
+        });
+        Locale[] locales = localeList.toArray(new Locale[localeList.size()]);
+        String[][] paths = new String[locales.length][];
+        int[][] offsets = new int[locales.length][];
+        int[][] lengths = new int[locales.length][];
+        boolean[] linkValues = new boolean[locales.length];
+        StringBuilder buffer = new StringBuilder();
+
+        for (int l = 0; l < locales.length; l++) {
+            // sort values by path, so that lookups can use a binary search
+            Map<String, I_CmsXmlContentValue> values = new TreeMap<String, I_CmsXmlContentValue>();
+            for (I_CmsXmlContentValue value : content.getValues(locales[l])) {
+                values.put(value.getPath().intern(), value);
+            }
+            paths[l] = values.keySet().toArray(new String[values.size()]);
+            offsets[l] = new int[paths[l].length];
+            lengths[l] = new int[paths[l].length];
+            for (int i = 0; i < paths[l].length; i++) {
+                I_CmsXmlContentValue value = values.get(paths[l][i]);
+                if ((value instanceof CmsXmlVfsFileValue) || (value instanceof CmsXmlVarLinkValue)) {
+                    linkValues[l] = true;
+                }
+                if (value.isSimpleType()) {
+                    String text = value.getElement().getText();
+                    offsets[l][i] = buffer.length();
+                    lengths[l][i] = text.length();
+                    buffer.append(text);
+                } else {
+                    offsets[l][i] = NO_TEXT;
+                    lengths[l][i] = 0;
+                }
+            }
+        }
+        char[] chars = new char[buffer.length()];
+        buffer.getChars(0, buffer.length(), chars, 0);
+        return new CmsXmlContentCompactModel(
+            content.getFile() != null ? content.getFile().getStructureId() : null,
+            content.getFile() != null ? content.getFile().getDateLastModified() : 0,
+            locales,
+            paths,
+            offsets,
+            lengths,
+            linkValues,
+            chars);
+    }
+
+    /**
+     * Returns the date of last modification of the resource this model was created from.<p>
+     *
+     * @return the date of last modification of the resource
+     */
+    public long getDateLastModified() {
+
+        return m_dateLastModified;
+    }
+
+    /**
+     * Returns the locales available in the content.<p>
+     *
+     * @return the locales available in the content
+     */
+    public List<Locale> getLocales() {
+
+        return Collections.unmodifiableList(Arrays.asList(m_locales));
+    }
+
+    /**
+     * Returns the xpaths of all values in the given locale, in lexical order.<p>
+     *
+     * @param locale the locale
+     *
+     * @return the xpaths of all values in the given locale
+     */
+    public List<String> getPaths(Locale locale) {
+
+        int l = indexOfLocale(locale);
+        if (l < 0) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(Arrays.asList(m_paths[l]));
+    }
+
+    /**
+     * Returns the structure id of the resource this model was created from.<p>
+     *
+     * @return the structure id of the resource
+     */
+    public CmsUUID getStructureId() {
+
+        return m_structureId;
+    }
+
+    /**
+     * Returns the raw text of the simple value with the given path in the given locale.<p>
+     *
+     * @param path the xpath of the value, missing indexes are treated as <code>[1]</code>
+     * @param locale the locale
+     *
+     * @return the raw text of the value, or <code>null</code> if there is no such simple value
+     */
+    public String getText(String path, Locale locale) {
+
+        int l = indexOfLocale(locale);
+        if (l < 0) {
+            return null;
+        }
+        int i = Arrays.binarySearch(m_paths[l], CmsXmlUtils.createXpath(path, 1));
+        if ((i < 0) || (m_offsets[l][i] == NO_TEXT)) {
+            return null;
+        }
+        return new String(m_buffer, m_offsets[l][i], m_lengths[l][i]);
+    }
+
+    /**
+     * Checks if the content contains VFS file or link values in any locale.<p>
+     *
+     * @return <code>true</code> if the content contains VFS file or link values
+     *
+     * @see #hasLinkValues(Locale)
+     */
+    public boolean hasLinkValues() {
+
+        for (boolean linkValues : m_linkValues) {
+            if (linkValues) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks if the content contains VFS file or link values in the given locale.<p>
+     *
+     * These values are removed from a content if their link target is not valid for the
+     * current request, so {@link #hasValue(String, Locale)} can only be used instead of the
+     * content read by the current user if this returns <code>false</code>.<p>
+     *
+     * @param locale the locale
+     *
+     * @return <code>true</code> if the content contains VFS file or link values in the given locale
+     */
+    public boolean hasLinkValues(Locale locale) {
+
+        int l = indexOfLocale(locale);
+        return (l >= 0) && m_linkValues[l];
+    }
+
+    /**
+     * Checks if the content contains the given locale.<p>
+     *
+     * @param locale the locale to check
+     *
+     * @return <code>true</code> if the content contains the given locale
+     */
+    public boolean hasLocale(Locale locale) {
+
+        return indexOfLocale(locale) >= 0;
+    }
+
+    /**
+     * Checks if the content contains a value with the given path in the given locale.<p>
+     *
+     * @param path the xpath of the value, missing indexes are treated as <code>[1]</code>
+     * @param locale the locale
+     *
+     * @return <code>true</code> if the value exists
+     */
+    public boolean hasValue(String path, Locale locale) {
+
+        int l = indexOfLocale(locale);
+        return (l >= 0) && (Arrays.binarySearch(m_paths[l], CmsXmlUtils.createXpath(path, 1)) >= 0);
+    }
+
+    /**
+     * Returns the index of the given locale in the locale array.<p>
+     *
+     * @param locale the locale
+     *
+     * @return the index of the locale, or a negative value if not available
+     */
+    private int indexOfLocale(Locale locale) {
+
+        if (locale == null) {
+            return -1;
+        }
+        // the number of locales is usually very small, so a linear scan is fine
+        for (int l = 0; l < m_locales.length; l++) {
+            if (m_locales[l].equals(locale)) {
+                return l;
+            }
+        }
+        return -1;
+    }
+}
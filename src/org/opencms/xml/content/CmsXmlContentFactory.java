@@ -27,10 +27,12 @@
 
 package org.opencms.xml.content;
 
+import org.opencms.ade.configuration.CmsADEManager;
 import org.opencms.file.CmsFile;
 import org.opencms.file.CmsObject;
 import org.opencms.file.CmsPropertyDefinition;
 import org.opencms.file.CmsResource;
+import org.opencms.file.history.I_CmsHistoryResource;
 import org.opencms.file.types.CmsResourceTypeXmlContent;
 import org.opencms.i18n.CmsEncoder;
 import org.opencms.loader.CmsLoaderException;
@@ -40,6 +42,7 @@ import org.opencms.xml.CmsXmlContentDefinition;
 import org.opencms.xml.CmsXmlEntityResolver;
 import org.opencms.xml.CmsXmlException;
 import org.opencms.xml.CmsXmlUtils;
+import org.opencms.xml.containerpage.CmsADECache;
 
 import java.io.UnsupportedEncodingException;
 import java.util.Locale;
@@ -136,6 +139,32 @@ public final class CmsXmlContentFactory {
         return content.getHandler().prepareForUse(cms, content);
     }
 
+    /**
+     * Returns the compact, read-only model of the given XML content resource,
+     * if the resource has already been unmarshalled in the online project.<p>
+     *
+     * The model is derived from the cached online XML content and kept with it, so it is
+     * available until the resource is published again. The resource is never read by this method,
+     * if the content is not cached, unmarshal it with {@link #unmarshal(CmsObject, CmsFile)}.<p>
+     *
+     * The model is created before links that are invalid for the current request are removed,
+     * see {@link CmsXmlContentCompactModel#hasLinkValues(Locale)}.<p>
+     *
+     * @param cms the current OpenCms context object
+     * @param resource the XML content resource
+     *
+     * @return the compact model of the XML content, or <code>null</code> if the content is not cached
+     */
+    public static CmsXmlContentCompactModel getCachedCompactModel(CmsObject cms, CmsResource resource) {
+
+        String cacheKey = getCacheKey(cms, resource, true);
+        if (cacheKey == null) {
+            return null;
+        }
+        CmsXmlContent cached = getCache().getCacheXmlContent(cacheKey);
+        return (cached != null) ? cached.getCompactModel() : null;
+    }
+
     /**
      * Factory method to unmarshal (generate) a XML content instance from a byte array
      * that contains XML data.<p>
@@ -208,6 +237,20 @@ public final class CmsXmlContentFactory {
      */
     public static CmsXmlContent unmarshal(CmsObject cms, CmsFile file, boolean keepEncoding) throws CmsXmlException {
 
+        // check the cache of parsed online contents
+        String cacheKey = getCacheKey(cms, file, keepEncoding);
+        if (cacheKey != null) {
+            CmsXmlContent cached = getCache().getCacheXmlContent(cacheKey);
+            if (cached != null) {
+                // hand out a copy, the cached instance itself must never be modified
+                CmsXmlContent content = cached.copyDocument();
+                content.setFile(file);
+                // the cached instance still contains all links, remove the ones invalid for the current request
+                content.getHandler().invalidateBrokenLinks(cms, content);
+                return content.getHandler().prepareForUse(cms, content);
+            }
+        }
+
         byte[] contentBytes = file.getContents();
         String filename = cms.getSitePath(file);
 
@@ -232,21 +275,29 @@ public final class CmsXmlContentFactory {
         CmsXmlContent content;
         if (contentBytes.length > 0) {
             // content is initialized
+            EntityResolver resolver = new CmsXmlEntityResolver(cms);
+            Document document;
             if (keepEncoding) {
                 // use the encoding from the content
-                content = unmarshal(cms, contentBytes, encoding, new CmsXmlEntityResolver(cms));
+                document = CmsXmlUtils.unmarshalHelper(contentBytes, resolver);
             } else {
                 // use the encoding from the file property
                 // this usually only triggered by a save operation
                 try {
                     String contentStr = new String(contentBytes, encoding);
-                    content = unmarshal(cms, contentStr, encoding, new CmsXmlEntityResolver(cms));
+                    document = CmsXmlUtils.unmarshalHelper(contentStr, resolver);
                 } catch (UnsupportedEncodingException e) {
                     // this will not happen since the encodig has already been validated
                     throw new CmsXmlException(
                         Messages.get().container(Messages.ERR_XMLCONTENT_INVALID_ENC_1, filename), e);
                 }
             }
+            if (cacheKey != null) {
+                // the cached instance is shared by all users and request times, so links are not validated here
+                content = new CmsXmlContent(null, document, encoding, resolver);
+            } else {
+                content = unmarshal(cms, document, encoding, resolver);
+            }
         } else {
             // content is empty
             content = new CmsXmlContent(cms, DocumentHelper.createDocument(), encoding, new CmsXmlEntityResolver(cms));
@@ -254,6 +305,12 @@ public final class CmsXmlContentFactory {
 
         // set the file
         content.setFile(file);
+        if ((cacheKey != null) && (contentBytes.length > 0)) {
+            // cache a copy that has not been touched by the link validation or the content handler
+            getCache().setCacheXmlContent(cacheKey, content.copyDocument());
+            // remove the links that are invalid for the current user and request time
+            content.getHandler().invalidateBrokenLinks(cms, content);
+        }
         // call prepare for use content handler and return the result
         return content.getHandler().prepareForUse(cms, content);
     }
@@ -376,4 +433,36 @@ public final class CmsXmlContentFactory {
 
         return unmarshal(null, xmlData, encoding, resolver);
     }
-}
\ No newline at end of file
+
+    /**
+     * Gets the ADE cache from the ADE manager.<p>
+     *
+     * @return the ADE cache, or <code>null</code> if the ADE manager is not initialized yet
+     */
+    private static CmsADECache getCache() {
+
+        CmsADEManager adeManager = OpenCms.getADEManager();
+        return adeManager != null ? adeManager.getCache() : null;
+    }
+
+    /**
+     * Returns the key under which the parsed XML content for the given file is cached.<p>
+     *
+     * Only contents read in the online project are cached, since these only change on publish.<p>
+     *
+     * @param cms the current cms context
+     * @param file the XML content resource
+     * @param keepEncoding if to keep the encoding while unmarshalling
+     *
+     * @return the cache key, or <code>null</code> if the content should not be cached
+     */
+    private static String getCacheKey(CmsObject cms, CmsResource file, boolean keepEncoding) {
+
+        if ((file instanceof I_CmsHistoryResource)
+            || !cms.getRequestContext().getCurrentProject().isOnlineProject()
+            || (getCache() == null)) {
+            return null;
+        }
+        return getCache().getXmlContentCacheKey(file, keepEncoding);
+    }
+}
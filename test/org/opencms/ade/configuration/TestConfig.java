@@ -28,6 +28,7 @@
 package org.opencms.ade.configuration;
 
 import org.opencms.ade.detailpage.CmsDetailPageInfo;
+import org.opencms.file.CmsFile;
 import org.opencms.file.CmsObject;
 import org.opencms.file.CmsResource;
 import org.opencms.file.CmsResourceFilter;
@@ -43,6 +44,7 @@ import org.opencms.util.CmsStringUtil;
 import org.opencms.util.CmsUUID;
 import org.opencms.xml.content.CmsXmlContentProperty;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -995,6 +997,41 @@ public class TestConfig extends OpenCmsTestCase {
         assertEquals(true, prop1.getPropertyData().isPreferFolder());
     }
 
+    /**
+     * Tests reading configuration files through a configuration snapshot.<p>
+     *
+     * @throws Exception -
+     */
+    public void testParseConfigurationFromSnapshot() throws Exception {
+
+        CmsObject cms = rootCms();
+        File snapshotFile = File.createTempFile("config", ".snapshot");
+        snapshotFile.delete();
+        CmsConfigurationSnapshot snapshot = new CmsConfigurationSnapshot(snapshotFile);
+        CmsResource configRes = cms.readResource("/sites/default/test.config");
+        CmsConfigurationReader configReader = new CmsConfigurationReader(cms, snapshot);
+        CmsADEConfigDataInternal configDataInternal = configReader.parseSitemapConfiguration("/", configRes);
+        assertEquals(1, configDataInternal.getOwnResourceTypes().size());
+        snapshot.save();
+        assertTrue(snapshotFile.exists());
+
+        // a new snapshot instance uses the stored content
+        snapshot = new CmsConfigurationSnapshot(snapshotFile);
+        CmsFile original = cms.readFile(configRes);
+        assertEquals(new String(original.getContents()), new String(snapshot.readFile(cms, configRes).getContents()));
+
+        // changed resources are read again from the VFS
+        cms.lockResource(configRes);
+        original.setContents((new String(original.getContents()) + " ").getBytes());
+        cms.writeFile(original);
+        cms.unlockResource(configRes);
+        configRes = cms.readResource("/sites/default/test.config");
+        assertEquals(
+            new String(original.getContents()),
+            new String(snapshot.readFile(cms, configRes).getContents()));
+        snapshotFile.delete();
+    }
+
     /**
      * Tests the parsing of module configurations.<p>
      * @throws Exception -
@@ -36,6 +36,8 @@ import org.opencms.file.types.CmsResourceTypeFolder;
 import org.opencms.file.types.I_CmsResourceType;
 import org.opencms.main.CmsException;
 import org.opencms.main.OpenCms;
+import org.opencms.staticexport.CmsOnlineLinkCache;
+import org.opencms.staticexport.CmsOnlineLinkCacheEntry;
 import org.opencms.test.OpenCmsTestCase;
 import org.opencms.test.OpenCmsTestLogAppender;
 import org.opencms.test.OpenCmsTestProperties;
@@ -179,6 +181,37 @@ public class TestLiveConfig extends OpenCmsTestCase {
         System.out.println(link);
     }
 
+    /**
+     * Tests cross-site detail page links served from the online link cache.<p>
+     *
+     * @throws Exception -
+     */
+    public void testCrossSiteDetailPageLinksCached() throws Exception {
+
+        // Link from site foo to site bar, where a detail page exists in foo,
+        // the second link is read from the online link cache
+
+        CmsObject cms = getCmsObject();
+        cms.getRequestContext().setSiteRoot("/sites/foo");
+        String rootPath = "/sites/bar/.content/blogentries/be_00001.xml";
+        CmsResource res = rootCms().readResource(rootPath);
+        String expected = "http://foo.org/data/opencms/main/blog/" + res.getStructureId() + "/";
+        assertEquals(expected, OpenCms.getLinkManager().getOnlineLink(cms, rootPath));
+
+        CmsOnlineLinkCacheEntry cachedLink = OpenCms.getStaticExportManager().getOnlineLinkCache().getCachedLink(
+            CmsOnlineLinkCache.getCacheKey(cms, "/sites/bar", "/.content/blogentries/be_00001.xml"));
+        assertNotNull(cachedLink);
+        assertEquals("/sites/foo", cachedLink.getOverrideSiteRoot());
+
+        assertEquals(expected, OpenCms.getLinkManager().getOnlineLink(cms, rootPath));
+        CmsOnlineLinkCacheEntry exportLink = OpenCms.getStaticExportManager().getOnlineLinkCache().getCachedExportLink(
+            CmsOnlineLinkCache.getExportCacheKey(cms, "/sites/foo", "/blog/" + res.getStructureId() + "/"));
+        assertNotNull(exportLink);
+        // the same link from another page uses the cached export part of the link
+        cms.getRequestContext().setUri("/index.html");
+        assertEquals(expected, OpenCms.getLinkManager().getOnlineLink(cms, rootPath));
+    }
+
     /**
      * Tests deletion of configuration files.<p>
      *
@@ -227,6 +260,54 @@ public class TestLiveConfig extends OpenCmsTestCase {
         assertEquals("/sites/default/", detailPage);
     }
 
+    /**
+     * Tests that the online link cache does not keep links to a detail page after a changed
+     * detail page configuration has been published.<p>
+     *
+     * @throws Exception -
+     */
+    public void testDetailPageLinkCacheConfigChange() throws Exception {
+
+        CmsADEManager manager = OpenCms.getADEManager();
+        CmsObject cms = getCmsObject();
+        cms.getRequestContext().setSiteRoot("/sites/foo");
+        String rootPath = "/sites/bar/.content/blogentries/be_00001.xml";
+        CmsResource res = rootCms().readResource(rootPath);
+        CmsResource blog = rootCms().readResource("/sites/foo/main/blog");
+        CmsResource main = rootCms().readResource("/sites/foo/main");
+        assertEquals(
+            "http://foo.org/data/opencms/main/blog/" + res.getStructureId() + "/",
+            OpenCms.getLinkManager().getOnlineLink(cms, rootPath));
+        try {
+            CmsObject offlineCms = rootCms();
+            offlineCms.lockResource("/sites/foo/.content/.config");
+            manager.saveDetailPages(
+                offlineCms,
+                "/sites/foo",
+                list(new CmsDetailPageInfo(main.getStructureId(), main.getRootPath(), "article1")),
+                new CmsUUID());
+            publish();
+            // links calculated before the online configuration is updated may still use the old detail page
+            OpenCms.getLinkManager().getOnlineLink(cms, rootPath);
+            waitForUpdate(true);
+            waitForUpdate(true);
+            assertEquals(
+                "http://foo.org/data/opencms/main/" + res.getStructureId() + "/",
+                OpenCms.getLinkManager().getOnlineLink(cms, rootPath));
+        } finally {
+            CmsObject offlineCms = rootCms();
+            offlineCms.lockResource("/sites/foo/.content/.config");
+            manager.saveDetailPages(
+                offlineCms,
+                "/sites/foo",
+                list(new CmsDetailPageInfo(blog.getStructureId(), blog.getRootPath(), "article1")),
+                new CmsUUID());
+            publish();
+            waitForUpdate(true);
+            waitForUpdate(true);
+        }
+    }
+
     /**
      * Tests the configuration in top-level sitemaps.<p>
      * @throws Exception -
@@ -27,9 +27,21 @@
 
 package org.opencms.cache;
 
+import org.opencms.file.CmsObject;
+import org.opencms.file.CmsProject;
 import org.opencms.file.CmsResource;
+import org.opencms.file.collectors.CmsDefaultResourceCollector;
+import org.opencms.file.types.CmsResourceTypeFolder;
+import org.opencms.file.types.CmsResourceTypePlain;
+import org.opencms.flex.CmsFlexRequestContextInfo;
+import org.opencms.main.CmsException;
+import org.opencms.main.OpenCms;
 import org.opencms.test.OpenCmsTestCase;
 import org.opencms.test.OpenCmsTestProperties;
+import org.opencms.util.CmsRequestUtil;
+
+import java.util.List;
+import java.util.Locale;
 
 import junit.extensions.TestSetup;
 import junit.framework.Test;
@@ -65,6 +77,8 @@ public class TestCache extends OpenCmsTestCase {
         suite.setName(TestCache.class.getName());
 
         suite.addTest(new TestCache("testVfsMemoryObjectCache"));
+        suite.addTest(new TestCache("testQueryResultCache"));
+        suite.addTest(new TestCache("testQueryResultCacheRelease"));
 
         TestSetup wrapper = new TestSetup(suite) {
 
@@ -84,6 +98,142 @@ public class TestCache extends OpenCmsTestCase {
         return wrapper;
     }
 
+    /**
+     * Tests caching collector results, and removing them when affected resources are published.<p>
+     *
+     * @throws Exception if something goes wrong
+     */
+    public void testQueryResultCache() throws Exception {
+
+        final int[] calls = new int[1];
+        CmsDefaultResourceCollector collector = new CmsDefaultResourceCollector() {
+
+            @Override
+            public List<CmsResource> getResults(CmsObject cms, String collectorName, String param)
+            throws CmsException {
+
+                calls[0]++;
+                return super.getResults(cms, collectorName, param);
+            }
+        };
+        CmsQueryResultCache cache = CmsQueryResultCache.getQueryResultCache();
+        CmsObject cms = getCmsObject();
+        CmsObject online = OpenCms.initCmsObject(cms);
+        online.getRequestContext().setCurrentProject(cms.readProject(CmsProject.ONLINE_PROJECT_ID));
+        String param = "/folder1/|xmlpage";
+
+        // the first call collects the results, the second one is a cache hit
+        List<CmsResource> results = cache.getCollectorResults(online, collector, "allInFolder", param);
+        assertEquals(1, calls[0]);
+        assertFalse(results.isEmpty());
+        List<CmsResource> cached = cache.getCollectorResults(online, collector, "allInFolder", param);
+        assertEquals(1, calls[0]);
+        assertEquals(results.size(), cached.size());
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(results.get(i).getStructureId(), cached.get(i).getStructureId());
+        }
+
+        // results are not shared between locales or with offline projects
+        CmsObject german = OpenCms.initCmsObject(online);
+        german.getRequestContext().setLocale(Locale.GERMAN);
+        cache.getCollectorResults(german, collector, "allInFolder", param);
+        assertEquals(2, calls[0]);
+        cache.getCollectorResults(cms, collector, "allInFolder", param);
+        assertEquals(3, calls[0]);
+        cache.getCollectorResults(cms, collector, "allInFolder", param);
+        assertEquals(4, calls[0]);
+
+        // publishing a resource outside of the folder keeps the result
+        String otherPath = "/folder2/index.html";
+        cms.lockResource(otherPath);
+        cms.setDateLastModified(otherPath, System.currentTimeMillis(), false);
+        cms.unlockResource(otherPath);
+        OpenCms.getPublishManager().publishResource(cms, otherPath);
+        OpenCms.getPublishManager().waitWhileRunning();
+        cache.getCollectorResults(online, collector, "allInFolder", param);
+        assertEquals(4, calls[0]);
+
+        // publishing a resource of the result removes it
+        String path = "/folder1/page1.html";
+        long dateLastModified = System.currentTimeMillis();
+        cms.lockResource(path);
+        cms.setDateLastModified(path, dateLastModified, false);
+        cms.unlockResource(path);
+        OpenCms.getPublishManager().publishResource(cms, path);
+        OpenCms.getPublishManager().waitWhileRunning();
+        results = cache.getCollectorResults(online, collector, "allInFolder", param);
+        assertEquals(5, calls[0]);
+        boolean found = false;
+        for (CmsResource resource : results) {
+            if (resource.getRootPath().equals(cms.getRequestContext().addSiteRoot(path))) {
+                assertEquals(dateLastModified, resource.getDateLastModified());
+                found = true;
+            }
+        }
+        assertTrue(found);
+    }
+
+    /**
+     * Tests that a cached collector result is removed when a resource filtered out of it is released,
+     * and that the release date is reported to the Flex cache on cache hits.<p>
+     *
+     * @throws Exception if something goes wrong
+     */
+    public void testQueryResultCacheRelease() throws Exception {
+
+        final int[] calls = new int[1];
+        CmsDefaultResourceCollector collector = new CmsDefaultResourceCollector() {
+
+            @Override
+            public List<CmsResource> getResults(CmsObject cms, String collectorName, String param)
+            throws CmsException {
+
+                calls[0]++;
+                return super.getResults(cms, collectorName, param);
+            }
+        };
+        CmsQueryResultCache cache = CmsQueryResultCache.getQueryResultCache();
+        CmsObject cms = getCmsObject();
+        String folder = "/releasetest/";
+        cms.createResource(folder, CmsResourceTypeFolder.getStaticTypeId());
+        cms.createResource(folder + "released.txt", CmsResourceTypePlain.getStaticTypeId());
+        cms.createResource(folder + "future.txt", CmsResourceTypePlain.getStaticTypeId());
+        long released = System.currentTimeMillis() + 1000000;
+        cms.setDateReleased(folder + "future.txt", released, false);
+        cms.unlockResource(folder);
+        OpenCms.getPublishManager().publishResource(cms, folder);
+        OpenCms.getPublishManager().waitWhileRunning();
+
+        CmsObject online = OpenCms.initCmsObject(cms);
+        online.getRequestContext().setCurrentProject(cms.readProject(CmsProject.ONLINE_PROJECT_ID));
+        String param = folder + "|plain";
+
+        // the resource released in the future is not part of the result, but its release date is recorded
+        CmsFlexRequestContextInfo info = new CmsFlexRequestContextInfo();
+        online.getRequestContext().setAttribute(CmsRequestUtil.HEADER_LAST_MODIFIED, info);
+        List<CmsResource> results = cache.getCollectorResults(online, collector, "allInFolder", param);
+        assertEquals(1, calls[0]);
+        assertEquals(1, results.size());
+        assertEquals(released, info.getDateExpires());
+        String key = CmsQueryResultCache.getCacheKey(online, CmsQueryResultCache.KEY_COLLECTOR, "allInFolder|" + param);
+        assertEquals(released, OpenCms.getMemoryMonitor().getCachedQueryResult(key).getDateExpires());
+
+        // a cache hit reports the release date to the Flex cache
+        info = new CmsFlexRequestContextInfo();
+        online.getRequestContext().setAttribute(CmsRequestUtil.HEADER_LAST_MODIFIED, info);
+        results = cache.getCollectorResults(online, collector, "allInFolder", param);
+        assertEquals(1, calls[0]);
+        assertEquals(1, results.size());
+        assertEquals(released, info.getDateExpires());
+        assertSame(info, online.getRequestContext().getAttribute(CmsRequestUtil.HEADER_LAST_MODIFIED));
+
+        // after the release date, the result is collected again and contains the released resource
+        online.getRequestContext().setRequestTime(released + 1000);
+        results = cache.getCollectorResults(online, collector, "allInFolder", param);
+        assertEquals(2, calls[0]);
+        assertEquals(2, results.size());
+    }
+
     /**
      * Tests the decoration postprocessor.<p>
      *
@@ -0,0 +1,136 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.cache;
+
+import org.opencms.db.CmsPublishedResource;
+import org.opencms.db.CmsResourceState;
+import org.opencms.file.CmsResource;
+import org.opencms.util.CmsUUID;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests which published resources invalidate cached collector and search results.<p>
+ */
+public class TestQueryResultScope extends TestCase {
+
+    /**
+     * Tests that only resources of the scope types below the scope folder affect a scope.<p>
+     */
+    public void testFolderAndType() {
+
+        CmsQueryResultScope scope = CmsQueryResultScope.create("/sites/default/news/article_%(number).html", 12);
+        assertEquals(Collections.singletonList("/sites/default/news/"), scope.getFolders());
+
+        assertTrue(scope.isAffectedBy(published("/sites/default/news/2016/a.html", 12, false)));
+        assertFalse(scope.isAffectedBy(published("/sites/default/news/2016/a.html", 13, false)));
+        assertFalse(scope.isAffectedBy(published("/sites/default/events/a.html", 12, false)));
+
+        // folders above or below the scope folder affect it regardless of the type
+        assertTrue(scope.isAffectedBy(published("/sites/default/news/2016/", 0, true)));
+        assertTrue(scope.isAffectedBy(published("/sites/default/", 0, true)));
+        assertFalse(scope.isAffectedBy(published("/sites/default/events/", 0, true)));
+    }
+
+    /**
+     * Tests that a scope without folders and types is affected by everything.<p>
+     */
+    public void testUnrestricted() {
+
+        assertTrue(CmsQueryResultScope.ALL.isAffectedBy(published("/shared/a.html", 1, false)));
+        assertTrue(CmsQueryResultScope.create("/sites/default/news/", -1).isAffectedBy(
+            published("/sites/default/news/a.html", 1, false)));
+        assertTrue(CmsQueryResultScope.createForSolrFilterQueries(null).isAffectedBy(
+            published("/shared/a.html", 1, false)));
+    }
+
+    /**
+     * Tests that resources contained in a result affect it even outside the scope.<p>
+     */
+    public void testResultResources() {
+
+        CmsQueryResultScope scope = new CmsQueryResultScope(
+            Arrays.asList("/sites/default/news/"),
+            Arrays.asList(Integer.valueOf(12)));
+        CmsResource moved = new CmsResource(
+            new CmsUUID(),
+            new CmsUUID(),
+            "/sites/default/news/a.html",
+            12,
+            false,
+            0,
+            CmsUUID.getNullUUID(),
+            CmsResource.STATE_UNCHANGED,
+            0,
+            CmsUUID.getNullUUID(),
+            0,
+            CmsUUID.getNullUUID(),
+            CmsResource.DATE_RELEASED_DEFAULT,
+            CmsResource.DATE_EXPIRED_DEFAULT,
+            1,
+            0,
+            0,
+            0);
+        CmsQueryResultCacheEntry entry = new CmsQueryResultCacheEntry(
+            scope,
+            Collections.singletonList(moved),
+            null);
+        assertEquals(Long.MAX_VALUE, entry.getDateExpires());
+
+        CmsPublishedResource movedAway = new CmsPublishedResource(
+            moved.getStructureId(),
+            moved.getResourceId(),
+            1,
+            "/sites/default/archive/a.html",
+            12,
+            false,
+            CmsResource.STATE_CHANGED,
+            1);
+        assertFalse(scope.isAffectedBy(movedAway));
+        assertTrue(entry.isAffectedBy(movedAway));
+    }
+
+    /**
+     * Creates a published resource for the tests.<p>
+     *
+     * @param rootPath the root path
+     * @param type the resource type id
+     * @param folder if the resource is a folder
+     *
+     * @return the published resource
+     */
+    private CmsPublishedResource published(String rootPath, int type, boolean folder) {
+
+        CmsResourceState state = CmsResource.STATE_CHANGED;
+        return new CmsPublishedResource(new CmsUUID(), new CmsUUID(), 1, rootPath, type, folder, state, 1);
+    }
+}
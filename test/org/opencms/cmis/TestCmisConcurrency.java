@@ -0,0 +1,440 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.cmis;
+
+import org.opencms.file.CmsFile;
+import org.opencms.file.CmsObject;
+import org.opencms.file.CmsResource;
+import org.opencms.main.OpenCms;
+import org.opencms.test.OpenCmsTestCase;
+import org.opencms.test.OpenCmsTestProperties;
+import org.opencms.util.CmsFileUtil;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.chemistry.opencmis.commons.data.ContentStream;
+import org.apache.chemistry.opencmis.commons.data.ObjectData;
+import org.apache.chemistry.opencmis.commons.enums.IncludeRelationships;
+import org.apache.chemistry.opencmis.commons.impl.dataobjects.ContentStreamImpl;
+import org.apache.chemistry.opencmis.commons.server.CallContext;
+import org.apache.chemistry.opencmis.commons.spi.Holder;
+
+import junit.extensions.TestSetup;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/**
+ * Tests concurrent access to a CMIS repository.<p>
+ *
+ * The CMIS service layer is replaced by a minimal local call context, so the repository
+ * is called directly from several threads, like the OpenCMIS server does for parallel client requests.<p>
+ */
+public class TestCmisConcurrency extends OpenCmsTestCase {
+
+    /**
+     * Minimal call context standing in for an OpenCMIS client connection.<p>
+     */
+    private static class CmsTestCallContext implements CallContext {
+
+        /**
+         * @see org.apache.chemistry.opencmis.commons.server.CallContext#get(java.lang.String)
+         */
+        public Object get(String key) {
+
+            return null;
+        }
+
+        /**
+         * @see org.apache.chemistry.opencmis.commons.server.CallContext#getBinding()
+         */
+        public String getBinding() {
+
+            return CallContext.BINDING_LOCAL;
+        }
+
+        /**
+         * @see org.apache.chemistry.opencmis.commons.server.CallContext#getLength()
+         */
+        public BigInteger getLength() {
+
+            return null;
+        }
+
+        /**
+         * @see org.apache.chemistry.opencmis.commons.server.CallContext#getLocale()
+         */
+        public String getLocale() {
+
+            return null;
+        }
+
+        /**
+         * @see org.apache.chemistry.opencmis.commons.server.CallContext#getMemoryThreshold()
+         */
+        public int getMemoryThreshold() {
+
+            return 0;
+        }
+
+        /**
+         * @see org.apache.chemistry.opencmis.commons.server.CallContext#getOffset()
+         */
+        public BigInteger getOffset() {
+
+            return null;
+        }
+
+        /**
+         * @see org.apache.chemistry.opencmis.commons.server.CallContext#getPassword()
+         */
+        public String getPassword() {
+
+            return "admin";
+        }
+
+        /**
+         * @see org.apache.chemistry.opencmis.commons.server.CallContext#getRepositoryId()
+         */
+        public String getRepositoryId() {
+
+            return REPOSITORY_ID;
+        }
+
+        /**
+         * @see org.apache.chemistry.opencmis.commons.server.CallContext#getTempDirectory()
+         */
+        public File getTempDirectory() {
+
+            return null;
+        }
+
+        /**
+         * @see org.apache.chemistry.opencmis.commons.server.CallContext#getUsername()
+         */
+        public String getUsername() {
+
+            return "Admin";
+        }
+
+        /**
+         * @see org.apache.chemistry.opencmis.commons.server.CallContext#isObjectInfoRequired()
+         */
+        public boolean isObjectInfoRequired() {
+
+            return false;
+        }
+    }
+
+    /**
+     * Repository that makes each call wait until a second call has entered the repository.<p>
+     */
+    private static class CmsRendezvousRepository extends CmsCmisRepository {
+
+        /** The latch counted down by each call entering the repository. */
+        private CountDownLatch m_entered = new CountDownLatch(2);
+
+        /**
+         * @see org.opencms.cmis.CmsCmisRepository#getCmsObject(org.opencms.cmis.CmsCmisCallContext)
+         */
+        @Override
+        protected CmsObject getCmsObject(CmsCmisCallContext context) {
+
+            m_entered.countDown();
+            try {
+                if (!m_entered.await(RENDEZVOUS_TIMEOUT, TimeUnit.SECONDS)) {
+                    throw new IllegalStateException("no second call entered the repository in parallel");
+                }
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            return super.getCmsObject(context);
+        }
+    }
+
+    /** The number of calls per thread. */
+    private static final int CALLS_PER_THREAD = 25;
+
+    /** The seconds a call waits for a parallel call in the rendezvous test. */
+    private static final int RENDEZVOUS_TIMEOUT = 30;
+
+    /** The id of the test repository. */
+    private static final String REPOSITORY_ID = "cmis-test";
+
+    /** The number of concurrent threads. */
+    private static final int THREADS = 16;
+
+    /**
+     * Default JUnit constructor.<p>
+     *
+     * @param arg0 JUnit parameters
+     */
+    public TestCmisConcurrency(String arg0) {
+
+        super(arg0);
+    }
+
+    /**
+     * Test suite for this test class.<p>
+     *
+     * @return the test suite
+     */
+    public static Test suite() {
+
+        OpenCmsTestProperties.initialize(org.opencms.test.AllTests.TEST_PROPERTIES_PATH);
+
+        TestSuite suite = new TestSuite();
+        suite.setName(TestCmisConcurrency.class.getName());
+        suite.addTest(new TestCmisConcurrency("testConcurrentReads"));
+        suite.addTest(new TestCmisConcurrency("testConcurrentContentUpdates"));
+        suite.addTest(new TestCmisConcurrency("testParallelExecution"));
+
+        TestSetup wrapper = new TestSetup(suite) {
+
+            @Override
+            protected void setUp() {
+
+                setupOpenCms("simpletest", "/sites/default/");
+            }
+
+            @Override
+            protected void tearDown() {
+
+                removeOpenCms();
+            }
+        };
+        return wrapper;
+    }
+
+    /**
+     * Tests that concurrent content updates of the same resource do not interfere with each other.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testConcurrentContentUpdates() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing concurrent content updates of the same resource");
+        final CmsCmisRepository repository = createRepository(cms);
+        CmsResource resource = cms.readResource("/folder1/page2.html");
+        final String id = resource.getStructureId().toString();
+        final List<String> written = Collections.synchronizedList(new ArrayList<String>());
+
+        List<Throwable> errors = runConcurrently(new Runnable() {
+
+            public void run() {
+
+                for (int i = 0; i < CALLS_PER_THREAD; i++) {
+                    String text = Thread.currentThread().getName() + "-" + i;
+                    ContentStreamImpl content = new ContentStreamImpl();
+                    content.setFileName("page2.html");
+                    content.setMimeType("text/html");
+                    content.setStream(new ByteArrayInputStream(text.getBytes()));
+                    repository.setContentStream(
+                        new CmsCmisCallContext(new CmsTestCallContext(), null),
+                        new Holder<String>(id),
+                        true,
+                        null,
+                        content);
+                    written.add(text);
+                }
+            }
+        });
+        assertEquals("Unexpected errors: " + errors, 0, errors.size());
+        assertTrue(cms.getLock(resource).isUnlocked());
+        CmsFile file = cms.readFile(resource);
+        assertTrue(written.contains(new String(file.getContents())));
+    }
+
+    /**
+     * Tests concurrent reads of objects and content streams.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testConcurrentReads() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing concurrent reads of objects and content streams");
+        final CmsCmisRepository repository = createRepository(cms);
+        CmsFile file = cms.readFile("/index.html");
+        final String id = file.getStructureId().toString();
+        final int size = file.getContents().length;
+
+        List<Throwable> errors = runConcurrently(new Runnable() {
+
+            public void run() {
+
+                for (int i = 0; i < CALLS_PER_THREAD; i++) {
+                    CmsCmisCallContext context = new CmsCmisCallContext(new CmsTestCallContext(), null);
+                    ObjectData object = repository.getObject(
+                        context,
+                        id,
+                        null,
+                        true,
+                        IncludeRelationships.NONE,
+                        "cmis:none",
+                        false,
+                        false);
+                    assertEquals(id, object.getId());
+                    ContentStream stream = repository.getContentStream(context, id, null, null, null);
+                    try {
+                        assertEquals(size, CmsFileUtil.readFully(stream.getStream()).length);
+                    } catch (Exception e) {
+                        throw new RuntimeException(e);
+                    }
+                    // read a range of the content
+                    stream = repository.getContentStream(context, id, null, BigInteger.ONE, BigInteger.TEN);
+                    assertEquals(Math.min(10, size - 1), stream.getLength().intValue());
+                }
+            }
+        });
+        assertEquals("Unexpected errors: " + errors, 0, errors.size());
+    }
+
+    /**
+     * Tests that two calls are executed inside the same repository at the same time.<p>
+     *
+     * Each call blocks until another call has entered the repository, so the test fails
+     * if the repository serializes its calls.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testParallelExecution() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing that calls to a repository are executed in parallel");
+        final CmsCmisRepository repository = initRepository(cms, new CmsRendezvousRepository());
+        final String id = cms.readResource("/index.html").getStructureId().toString();
+        final List<Throwable> errors = Collections.synchronizedList(new ArrayList<Throwable>());
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int i = 0; i < 2; i++) {
+            Thread thread = new Thread(new Runnable() {
+
+                public void run() {
+
+                    try {
+                        ObjectData object = repository.getObject(
+                            new CmsCmisCallContext(new CmsTestCallContext(), null),
+                            id,
+                            null,
+                            false,
+                            IncludeRelationships.NONE,
+                            "cmis:none",
+                            false,
+                            false);
+                        assertEquals(id, object.getId());
+                    } catch (Throwable e) {
+                        errors.add(e);
+                    }
+                }
+            }, "cmis-parallel-" + i);
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals("Unexpected errors: " + errors, 0, errors.size());
+    }
+
+    /**
+     * Creates and initializes a CMIS repository for the offline project.<p>
+     *
+     * @param cms the CMS context
+     *
+     * @return the repository
+     *
+     * @throws Exception if something goes wrong
+     */
+    private CmsCmisRepository createRepository(CmsObject cms) throws Exception {
+
+        return initRepository(cms, new CmsCmisRepository());
+    }
+
+    /**
+     * Initializes the given CMIS repository for the offline project.<p>
+     *
+     * @param cms the CMS context
+     * @param repository the repository to initialize
+     *
+     * @return the repository
+     *
+     * @throws Exception if something goes wrong
+     */
+    private CmsCmisRepository initRepository(CmsObject cms, CmsCmisRepository repository) throws Exception {
+
+        repository.setName(REPOSITORY_ID);
+        repository.addConfigurationParameter(CmsCmisRepository.PARAM_PROJECT, "Offline");
+        repository.initConfiguration();
+        repository.initializeCms(OpenCms.initCmsObject(cms));
+        return repository;
+    }
+
+    /**
+     * Runs the given task in several threads at the same time and collects the errors.<p>
+     *
+     * @param task the task to run
+     *
+     * @return the errors thrown by the task
+     *
+     * @throws InterruptedException if the current thread is interrupted
+     */
+    private List<Throwable> runConcurrently(final Runnable task) throws InterruptedException {
+
+        final List<Throwable> errors = Collections.synchronizedList(new ArrayList<Throwable>());
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int i = 0; i < THREADS; i++) {
+            Thread thread = new Thread(new Runnable() {
+
+                public void run() {
+
+                    try {
+                        start.await();
+                        task.run();
+                    } catch (Throwable e) {
+                        errors.add(e);
+                    }
+                }
+            }, "cmis-client-" + i);
+            threads.add(thread);
+            thread.start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return errors;
+    }
+}
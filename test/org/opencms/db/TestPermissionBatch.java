@@ -0,0 +1,128 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.db;
+
+import org.opencms.file.CmsObject;
+import org.opencms.file.CmsResource;
+import org.opencms.file.CmsResourceFilter;
+import org.opencms.file.types.CmsResourceTypeFolder;
+import org.opencms.file.types.CmsResourceTypePlain;
+import org.opencms.main.OpenCms;
+import org.opencms.security.CmsPermissionSet;
+import org.opencms.security.I_CmsPrincipal;
+import org.opencms.test.OpenCmsTestCase;
+import org.opencms.test.OpenCmsTestProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.Test;
+
+/**
+ * Tests the permission check for a batch of resources.<p>
+ */
+public class TestPermissionBatch extends OpenCmsTestCase {
+
+    /**
+     * Creates a new instance.<p>
+     *
+     * @param name the test name
+     */
+    public TestPermissionBatch(String name) {
+
+        super(name);
+    }
+
+    /**
+     * Creates a test suite instance.<p>
+     *
+     * @return the test suite instance
+     */
+    public static Test suite() {
+
+        OpenCmsTestProperties.initialize(org.opencms.test.AllTests.TEST_PROPERTIES_PATH);
+        return generateSetupTestWrapper(TestPermissionBatch.class, "simpletest", "/");
+    }
+
+    /**
+     * Tests that a batch permission check uses the access control entries of each resource,
+     * not the access control list of the first resource of the batch.<p>
+     *
+     * @throws Exception if something goes wrong
+     */
+    public void testBatchPermissions() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing a batch permission check on resources with different access control entries");
+
+        String folder = "/testBatchPermissions/";
+        cms.createResource(folder, CmsResourceTypeFolder.getStaticTypeId());
+        String[] names = {"allowed1.txt", "denied1.txt", "allowed2.txt", "denied2.txt"};
+        for (String name : names) {
+            cms.createResource(folder + name, CmsResourceTypePlain.getStaticTypeId());
+            if (name.startsWith("denied")) {
+                cms.chacc(folder + name, I_CmsPrincipal.PRINCIPAL_GROUP, "Users", "-r");
+            }
+        }
+        cms.createUser("testBatchUser", "secret", "", null);
+        cms.addUserToGroup("testBatchUser", OpenCms.getDefaultUsers().getGroupUsers());
+
+        List<CmsResource> resources = new ArrayList<CmsResource>();
+        List<CmsResource> allowed = new ArrayList<CmsResource>();
+        for (String name : names) {
+            CmsResource resource = cms.readResource(folder + name);
+            resources.add(resource);
+            if (name.startsWith("allowed")) {
+                allowed.add(resource);
+            }
+        }
+
+        CmsObject userCms = OpenCms.initCmsObject(cms);
+        userCms.loginUser("testBatchUser", "secret");
+        userCms.getRequestContext().setCurrentProject(cms.getRequestContext().getCurrentProject());
+
+        // the batch must return the same results as the single resource checks
+        List<CmsResource> filtered = userCms.filterByPermissions(
+            resources,
+            CmsPermissionSet.ACCESS_READ,
+            false,
+            CmsResourceFilter.ALL);
+        assertEquals(allowed, filtered);
+        for (CmsResource resource : resources) {
+            assertEquals(
+                resource.getRootPath(),
+                filtered.contains(resource),
+                userCms.hasPermissions(resource, CmsPermissionSet.ACCESS_READ, false, CmsResourceFilter.ALL));
+        }
+
+        // reading the folder content filters the resources in one batch
+        List<CmsResource> read = userCms.readResources(folder, CmsResourceFilter.ALL, false);
+        assertEquals(allowed.size(), read.size());
+        assertTrue(read.containsAll(allowed));
+    }
+}
@@ -95,6 +95,7 @@ public final class AllTests {
         suite.addTest(TestUndoChanges.suite());
         suite.addTest(TestUser.suite());
         suite.addTest(TestLinkRewriter.suite());
+        suite.addTest(TestUserSearchPaging.suite());
         //$JUnit-END$
         return suite;
     }
@@ -42,6 +42,9 @@ import org.opencms.test.OpenCmsTestProperties;
 import org.opencms.test.OpenCmsTestResourceConfigurableFilter;
 
 import java.io.UnsupportedEncodingException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.util.List;
 import java.util.Locale;
 
@@ -96,6 +99,8 @@ public class TestHistory extends OpenCmsTestCase {
         suite.addTest(new TestHistory("testFileVersions"));
         suite.addTest(new TestHistory("testVersioningLimit"));
         suite.addTest(new TestHistory("testSiblingsV7HistoryIssue"));
+        suite.addTest(new TestHistory("testPruneHistory"));
+        suite.addTest(new TestHistory("testIdenticalContent"));
 
         TestSetup wrapper = new TestSetup(suite) {
 
@@ -927,6 +932,60 @@ public class TestHistory extends OpenCmsTestCase {
          */
     }
 
+    /**
+     * Tests that publishing a file with identical content keeps the existing content entry.<p>
+     *
+     * @throws Throwable if something goes wrong
+     */
+    public void testIdenticalContent() throws Throwable {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing that identical content is not stored again");
+
+        OpenCms.getSystemInfo().setVersionHistorySettings(true, 10, 10);
+        String folder = "/folderIdenticalContent/";
+        String resName = folder + "image.bin";
+        byte[] content = "identical content".getBytes();
+        cms.createResource(folder, CmsResourceTypeFolder.getStaticTypeId());
+        cms.createResource(resName, CmsResourceTypePlain.getStaticTypeId(), content, null);
+        OpenCms.getPublishManager().publishResource(cms, folder);
+        OpenCms.getPublishManager().waitWhileRunning();
+        CmsResource resource = cms.readResource(resName);
+        assertEquals(1, countContentEntries(resource));
+
+        // write the same content again, this updates the content date
+        Thread.sleep(10);
+        cms.lockResource(resName);
+        CmsFile file = cms.readFile(resName);
+        file.setContents(content);
+        cms.writeFile(file);
+        OpenCms.getPublishManager().publishResource(cms, resName);
+        OpenCms.getPublishManager().waitWhileRunning();
+        assertEquals(1, countContentEntries(resource));
+        assertEquals(2, cms.readAllAvailableVersions(resName).size());
+        assertEquals("identical content", getContentString(cms, cms.readFile(resName).getContents()));
+
+        // a modified content of the same length is stored again
+        cms.lockResource(resName);
+        file = cms.readFile(resName);
+        file.setContents("different content".getBytes());
+        cms.writeFile(file);
+        OpenCms.getPublishManager().publishResource(cms, resName);
+        OpenCms.getPublishManager().waitWhileRunning();
+        assertEquals(2, countContentEntries(resource));
+
+        // deleting the unmodified file moves the online content entry to the history
+        cms.lockResource(resName);
+        cms.deleteResource(resName, CmsResource.DELETE_PRESERVE_SIBLINGS);
+        OpenCms.getPublishManager().publishResource(cms, resName);
+        OpenCms.getPublishManager().waitWhileRunning();
+        assertEquals(2, countContentEntries(resource));
+        List<I_CmsHistoryResource> versions = cms.readAllAvailableVersions(resource);
+        assertEquals(
+            "different content",
+            getContentString(cms, cms.readFile((CmsHistoryFile)versions.get(0)).getContents()));
+    }
+
     /**
      * Moves a resource n-times and tests if the version ID of the history resources
      * are correct and if the content could be restored for a specified version ID.<p>
@@ -1142,6 +1201,71 @@ public class TestHistory extends OpenCmsTestCase {
         }
     }
 
+    /**
+     * Tests deleting outdated historical versions of existing and deleted resources.<p>
+     *
+     * @throws Throwable if something goes wrong
+     */
+    public void testPruneHistory() throws Throwable {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing deleting historical versions");
+
+        OpenCms.getSystemInfo().setVersionHistorySettings(true, 10, 10);
+        String folder = "/folderPruneHistory/";
+        String often = folder + "often.txt";
+        String rarely = folder + "rarely.txt";
+        String deleted = folder + "deleted.txt";
+        cms.createResource(folder, CmsResourceTypeFolder.getStaticTypeId());
+        cms.createResource(often, CmsResourceTypePlain.getStaticTypeId(), "v0".getBytes(), null);
+        cms.createResource(rarely, CmsResourceTypePlain.getStaticTypeId(), "v0".getBytes(), null);
+        cms.createResource(deleted, CmsResourceTypePlain.getStaticTypeId(), "v0".getBytes(), null);
+        OpenCms.getPublishManager().publishResource(cms, folder);
+        OpenCms.getPublishManager().waitWhileRunning();
+        for (int i = 1; i < 5; i++) {
+            cms.lockResource(often);
+            CmsFile file = cms.readFile(often);
+            file.setContents(("v" + i).getBytes());
+            cms.writeFile(file);
+            if (i < 3) {
+                cms.lockResource(deleted);
+                CmsFile deletedFile = cms.readFile(deleted);
+                deletedFile.setContents(("v" + i).getBytes());
+                cms.writeFile(deletedFile);
+            }
+            OpenCms.getPublishManager().publishResource(cms, folder);
+            OpenCms.getPublishManager().waitWhileRunning();
+        }
+        cms.lockResource(deleted);
+        cms.deleteResource(deleted, CmsResource.DELETE_PRESERVE_SIBLINGS);
+        OpenCms.getPublishManager().publishResource(cms, deleted);
+        OpenCms.getPublishManager().waitWhileRunning();
+
+        List<I_CmsHistoryResource> oftenVersions = cms.readAllAvailableVersions(often);
+        assertEquals(5, oftenVersions.size());
+        assertEquals(1, cms.readAllAvailableVersions(rarely).size());
+        List<I_CmsHistoryResource> deletedResources = cms.readDeletedResources(folder, false);
+        assertEquals(1, deletedResources.size());
+        CmsResource deletedResource = (CmsResource)deletedResources.get(0);
+        assertTrue(cms.readAllAvailableVersions(deletedResource).size() > 1);
+
+        cms.deleteHistoricalVersions(3, 1, -1, new CmsShellReport(cms.getRequestContext().getLocale()));
+
+        // only the newest versions are kept
+        List<I_CmsHistoryResource> kept = cms.readAllAvailableVersions(often);
+        assertEquals(3, kept.size());
+        for (int i = 0; i < kept.size(); i++) {
+            assertEquals(oftenVersions.get(i).getVersion(), kept.get(i).getVersion());
+        }
+        assertEquals(1, cms.readAllAvailableVersions(rarely).size());
+        assertEquals(1, cms.readAllAvailableVersions(deletedResource).size());
+
+        // resources which were already pruned are skipped
+        cms.deleteHistoricalVersions(3, 1, -1, new CmsShellReport(cms.getRequestContext().getLocale()));
+        assertEquals(3, cms.readAllAvailableVersions(often).size());
+        assertEquals(1, cms.readAllAvailableVersions(deletedResource).size());
+    }
+
     /**
      * Tests the retrieval of deleted resources by name in a folder.<p>
      *
@@ -2364,4 +2488,38 @@ public class TestHistory extends OpenCmsTestCase {
             return new String(content);
         }
     }
+
+    /**
+     * Counts the content entries of the given resource in the database.<p>
+     *
+     * @param resource the resource
+     *
+     * @return the number of content entries, including the historical ones
+     *
+     * @throws Exception if something goes wrong
+     */
+    private int countContentEntries(CmsResource resource) throws Exception {
+
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet res = null;
+        try {
+            conn = OpenCms.getSqlManager().getConnection(OpenCms.getSqlManager().getDefaultDbPoolName());
+            stmt = conn.prepareStatement("SELECT COUNT(*) FROM CMS_CONTENTS WHERE RESOURCE_ID=?");
+            stmt.setString(1, resource.getResourceId().toString());
+            res = stmt.executeQuery();
+            res.next();
+            return res.getInt(1);
+        } finally {
+            if (res != null) {
+                res.close();
+            }
+            if (stmt != null) {
+                stmt.close();
+            }
+            if (conn != null) {
+                conn.close();
+            }
+        }
+    }
 }
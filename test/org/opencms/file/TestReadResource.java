@@ -29,10 +29,18 @@ package org.opencms.file;
 
 import org.opencms.main.CmsException;
 import org.opencms.main.OpenCms;
+import org.opencms.monitor.CmsMemoryMonitor;
 import org.opencms.test.OpenCmsTestCase;
 import org.opencms.test.OpenCmsTestProperties;
 import org.opencms.util.CmsUUID;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
 import junit.extensions.TestSetup;
 import junit.framework.Test;
 import junit.framework.TestSuite;
@@ -73,6 +81,8 @@ public class TestReadResource extends OpenCmsTestCase {
         suite.addTest(new TestReadResource("testReadAfterExpirationDateIgnore"));
         suite.addTest(new TestReadResource("testReadWithResourceID"));
         suite.addTest(new TestReadResource("testReadWithWrongResourceID"));
+        suite.addTest(new TestReadResource("testReadResourcesWithIds"));
+        suite.addTest(new TestReadResource("testReadPropertyObjectsForResources"));
         suite.addTest(new TestReadResource("testReadFileWithResourceID"));
 
         TestSetup wrapper = new TestSetup(suite) {
@@ -340,6 +350,70 @@ public class TestReadResource extends OpenCmsTestCase {
         }
     }
 
+    /**
+     * Test reading the properties of several resources at once.<p>
+     *
+     * @throws Throwable if something is wrong
+     */
+    public void testReadPropertyObjectsForResources() throws Throwable {
+
+        CmsObject cms = getCmsObject();
+        List<CmsResource> resources = new ArrayList<CmsResource>();
+        resources.add(cms.readResource("/folder1/subfolder11/index.html"));
+        resources.add(cms.readResource("/folder1/subfolder11/page1.html"));
+        resources.add(cms.readResource("/folder1/"));
+
+        // read the expected properties one by one, then make sure the bulk read does not use the cached lists
+        Map<CmsUUID, List<CmsProperty>> expectedProperties = new HashMap<CmsUUID, List<CmsProperty>>();
+        for (CmsResource resource : resources) {
+            expectedProperties.put(resource.getStructureId(), cms.readPropertyObjects(resource, false));
+        }
+        OpenCms.getMemoryMonitor().flushCache(CmsMemoryMonitor.CacheType.PROPERTY_LIST);
+
+        Map<CmsUUID, List<CmsProperty>> properties = cms.readPropertyObjects(resources);
+        assertEquals(resources.size(), properties.size());
+        int count = 0;
+        for (CmsResource resource : resources) {
+            List<CmsProperty> expected = expectedProperties.get(resource.getStructureId());
+            List<CmsProperty> actual = properties.get(resource.getStructureId());
+            count += actual.size();
+            assertEquals(new HashSet<CmsProperty>(expected), new HashSet<CmsProperty>(actual));
+            for (CmsProperty property : actual) {
+                CmsProperty expectedProperty = CmsProperty.get(property.getName(), expected);
+                assertEquals(expectedProperty.getStructureValue(), property.getStructureValue());
+                assertEquals(expectedProperty.getResourceValue(), property.getResourceValue());
+                assertEquals(expectedProperty.getOrigin(), property.getOrigin());
+            }
+        }
+        assertTrue(count > 0);
+    }
+
+    /**
+     * Test reading several resources with their structure ids at once.<p>
+     *
+     * @throws Throwable if something is wrong
+     */
+    public void testReadResourcesWithIds() throws Throwable {
+
+        CmsObject cms = getCmsObject();
+        CmsResource file = cms.readResource("/folder1/subfolder11/index.html");
+        CmsResource folder = cms.readResource("/folder1/");
+        CmsUUID wrongId = new CmsUUID("a7b5d298-b3ab-11d8-b3e3-514d35713fed");
+
+        List<CmsResource> resources = cms.readResources(
+            Arrays.asList(file.getStructureId(), folder.getStructureId(), wrongId, file.getStructureId()),
+            CmsResourceFilter.DEFAULT);
+        assertEquals(2, resources.size());
+        for (CmsResource resource : resources) {
+            CmsResource expected = resource.isFolder() ? folder : file;
+            assertEquals(expected.getRootPath(), resource.getRootPath());
+            assertEquals(expected.getResourceId(), resource.getResourceId());
+            assertEquals(expected.getDateLastModified(), resource.getDateLastModified());
+            assertEquals(expected.getState(), resource.getState());
+        }
+        assertTrue(cms.readResources(new ArrayList<CmsUUID>(), CmsResourceFilter.DEFAULT).isEmpty());
+    }
+
     /**
      * Test readFile with the structure id.<p>
      *
@@ -0,0 +1,222 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.file;
+
+import org.opencms.file.CmsUserSearchParameters.SortKey;
+import org.opencms.main.OpenCms;
+import org.opencms.security.CmsOrganizationalUnit;
+import org.opencms.test.OpenCmsTestCase;
+import org.opencms.test.OpenCmsTestProperties;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import junit.framework.Test;
+
+/**
+ * Tests keyset paging of user searches.<p>
+ */
+public class TestUserSearchPaging extends OpenCmsTestCase {
+
+    /** The number of users created for the tests. */
+    private static final int USER_COUNT = 7;
+
+    /**
+     * Default JUnit constructor.<p>
+     *
+     * @param arg0 JUnit parameters
+     */
+    public TestUserSearchPaging(String arg0) {
+
+        super(arg0);
+    }
+
+    /**
+     * Test suite for this test class.<p>
+     *
+     * @return the test suite
+     */
+    public static Test suite() {
+
+        OpenCmsTestProperties.initialize(org.opencms.test.AllTests.TEST_PROPERTIES_PATH);
+        return generateSetupTestWrapper(TestUserSearchPaging.class, "simpletest", "/");
+    }
+
+    /**
+     * Tests that keyset paging returns all users exactly once, in the order of an unpaged search.<p>
+     *
+     * @throws Exception if something goes wrong
+     */
+    public void testKeysetPaging() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing keyset paging of user searches");
+        createUsers(cms);
+
+        for (SortKey sortKey : new SortKey[] {SortKey.loginName, SortKey.orgUnit, SortKey.lastLogin}) {
+            for (boolean ascending : new boolean[] {true, false}) {
+                List<CmsUser> expected = searchUsers(cms, sortKey, ascending, 0, null);
+                assertTrue(expected.size() >= USER_COUNT);
+
+                List<CmsUser> paged = new ArrayList<CmsUser>();
+                CmsUser lastUser = null;
+                for (int i = 0; i <= expected.size(); i++) {
+                    List<CmsUser> page = searchUsers(cms, sortKey, ascending, 3, lastUser);
+                    if (page.isEmpty()) {
+                        break;
+                    }
+                    assertTrue(page.size() <= 3);
+                    paged.addAll(page);
+                    lastUser = page.get(page.size() - 1);
+                }
+                assertEquals(sortKey + " " + ascending, getIds(expected), getIds(paged));
+            }
+        }
+    }
+
+    /**
+     * Tests the paged variant of reading the manageable users.<p>
+     *
+     * @throws Exception if something goes wrong
+     */
+    public void testManageableUsersPaging() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing paged reading of the manageable users");
+        createUsers(cms);
+
+        List<CmsUser> all = OpenCms.getRoleManager().getManageableUsers(cms, "", true, true);
+        List<CmsUser> paged = new ArrayList<CmsUser>();
+        CmsUser lastUser = null;
+        for (int i = 0; i <= all.size(); i++) {
+            List<CmsUser> page = OpenCms.getRoleManager().getManageableUsers(cms, "", true, true, 2, lastUser);
+            if (page.isEmpty()) {
+                break;
+            }
+            paged.addAll(page);
+            lastUser = page.get(page.size() - 1);
+        }
+        assertEquals(all.size(), paged.size());
+        assertEquals(new HashSet<String>(getIds(all)), new HashSet<String>(getIds(paged)));
+        for (int i = 1; i < paged.size(); i++) {
+            assertTrue(paged.get(i - 1).getSimpleName().compareTo(paged.get(i).getSimpleName()) <= 0);
+        }
+    }
+
+    /**
+     * Tests that keyset paging with a sort key that does not support it fails instead of returning the first page again.<p>
+     *
+     * @throws Exception if something goes wrong
+     */
+    public void testUnsupportedSortKey() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing keyset paging with an unsupported sort key");
+        createUsers(cms);
+
+        CmsUser lastUser = cms.readUser("pagingUser0");
+        try {
+            searchUsers(cms, SortKey.email, true, 3, lastUser);
+            fail("keyset paging by email must not be possible");
+        } catch (Exception e) {
+            Throwable cause = e;
+            while ((cause != null) && !(cause instanceof IllegalArgumentException)) {
+                cause = cause.getCause();
+            }
+            assertNotNull(cause);
+        }
+    }
+
+    /**
+     * Creates the test users, if not already done.<p>
+     *
+     * @param cms the CMS context
+     *
+     * @throws Exception if something goes wrong
+     */
+    private void createUsers(CmsObject cms) throws Exception {
+
+        for (int i = 0; i < USER_COUNT; i++) {
+            String name = "pagingUser" + i;
+            try {
+                cms.readUser(name);
+            } catch (Exception e) {
+                cms.createUser(name, "secret", "", null);
+            }
+        }
+    }
+
+    /**
+     * Returns the ids of the given users.<p>
+     *
+     * @param users the users
+     *
+     * @return the ids of the users, in the same order
+     */
+    private List<String> getIds(List<CmsUser> users) {
+
+        List<String> result = new ArrayList<String>(users.size());
+        for (CmsUser user : users) {
+            result.add(user.getId().toString());
+        }
+        return result;
+    }
+
+    /**
+     * Searches the users of the root organizational unit.<p>
+     *
+     * @param cms the CMS context
+     * @param sortKey the sort key
+     * @param ascending the sort direction
+     * @param pageSize the page size, or 0 for no paging
+     * @param lastUser the last user of the previous page
+     *
+     * @return the users found
+     *
+     * @throws Exception if something goes wrong
+     */
+    private List<CmsUser> searchUsers(
+        CmsObject cms,
+        SortKey sortKey,
+        boolean ascending,
+        int pageSize,
+        CmsUser lastUser)
+    throws Exception {
+
+        CmsUserSearchParameters params = new CmsUserSearchParameters();
+        CmsOrganizationalUnit rootOu = OpenCms.getOrgUnitManager().readOrganizationalUnit(cms, "");
+        params.setAllowedOus(Collections.singletonList(rootOu));
+        params.setSorting(sortKey, ascending);
+        if (pageSize > 0) {
+            params.setKeysetPaging(pageSize, lastUser);
+        }
+        return OpenCms.getOrgUnitManager().searchUsers(cms, params);
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.jlan;
+
+import java.io.File;
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+/**
+ * Test case for {@link CmsFileBuffer}.<p>
+ */
+public class TestCmsFileBuffer extends TestCase {
+
+    /**
+     * Creates test data with a recognizable byte at every position.<p>
+     *
+     * @param length the length of the data
+     * @param seed the value added to every byte
+     *
+     * @return the test data
+     */
+    private static byte[] data(int length, int seed) {
+
+        byte[] result = new byte[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = (byte)((i * 31) + seed);
+        }
+        return result;
+    }
+
+    /**
+     * Tests reading and writing across page boundaries, without modifying the original content.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testPaging() throws Exception {
+
+        byte[] source = data((CmsFileBuffer.PAGE_SIZE * 3) + 100, 0);
+        byte[] original = source.clone();
+        byte[] expected = source.clone();
+        CmsFileBuffer buffer = new CmsFileBuffer();
+        buffer.init(source);
+        // unmodified content is returned without copying
+        assertSame(source, buffer.getContents());
+
+        // write a block which spans the boundary between the first and the second page
+        byte[] block = data(1000, 7);
+        long pos = CmsFileBuffer.PAGE_SIZE - 500;
+        buffer.seek(pos);
+        buffer.write(block);
+        System.arraycopy(block, 0, expected, (int)pos, block.length);
+        assertEquals(expected.length, buffer.getLength());
+        assertTrue(Arrays.equals(expected, buffer.getContents()));
+        assertTrue(Arrays.equals(original, source));
+
+        // read across the page boundary with an offset in the target buffer
+        byte[] dest = new byte[1200];
+        assertEquals(1100, buffer.read(dest, 1100, 100, pos - 50));
+        for (int i = 0; i < 1100; i++) {
+            assertEquals(expected[(int)(pos - 50) + i], dest[100 + i]);
+        }
+
+        // reads are limited by the end of the file
+        assertEquals(100, buffer.read(dest, 1000, 0, CmsFileBuffer.PAGE_SIZE * 3));
+        assertEquals(-1, buffer.read(dest, 1000, 0, expected.length));
+
+        // write after the end of the file, the gap reads as zero
+        buffer.seek(expected.length + 10);
+        buffer.write(new byte[] {1, 2, 3});
+        byte[] contents = buffer.getContents();
+        assertEquals(expected.length + 13, contents.length);
+        assertEquals(0, contents[expected.length + 5]);
+        assertEquals(3, contents[expected.length + 12]);
+        buffer.close();
+    }
+
+    /**
+     * Tests that modified pages are spilled to a temporary file if there are too many, and read back correctly.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testSpillToDisk() throws Exception {
+
+        int pages = 6;
+        byte[] expected = data(CmsFileBuffer.PAGE_SIZE * pages, 3);
+        CmsFileBuffer buffer = new CmsFileBuffer(2);
+        buffer.init(new byte[0]);
+        // write the content in small chunks, so the pages are modified one after another
+        for (int i = 0; i < expected.length; i += 10000) {
+            buffer.seek(i);
+            buffer.write(expected, i, Math.min(10000, expected.length - i));
+        }
+        File tempDir = new File(System.getProperty("java.io.tmpdir"));
+        assertTrue(countSpillFiles(tempDir) > 0);
+        assertTrue(Arrays.equals(expected, buffer.getContents()));
+
+        // modify a spilled page again
+        buffer.seek(10);
+        buffer.write(new byte[] {42});
+        expected[10] = 42;
+        assertTrue(Arrays.equals(expected, buffer.getContents()));
+
+        int spillFiles = countSpillFiles(tempDir);
+        buffer.close();
+        assertEquals(spillFiles - 1, countSpillFiles(tempDir));
+        assertEquals(0, buffer.getLength());
+    }
+
+    /**
+     * Tests truncating and extending the buffer again.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testTruncate() throws Exception {
+
+        byte[] source = data((CmsFileBuffer.PAGE_SIZE * 2) + 10, 5);
+        CmsFileBuffer buffer = new CmsFileBuffer(1);
+        buffer.init(source);
+        buffer.seek(CmsFileBuffer.PAGE_SIZE + 1);
+        buffer.write(new byte[] {9, 9, 9});
+        buffer.seek(1);
+        buffer.write(new byte[] {8});
+
+        // cut inside the first page, after modifying pages in memory and on disk
+        int size = CmsFileBuffer.PAGE_SIZE / 2;
+        buffer.seek(CmsFileBuffer.PAGE_SIZE);
+        buffer.truncate(size);
+        assertEquals(size, buffer.getLength());
+        byte[] contents = buffer.getContents();
+        assertEquals(size, contents.length);
+        assertEquals(8, contents[1]);
+        assertEquals(source[size - 1], contents[size - 1]);
+
+        // the position is moved to the new end
+        assertEquals(size, buffer.getPosition());
+
+        // extending the file again must not bring back the truncated content
+        buffer.truncate(CmsFileBuffer.PAGE_SIZE * 2);
+        contents = buffer.getContents();
+        assertEquals(CmsFileBuffer.PAGE_SIZE * 2, contents.length);
+        assertEquals(source[size - 1], contents[size - 1]);
+        for (int i = size; i < contents.length; i++) {
+            assertEquals(0, contents[i]);
+        }
+        buffer.close();
+    }
+
+    /**
+     * Counts the temporary files of file buffers in the given directory.<p>
+     *
+     * @param dir the directory
+     *
+     * @return the number of temporary files
+     */
+    private int countSpillFiles(File dir) {
+
+        int count = 0;
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (file.getName().startsWith("opencms-jlan-")) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,230 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.json;
+
+import java.io.StringReader;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the JSON pull parser.<p>
+ */
+public class TestJSONPullParser extends TestCase {
+
+    /**
+     * Tests that malformed JSON texts are reported with the position of the error.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testErrorPositions() throws Exception {
+
+        // the same messages and positions as reported by the JSONObject and JSONArray constructors
+        assertError("{\"a\" 1}", "Expected a ':' after a key at character 6");
+        assertError("{\"a\":1 \"b\":2}", "Expected a ',' or '}' at character 8");
+        assertError("[1 \"2\"]", "Expected a ',' or ']' at character 4");
+        assertError("{\"a\":1", "Expected a ',' or '}' at character 5");
+        assertError("{\"a\":", "Missing value at character 4");
+        // the pull parser also accepts scalar values, but no text after the end
+        assertError("", "Missing value at character 0");
+        assertError("[1] x", "Unexpected text after the end of the JSON text at character 5");
+    }
+
+    /**
+     * Tests the lenient syntax that is also accepted by the JSONObject and JSONArray constructors.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testLenientSyntax() throws Exception {
+
+        String json = "{a=1;b=>'two',c:[1;2,],}";
+        assertEquals("{ k:a v:1 k:b v:two k:c [ v:1 v:2 ] } $", trace(json));
+        // the tree parser accepts the same text
+        JSONObject obj = new JSONObject(json);
+        assertEquals(1, obj.getInt("a"));
+        assertEquals("two", obj.getString("b"));
+        assertEquals(2, obj.getJSONArray("c").length());
+    }
+
+    /**
+     * Tests parsing nested objects and arrays.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testNested() throws Exception {
+
+        assertEquals(
+            "{ k:a v:1 k:b [ v:true v:null v:x { k:c v:2.5 } ] k:d { } k:e [ ] } $",
+            trace("{\"a\":1,\"b\":[true,null,\"x\",{\"c\":2.5}],\"d\":{},\"e\":[]}"));
+        assertEquals("v:42 $", trace(" 42 "));
+
+        // nesting deeper than the initial scope stack
+        StringBuffer json = new StringBuffer();
+        StringBuffer expected = new StringBuffer();
+        for (int i = 0; i < 40; i++) {
+            json.append('[');
+            expected.append("[ ");
+        }
+        json.append("\"x\"");
+        expected.append("v:x ");
+        for (int i = 0; i < 40; i++) {
+            json.append(']');
+            expected.append("] ");
+        }
+        expected.append('$');
+        assertEquals(expected.toString(), trace(json.toString()));
+    }
+
+    /**
+     * Tests the values returned for the parser events.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testValues() throws Exception {
+
+        JSONPullParser parser = new JSONPullParser(new StringReader("{\"n\":null,\"d\":1.5,\"l\":12345678901}"));
+        assertNull(parser.getEvent());
+        assertEquals(JSONPullParser.Event.START_OBJECT, parser.next());
+        assertEquals(1, parser.getDepth());
+        assertEquals(JSONPullParser.Event.KEY, parser.next());
+        assertEquals("n", parser.getKey());
+        assertNull(parser.getValue());
+        assertEquals(JSONPullParser.Event.VALUE, parser.next());
+        assertTrue(parser.getValue() == JSONObject.NULL);
+        assertNull(parser.getKey());
+        parser.next();
+        parser.next();
+        assertEquals(Double.valueOf(1.5), parser.getValue());
+        parser.next();
+        parser.next();
+        assertEquals(Long.valueOf(12345678901L), parser.getValue());
+        assertEquals(JSONPullParser.Event.END_OBJECT, parser.next());
+        assertEquals(0, parser.getDepth());
+        assertEquals(JSONPullParser.Event.END_DOCUMENT, parser.next());
+        assertEquals(JSONPullParser.Event.END_DOCUMENT, parser.next());
+    }
+
+    /**
+     * Tests skipping the contents of objects and arrays.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testSkipChildren() throws Exception {
+
+        JSONPullParser parser = new JSONPullParser(
+            new JSONTokener("{\"skip\":{\"x\":[1,2,{\"y\":3}]},\"list\":[[1],[2]],\"keep\":4}"));
+        assertEquals(JSONPullParser.Event.START_OBJECT, parser.next());
+        assertEquals(JSONPullParser.Event.KEY, parser.next());
+        assertEquals(JSONPullParser.Event.START_OBJECT, parser.next());
+        parser.skipChildren();
+        assertEquals(JSONPullParser.Event.END_OBJECT, parser.getEvent());
+        assertEquals(1, parser.getDepth());
+        assertEquals(JSONPullParser.Event.KEY, parser.next());
+        assertEquals("list", parser.getKey());
+        assertEquals(JSONPullParser.Event.START_ARRAY, parser.next());
+        assertEquals(JSONPullParser.Event.START_ARRAY, parser.next());
+        parser.skipChildren();
+        assertEquals(JSONPullParser.Event.END_ARRAY, parser.getEvent());
+        assertEquals(2, parser.getDepth());
+        assertEquals(JSONPullParser.Event.START_ARRAY, parser.next());
+        assertEquals(JSONPullParser.Event.VALUE, parser.next());
+        // skipping has no effect if the last event did not start an object or array
+        parser.skipChildren();
+        assertEquals(JSONPullParser.Event.VALUE, parser.getEvent());
+        assertEquals(Integer.valueOf(2), parser.getValue());
+        assertEquals(JSONPullParser.Event.END_ARRAY, parser.next());
+        assertEquals(JSONPullParser.Event.END_ARRAY, parser.next());
+        assertEquals(JSONPullParser.Event.KEY, parser.next());
+        assertEquals("keep", parser.getKey());
+        assertEquals(JSONPullParser.Event.VALUE, parser.next());
+        assertEquals(Integer.valueOf(4), parser.getValue());
+        assertEquals(JSONPullParser.Event.END_OBJECT, parser.next());
+        assertEquals(JSONPullParser.Event.END_DOCUMENT, parser.next());
+    }
+
+    /**
+     * Asserts that parsing the given JSON text fails with the given message.<p>
+     *
+     * @param json the JSON text
+     * @param message the expected error message
+     */
+    private void assertError(String json, String message) {
+
+        try {
+            trace(json);
+            fail("Parsing '" + json + "' should fail");
+        } catch (JSONException e) {
+            assertEquals(message, e.getMessage());
+        }
+    }
+
+    /**
+     * Returns a short description of all events of the given JSON text.<p>
+     *
+     * @param json the JSON text
+     *
+     * @return the description of the events
+     *
+     * @throws JSONException if the JSON text is malformed
+     */
+    private String trace(String json) throws JSONException {
+
+        JSONPullParser parser = new JSONPullParser(new StringReader(json));
+        StringBuffer result = new StringBuffer();
+        JSONPullParser.Event event;
+        do {
+            event = parser.next();
+            if (result.length() > 0) {
+                result.append(' ');
+            }
+            switch (event) {
+                case START_OBJECT:
+                    result.append('{');
+                    break;
+                case END_OBJECT:
+                    result.append('}');
+                    break;
+                case START_ARRAY:
+                    result.append('[');
+                    break;
+                case END_ARRAY:
+                    result.append(']');
+                    break;
+                case KEY:
+                    result.append("k:").append(parser.getKey());
+                    break;
+                case VALUE:
+                    result.append("v:").append(parser.getValue());
+                    break;
+                case END_DOCUMENT:
+                default:
+                    result.append('$');
+            }
+        } while (event != JSONPullParser.Event.END_DOCUMENT);
+        return result.toString();
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.json;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests writing JSON text directly to a writer.<p>
+ */
+public class TestJSONWriter extends TestCase {
+
+    /**
+     * Tests that quoting to a writer produces the same output as the former string based implementation.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testQuoteParity() throws Exception {
+
+        List<String> values = new ArrayList<String>();
+        values.add(null);
+        values.add("");
+        values.add("plain text");
+        values.add("quote \" and backslash \\");
+        values.add("</script> and <\\/ and a/b and /");
+        values.add("\b\t\n\f\r");
+        values.add("\u0000\u0001\u001f ");
+        values.add("\u007f\u0080\u009f\u00a0\u00e4");
+        values.add("\u1fff\u2000\u2028\u2029\u20ac\u20ff\u2100");
+        values.add("trailing <");
+        Random random = new Random(42);
+        for (int i = 0; i < 1000; i++) {
+            char[] chars = new char[random.nextInt(20)];
+            for (int j = 0; j < chars.length; j++) {
+                // mostly characters that need escaping, mixed with plain ones
+                chars[j] = random.nextBoolean() ? "ab<\\/\"\n".charAt(random.nextInt(7)) : (char)random.nextInt(0x2200);
+            }
+            values.add(new String(chars));
+        }
+        for (String value : values) {
+            String expected = referenceQuote(value);
+            assertEquals(expected, JSONObject.quote(value));
+            StringWriter writer = new StringWriter();
+            writer.write('x');
+            assertTrue(writer == JSONObject.quote(value, writer));
+            assertEquals("x" + expected, writer.toString());
+        }
+    }
+
+    /**
+     * Tests that an invalid number is rejected before anything of the value is written.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testInvalidNumberWritesNothing() throws Exception {
+
+        StringWriter out = new StringWriter();
+        JSONWriter writer = new JSONWriter(out);
+        writer.array();
+        writer.value("first");
+
+        Map<String, Object> map = new HashMap<String, Object>();
+        map.put("text", "some text");
+        List<Object> list = new ArrayList<Object>();
+        list.add(Integer.valueOf(1));
+        list.add(Double.valueOf(Double.NaN));
+        map.put("list", list);
+        assertInvalid(writer, map);
+        assertInvalid(writer, Double.valueOf(Double.POSITIVE_INFINITY));
+        assertInvalid(writer, new double[] {1.0, Double.NEGATIVE_INFINITY});
+        JSONArray array = new JSONArray();
+        array.put(new JSONObject().put("x", "y"));
+        array.put(list);
+        assertInvalid(writer, array);
+        assertEquals("[\"first\"", out.toString());
+
+        writer.value("second");
+        writer.endArray();
+        assertEquals("[\"first\",\"second\"]", out.toString());
+    }
+
+    /**
+     * Tests that nested values are written the same way as by toString().<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testNestedValues() throws Exception {
+
+        JSONObject obj = new JSONObject();
+        obj.put("text", "a \"quoted\" </text>");
+        obj.put("number", 1.50);
+        obj.put("array", new JSONArray().put(1).put(true).put(JSONObject.NULL));
+        obj.put("object", new JSONObject().put("x", "y"));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        JSONWriter writer = new JSONWriter(out, Charset.forName("UTF-8"));
+        writer.object().key("nested").value(obj).key("null").value(null).endObject().flush();
+        assertEquals("{\"nested\":" + obj.toString() + ",\"null\":null}", new String(out.toByteArray(), "UTF-8"));
+    }
+
+    /**
+     * Asserts that appending the given value fails.<p>
+     *
+     * @param writer the JSON writer
+     * @param value the invalid value
+     */
+    private void assertInvalid(JSONWriter writer, Object value) {
+
+        try {
+            writer.value(value);
+            fail("Writing an invalid number should fail");
+        } catch (JSONException e) {
+            // expected
+        }
+    }
+
+    /**
+     * The string based quoting as implemented before quoting to a writer was introduced.<p>
+     *
+     * @param string the string to quote
+     *
+     * @return the quoted string
+     */
+    private String referenceQuote(String string) {
+
+        if ((string == null) || (string.length() == 0)) {
+            return "\"\"";
+        }
+
+        char b;
+        char c = 0;
+        int len = string.length();
+        StringBuffer sb = new StringBuffer(len + 4);
+        String t;
+
+        sb.append('"');
+        for (int i = 0; i < len; i += 1) {
+            b = c;
+            c = string.charAt(i);
+            switch (c) {
+                case '\\':
+                case '"':
+                    sb.append('\\');
+                    sb.append(c);
+                    break;
+                case '/':
+                    if (b == '<') {
+                        sb.append('\\');
+                    }
+                    sb.append(c);
+                    break;
+                case '\b':
+                    sb.append("\\b");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\f':
+                    sb.append("\\f");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                default:
+                    if ((c < ' ') || ((c >= '\u0080') && (c < '\u00a0')) || ((c >= '\u2000') && (c < '\u2100'))) {
+                        t = "000" + Integer.toHexString(c);
+                        sb.append("\\u" + t.substring(t.length() - 4));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        sb.append('"');
+        return sb.toString();
+    }
+}
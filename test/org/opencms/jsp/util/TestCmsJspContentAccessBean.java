@@ -30,6 +30,7 @@ package org.opencms.jsp.util;
 import org.opencms.file.CmsFile;
 import org.opencms.file.CmsObject;
 import org.opencms.file.CmsProject;
+import org.opencms.file.CmsResource;
 import org.opencms.file.CmsUser;
 import org.opencms.main.OpenCms;
 import org.opencms.security.CmsRole;
@@ -37,11 +38,15 @@ import org.opencms.security.I_CmsPrincipal;
 import org.opencms.test.OpenCmsTestCase;
 import org.opencms.test.OpenCmsTestProperties;
 import org.opencms.xml.content.CmsXmlContent;
+import org.opencms.xml.content.CmsXmlContentCompactModel;
 import org.opencms.xml.content.CmsXmlContentFactory;
+import org.opencms.xml.types.I_CmsXmlContentValue;
 
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 
 import junit.extensions.TestSetup;
 import junit.framework.Test;
@@ -77,6 +82,7 @@ public class TestCmsJspContentAccessBean extends OpenCmsTestCase {
         suite.setName(TestCmsJspContentAccessBean.class.getName());
 
         suite.addTest(new TestCmsJspContentAccessBean("testContentAccess"));
+        suite.addTest(new TestCmsJspContentAccessBean("testCompactModel"));
         suite.addTest(new TestCmsJspContentAccessBean("testIsEditable"));
 
         TestSetup wrapper = new TestSetup(suite) {
@@ -97,6 +103,55 @@ public class TestCmsJspContentAccessBean extends OpenCmsTestCase {
         return wrapper;
     }
 
+    /**
+     * Tests that the compact model of a cached online XML content matches the full XML content.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testCompactModel() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        cms.getRequestContext().setCurrentProject(cms.readProject(CmsProject.ONLINE_PROJECT_ID));
+        cms.getRequestContext().setUri("/xmlcontent/article_0002.html");
+        CmsResource resource = cms.readResource("/xmlcontent/article_0002.html");
+
+        // the model is only available after the content has been unmarshalled once
+        CmsXmlContent content = CmsXmlContentFactory.unmarshal(cms, cms.readFile(resource));
+        CmsXmlContentCompactModel model = CmsXmlContentFactory.getCachedCompactModel(cms, resource);
+        assertNotNull(model);
+        assertSame(model, CmsXmlContentFactory.getCachedCompactModel(cms, resource));
+        assertFalse(model.hasLinkValues());
+
+        assertEquals(new TreeSet<Locale>(content.getLocales()), new TreeSet<Locale>(model.getLocales()));
+        assertFalse(model.hasLocale(Locale.FRENCH));
+        for (Locale locale : content.getLocales()) {
+            Set<String> paths = new TreeSet<String>();
+            for (I_CmsXmlContentValue value : content.getValues(locale)) {
+                paths.add(value.getPath());
+            }
+            assertEquals(paths, new TreeSet<String>(model.getPaths(locale)));
+            for (String path : new String[] {"Title", "Teaser[2]", "Teaser[3]", "IdontExistHere"}) {
+                assertEquals(path, content.hasValue(path, locale), model.hasValue(path, locale));
+            }
+        }
+
+        // a bean for the resource uses the model, it must behave like a bean for the full content
+        for (Locale locale : new Locale[] {Locale.ENGLISH, Locale.GERMAN, Locale.FRENCH}) {
+            CmsJspContentAccessBean resourceBean = new CmsJspContentAccessBean(cms, locale, resource);
+            CmsJspContentAccessBean contentBean = new CmsJspContentAccessBean(cms, locale, content);
+            assertEquals(contentBean.getLocale(), resourceBean.getLocale());
+            for (String path : new String[] {"Title", "Teaser[2]", "Teaser[3]", "IdontExistHere"}) {
+                assertEquals(path, contentBean.getHasValue().get(path), resourceBean.getHasValue().get(path));
+            }
+            for (String name : new String[] {"en", "de", "fr"}) {
+                assertEquals(name, contentBean.getHasLocale().get(name), resourceBean.getHasLocale().get(name));
+            }
+            assertSame(model, resourceBean.getCompactModel());
+        }
+        // the locale that is not available falls back to English
+        assertEquals(Locale.ENGLISH, new CmsJspContentAccessBean(cms, Locale.FRENCH, resource).getLocale());
+    }
+
     /**
      * Tests general content access for XML content.<p>
      *
@@ -0,0 +1,245 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.main;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+
+/**
+ * Test case for {@link CmsStartupTaskRunner}.<p>
+ */
+public class TestCmsStartupTaskRunner extends TestCase {
+
+    /**
+     * Creates a task which records its name in the given list.<p>
+     *
+     * @param name the task name
+     * @param log the list to record the name in
+     *
+     * @return the task
+     */
+    private static I_CmsStartupTask record(final String name, final List<String> log) {
+
+        return new I_CmsStartupTask() {
+
+            public void run() {
+
+                log.add(name);
+            }
+        };
+    }
+
+    /**
+     * Tests that deferred tasks are executed after the critical tasks, and that waiting for them starts them.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testDeferredTasks() throws Exception {
+
+        final List<String> log = new CopyOnWriteArrayList<String>();
+        final CmsStartupTaskRunner runner = new CmsStartupTaskRunner(2);
+        runner.addTask("a", false, new I_CmsStartupTask() {
+
+            public void run() {
+
+                // a critical task must not wait for a deferred task
+                runner.waitForTask("deferred");
+                log.add("a");
+            }
+        });
+        runner.addTask("deferred", true, record("deferred", log), "a");
+        runner.runCriticalTasks();
+        assertEquals(Collections.singletonList("a"), log);
+        // the deferred tasks are not started yet, waiting for them starts them
+        runner.waitForTask("deferred");
+        assertEquals(2, log.size());
+        assertEquals("deferred", log.get(1));
+        assertTrue(runner.getTaskTimes().containsKey("deferred"));
+        runner.waitForDeferredTasks();
+    }
+
+    /**
+     * Tests that a thread waiting for a deferred task during the critical phase is released afterwards.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testDeferredTaskWaitDuringCriticalPhase() throws Exception {
+
+        final List<String> log = new CopyOnWriteArrayList<String>();
+        final CountDownLatch criticalRunning = new CountDownLatch(1);
+        final CountDownLatch waiterStarted = new CountDownLatch(1);
+        final CmsStartupTaskRunner runner = new CmsStartupTaskRunner(2);
+        runner.addTask("critical", false, new I_CmsStartupTask() {
+
+            public void run() throws Exception {
+
+                criticalRunning.countDown();
+                assertTrue(waiterStarted.await(10, TimeUnit.SECONDS));
+                // give the waiting thread the chance to return too early
+                Thread.sleep(100);
+                log.add("critical");
+            }
+        });
+        runner.addTask("deferred", true, record("deferred", log), "critical");
+        // e.g. a scheduled job which requires a deferred manager
+        Thread waiter = new Thread(new Runnable() {
+
+            public void run() {
+
+                try {
+                    criticalRunning.await();
+                    waiterStarted.countDown();
+                    runner.waitForTask("deferred");
+                    log.add("waiter");
+                } catch (InterruptedException e) {
+                    // ignore
+                }
+            }
+        });
+        waiter.start();
+        runner.runCriticalTasks();
+        waiter.join(10000);
+        assertFalse(waiter.isAlive());
+        assertEquals(3, log.size());
+        assertEquals("critical", log.get(0));
+        assertEquals("deferred", log.get(1));
+        assertEquals("waiter", log.get(2));
+    }
+
+    /**
+     * Tests that a deferred task can wait for a later deferred task with a single startup thread.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testDeferredTaskWaitInStartupThread() throws Exception {
+
+        final List<String> log = new CopyOnWriteArrayList<String>();
+        final CmsStartupTaskRunner runner = new CmsStartupTaskRunner(1);
+        runner.addTask("first", true, new I_CmsStartupTask() {
+
+            public void run() {
+
+                runner.waitForTask("second");
+                log.add("first");
+            }
+        });
+        runner.addTask("second", true, record("second", log));
+        runner.runCriticalTasks();
+        runner.waitForDeferredTasks();
+        assertEquals(2, log.size());
+        assertEquals("second", log.get(0));
+        assertEquals("first", log.get(1));
+    }
+
+    /**
+     * Tests that tasks are executed after their dependencies, and independent tasks concurrently.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testDependencies() throws Exception {
+
+        final List<String> log = new CopyOnWriteArrayList<String>();
+        final CountDownLatch bothRunning = new CountDownLatch(2);
+        I_CmsStartupTask concurrent = new I_CmsStartupTask() {
+
+            public void run() throws Exception {
+
+                bothRunning.countDown();
+                // only succeeds if the other independent task runs at the same time
+                assertTrue(bothRunning.await(10, TimeUnit.SECONDS));
+                log.add("concurrent");
+            }
+        };
+        CmsStartupTaskRunner runner = new CmsStartupTaskRunner(4);
+        runner.addTask("a", false, record("a", log));
+        runner.addTask("b", false, concurrent, "a");
+        runner.addTask("c", false, concurrent, "a");
+        runner.addTask("d", false, record("d", log), "b", "c");
+        runner.runCriticalTasks();
+        assertEquals(4, log.size());
+        assertEquals("a", log.get(0));
+        assertEquals("d", log.get(3));
+        try {
+            runner.addTask("e", false, record("e", log), "unknown");
+            fail("Unknown dependency not detected");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        runner.shutDown();
+    }
+
+    /**
+     * Tests that the error of a failed task is reported, and that dependent tasks are skipped.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testFailure() throws Exception {
+
+        List<String> log = new CopyOnWriteArrayList<String>();
+        CmsStartupTaskRunner runner = new CmsStartupTaskRunner(2);
+        runner.addTask("failing", false, new I_CmsStartupTask() {
+
+            public void run() throws Exception {
+
+                throw new CmsException(Messages.get().container(Messages.ERR_CRITICAL_INIT_MANAGERS_0));
+            }
+        });
+        runner.addTask("dependent", false, record("dependent", log), "failing");
+        runner.addTask("independent", false, record("independent", log));
+        try {
+            runner.runCriticalTasks();
+            fail("Error of startup task not reported");
+        } catch (CmsException e) {
+            // expected
+        }
+        assertEquals(Collections.singletonList("independent"), log);
+        runner.shutDown();
+    }
+
+    /**
+     * Tests that waiting for a deferred task does not block after the startup was aborted.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testShutDown() throws Exception {
+
+        List<String> log = new CopyOnWriteArrayList<String>();
+        CmsStartupTaskRunner runner = new CmsStartupTaskRunner(2);
+        runner.addTask("a", false, record("a", log));
+        runner.addTask("deferred", true, record("deferred", log), "a");
+        runner.runCriticalTasks();
+        runner.shutDown();
+        runner.waitForTask("deferred");
+        assertEquals(Collections.singletonList("a"), log);
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.monitor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the adaptive cache sizes and the cache statistics.<p>
+ */
+public class TestCacheBudget extends TestCase {
+
+    /**
+     * Tests that configured capacities exceeding the budget are scaled down.<p>
+     */
+    public void testDistribute() {
+
+        List<CmsMonitoredCacheMap<?>> caches = new ArrayList<CmsMonitoredCacheMap<?>>();
+        caches.add(new CmsMonitoredCacheMap<String>("a", 1000, null));
+        caches.add(new CmsMonitoredCacheMap<String>("b", 3000, null));
+        new CmsCacheBudget(2000).distribute(caches);
+        assertEquals(500, caches.get(0).getCapacity());
+        assertEquals(1500, caches.get(1).getCapacity());
+    }
+
+    /**
+     * Tests that a cache flushed since the last rebalancing is not shrunk.<p>
+     */
+    public void testFlushedCacheKeepsCapacity() {
+
+        CmsMonitoredCacheMap<String> cache = new CmsMonitoredCacheMap<String>("flushed", 1000, null);
+        List<CmsMonitoredCacheMap<?>> caches = new ArrayList<CmsMonitoredCacheMap<?>>();
+        caches.add(cache);
+        CmsCacheBudget budget = new CmsCacheBudget(1000);
+        budget.distribute(caches);
+        budget.rebalance(caches);
+        assertEquals(750, cache.getCapacity());
+        // no change directly after resizing
+        budget.rebalance(caches);
+        assertEquals(750, cache.getCapacity());
+        cache.clear();
+        budget.rebalance(caches);
+        assertEquals(750, cache.getCapacity());
+        // without a flush, the unused capacity is reduced
+        budget.rebalance(caches);
+        assertTrue(cache.getCapacity() < 750);
+    }
+
+    /**
+     * Tests that the entries are kept when the capacity is changed.<p>
+     */
+    public void testResizeKeepsEntries() {
+
+        CmsMonitoredCacheMap<String> cache = new CmsMonitoredCacheMap<String>("resized", 100, null);
+        for (int i = 0; i < 50; i++) {
+            cache.put("key" + i, "value" + i);
+        }
+        cache.setCapacity(200);
+        assertEquals(50, cache.size());
+        for (int i = 0; i < 50; i++) {
+            assertEquals("value" + i, cache.get("key" + i));
+        }
+        cache.setCapacity(20);
+        assertTrue(cache.size() <= 20);
+        assertTrue(cache.size() > 0);
+        cache.remove("key49");
+        assertNull(cache.get("key49"));
+    }
+
+    /**
+     * Tests that capacity is moved from an unused cache to a cache with many evictions.<p>
+     */
+    public void testRebalance() {
+
+        CmsMonitoredCacheMap<String> busy = new CmsMonitoredCacheMap<String>("busy", 100, null);
+        CmsMonitoredCacheMap<String> idle = new CmsMonitoredCacheMap<String>("idle", 1000, null);
+        List<CmsMonitoredCacheMap<?>> caches = new ArrayList<CmsMonitoredCacheMap<?>>();
+        caches.add(busy);
+        caches.add(idle);
+        CmsCacheBudget budget = new CmsCacheBudget(1100);
+        budget.distribute(caches);
+        budget.rebalance(caches);
+        for (int i = 0; i < 1000; i++) {
+            String key = "key" + i;
+            if (busy.get(key) == null) {
+                busy.put(key, key);
+            }
+        }
+        assertTrue(busy.getEvictionCount() > 0);
+        assertEquals(1000, busy.getMissCount());
+        assertEquals(1000, busy.getLoadCount());
+        budget.rebalance(caches);
+        assertTrue(busy.getCapacity() > 100);
+        assertTrue(idle.getCapacity() < 1000);
+        assertTrue((busy.getCapacity() + idle.getCapacity()) <= 1100);
+    }
+
+    /**
+     * Tests the hit and miss counters.<p>
+     */
+    public void testStatistics() {
+
+        CmsMonitoredCacheMap<String> cache = new CmsMonitoredCacheMap<String>("test", 10, null);
+        assertNull(cache.get("a"));
+        cache.put("a", "A");
+        assertEquals("A", cache.get("a"));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getLoadCount());
+        assertEquals(0.5, cache.getHitRate(), 0.001);
+        cache.setCapacity(20);
+        assertEquals(20, cache.getCapacity());
+        assertEquals(1, cache.size());
+        cache.resetStatistics();
+        assertEquals(0, cache.getHitCount());
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.monitor;
+
+import org.opencms.db.CmsResourceState;
+import org.opencms.file.CmsFile;
+import org.opencms.file.CmsFolder;
+import org.opencms.file.CmsProperty;
+import org.opencms.file.CmsResource;
+import org.opencms.util.CmsUUID;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the codecs for the values of the memory monitor caches.<p>
+ */
+public class TestCacheValueCodecs extends TestCase {
+
+    /**
+     * Tests encoding properties and property lists.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testProperties() throws Exception {
+
+        CmsProperty property = new CmsProperty("Title", "structure \u00e4\u00f6\u00fc", null);
+        property.setOrigin("/sites/default/index.html");
+        CmsProperty copy = roundTrip(CmsCacheValueCodecs.PROPERTY, property);
+        assertTrue(property.isIdentical(copy));
+        assertEquals("/sites/default/index.html", copy.getOrigin());
+        assertNull(copy.getResourceValue());
+        assertFalse(copy.isFrozen());
+
+        List<CmsProperty> properties = new ArrayList<CmsProperty>();
+        properties.add(property);
+        properties.add(new CmsProperty("Description", null, "resource value", true));
+        CmsProperty.setFrozen(properties);
+        List<CmsProperty> copies = roundTrip(CmsCacheValueCodecs.PROPERTY_LIST, properties);
+        assertEquals(2, copies.size());
+        for (int i = 0; i < properties.size(); i++) {
+            assertTrue(properties.get(i).isIdentical(copies.get(i)));
+            assertTrue(copies.get(i).isFrozen());
+        }
+        assertTrue(copies.get(1).autoCreatePropertyDefinition());
+        assertTrue(roundTrip(CmsCacheValueCodecs.PROPERTY_LIST, new ArrayList<CmsProperty>()).isEmpty());
+    }
+
+    /**
+     * Tests encoding resources, folders and resource lists.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testResources() throws Exception {
+
+        CmsResource resource = createResource("/sites/default/index.html", false);
+        CmsResource copy = roundTrip(CmsCacheValueCodecs.RESOURCE, resource);
+        assertResource(resource, copy);
+        assertFalse(copy instanceof CmsFolder);
+
+        CmsFolder folder = new CmsFolder(createResource("/sites/default/folder/", true));
+        CmsResource folderCopy = roundTrip(CmsCacheValueCodecs.RESOURCE, folder);
+        assertResource(folder, folderCopy);
+        assertTrue(folderCopy instanceof CmsFolder);
+
+        List<CmsResource> resources = new ArrayList<CmsResource>();
+        resources.add(resource);
+        resources.add(folder);
+        List<CmsResource> copies = roundTrip(CmsCacheValueCodecs.RESOURCE_LIST, resources);
+        assertEquals(2, copies.size());
+        assertResource(resource, copies.get(0));
+        assertResource(folder, copies.get(1));
+
+        // files carry their content and are not stored in the second level
+        CmsFile file = new CmsFile(resource);
+        assertFalse(CmsCacheValueCodecs.RESOURCE.canEncode(file));
+        resources.add(file);
+        assertFalse(CmsCacheValueCodecs.RESOURCE_LIST.canEncode(resources));
+    }
+
+    /**
+     * Asserts that a decoded resource equals the original one.<p>
+     *
+     * @param expected the original resource
+     * @param actual the decoded resource
+     */
+    private void assertResource(CmsResource expected, CmsResource actual) {
+
+        assertEquals(expected.getStructureId(), actual.getStructureId());
+        assertEquals(expected.getResourceId(), actual.getResourceId());
+        assertEquals(expected.getRootPath(), actual.getRootPath());
+        assertEquals(expected.getTypeId(), actual.getTypeId());
+        assertEquals(expected.isFolder(), actual.isFolder());
+        assertEquals(expected.getFlags(), actual.getFlags());
+        assertEquals(expected.getProjectLastModified(), actual.getProjectLastModified());
+        assertEquals(expected.getState(), actual.getState());
+        assertEquals(expected.getDateCreated(), actual.getDateCreated());
+        assertEquals(expected.getUserCreated(), actual.getUserCreated());
+        assertEquals(expected.getDateLastModified(), actual.getDateLastModified());
+        assertEquals(expected.getUserLastModified(), actual.getUserLastModified());
+        assertEquals(expected.getDateReleased(), actual.getDateReleased());
+        assertEquals(expected.getDateExpired(), actual.getDateExpired());
+        assertEquals(expected.getSiblingCount(), actual.getSiblingCount());
+        assertEquals(expected.getLength(), actual.getLength());
+        assertEquals(expected.getDateContent(), actual.getDateContent());
+        assertEquals(expected.getVersion(), actual.getVersion());
+    }
+
+    /**
+     * Creates a resource for the tests.<p>
+     *
+     * @param rootPath the root path
+     * @param isFolder if a folder should be created
+     *
+     * @return the resource
+     */
+    private CmsResource createResource(String rootPath, boolean isFolder) {
+
+        return new CmsResource(
+            new CmsUUID(),
+            new CmsUUID(),
+            rootPath,
+            isFolder ? 0 : 1,
+            isFolder,
+            0,
+            new CmsUUID(),
+            CmsResourceState.STATE_CHANGED,
+            1000L,
+            new CmsUUID(),
+            2000L,
+            new CmsUUID(),
+            CmsResource.DATE_RELEASED_DEFAULT,
+            CmsResource.DATE_EXPIRED_DEFAULT,
+            1,
+            isFolder ? -1 : 1234,
+            3000L,
+            7);
+    }
+
+    /**
+     * Encodes and decodes a value.<p>
+     *
+     * @param <V> the value type
+     *
+     * @param codec the codec to use
+     * @param value the value
+     *
+     * @return the decoded value
+     *
+     * @throws IOException if encoding or decoding fails
+     */
+    private <V> V roundTrip(I_CmsCacheValueCodec<V> codec, V value) throws IOException {
+
+        assertTrue(codec.canEncode(value));
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        codec.write(new DataOutputStream(bytes), value);
+        return codec.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+    }
+}
@@ -0,0 +1,255 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.monitor;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the disk backed second level of the memory monitor caches.<p>
+ */
+public class TestMappedCacheStore extends TestCase {
+
+    /** Codec for strings used in the tests. */
+    private static final I_CmsCacheValueCodec<String> STRING_CODEC = new I_CmsCacheValueCodec<String>() {
+
+        public boolean canEncode(String value) {
+
+            return !value.startsWith("!");
+        }
+
+        public String read(DataInput in) throws IOException {
+
+            return in.readUTF();
+        }
+
+        public void write(DataOutput out, String value) throws IOException {
+
+            out.writeUTF(value);
+        }
+    };
+
+    /** The folder for the segment files. */
+    private File m_folder;
+
+    /**
+     * Tests reading and writing from several threads, values must never be mixed up.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testConcurrentAccess() throws Exception {
+
+        final CmsMappedCacheStore<String> store = createStore(8 * 1024);
+        final AtomicReference<String> failure = new AtomicReference<String>();
+        List<Thread> threads = new ArrayList<Thread>();
+        try {
+            for (int t = 0; t < 4; t++) {
+                final long seed = t;
+                Thread thread = new Thread() {
+
+                    @Override
+                    public void run() {
+
+                        Random random = new Random(seed);
+                        for (int i = 0; i < 20000; i++) {
+                            String key = "key" + random.nextInt(200);
+                            switch (random.nextInt(3)) {
+                                case 0:
+                                    store.put(key, valueOf(key));
+                                    break;
+                                case 1:
+                                    store.remove(key);
+                                    break;
+                                default:
+                                    String value = store.get(key);
+                                    if ((value != null) && !value.equals(valueOf(key))) {
+                                        failure.set(key + " -> " + value);
+                                    }
+                            }
+                        }
+                    }
+                };
+                threads.add(thread);
+                thread.start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            assertNull(failure.get());
+        } finally {
+            store.close();
+        }
+    }
+
+    /**
+     * Tests storing, replacing and removing values.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testPutGetRemove() throws Exception {
+
+        CmsMappedCacheStore<String> store = createStore(64 * 1024);
+        try {
+            store.put("a", "value a");
+            store.put("b", "value b");
+            store.put("c", "!not encodable");
+            assertEquals("value a", store.get("a"));
+            assertEquals("value b", store.get("b"));
+            assertNull(store.get("c"));
+            assertEquals(2, store.size());
+            store.put("a", "new value a");
+            assertEquals("new value a", store.get("a"));
+            store.remove("a");
+            assertNull(store.get("a"));
+            assertEquals(1, store.size());
+            store.clear();
+            assertNull(store.get("b"));
+            assertEquals(0, store.size());
+            store.put("b", "value b");
+            assertEquals("value b", store.get("b"));
+        } finally {
+            store.close();
+        }
+    }
+
+    /**
+     * Tests that the oldest segment is reused when the store is full.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testSegmentReuse() throws Exception {
+
+        // four segments with 1024 bytes each
+        CmsMappedCacheStore<String> store = createStore(4 * 1024);
+        try {
+            for (int i = 0; i < 1000; i++) {
+                store.put("key" + i, valueOf("key" + i));
+            }
+            assertNull(store.get("key0"));
+            assertEquals(valueOf("key999"), store.get("key999"));
+            int size = store.size();
+            assertTrue(size < 1000);
+            for (int i = 1000 - size; i < 1000; i++) {
+                assertEquals(valueOf("key" + i), store.get("key" + i));
+            }
+        } finally {
+            store.close();
+        }
+    }
+
+    /**
+     * Tests that entries evicted from the first level of a tiered map are read from the second level,
+     * and that removing or clearing also affects the second level.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testTieredMap() throws Exception {
+
+        CmsMappedCacheStore<String> store = createStore(64 * 1024);
+        try {
+            CmsTieredCacheMap<String> map = new CmsTieredCacheMap<String>(10, store);
+            for (int i = 0; i < 100; i++) {
+                map.put("key" + i, valueOf("key" + i));
+            }
+            assertTrue(map.size() <= 10);
+            assertTrue(store.size() > 0);
+            String evicted = null;
+            for (int i = 0; i < 100; i++) {
+                if (store.get("key" + i) != null) {
+                    evicted = "key" + i;
+                    break;
+                }
+            }
+            assertNotNull(evicted);
+            assertEquals(valueOf(evicted), map.get(evicted));
+            // moved back to the first level
+            assertNull(store.get(evicted));
+            map.remove(evicted);
+            assertNull(map.get(evicted));
+            map.clear();
+            assertEquals(0, store.size());
+            for (int i = 0; i < 100; i++) {
+                assertNull(map.get("key" + i));
+            }
+        } finally {
+            store.close();
+        }
+    }
+
+    /**
+     * @see junit.framework.TestCase#setUp()
+     */
+    @Override
+    protected void setUp() throws Exception {
+
+        m_folder = new File(System.getProperty("java.io.tmpdir"), "opencms-test-cachestore-" + System.nanoTime());
+    }
+
+    /**
+     * @see junit.framework.TestCase#tearDown()
+     */
+    @Override
+    protected void tearDown() throws Exception {
+
+        m_folder.delete();
+    }
+
+    /**
+     * Creates a store with string values.<p>
+     *
+     * @param maxSize the maximum size of the store
+     *
+     * @return the store
+     *
+     * @throws IOException if creating the store fails
+     */
+    CmsMappedCacheStore<String> createStore(long maxSize) throws IOException {
+
+        return new CmsMappedCacheStore<String>(m_folder, "test", maxSize, STRING_CODEC);
+    }
+
+    /**
+     * Returns the value used for the given key.<p>
+     *
+     * @param key the key
+     *
+     * @return the value
+     */
+    String valueOf(String key) {
+
+        return "value of " + key;
+    }
+}
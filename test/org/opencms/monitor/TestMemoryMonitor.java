@@ -27,9 +27,16 @@
 
 package org.opencms.monitor;
 
+import org.opencms.file.CmsObject;
+import org.opencms.file.CmsResource;
+import org.opencms.file.types.CmsResourceTypeFolder;
+import org.opencms.file.types.CmsResourceTypePlain;
 import org.opencms.main.CmsContextInfo;
 import org.opencms.main.OpenCms;
 import org.opencms.scheduler.CmsScheduledJobInfo;
+import org.opencms.security.CmsAccessControlEntry;
+import org.opencms.security.CmsPermissionSet;
+import org.opencms.security.I_CmsPrincipal;
 import org.opencms.test.OpenCmsTestCase;
 import org.opencms.test.OpenCmsTestProperties;
 
@@ -67,6 +74,7 @@ public class TestMemoryMonitor extends OpenCmsTestCase {
         suite.setName(TestMemoryMonitor.class.getName());
 
         suite.addTest(new TestMemoryMonitor("testMemoryMonitor"));
+        suite.addTest(new TestMemoryMonitor("testClearAccessControlListSubtree"));
 
         TestSetup wrapper = new TestSetup(suite) {
 
@@ -86,6 +94,55 @@ public class TestMemoryMonitor extends OpenCmsTestCase {
         return wrapper;
     }
 
+    /**
+     * Tests that changing the access control entries of a folder only clears the cached
+     * access control lists of the folder subtree.<p>
+     *
+     * @throws Exception if something goes wrong
+     */
+    public void testClearAccessControlListSubtree() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing the subtree invalidation of cached access control lists");
+
+        cms.createResource("/acltest/", CmsResourceTypeFolder.getStaticTypeId());
+        cms.createResource("/acltest/changed/", CmsResourceTypeFolder.getStaticTypeId());
+        cms.createResource("/acltest/changed/child.txt", CmsResourceTypePlain.getStaticTypeId());
+        cms.createResource("/acltest/unchanged/", CmsResourceTypeFolder.getStaticTypeId());
+        cms.createResource("/acltest/unchanged/sibling.txt", CmsResourceTypePlain.getStaticTypeId());
+        cms.createUser("acltestUser", "secret", "", null);
+        cms.addUserToGroup("acltestUser", OpenCms.getDefaultUsers().getGroupUsers());
+
+        CmsObject userCms = OpenCms.initCmsObject(cms);
+        userCms.loginUser("acltestUser", "secret");
+        userCms.getRequestContext().setCurrentProject(cms.getRequestContext().getCurrentProject());
+        CmsResource child = cms.readResource("/acltest/changed/child.txt");
+        CmsResource sibling = cms.readResource("/acltest/unchanged/sibling.txt");
+        assertTrue(userCms.hasPermissions(child, CmsPermissionSet.ACCESS_READ));
+        assertTrue(userCms.hasPermissions(sibling, CmsPermissionSet.ACCESS_READ));
+
+        CmsMemoryMonitor monitor = OpenCms.getMemoryMonitor();
+        cms.getAccessControlList("/acltest/changed/child.txt");
+        cms.getAccessControlList("/acltest/unchanged/sibling.txt");
+        assertNotNull(monitor.getCachedACL(getAclCacheKey(child)));
+        assertNotNull(monitor.getCachedACL(getAclCacheKey(sibling)));
+
+        // deny read access on the folder, inherited to the child
+        cms.chacc(
+            "/acltest/changed/",
+            I_CmsPrincipal.PRINCIPAL_GROUP,
+            OpenCms.getDefaultUsers().getGroupUsers(),
+            0,
+            CmsPermissionSet.PERMISSION_READ,
+            CmsAccessControlEntry.ACCESS_FLAGS_INHERIT | CmsAccessControlEntry.ACCESS_FLAGS_GROUP);
+
+        // the access control list of the child must be recomputed, the one of the sibling stays cached
+        assertNull(monitor.getCachedACL(getAclCacheKey(child)));
+        assertNotNull(monitor.getCachedACL(getAclCacheKey(sibling)));
+        assertFalse(userCms.hasPermissions(child, CmsPermissionSet.ACCESS_READ));
+        assertTrue(userCms.hasPermissions(sibling, CmsPermissionSet.ACCESS_READ));
+    }
+
     /**
      * Tests the memory monitor.<p>
      *
@@ -128,4 +185,22 @@ public class TestMemoryMonitor extends OpenCmsTestCase {
 
         assertEquals(5, OpenCms.getMemoryMonitor().getLogCount());
     }
+
+    /**
+     * Returns the key under which the access control list of the given offline resource is cached,
+     * as created by the driver manager for {@link CmsObject#getAccessControlList(String)}.<p>
+     *
+     * @param resource the resource
+     *
+     * @return the cache key
+     */
+    private String getAclCacheKey(CmsResource resource) {
+
+        return resource.getRootPath()
+            + "_-_"
+            + (resource.isFolder() ? "+" : "-")
+            + "_0_"
+            + resource.getStructureId()
+            + "_-";
+    }
 }
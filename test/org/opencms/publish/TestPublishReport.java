@@ -0,0 +1,162 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.publish;
+
+import org.opencms.report.CmsHtmlReport;
+import org.opencms.report.I_CmsReport;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the compressed publish report and the pending limit of the HTML report.<p>
+ */
+public class TestPublishReport extends TestCase {
+
+    /**
+     * Tests that the publish report contents are stored compressed and can be uncompressed again.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testCompressedRoundTrip() throws Exception {
+
+        CmsPublishReport report = new CmsPublishReport(Locale.ENGLISH);
+        try {
+            for (int i = 0; i < 1000; i++) {
+                report.print("Publishing resource " + i, I_CmsReport.FORMAT_DEFAULT);
+                report.println();
+            }
+            byte[] compressed = report.getCompressedContents();
+            String contents = new String(CmsPublishReport.uncompress(compressed));
+            assertTrue(contents.contains("Publishing resource 0"));
+            assertTrue(contents.contains("Publishing resource 999"));
+            assertTrue(compressed.length < contents.length());
+            // reading the contents again returns the same output
+            assertEquals(contents, new String(report.getContents()));
+        } finally {
+            report.deleteSpoolFile();
+        }
+        // the contents are no longer available after the temporary file has been deleted
+        assertEquals(0, report.getCompressedContents().length);
+    }
+
+    /**
+     * Tests that the decorated HTML report only keeps a limited number of pending lines.<p>
+     */
+    public void testDecoratedReportLimit() {
+
+        CmsHtmlReport htmlReport = new CmsHtmlReport(Locale.ENGLISH, null, true, false);
+        CmsPublishReport report = (CmsPublishReport)CmsPublishReport.decorate(htmlReport);
+        try {
+            assertEquals(CmsPublishReport.MAX_PENDING_ENTRIES, htmlReport.getMaxPendingEntries());
+        } finally {
+            report.deleteSpoolFile();
+        }
+    }
+
+    /**
+     * Tests that the HTML report drops the oldest pending lines and shows a note instead.<p>
+     */
+    public void testPendingLimit() {
+
+        CmsHtmlReport report = new CmsHtmlReport(Locale.ENGLISH, null, true, false);
+        report.setMaxPendingEntries(3);
+        for (int i = 0; i < 5; i++) {
+            report.print("line" + i, I_CmsReport.FORMAT_DEFAULT);
+        }
+        String update = report.getReportUpdate();
+        assertFalse(update.contains("line0"));
+        assertFalse(update.contains("line1"));
+        assertTrue(update.contains("line2"));
+        assertTrue(update.contains("line4"));
+        assertTrue(update.contains("2 lines omitted"));
+        // the note is shown only once and delivered lines are not reported again
+        assertEquals("", report.getReportUpdate());
+
+        report.print("line5", I_CmsReport.FORMAT_DEFAULT);
+        update = report.getReportUpdate();
+        assertTrue(update.contains("line5"));
+        assertFalse(update.contains("omitted"));
+    }
+
+    /**
+     * Tests that the HTML report keeps all pending lines if no limit is set.<p>
+     */
+    public void testPendingUnlimited() {
+
+        CmsHtmlReport report = new CmsHtmlReport(Locale.ENGLISH, null, true, false);
+        for (int i = 0; i < 100; i++) {
+            report.print("line" + i + ";", I_CmsReport.FORMAT_DEFAULT);
+        }
+        String update = report.getReportUpdate();
+        assertTrue(update.contains("line0;"));
+        assertTrue(update.contains("line99;"));
+        assertFalse(update.contains("omitted"));
+    }
+
+    /**
+     * Tests that publish reports stored before compression was introduced are returned unchanged.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testUncompressLegacyReport() throws Exception {
+
+        byte[] legacy = "<html><body>Publishing resource 0</body></html>".getBytes();
+        assertTrue(legacy == CmsPublishReport.uncompress(legacy));
+        assertNull(CmsPublishReport.uncompress(null));
+        byte[] empty = new byte[0];
+        assertTrue(empty == CmsPublishReport.uncompress(empty));
+        byte[] single = new byte[] {0x1f};
+        assertTrue(single == CmsPublishReport.uncompress(single));
+
+        byte[] compressed = gzip("<html>compressed</html>");
+        assertEquals("<html>compressed</html>", new String(CmsPublishReport.uncompress(compressed)));
+    }
+
+    /**
+     * Compresses the given text.<p>
+     *
+     * @param text the text to compress
+     *
+     * @return the compressed bytes
+     *
+     * @throws IOException if compressing fails
+     */
+    private byte[] gzip(String text) throws IOException {
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        GZIPOutputStream gzip = new GZIPOutputStream(out);
+        gzip.write(text.getBytes());
+        gzip.close();
+        return out.toByteArray();
+    }
+}
@@ -64,6 +64,7 @@ public final class AllTests {
         suite.addTest(new TestSuite(TestMsWordExtraction.class));
         suite.addTest(new TestSuite(TestPdfExtraction.class));
         suite.addTest(new TestSuite(TestMsExcelExtraction.class));
+        suite.addTest(new TestSuite(TestExtractionResultCache.class));
         suite.addTest(TestXmlDocumentExtraction.suite());
         //$JUnit-END$
         return suite;
@@ -0,0 +1,180 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.search.extractors;
+
+import org.opencms.file.CmsFile;
+import org.opencms.file.CmsResource;
+import org.opencms.search.documents.CmsExtractionResultCache;
+import org.opencms.test.OpenCmsTestCase;
+import org.opencms.util.CmsFileUtil;
+import org.opencms.util.CmsUUID;
+
+import java.io.File;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Tests the compact format and the disk cache for text extraction results.<p>
+ */
+public class TestExtractionResultCache extends OpenCmsTestCase {
+
+    /**
+     * Tests that extraction results are cached by content, and that the cache size is bounded.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testCacheByContent() throws Exception {
+
+        File dir = File.createTempFile("extractCache", "");
+        dir.delete();
+        CmsExtractionResultCache cache = new CmsExtractionResultCache(dir.getAbsolutePath(), "/cache");
+        CmsFile file1 = createFile("/a/test1.pdf", "same content".getBytes());
+        CmsFile file2 = createFile("/b/copy-of-test1.pdf", "same content".getBytes());
+        CmsFile file3 = createFile("/c/other.pdf", "other content".getBytes());
+
+        String name1 = cache.getCacheName(file1, null, "pdf", "1");
+        assertEquals(name1, cache.getCacheName(file2, null, "pdf", "1"));
+        assertFalse(name1.equals(cache.getCacheName(file3, null, "pdf", "1")));
+        assertFalse(name1.equals(cache.getCacheName(file1, null, "pdf", "2")));
+        assertFalse(name1.equals(cache.getCacheName(file1, Locale.GERMAN, "pdf", "1")));
+
+        assertNull(cache.getCacheObject(name1));
+        cache.saveCacheObject(name1, new CmsExtractionResult("extracted text"));
+        assertEquals("extracted text", cache.getCacheObject(name1).getContent());
+
+        // limit the cache so only one entry fits, the least recently used one must be removed
+        String name3 = cache.getCacheName(file3, null, "pdf", "1");
+        cache.setMaxSize(new File(name1).length() + 1);
+        cache.saveCacheObject(name3, new CmsExtractionResult("other text"));
+        assertNull(cache.getCacheObject(name1));
+        assertEquals("other text", cache.getCacheObject(name3).getContent());
+
+        // the index is written on cleanup and used by new cache instances
+        cache.cleanCache(1);
+        CmsExtractionResultCache cache2 = new CmsExtractionResultCache(dir.getAbsolutePath(), "/cache");
+        assertEquals("other text", cache2.getCacheObject(name3).getContent());
+        CmsFileUtil.purgeDirectory(dir);
+    }
+
+    /**
+     * Tests writing and reading extraction results in the compact binary format.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testCompactFormat() throws Exception {
+
+        InputStream in = getClass().getClassLoader().getResourceAsStream("org/opencms/search/extractors/test1.pdf");
+        I_CmsExtractionResult extracted = CmsExtractorPdf.getExtractor().extractText(in);
+        CmsExtractionResult result = CmsExtractionResult.fromCompactBytes(
+            CmsExtractionResult.toCompactBytes(extracted));
+        assertEquals(extracted.getContentItems(), result.getContentItems());
+        assertEquals(extracted.getContent(), result.getContent());
+        assertNull(result.getDefaultLocale());
+
+        Map<Locale, Map<String, String>> items = new HashMap<Locale, Map<String, String>>();
+        Map<String, String> en = new HashMap<String, String>();
+        en.put(I_CmsExtractionResult.ITEM_CONTENT, "English");
+        items.put(Locale.ENGLISH, en);
+        Map<String, String> de = new HashMap<String, String>();
+        de.put(I_CmsExtractionResult.ITEM_CONTENT, "Deutsch \u00e4\u00f6\u00fc");
+        items.put(Locale.GERMAN, de);
+        Map<String, String> fields = new HashMap<String, String>();
+        fields.put("field", "value");
+        CmsExtractionResult multilingual = new CmsExtractionResult(Locale.ENGLISH, items, fields);
+        result = CmsExtractionResult.fromCompactBytes(CmsExtractionResult.toCompactBytes(multilingual));
+        assertEquals(Locale.ENGLISH, result.getDefaultLocale());
+        assertEquals(multilingual.getLocales(), result.getLocales());
+        assertEquals("Deutsch \u00e4\u00f6\u00fc", result.getContent(Locale.GERMAN));
+        assertEquals("English", result.getContent());
+        assertEquals(fields, result.getFieldMappings());
+
+        // serialized results are not accepted as compact format
+        assertNull(CmsExtractionResult.fromCompactBytes(multilingual.getBytes()));
+    }
+
+    /**
+     * Tests that entries added after the index was written survive a restart without cleanup.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testIndexJournal() throws Exception {
+
+        File dir = File.createTempFile("extractCache", "");
+        dir.delete();
+        CmsExtractionResultCache cache = new CmsExtractionResultCache(dir.getAbsolutePath(), "/cache");
+        String name1 = cache.getCacheName(createFile("/a/first.pdf", "first".getBytes()), null, "pdf", "1");
+        String name2 = cache.getCacheName(createFile("/a/second.pdf", "second".getBytes()), null, "pdf", "1");
+        cache.saveCacheObject(name1, new CmsExtractionResult("first text"));
+        // writes the index file
+        cache.cleanCache(1);
+        // only recorded in the journal, the cache is not cleaned again before the "restart"
+        cache.saveCacheObject(name2, new CmsExtractionResult("second text"));
+
+        CmsExtractionResultCache cache2 = new CmsExtractionResultCache(dir.getAbsolutePath(), "/cache");
+        assertEquals(0, cache2.cleanCache(1));
+        assertEquals("first text", cache2.getCacheObject(name1).getContent());
+        assertEquals("second text", cache2.getCacheObject(name2).getContent());
+        CmsFileUtil.purgeDirectory(dir);
+    }
+
+    /**
+     * Creates a file object with the given content.<p>
+     *
+     * @param rootPath the root path of the file
+     * @param content the content
+     *
+     * @return the file
+     */
+    private CmsFile createFile(String rootPath, byte[] content) {
+
+        CmsResource resource = new CmsResource(
+            new CmsUUID(),
+            new CmsUUID(),
+            rootPath,
+            0,
+            false,
+            0,
+            CmsUUID.getNullUUID(),
+            CmsResource.STATE_UNCHANGED,
+            0,
+            CmsUUID.getNullUUID(),
+            0,
+            CmsUUID.getNullUUID(),
+            CmsResource.DATE_RELEASED_DEFAULT,
+            CmsResource.DATE_EXPIRED_DEFAULT,
+            1,
+            content.length,
+            0,
+            0);
+        CmsFile file = new CmsFile(resource);
+        file.setContents(content);
+        return file;
+    }
+}
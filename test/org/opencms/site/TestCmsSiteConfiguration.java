@@ -32,6 +32,7 @@ import org.opencms.test.OpenCmsTestCase;
 import org.opencms.test.OpenCmsTestProperties;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -70,6 +71,8 @@ public class TestCmsSiteConfiguration extends OpenCmsTestCase {
         suite.setName(TestCmsSiteConfiguration.class.getName());
 
         suite.addTest(new TestCmsSiteConfiguration("testSiteConfiguration"));
+        suite.addTest(new TestCmsSiteConfiguration("testSiteRootLookup"));
+        suite.addTest(new TestCmsSiteConfiguration("testSiteRootIndex"));
 
         TestSetup wrapper = new TestSetup(suite) {
 
@@ -121,4 +124,75 @@ public class TestCmsSiteConfiguration extends OpenCmsTestCase {
             "Site at http://localhost:8082 not found",
             sites.contains(new CmsSite("/sites/testsite/", "http://localhost:8082")));
     }
+
+    /**
+     * Tests the site root index with nested site roots and site roots outside of the /sites/ folder.<p>
+     *
+     * @throws Throwable if something goes wrong
+     */
+    public void testSiteRootIndex() throws Throwable {
+
+        echo("Testing the site root index with nested site roots");
+
+        CmsSite outer = new CmsSite("/sites/a/", "http://outer.org");
+        CmsSite inner = new CmsSite("/sites/a/b/c/", "http://inner.org");
+        CmsSite other = new CmsSite("/shared/x/", "http://other.org");
+        CmsSite otherInner = new CmsSite("/shared/x/y/z/", "http://otherinner.org");
+        Map<String, CmsSite> siteRootSites = new HashMap<String, CmsSite>();
+        siteRootSites.put(outer.getSiteRoot(), outer);
+        siteRootSites.put(inner.getSiteRoot(), inner);
+        siteRootSites.put(other.getSiteRoot(), other);
+        siteRootSites.put(otherInner.getSiteRoot(), otherInner);
+        CmsSiteRootIndex index = new CmsSiteRootIndex(siteRootSites);
+
+        // below /sites/, only the first two folder levels are used as site root
+        assertSame(outer, index.getSite("/sites/a/"));
+        assertSame(outer, index.getSite("/sites/a/b/"));
+        assertSame(outer, index.getSite("/sites/a/b/c/"));
+        assertSame(outer, index.getSite("/sites/a/b/c/d/e/"));
+        assertNull(index.getSite("/sites/ab/"));
+        assertNull(index.getSite("/sites/"));
+
+        // site roots outside of /sites/ match by prefix, the longest one wins
+        assertSame(other, index.getSite("/shared/x/"));
+        assertSame(other, index.getSite("/shared/x/y/"));
+        assertSame(otherInner, index.getSite("/shared/x/y/z/"));
+        assertSame(otherInner, index.getSite("/shared/x/y/z/index.html/"));
+
+        // matching is aligned to path segments
+        assertNull(index.getSite("/shared/xy/"));
+        assertSame(other, index.getSite("/shared/x/y/zz/"));
+        assertNull(index.getSite("/"));
+
+        assertEquals(siteRootSites, index.getSites());
+    }
+
+    /**
+     * Tests looking up the site root for a root path with the configured sites.<p>
+     *
+     * @throws Throwable if something goes wrong
+     */
+    public void testSiteRootLookup() throws Throwable {
+
+        echo("Testing the site root lookup for root paths");
+
+        CmsSiteManagerImpl siteManager = OpenCms.getSiteManager();
+
+        // below /sites/, only the first two folder levels are used as site root, even for nested sites
+        assertEquals("/sites/default", siteManager.getSiteRoot("/sites/default/folder1/index.html"));
+        assertEquals("/sites/default", siteManager.getSiteRoot("/sites/default/folder1"));
+        assertEquals(
+            "/sites/default",
+            siteManager.getSiteForRootPath("/sites/default/folder1/sub/page.html").getSiteRoot());
+        assertEquals("/sites/default", siteManager.getSiteRoot("/sites/default/folder2/index.html"));
+        assertEquals("/sites/default", siteManager.getSiteRoot("/sites/default"));
+        // the nested site can still be found by its site root
+        assertEquals("/sites/default/folder1", siteManager.getSiteForSiteRoot("/sites/default/folder1").getSiteRoot());
+
+        // a site root only matches complete path segments
+        assertEquals("/sites/default", siteManager.getSiteRoot("/sites/default/folder10/index.html"));
+        assertNull(siteManager.getSiteRoot("/sites/testsite2/index.html"));
+        assertNull(siteManager.getSiteForRootPath("/sites/foobar/"));
+        assertNull(siteManager.getSiteRoot("/system/modules/"));
+    }
 }
@@ -0,0 +1,118 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.staticexport;
+
+import org.opencms.util.CmsFileUtil;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests which published resources invalidate cached online links.<p>
+ */
+public class TestOnlineLinkCacheEntry extends TestCase {
+
+    /**
+     * Tests that publishing the link target or one of its parent folders invalidates a link.<p>
+     */
+    public void testTargetAndParentFolders() {
+
+        CmsOnlineLinkCacheEntry entry = entry("/sites/default/news/article.html");
+
+        assertTrue(isAffected(entry, "/sites/default/news/article.html"));
+        assertTrue(isAffected(entry, "/sites/default/news/"));
+        assertTrue(isAffected(entry, "/sites/default/"));
+        assertTrue(isAffected(entry, "/"));
+        assertFalse(isAffected(entry, "/sites/default/news/other.html"));
+        assertFalse(isAffected(entry, "/sites/default/news/article.html.bak"));
+        assertFalse(isAffected(entry, "/sites/default/events/"));
+        assertFalse(isAffected(entry, "/sites/default/new"));
+    }
+
+    /**
+     * Tests that publishing a resource directly inside a folder invalidates links to the folder.<p>
+     */
+    public void testFolderContents() {
+
+        CmsOnlineLinkCacheEntry entry = entry("/sites/default/news/");
+
+        assertTrue(isAffected(entry, "/sites/default/news/index.html"));
+        assertTrue(isAffected(entry, "/sites/default/news"));
+        assertFalse(isAffected(entry, "/sites/default/news/2016/index.html"));
+        assertFalse(isAffected(entry, "/sites/default/index.html"));
+    }
+
+    /**
+     * Tests that a link depending on several resources is invalidated by any of them.<p>
+     */
+    public void testSeveralDependencies() {
+
+        CmsOnlineLinkCacheEntry entry = entry("/sites/default/.content/article/a_00001.xml", "/sites/default/news/");
+
+        assertTrue(isAffected(entry, "/sites/default/.content/article/a_00001.xml"));
+        assertTrue(isAffected(entry, "/sites/default/news/index.html"));
+        assertFalse(isAffected(entry, "/sites/default/.content/article/a_00002.xml"));
+        assertFalse(isAffected(entry, "/shared/"));
+    }
+
+    /**
+     * Creates a cache entry with the given dependencies.<p>
+     *
+     * @param dependencies the root paths the link depends on
+     *
+     * @return the cache entry
+     */
+    private CmsOnlineLinkCacheEntry entry(String... dependencies) {
+
+        return new CmsOnlineLinkCacheEntry("/opencms/link.html", null, null, Arrays.asList(dependencies));
+    }
+
+    /**
+     * Checks if a cache entry is affected by publishing the given resource.<p>
+     *
+     * @param entry the cache entry
+     * @param rootPath the root path of the published resource
+     *
+     * @return <code>true</code> if the cache entry is affected
+     */
+    private boolean isAffected(CmsOnlineLinkCacheEntry entry, String rootPath) {
+
+        String path = CmsFileUtil.removeTrailingSeparator(rootPath);
+        Set<String> paths = new HashSet<String>();
+        paths.add(path);
+        Set<String> parentFolders = new HashSet<String>();
+        String parentFolder = CmsOnlineLinkCacheEntry.getParentPath(path);
+        if (parentFolder != null) {
+            parentFolders.add(parentFolder);
+        }
+        return entry.isAffectedBy(paths, parentFolders);
+    }
+}
@@ -77,6 +77,37 @@ public class TestCmsMacroResolver extends OpenCmsTestCase {
         assertEquals(value, CmsMacroResolver.stripMacro(processed));
     }
 
+    /**
+     * Tests compiled macro templates.<p>
+     */
+    public void testCompiledTemplates() {
+
+        String input = "Hello %(user), welcome to ${site}! %(unknown)";
+        CmsMacroTemplate template = CmsMacroTemplate.compile(input);
+        assertTrue(template.hasMacros());
+        assertSame(template, CmsMacroTemplate.compile(new String(input)));
+
+        CmsMacroResolver resolver = CmsMacroResolver.newInstance();
+        resolver.addMacro("user", "Alice");
+        resolver.addMacro("site", "OpenCms");
+        assertEquals("Hello Alice, welcome to OpenCms! ", template.resolve(resolver));
+        resolver.setKeepEmptyMacros(true);
+        assertEquals("Hello Alice, welcome to OpenCms! %(unknown)", template.resolve(resolver));
+
+        // the same template resolved with a different resolver
+        CmsMacroResolver other = CmsMacroResolver.newInstance().setKeepEmptyMacros(true);
+        other.addMacro("user", "Bob");
+        assertEquals("Hello Bob, welcome to ${site}! %(unknown)", template.resolve(other));
+
+        // nothing resolved, the input is returned unchanged
+        assertSame(input, CmsMacroResolver.newInstance().setKeepEmptyMacros(true).resolveMacros(input));
+
+        // no complete macro
+        template = CmsMacroTemplate.compile("100% (not a macro) $ {either}");
+        assertFalse(template.hasMacros());
+        assertEquals("100% (not a macro) $ {either}", template.resolve(resolver));
+    }
+
     /**
      * Tests macro util functions.<p>
      */
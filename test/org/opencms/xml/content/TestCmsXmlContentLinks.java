@@ -44,6 +44,7 @@ import org.opencms.test.OpenCmsTestCase;
 import org.opencms.test.OpenCmsTestProperties;
 import org.opencms.util.CmsFileUtil;
 import org.opencms.xml.CmsXmlEntityResolver;
+import org.opencms.xml.containerpage.CmsADECache;
 import org.opencms.xml.types.CmsXmlHtmlValue;
 import org.opencms.xml.types.CmsXmlVfsFileValue;
 
@@ -170,6 +171,8 @@ public class TestCmsXmlContentLinks extends OpenCmsTestCase {
         suite.addTest(new TestCmsXmlContentLinks("testRelationType"));
         suite.addTest(new TestCmsXmlContentLinks("testInvalidateFalse"));
         suite.addTest(new TestCmsXmlContentLinks("testLinkComparator"));
+        suite.addTest(new TestCmsXmlContentLinks("testOnlineCache"));
+        suite.addTest(new TestCmsXmlContentLinks("testOnlineCacheLinkVisibility"));
 
         TestSetup wrapper = new TestSetup(suite) {
 
@@ -345,6 +348,71 @@ public class TestCmsXmlContentLinks extends OpenCmsTestCase {
 
     }
 
+    /**
+     * Tests that XML contents read from the online cache are equal to the unmarshalled content.<p>
+     *
+     * @throws Exception in case something goes wrong
+     */
+    public void testOnlineCache() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing the cache of unmarshalled online XML contents");
+
+        CmsResource resource = createOnlineTestContent(cms, "/xmlcache1/", 0);
+        cms.getRequestContext().setCurrentProject(cms.readProject(CmsProject.ONLINE_PROJECT_ID));
+
+        CmsADECache cache = OpenCms.getADEManager().getCache();
+        CmsFile file = cms.readFile(resource);
+        String key = cache.getXmlContentCacheKey(file, true);
+        CmsXmlContent first = CmsXmlContentFactory.unmarshal(cms, file);
+        assertNotNull(cache.getCacheXmlContent(key));
+        assertNotNull(first.getValue("VfsLink", Locale.ENGLISH));
+
+        // the cache hit must be a separate instance equal to the unmarshalled content
+        CmsXmlContent second = CmsXmlContentFactory.unmarshal(cms, cms.readFile(resource));
+        assertNotSame(first, second);
+        assertEquals(first.toString(), second.toString());
+        assertEquals(first.getLocales(), second.getLocales());
+        assertEquals(first.getNames(Locale.ENGLISH), second.getNames(Locale.ENGLISH));
+        assertLink(getVfsFileRefLink(cms, first, "VfsLink"), getVfsFileRefLink(cms, second, "VfsLink"), true);
+
+        // changing the returned instance must not change the cached content
+        second.removeValue("VfsLink", Locale.ENGLISH, 0);
+        CmsXmlContent third = CmsXmlContentFactory.unmarshal(cms, cms.readFile(resource));
+        assertEquals(first.toString(), third.toString());
+    }
+
+    /**
+     * Tests that the links of cached online XML contents are validated for each request.<p>
+     *
+     * @throws Exception in case something goes wrong
+     */
+    public void testOnlineCacheLinkVisibility() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing the link validation of cached online XML contents");
+
+        long released = System.currentTimeMillis() + 1000000;
+        CmsResource resource = createOnlineTestContent(cms, "/xmlcache2/", released);
+        cms.getRequestContext().setCurrentProject(cms.readProject(CmsProject.ONLINE_PROJECT_ID));
+
+        // the link target is not released yet, so the link is removed
+        CmsXmlContent content = CmsXmlContentFactory.unmarshal(cms, cms.readFile(resource));
+        assertNull(content.getValue("VfsLink", Locale.ENGLISH));
+        CmsADECache cache = OpenCms.getADEManager().getCache();
+        assertNotNull(cache.getCacheXmlContent(cache.getXmlContentCacheKey(resource, true)));
+
+        // after the release date, the link read from the cache is valid
+        cms.getRequestContext().setRequestTime(released + 1000);
+        content = CmsXmlContentFactory.unmarshal(cms, cms.readFile(resource));
+        assertNotNull(content.getValue("VfsLink", Locale.ENGLISH));
+
+        // before the release date, the link read from the cache is removed again
+        cms.getRequestContext().setRequestTime(System.currentTimeMillis());
+        content = CmsXmlContentFactory.unmarshal(cms, cms.readFile(resource));
+        assertNull(content.getValue("VfsLink", Locale.ENGLISH));
+    }
+
     /**
      * Test the relation type configuration in xml content.<p>
      *
@@ -1100,6 +1168,41 @@ public class TestCmsXmlContentLinks extends OpenCmsTestCase {
         cms.writeFile(file);
     }
 
+    /**
+     * Creates and publishes a folder with an XML content that links to a file in the same folder.<p>
+     *
+     * @param cms the cms context
+     * @param folder the site path of the folder to create
+     * @param targetReleased the release date of the link target, or 0 to keep the default
+     *
+     * @return the XML content
+     *
+     * @throws Exception if something goes wrong
+     */
+    private CmsResource createOnlineTestContent(CmsObject cms, String folder, long targetReleased) throws Exception {
+
+        cms.createResource(folder, CmsResourceTypeFolder.getStaticTypeId());
+        String target = folder + "target.gif";
+        cms.createResource(target, CmsResourceTypePlain.getStaticTypeId());
+        if (targetReleased > 0) {
+            cms.setDateReleased(target, targetReleased, false);
+        }
+        String data = CmsFileUtil.readFile("org/opencms/xml/content/xmlcontent-13.xml", CmsEncoder.ENCODING_UTF_8);
+        data = data.replace(cms.getRequestContext().addSiteRoot(FILENAME), cms.getRequestContext().addSiteRoot(target));
+        // the links are resolved by their target path
+        data = data.replaceAll("<uuid>[^<]*</uuid>", "");
+        int xmlcontentType = OpenCms.getResourceManager().getResourceType("xmlcontent").getTypeId();
+        CmsResource content = cms.createResource(
+            folder + "content.xml",
+            xmlcontentType,
+            data.getBytes(CmsEncoder.ENCODING_UTF_8),
+            Collections.<CmsProperty> emptyList());
+        cms.unlockResource(folder);
+        OpenCms.getPublishManager().publishResource(cms, folder);
+        OpenCms.getPublishManager().waitWhileRunning();
+        return content;
+    }
+
     /**
      * Creates a test file for the testSiteLinks test.<p>
      *